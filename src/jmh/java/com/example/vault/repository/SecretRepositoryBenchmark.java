@@ -0,0 +1,119 @@
+package com.example.vault.repository;
+
+import com.example.vault.VaultApplication;
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.Secret;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Limit;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecretRepository queries on the request path against embedded H2.
+ * Secrets are spread over {@code pathCount} paths with {@code versionsPerKey} versions each.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecretRepositoryBenchmark {
+
+    private static final int KEYS_PER_PATH = 10;
+
+    private static final byte[] PLACEHOLDER_VALUE = "ciphertext-placeholder".getBytes(StandardCharsets.UTF_8);
+
+    @Param({"10", "500"})
+    private int pathCount;
+
+    @Param({"1", "20"})
+    private int versionsPerKey;
+
+    private ConfigurableApplicationContext context;
+    private SecretRepository secretRepository;
+    private String path;
+    private String key;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(VaultApplication.class)
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "vault.replication.enabled=false",
+                        "logging.level.root=WARN",
+                        "logging.level.com.example.vault=WARN")
+                .run();
+        secretRepository = context.getBean(SecretRepository.class);
+        Identity owner = context.getBean(IdentityRepository.class).findByName("admin").orElseThrow();
+
+        List<Secret> secrets = new ArrayList<>();
+        for (int p = 0; p < pathCount; p++) {
+            for (int k = 0; k < KEYS_PER_PATH; k++) {
+                for (int v = 1; v <= versionsPerKey; v++) {
+                    Secret secret = new Secret("bench/team-" + p, "key-" + k, PLACEHOLDER_VALUE, owner);
+                    secret.setVersion(v);
+                    secrets.add(secret);
+                }
+            }
+            if (secrets.size() >= 5000) {
+                secretRepository.saveAll(secrets);
+                secrets.clear();
+            }
+        }
+        secretRepository.saveAll(secrets);
+
+        path = "bench/team-" + (pathCount / 2);
+        key = "key-" + (KEYS_PER_PATH / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Secret> findLatest() {
+        return secretRepository.findByPathAndKeyAndDeletedFalse(path, key);
+    }
+
+    @Benchmark
+    public Optional<Integer> findLatestVersionHead() {
+        return secretRepository.findLatestVersionByPathAndKey(path, key);
+    }
+
+    @Benchmark
+    public Integer findMaxVersion() {
+        return secretRepository.findMaxVersionByPathAndKey(path, key);
+    }
+
+    @Benchmark
+    public List<SecretVersionSummary> listVersionHistory() {
+        return secretRepository.findVersionSummariesByPathAndKey(path, key);
+    }
+
+    @Benchmark
+    public List<String> listPathPrefixes() {
+        return secretRepository.findPathsByPrefix("bench/team-1");
+    }
+
+    @Benchmark
+    public List<SecretPathKey> listPathKeys() {
+        return secretRepository.findKeysUnder(path, false, path + "/%");
+    }
+
+    @Benchmark
+    public List<SecretPathKey> listSubtreePageFromMiddle() {
+        return secretRepository.findKeysUnderAfter("bench", true, "bench/%", path, key, Limit.of(100));
+    }
+}
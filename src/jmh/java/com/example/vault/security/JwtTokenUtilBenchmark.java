@@ -0,0 +1,48 @@
+package com.example.vault.security;
+
+import com.example.vault.metrics.VaultMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT issue and verify cost; verification runs on every authenticated request.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenUtilBenchmark {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "benchmarkSecretKey1234567890123456789012345678901234567890");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 3600L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        token = jwtTokenUtil.generateToken("benchmark-user", "USER", List.of("developer", "service-read"));
+    }
+
+    @Benchmark
+    public String issue() {
+        return jwtTokenUtil.generateToken("benchmark-user", "USER", List.of("developer", "service-read"));
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return jwtTokenUtil.validateToken(token, "benchmark-user");
+    }
+
+    @Benchmark
+    public List<String> readPolicies() {
+        return jwtTokenUtil.getPoliciesFromToken(token);
+    }
+}
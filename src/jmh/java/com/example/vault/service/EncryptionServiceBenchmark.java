@@ -0,0 +1,78 @@
+package com.example.vault.service;
+
+import com.example.vault.metrics.VaultMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AES-GCM encrypt and decrypt cost across secret value sizes, for the binary value format
+ * secrets are stored in and for the Base64 text format it replaced. {@code decryptValues}
+ * decrypts a 1000-version range on the bulk pool; compare it with 1000 times {@code decryptValue}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionServiceBenchmark {
+
+    @Param({"32", "1024", "65536"})
+    private int valueSize;
+
+    private EncryptionService encryptionService;
+    private String plaintext;
+    private String ciphertext;
+    private byte[] value;
+    private List<byte[]> values;
+
+    @Setup
+    public void setUp() {
+        encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "encryptionKey", "benchmarkEncryptionKey32Chars!!!");
+        ReflectionTestUtils.setField(encryptionService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        plaintext = "x".repeat(valueSize);
+        ciphertext = encryptionService.encrypt(plaintext);
+        value = encryptionService.encryptValue(plaintext);
+        values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            values.add(encryptionService.encryptValue(plaintext));
+        }
+        encryptionService.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        encryptionService.stop();
+    }
+
+    @Benchmark
+    public byte[] encryptValue() {
+        return encryptionService.encryptValue(plaintext);
+    }
+
+    @Benchmark
+    public String decryptValue() {
+        return encryptionService.decryptValue(value);
+    }
+
+    @Benchmark
+    public List<String> decryptValues() {
+        return encryptionService.decryptValues(values);
+    }
+
+    @Benchmark
+    public String encrypt() {
+        return encryptionService.encrypt(plaintext);
+    }
+
+    @Benchmark
+    public String decrypt() {
+        return encryptionService.decrypt(ciphertext);
+    }
+}
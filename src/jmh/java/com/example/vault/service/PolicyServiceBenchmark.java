@@ -0,0 +1,84 @@
+package com.example.vault.service;
+
+import com.example.vault.entity.Policy;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.PolicyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Policy evaluation cost by number of policies held and rules per policy.
+ * The repository is an in-memory stub so only rule matching is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PolicyServiceBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int policyCount;
+
+    @Param({"10", "1000"})
+    private int rulesPerPolicy;
+
+    private PolicyService policyService;
+    private List<String> policyNames;
+
+    @Setup
+    public void setUp() {
+        Map<String, Policy> policies = new HashMap<>();
+        policyNames = new ArrayList<>();
+        for (int p = 0; p < policyCount; p++) {
+            String name = "policy-" + p;
+            Set<String> rules = new HashSet<>();
+            for (int r = 0; r < rulesPerPolicy; r++) {
+                rules.add("read:team-" + p + "/service-" + r + "/*");
+            }
+            Policy policy = new Policy(name, "benchmark policy");
+            policy.setRules(rules);
+            policies.put(name, policy);
+            policyNames.add(name);
+        }
+
+        PolicyRepository repository = (PolicyRepository) Proxy.newProxyInstance(
+                PolicyRepository.class.getClassLoader(),
+                new Class<?>[]{PolicyRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findByName")) {
+                        return Optional.ofNullable(policies.get((String) args[0]));
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        policyService = new PolicyService();
+        ReflectionTestUtils.setField(policyService, "policyRepository", repository);
+        ReflectionTestUtils.setField(policyService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Benchmark
+    public boolean allowedByLastRule() {
+        // Worst allowed case: every other policy and rule is evaluated first
+        int lastPolicy = policyCount - 1;
+        return policyService.hasAccess(policyNames,
+                "team-" + lastPolicy + "/service-" + (rulesPerPolicy - 1) + "/password", "read");
+    }
+
+    @Benchmark
+    public boolean denied() {
+        return policyService.hasAccess(policyNames, "other-team/service/password", "read");
+    }
+}
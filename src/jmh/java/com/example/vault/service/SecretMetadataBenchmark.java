@@ -0,0 +1,46 @@
+package com.example.vault.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secret metadata JSON round trip as done on every secret write and read.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SecretMetadataBenchmark {
+
+    @Param({"2", "50"})
+    private int entryCount;
+
+    private SecretService secretService;
+    private Map<String, Object> metadata;
+    private String serialized;
+
+    @Setup
+    public void setUp() {
+        secretService = new SecretService();
+        metadata = new LinkedHashMap<>();
+        for (int i = 0; i < entryCount; i++) {
+            metadata.put("label-" + i, "value-" + i);
+        }
+        serialized = secretService.serializeMetadata(metadata);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return secretService.serializeMetadata(metadata);
+    }
+
+    @Benchmark
+    public Map<String, Object> deserialize() {
+        return secretService.deserializeMetadata(serialized);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.TransitResult;
+import com.example.vault.entity.TransitKey;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.TransitKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Transit batch throughput. The {@code bytes} counter is reported as plaintext bytes per second;
+ * divide by 1,048,576 for MB/s. Compare batchSize 1 with 10000 to see what per-request overhead
+ * and the parallel workers are worth.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransitServiceBenchmark {
+
+    private static final List<String> POLICIES = List.of("admin");
+
+    @Param({"1", "100", "10000"})
+    private int batchSize;
+
+    @Param({"64", "4096"})
+    private int itemSize;
+
+    private TransitService transitService;
+    private List<String> plaintexts;
+    private List<String> ciphertexts;
+
+    /**
+     * Plaintext bytes processed, reported by JMH as a rate
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Bytes {
+        public long bytes;
+    }
+
+    @Setup
+    public void setUp() {
+        EncryptionService encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "encryptionKey", "benchmarkEncryptionKey32Chars!!!");
+        ReflectionTestUtils.setField(encryptionService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        PolicyService policyService = mock(PolicyService.class);
+        when(policyService.hasAccess(any(), anyString(), anyString())).thenReturn(true);
+
+        List<TransitKey> keys = new ArrayList<>();
+        TransitKeyRepository keyRepository = mock(TransitKeyRepository.class);
+        when(keyRepository.save(any(TransitKey.class))).thenAnswer(invocation -> {
+            keys.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(keyRepository.findByNameOrderByVersionAsc("bench")).thenAnswer(invocation -> List.copyOf(keys));
+
+        transitService = new TransitService();
+        ReflectionTestUtils.setField(transitService, "keyRepository", keyRepository);
+        ReflectionTestUtils.setField(transitService, "encryptionService", encryptionService);
+        ReflectionTestUtils.setField(transitService, "policyService", policyService);
+        ReflectionTestUtils.setField(transitService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        transitService.start();
+        transitService.createKey("bench", POLICIES);
+
+        Random random = new Random(42);
+        plaintexts = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            byte[] item = new byte[itemSize];
+            random.nextBytes(item);
+            plaintexts.add(Base64.getEncoder().encodeToString(item));
+        }
+        ciphertexts = transitService.encrypt("bench", plaintexts, POLICIES).orElseThrow().stream()
+                .map(TransitResult::value)
+                .toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        transitService.stop();
+    }
+
+    @Benchmark
+    public List<TransitResult> encrypt(Bytes counter) {
+        counter.bytes += (long) batchSize * itemSize;
+        return transitService.encrypt("bench", plaintexts, POLICIES).orElseThrow();
+    }
+
+    @Benchmark
+    public List<TransitResult> decrypt(Bytes counter) {
+        counter.bytes += (long) batchSize * itemSize;
+        return transitService.decrypt("bench", ciphertexts, POLICIES).orElseThrow();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.vault.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dynamic database credential engine, bound from {@code vault.engines.database}.
+ *
+ * The vault connects to the target database as {@code username} and runs each role's creation
+ * statements to make a credential and its revocation statements to remove it. Statements may use
+ * {@code {{name}}} and {@code {{password}}}, which are replaced with the generated user name and
+ * password.
+ */
+@Component
+@ConfigurationProperties(prefix = "vault.engines.database")
+public class DatabaseEngineProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * JDBC URL of the target database
+     */
+    private String url;
+
+    /**
+     * Account the vault uses to create and drop users; needs rights to do both
+     */
+    private String username;
+
+    private String password;
+
+    /**
+     * Name of this vault instance, recorded with the users it pools so a restart only drops its
+     * own. Must be unique and stable across restarts; defaults to the host name.
+     */
+    private String instanceId;
+
+    /**
+     * Milliseconds between sweeps for expired credentials
+     */
+    private long sweepInterval = 1000;
+
+    private Map<String, Role> roles = new LinkedHashMap<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+
+    public String getPassword() { return password; }
+    public void setPassword(String password) { this.password = password; }
+
+    public String getInstanceId() { return instanceId; }
+    public void setInstanceId(String instanceId) { this.instanceId = instanceId; }
+
+    public long getSweepInterval() { return sweepInterval; }
+    public void setSweepInterval(long sweepInterval) { this.sweepInterval = sweepInterval; }
+
+    public Map<String, Role> getRoles() { return roles; }
+    public void setRoles(Map<String, Role> roles) { this.roles = roles; }
+
+    public static class Role {
+        private List<String> creationStatements = new ArrayList<>();
+        private List<String> revocationStatements = new ArrayList<>();
+
+        /**
+         * Seconds an issued credential lives before it is revoked
+         */
+        private long ttl = 3600;
+
+        /**
+         * Credentials created ahead of demand and kept ready to hand out
+         */
+        private int poolSize = 10;
+
+        public List<String> getCreationStatements() { return creationStatements; }
+        public void setCreationStatements(List<String> creationStatements) { this.creationStatements = creationStatements; }
+
+        public List<String> getRevocationStatements() { return revocationStatements; }
+        public void setRevocationStatements(List<String> revocationStatements) { this.revocationStatements = revocationStatements; }
+
+        public long getTtl() { return ttl; }
+        public void setTtl(long ttl) { this.ttl = ttl; }
+
+        public int getPoolSize() { return poolSize; }
+        public void setPoolSize(int poolSize) { this.poolSize = poolSize; }
+    }
+}
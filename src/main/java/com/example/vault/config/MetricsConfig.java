@@ -0,0 +1,29 @@
+package com.example.vault.config;
+
+import com.example.vault.metrics.MeteredCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Wrap whichever cache manager spring.cache.type selects so cache hits and misses are counted
+     */
+    @Bean
+    public static BeanPostProcessor meteredCacheManagerPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof CacheManager cacheManager && !(bean instanceof MeteredCacheManager)) {
+                    return new MeteredCacheManager(cacheManager, meterRegistry.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
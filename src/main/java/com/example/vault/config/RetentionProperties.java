@@ -0,0 +1,88 @@
+package com.example.vault.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Secret version retention, bound from {@code vault.retention}.
+ *
+ * The top-level limits apply everywhere; each entry under {@code paths} overrides them for
+ * secrets at or below its prefix, the longest matching prefix winning. A limit of 0 disables
+ * it, and a path rule that leaves a limit unset inherits the global value.
+ */
+@Component
+@ConfigurationProperties(prefix = "vault.retention")
+public class RetentionProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Live versions kept per key, including the current one
+     */
+    private int maxVersions = 0;
+
+    /**
+     * Days after creation before a non-current version is purged
+     */
+    private int maxAgeDays = 0;
+
+    /**
+     * Days after soft deletion before a deleted version is purged
+     */
+    private int deletedRetentionDays = 0;
+
+    /**
+     * Keys examined per compaction transaction
+     */
+    private int batchSize = 200;
+
+    /**
+     * Pause between batches in milliseconds, bounding the load the compactor puts on the database
+     */
+    private long batchPause = 100;
+
+    private List<PathRule> paths = new ArrayList<>();
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getMaxVersions() { return maxVersions; }
+    public void setMaxVersions(int maxVersions) { this.maxVersions = maxVersions; }
+
+    public int getMaxAgeDays() { return maxAgeDays; }
+    public void setMaxAgeDays(int maxAgeDays) { this.maxAgeDays = maxAgeDays; }
+
+    public int getDeletedRetentionDays() { return deletedRetentionDays; }
+    public void setDeletedRetentionDays(int deletedRetentionDays) { this.deletedRetentionDays = deletedRetentionDays; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getBatchPause() { return batchPause; }
+    public void setBatchPause(long batchPause) { this.batchPause = batchPause; }
+
+    public List<PathRule> getPaths() { return paths; }
+    public void setPaths(List<PathRule> paths) { this.paths = paths; }
+
+    public static class PathRule {
+        private String prefix;
+        private Integer maxVersions;
+        private Integer maxAgeDays;
+        private Integer deletedRetentionDays;
+
+        public String getPrefix() { return prefix; }
+        public void setPrefix(String prefix) { this.prefix = prefix; }
+
+        public Integer getMaxVersions() { return maxVersions; }
+        public void setMaxVersions(Integer maxVersions) { this.maxVersions = maxVersions; }
+
+        public Integer getMaxAgeDays() { return maxAgeDays; }
+        public void setMaxAgeDays(Integer maxAgeDays) { this.maxAgeDays = maxAgeDays; }
+
+        public Integer getDeletedRetentionDays() { return deletedRetentionDays; }
+        public void setDeletedRetentionDays(Integer deletedRetentionDays) { this.deletedRetentionDays = deletedRetentionDays; }
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.vault.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Secret version tiering, bound from {@code vault.tiering}.
+ *
+ * A version moves to the archive once it falls outside the newest {@code keepVersions} of its
+ * key or is older than {@code minAgeDays}; a limit of 0 disables it. The highest version and
+ * the current value of a key always stay in the hot table.
+ */
+@Component
+@ConfigurationProperties(prefix = "vault.tiering")
+public class TieringProperties {
+
+    private boolean enabled = false;
+
+    /**
+     * Newest versions per key kept in the hot table
+     */
+    private int keepVersions = 3;
+
+    /**
+     * Days after creation before a non-current version is archived
+     */
+    private int minAgeDays = 0;
+
+    /**
+     * Keys examined per tiering transaction
+     */
+    private int batchSize = 200;
+
+    /**
+     * Pause between batches in milliseconds, bounding the load the job puts on the database
+     */
+    private long batchPause = 100;
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public int getKeepVersions() { return keepVersions; }
+    public void setKeepVersions(int keepVersions) { this.keepVersions = keepVersions; }
+
+    public int getMinAgeDays() { return minAgeDays; }
+    public void setMinAgeDays(int minAgeDays) { this.minAgeDays = minAgeDays; }
+
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+
+    public long getBatchPause() { return batchPause; }
+    public void setBatchPause(long batchPause) { this.batchPause = batchPause; }
+}
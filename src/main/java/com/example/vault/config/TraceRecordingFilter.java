@@ -0,0 +1,102 @@
+package com.example.vault.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Records API traffic as a JSON Lines trace that the load generator can replay.
+ *
+ * Only arrival offset, method, URI and status are written; headers and bodies, and with them
+ * tokens and secret values, are never recorded. Enabled by setting {@code vault.trace.record-file}.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.trace.record-file")
+public class TraceRecordingFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TraceRecordingFilter.class);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long startNanos = System.nanoTime();
+    private final BufferedWriter writer;
+    
+    // The servlet container also manages this filter's lifecycle, so the file is opened here and
+    // closed in destroy() rather than through lifecycle annotations
+    public TraceRecordingFilter(@Value("${vault.trace.record-file}") String recordFile) throws IOException {
+        Path path = Path.of(recordFile);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        logger.warn("Recording API request trace to {}", path.toAbsolutePath());
+    }
+    
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            logger.warn("Failed to close request trace", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/v1/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        long offsetNanos = System.nanoTime() - startNanos;
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            record(offsetNanos, request, response.getStatus());
+        }
+    }
+    
+    private void record(long offsetNanos, HttpServletRequest request, int status) {
+        String uri = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("offset_ms", offsetNanos / 1_000_000.0);
+        entry.put("method", request.getMethod());
+        entry.put("uri", uri);
+        entry.put("status", status);
+        
+        lock.lock();
+        try {
+            writer.write(objectMapper.writeValueAsString(entry));
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            logger.warn("Failed to record request trace entry", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.vault.config;
 
 import com.example.vault.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,6 +32,8 @@ public class VaadinSecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
+                // Completion of async responses (secret watches); the original request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 // Public API endpoints
                 .requestMatchers("/v1/auth/**").permitAll()
                 .requestMatchers("/v1/sys/health").permitAll()
@@ -45,8 +48,8 @@ public class VaadinSecurityConfig {
                 .requestMatchers("/h2-console/**").permitAll()
                 // Vaadin UI paths - allow access for now
                 .requestMatchers("/", "/secrets/**", "/VAADIN/**", "/vite.json").permitAll()
-                // Admin and Secret API endpoints require authentication
-                .requestMatchers("/v1/admin/**", "/v1/secret/**").authenticated()
+                // Admin, Secret and secrets engine API endpoints require authentication
+                .requestMatchers("/v1/admin/**", "/v1/secret/**", "/v1/engines/**", "/v1/transit/**", "/v1/blob/**").authenticated()
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
@@ -2,6 +2,7 @@ package com.example.vault.controller;
 
 import com.example.vault.dto.AuthRequest;
 import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.ServiceTokenService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -34,6 +35,9 @@ public class AuthController {
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Autowired
+    private ServiceTokenService serviceTokenService;
+    
     @Operation(
             summary = "Authenticate user and get JWT token",
             description = "Authenticates a user with username and password, returns a JWT token for subsequent API calls"
@@ -166,6 +170,94 @@ public class AuthController {
         return ResponseEntity.ok(response);
     }
     
+    @Operation(
+            summary = "Renew an opaque service token",
+            description = "Extends the lease of an opaque service token, capped at the configured maximum TTL"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200", 
+                    description = "Token renewed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "message": "Token renewed",
+                                      "expires_at": "2024-01-15T11:30:00",
+                                      "policies": ["service-read"],
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Invalid token format"),
+            @ApiResponse(responseCode = "404", description = "Token not found or expired")
+    })
+    @PostMapping("/token/renew")
+    public ResponseEntity<Map<String, Object>> renewToken(
+            @Parameter(description = "Bearer service token in Authorization header", example = "Bearer s.Vg3mB2kq0yJQ...")
+            @RequestHeader("Authorization") String authHeader,
+            @Parameter(description = "Requested lease extension in seconds, defaults to the token's TTL")
+            @RequestParam(required = false) Long increment) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            response.put("success", false);
+            response.put("message", "Invalid token format");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        Optional<ServiceTokenService.TokenLease> leaseOpt = serviceTokenService.renewToken(authHeader.substring(7), increment);
+        if (leaseOpt.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Token not found or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("message", "Token renewed");
+        response.put("expires_at", leaseOpt.get().expiresAt());
+        response.put("policies", leaseOpt.get().policies());
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(
+            summary = "Revoke an opaque service token",
+            description = "Revokes the opaque service token presented in the Authorization header"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token revoked"),
+            @ApiResponse(responseCode = "400", description = "Invalid token format"),
+            @ApiResponse(responseCode = "404", description = "Token not found or expired")
+    })
+    @PostMapping("/token/revoke")
+    public ResponseEntity<Map<String, Object>> revokeToken(
+            @Parameter(description = "Bearer service token in Authorization header", example = "Bearer s.Vg3mB2kq0yJQ...")
+            @RequestHeader("Authorization") String authHeader) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            response.put("success", false);
+            response.put("message", "Invalid token format");
+            return ResponseEntity.badRequest().body(response);
+        }
+        
+        if (!serviceTokenService.revokeToken(authHeader.substring(7))) {
+            response.put("success", false);
+            response.put("message", "Token not found or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("message", "Token revoked");
+        return ResponseEntity.ok(response);
+    }
+    
     @Operation(
             summary = "Get authentication status",
             description = "Returns the current authentication status and associated policies if authenticated"
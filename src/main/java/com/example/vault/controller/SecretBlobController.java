@@ -0,0 +1,163 @@
+package com.example.vault.controller;
+
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.SecretBlob;
+import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.SecretBlobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/blob")
+@Tag(name = "Blobs", description = "Large binary secrets, streamed in and out")
+@SecurityRequirement(name = "bearerAuth")
+public class SecretBlobController {
+
+    @Autowired
+    private SecretBlobService secretBlobService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Operation(
+            summary = "Upload a blob",
+            description = "Stores the raw request body as the next version of the blob, encrypting it as it arrives. "
+                    + "Requires create access to <path>/<key> for the first version and update access after that."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Blob stored"),
+            @ApiResponse(responseCode = "400", description = "Invalid path or blob too large"),
+            @ApiResponse(responseCode = "409", description = "Another upload of the same blob finished first"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PutMapping(value = "/{path:.+}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Map<String, Object>> writeBlob(
+            @Parameter(description = "Blob storage path", example = "app/tls")
+            @PathVariable String path,
+            @Parameter(description = "Blob key name", example = "keystore")
+            @RequestParam String key,
+            HttpServletRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) throws IOException {
+
+        String token = extractToken(authHeader);
+        Optional<Identity> identityOpt = authenticationService.getIdentityFromToken(token);
+
+        if (identityOpt.isEmpty()) {
+            throw new SecurityException("Invalid or expired token");
+        }
+
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        SecretBlob blob = secretBlobService.write(path, key, request.getInputStream(), identityOpt.get(), policies);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("success", true);
+        response.put("message", "Blob stored successfully");
+        response.put("path", path + "/" + key);
+        response.put("version", blob.getVersion());
+        response.put("size", blob.getSize());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Download a blob",
+            description = "Streams the decrypted content of the newest version, or of the given version. "
+                    + "The version served is returned in the X-Vault-Version header."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Blob content"),
+            @ApiResponse(responseCode = "404", description = "Blob not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping("/{path:.+}")
+    public ResponseEntity<StreamingResponseBody> readBlob(
+            @Parameter(description = "Blob storage path", example = "app/tls")
+            @PathVariable String path,
+            @Parameter(description = "Blob key name", example = "keystore")
+            @RequestParam String key,
+            @Parameter(description = "Version to read; the newest when omitted")
+            @RequestParam(required = false) Integer version,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        Optional<SecretBlob> blobOpt = secretBlobService.find(path, key, version, authorize(authHeader));
+
+        if (blobOpt.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        SecretBlob blob = blobOpt.get();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .contentLength(blob.getSize())
+                .header("X-Vault-Version", String.valueOf(blob.getVersion()))
+                .body(out -> secretBlobService.copyTo(blob, out));
+    }
+
+    @Operation(
+            summary = "Delete a blob",
+            description = "Permanently removes every version of the blob"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Blob deleted"),
+            @ApiResponse(responseCode = "404", description = "Blob not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @DeleteMapping("/{path:.+}")
+    public ResponseEntity<Map<String, Object>> deleteBlob(
+            @Parameter(description = "Blob storage path", example = "app/tls")
+            @PathVariable String path,
+            @Parameter(description = "Blob key name", example = "keystore")
+            @RequestParam String key,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        boolean deleted = secretBlobService.delete(path, key, authorize(authHeader));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (!deleted) {
+            response.put("success", false);
+            response.put("message", "Blob not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        response.put("success", true);
+        response.put("message", "Blob deleted successfully");
+        return ResponseEntity.ok(response);
+    }
+
+    private List<String> authorize(String authHeader) {
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        return policies;
+    }
+
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        throw new SecurityException("Missing or invalid Authorization header");
+    }
+}
@@ -1,9 +1,14 @@
 package com.example.vault.controller;
 
+import com.example.vault.dto.SecretLeaseState;
 import com.example.vault.dto.SecretRequest;
 import com.example.vault.entity.Identity;
 import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.SecretChangeIndex;
+import com.example.vault.service.SecretChangeStream;
+import com.example.vault.service.SecretLeaseService;
 import com.example.vault.service.SecretService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,15 +22,23 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
 
 @RestController
 @RequestMapping("/v1/secret")
@@ -41,6 +54,24 @@ public class SecretsController {
     @Autowired
     private AuthenticationService authenticationService;
     
+    @Autowired
+    private SecretChangeIndex secretChangeIndex;
+    
+    @Autowired
+    private SecretChangeStream secretChangeStream;
+    
+    @Autowired
+    private SecretLeaseService secretLeaseService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${vault.watch.default-wait:60}")
+    private long defaultWaitSeconds;
+    
+    @Value("${vault.watch.max-wait:300}")
+    private long maxWaitSeconds;
+    
     @Operation(
             summary = "Create a new secret",
             description = "Creates a new secret at the specified path with the given key and value"
@@ -86,13 +117,16 @@ public class SecretsController {
         List<String> policies = authenticationService.getPoliciesFromToken(token);
         
         secretService.createSecret(path, key, request.getValue(), request.getMetadata(), 
-                                  identityOpt.get(), policies);
+                                  identityOpt.get(), policies, request.getTtl());
         
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("success", true);
         response.put("message", "Secret created successfully");
         response.put("path", path + "/" + key);
+        if (request.getTtl() != null) {
+            secretLeaseService.findLease(path, key).ifPresent(lease -> putLease(response, lease));
+        }
         
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -123,6 +157,7 @@ public class SecretsController {
                             )
                     )
             ),
+            @ApiResponse(responseCode = "304", description = "Secret unchanged since the version in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Secret not found"),
             @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
             @ApiResponse(responseCode = "403", description = "Insufficient permissions")
@@ -136,7 +171,9 @@ public class SecretsController {
             @Parameter(description = "Optional version number to retrieve specific version")
             @RequestParam(required = false) Integer version,
             @Parameter(description = "Bearer token for authentication")
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @Parameter(description = "ETag from a previous read; returns 304 if the secret is unchanged")
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
         
         String token = extractToken(authHeader);
         List<String> policies = authenticationService.getPoliciesFromToken(token);
@@ -145,6 +182,14 @@ public class SecretsController {
             throw new SecurityException("Invalid or expired token");
         }
         
+        // Conditional read: answer from the version head before fetching or decrypting the value
+        if (ifNoneMatch != null) {
+            Optional<String> currentETag = secretService.getSecretETag(path, key, version, policies);
+            if (currentETag.isPresent() && eTagMatches(ifNoneMatch, currentETag.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(currentETag.get()).build();
+            }
+        }
+        
         Optional<Map<String, Object>> secretOpt = secretService.getSecret(path, key, version, policies);
         
         if (secretOpt.isEmpty()) {
@@ -161,12 +206,51 @@ public class SecretsController {
         response.put("path", path + "/" + key);
         response.put("data", secretOpt.get());
         
-        return ResponseEntity.ok(response);
+        // Derive the ETag from the version actually returned so it always matches the body
+        String eTag = SecretService.computeETag(path, key, (Integer) secretOpt.get().get("version"), false);
+        return ResponseEntity.ok().eTag(eTag).body(response);
+    }
+    
+    @Operation(
+            summary = "Check a secret for changes",
+            description = "Returns the secret's ETag without reading or decrypting its value; honours If-None-Match"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Secret exists; ETag header identifies the current version"),
+            @ApiResponse(responseCode = "304", description = "Secret unchanged since the version in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Secret not found"),
+            @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @RequestMapping(value = "/{path:.+}", method = RequestMethod.HEAD)
+    public ResponseEntity<Void> headSecret(
+            @Parameter(description = "Secret storage path", example = "app/config/database")
+            @PathVariable String path,
+            @Parameter(description = "Secret key name", example = "password")
+            @RequestParam String key,
+            @Parameter(description = "Optional version number to check a specific version")
+            @RequestParam(required = false) Integer version,
+            @Parameter(description = "Bearer token for authentication")
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        Optional<String> eTag = secretService.getSecretETag(path, key, version, policies);
+        if (eTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        // A 200 with an ETag is turned into a 304 by Spring when If-None-Match matches
+        return ResponseEntity.ok().eTag(eTag.get()).build();
     }
     
     @Operation(
             summary = "Update an existing secret",
-            description = "Updates an existing secret, creating a new version"
+            description = "Updates an existing secret, creating a new version. With cas, the update is only made if cas is still the newest version."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -188,6 +272,7 @@ public class SecretsController {
                     )
             ),
             @ApiResponse(responseCode = "404", description = "Secret not found"),
+            @ApiResponse(responseCode = "409", description = "The newest version is not the cas version"),
             @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
             @ApiResponse(responseCode = "403", description = "Insufficient permissions")
     })
@@ -197,6 +282,8 @@ public class SecretsController {
             @PathVariable String path,
             @Parameter(description = "Secret key name", example = "password")
             @RequestParam String key,
+            @Parameter(description = "Only write if this is still the newest version", example = "3")
+            @RequestParam(required = false) Integer cas,
             @Valid @RequestBody SecretRequest request,
             @Parameter(description = "Bearer token for authentication")
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
@@ -211,7 +298,7 @@ public class SecretsController {
         List<String> policies = authenticationService.getPoliciesFromToken(token);
         
         Optional<com.example.vault.entity.Secret> updatedSecret = secretService.updateSecret(
-            path, key, request.getValue(), request.getMetadata(), identityOpt.get(), policies);
+            path, key, request.getValue(), request.getMetadata(), identityOpt.get(), policies, cas, request.getTtl());
         
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
@@ -221,6 +308,9 @@ public class SecretsController {
             response.put("message", "Secret updated successfully");
             response.put("path", path + "/" + key);
             response.put("version", updatedSecret.get().getVersion());
+            if (request.getTtl() != null) {
+                secretLeaseService.findLease(path, key).ifPresent(lease -> putLease(response, lease));
+            }
             return ResponseEntity.ok(response);
         } else {
             response.put("success", false);
@@ -288,7 +378,8 @@ public class SecretsController {
     
     @Operation(
             summary = "List secrets at a path",
-            description = "Lists all secret keys available at the specified path"
+            description = "Lists all secret keys available at the specified path. With limit, returns one page " +
+                    "ordered by path and key plus a next_cursor to pass as after; next_cursor is null on the last page."
     )
     @ApiResponses(value = {
             @ApiResponse(
@@ -296,19 +387,36 @@ public class SecretsController {
                     description = "Secrets listed successfully",
                     content = @Content(
                             mediaType = "application/json",
-                            examples = @ExampleObject(
-                                    value = """
-                                    {
-                                      "success": true,
-                                      "path": "app/config/database",
-                                      "keys": ["password", "username", "host"],
-                                      "count": 3,
-                                      "timestamp": "2024-01-15T10:30:00"
-                                    }
-                                    """
-                            )
+                            examples = {
+                                    @ExampleObject(
+                                            name = "All keys",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "path": "app/config/database",
+                                              "keys": ["password", "username", "host"],
+                                              "count": 3,
+                                              "timestamp": "2024-01-15T10:30:00"
+                                            }
+                                            """
+                                    ),
+                                    @ExampleObject(
+                                            name = "One page",
+                                            value = """
+                                            {
+                                              "success": true,
+                                              "path": "app",
+                                              "keys": ["app/config/database/host", "app/config/database/password"],
+                                              "count": 2,
+                                              "next_cursor": "YXBwL2NvbmZpZy9kYXRhYmFzZQBwYXNzd29yZA",
+                                              "timestamp": "2024-01-15T10:30:00"
+                                            }
+                                            """
+                                    )
+                            }
                     )
             ),
+            @ApiResponse(responseCode = "400", description = "Invalid limit or cursor"),
             @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
             @ApiResponse(responseCode = "403", description = "Insufficient permissions")
     })
@@ -318,6 +426,10 @@ public class SecretsController {
             @PathVariable String path,
             @Parameter(description = "Whether to list recursively through subdirectories")
             @RequestParam(defaultValue = "false") boolean recursive,
+            @Parameter(description = "Page size; omit to list everything in one response")
+            @RequestParam(required = false) Integer limit,
+            @Parameter(description = "Cursor from the previous page's next_cursor")
+            @RequestParam(required = false) String after,
             @Parameter(description = "Bearer token for authentication")
             @RequestHeader(value = "Authorization", required = false) String authHeader) {
         
@@ -328,18 +440,83 @@ public class SecretsController {
             throw new SecurityException("Invalid or expired token");
         }
         
-        List<String> secrets = secretService.listSecrets(path, recursive, policies);
-        
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", LocalDateTime.now());
         response.put("success", true);
         response.put("path", path);
-        response.put("keys", secrets);
-        response.put("count", secrets.size());
+        
+        if (limit != null) {
+            SecretService.KeyPage page = secretService.listSecretKeys(path, recursive, limit, after, policies);
+            response.put("keys", page.keys());
+            response.put("count", page.keys().size());
+            response.put("next_cursor", page.nextCursor());
+        } else {
+            List<String> secrets = secretService.listSecrets(path, recursive, policies);
+            response.put("keys", secrets);
+            response.put("count", secrets.size());
+        }
         
         return ResponseEntity.ok(response);
     }
     
+    @Operation(
+            summary = "Stream secrets at a path as NDJSON",
+            description = "Selected with Accept: application/x-ndjson. Writes one JSON object per secret as rows are " +
+                    "read from a database cursor, ordered by path and key, so arbitrarily large subtrees stream in flat memory."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "One secret per line",
+                    content = @Content(
+                            mediaType = "application/x-ndjson",
+                            examples = @ExampleObject(
+                                    value = """
+                                    {"path":"app/config/database","key":"host"}
+                                    {"path":"app/config/database","key":"password"}
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping(value = "/list/{path:.+}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSecrets(
+            @Parameter(description = "Path to list secrets from", example = "app/config/database")
+            @PathVariable String path,
+            @Parameter(description = "Whether to list recursively through subdirectories")
+            @RequestParam(defaultValue = "false") boolean recursive,
+            @Parameter(description = "Bearer token for authentication")
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        // Fail with a proper status before the stream is committed
+        secretService.checkListAccess(path, policies);
+        
+        StreamingResponseBody body = outputStream -> {
+            long count = secretService.streamSecretKeys(path, recursive, policies, entry -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(entry));
+                    outputStream.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            logger.debug("Streamed {} secrets under {}", count, path);
+        };
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+    
     @GetMapping("/paths/{pathPrefix:.+}")
     public ResponseEntity<Map<String, Object>> listPaths(
             @PathVariable String pathPrefix,
@@ -364,6 +541,139 @@ public class SecretsController {
         return ResponseEntity.ok(response);
     }
     
+    @Operation(
+            summary = "Watch a path prefix for changes",
+            description = "Blocks until a secret under the prefix changes after the given index, or until the wait expires. " +
+                    "Omit the index to learn the current index without waiting, then pass the returned index on the next call."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Changes after the index, or an empty list when the wait expired",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "prefix": "app/config",
+                                      "index": 42,
+                                      "changes": [
+                                        {
+                                          "index": 42,
+                                          "path": "app/config/database",
+                                          "key": "password",
+                                          "version": 3,
+                                          "operation": "UPDATE",
+                                          "timestamp": "2024-01-15T10:30:00"
+                                        }
+                                      ],
+                                      "truncated": false,
+                                      "timed_out": false,
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping("/watch/{*prefix}")
+    public DeferredResult<ResponseEntity<Map<String, Object>>> watchSecrets(
+            @Parameter(description = "Path prefix to watch", example = "app/config")
+            @PathVariable("prefix") String prefixPath,
+            @Parameter(description = "Last index the client has seen; omit to get the current index without waiting")
+            @RequestParam(required = false) Long index,
+            @Parameter(description = "Maximum seconds to wait for a change")
+            @RequestParam(required = false) Long wait,
+            @Parameter(description = "Bearer token for authentication")
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        // The catch-all variable spans several segments and keeps the leading slash
+        String prefix = prefixPath.startsWith("/") ? prefixPath.substring(1) : prefixPath;
+        secretService.checkWatchAccess(prefix, policies);
+        
+        // Spread the expiry of watchers that started together so they do not all return at once
+        long waitMillis = Math.min(wait != null && wait > 0 ? wait : defaultWaitSeconds, maxWaitSeconds) * 1000;
+        waitMillis += ThreadLocalRandom.current().nextLong(waitMillis / 16 + 1);
+        
+        // The request thread is released while the watcher is parked; no thread waits on it
+        DeferredResult<ResponseEntity<Map<String, Object>>> result = new DeferredResult<>(waitMillis);
+        if (index == null) {
+            result.setResult(watchResponse(prefix, new SecretChangeIndex.ChangeSet(secretChangeIndex.currentIndex(), List.of(), false), false));
+            return result;
+        }
+        
+        SecretChangeIndex.Watch watch = secretChangeIndex.watch(prefix, index,
+                changes -> result.setResult(watchResponse(prefix, changes, false)));
+        result.onTimeout(() -> {
+            secretChangeIndex.cancel(watch);
+            result.setResult(watchResponse(prefix, secretChangeIndex.changesSince(index, prefix), true));
+        });
+        result.onCompletion(() -> secretChangeIndex.cancel(watch));
+        result.onError(error -> secretChangeIndex.cancel(watch));
+        
+        return result;
+    }
+    
+    @Operation(
+            summary = "Stream secret changes under a prefix",
+            description = "Server-Sent Events stream of committed changes (path, key, version, operation; never values). " +
+                    "Event ids are change indexes; reconnect with Last-Event-ID to replay what was missed."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Event stream",
+                    content = @Content(
+                            mediaType = "text/event-stream",
+                            examples = @ExampleObject(
+                                    value = """
+                                    id: 42
+                                    event: secret-change
+                                    data: {"index":42,"path":"app/config/database","key":"password","version":3,"operation":"UPDATE","timestamp":"2024-01-15T10:30:00"}
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "401", description = "Invalid or expired token"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping("/events/{*prefix}")
+    public ResponseEntity<ResponseBodyEmitter> streamSecretChanges(
+            @Parameter(description = "Path prefix to stream changes for", example = "app/config")
+            @PathVariable("prefix") String prefixPath,
+            @Parameter(description = "Index of the last event received, sent by EventSource on reconnect")
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @Parameter(description = "What to do when this client falls behind: drop-oldest or disconnect")
+            @RequestParam(required = false) String overflow,
+            @Parameter(description = "Bearer token for authentication")
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        String prefix = prefixPath.startsWith("/") ? prefixPath.substring(1) : prefixPath;
+        secretService.checkWatchAccess(prefix, policies);
+        
+        return ResponseEntity.ok()
+                .contentType(MediaType.TEXT_EVENT_STREAM)
+                .header("X-Accel-Buffering", "no")
+                .body(secretChangeStream.openStream(prefix, lastEventId, overflow));
+    }
+    
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("Controller is working!");
@@ -512,6 +822,135 @@ public class SecretsController {
         }
     }
     
+    @Operation(
+            summary = "Renew a secret lease",
+            description = "Extends the lease on a secret created or updated with a TTL, capped at the configured maximum TTL"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lease renewed",
+                    content = @Content(
+                            mediaType = "application/json",
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "message": "Lease renewed",
+                                      "path": "app/config/database/password",
+                                      "lease_id": "6f1c2a9e-4d0b-4c8e-9a51-0b7d3e2f8c14",
+                                      "lease_duration": 3600,
+                                      "expires_at": "2024-01-15T11:30:00",
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "404", description = "Lease not found or expired"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/leases/renew")
+    public ResponseEntity<Map<String, Object>> renewLease(
+            @Parameter(description = "Lease id returned when the secret was written")
+            @RequestParam String leaseId,
+            @Parameter(description = "Requested lease extension in seconds, defaults to the lease's TTL")
+            @RequestParam(required = false) Long increment,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        Optional<SecretLeaseState> leaseOpt = secretLeaseService.renew(leaseId, increment, policies);
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        
+        if (leaseOpt.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Lease not found or expired");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("message", "Lease renewed");
+        response.put("path", leaseOpt.get().path() + "/" + leaseOpt.get().key());
+        putLease(response, leaseOpt.get());
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(
+            summary = "Revoke a secret lease",
+            description = "Expires the lease now, deleting every version of its secret"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Lease revoked"),
+            @ApiResponse(responseCode = "404", description = "Lease not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/leases/revoke")
+    public ResponseEntity<Map<String, Object>> revokeLease(
+            @Parameter(description = "Lease id returned when the secret was written")
+            @RequestParam String leaseId,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+        
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+        
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        
+        if (!secretLeaseService.revoke(leaseId, policies)) {
+            response.put("success", false);
+            response.put("message", "Lease not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        
+        response.put("success", true);
+        response.put("message", "Lease revoked");
+        return ResponseEntity.ok(response);
+    }
+    
+    private static void putLease(Map<String, Object> response, SecretLeaseState lease) {
+        response.put("lease_id", lease.leaseId());
+        response.put("lease_duration", lease.ttlSeconds());
+        response.put("expires_at", lease.expiresAt());
+    }
+    
+    private static ResponseEntity<Map<String, Object>> watchResponse(String prefix, SecretChangeIndex.ChangeSet changes,
+                                                                    boolean timedOut) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("success", true);
+        response.put("prefix", prefix);
+        response.put("index", changes.index());
+        response.put("changes", changes.changes().stream().map(SecretChangeIndex.SecretChange::toMap).toList());
+        response.put("truncated", changes.truncated());
+        response.put("timed_out", timedOut && changes.changes().isEmpty());
+        return ResponseEntity.ok(response);
+    }
+    
+    private static boolean eTagMatches(String ifNoneMatch, String eTag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     private String extractToken(String authHeader) {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             return authHeader.substring(7);
@@ -0,0 +1,128 @@
+package com.example.vault.controller;
+
+import com.example.vault.engine.DynamicCredential;
+import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.SecretsEngineService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/v1/engines")
+@Tag(name = "Secrets Engines", description = "Dynamic credentials issued on demand by secrets engines")
+@SecurityRequirement(name = "bearerAuth")
+public class SecretsEngineController {
+
+    @Autowired
+    private SecretsEngineService secretsEngineService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Operation(
+            summary = "Issue a dynamic credential",
+            description = "Hands out a new credential for the role, revoked automatically when its lease ends. "
+                    + "Requires read access to <engine>/creds/<role>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Credential issued"),
+            @ApiResponse(responseCode = "404", description = "Engine or role not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping("/{engine}/creds/{role}")
+    public ResponseEntity<Map<String, Object>> issueCredential(
+            @Parameter(description = "Secrets engine name", example = "database")
+            @PathVariable String engine,
+            @Parameter(description = "Role to issue a credential for", example = "readonly")
+            @PathVariable String role,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+
+        Optional<DynamicCredential> credentialOpt = secretsEngineService.issue(engine, role, policies);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (credentialOpt.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "Engine or role not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        DynamicCredential credential = credentialOpt.get();
+        response.put("success", true);
+        response.put("engine", credential.engine());
+        response.put("role", credential.role());
+        response.put("username", credential.username());
+        response.put("password", credential.password());
+        response.put("lease_id", credential.leaseId());
+        response.put("lease_duration", credential.ttlSeconds());
+        response.put("expires_at", credential.expiresAt());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Revoke a dynamic credential",
+            description = "Revokes the credential now instead of when its lease ends. "
+                    + "Requires delete access to <engine>/creds/<role>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Credential revoked"),
+            @ApiResponse(responseCode = "404", description = "Lease not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/{engine}/revoke")
+    public ResponseEntity<Map<String, Object>> revokeCredential(
+            @Parameter(description = "Secrets engine name", example = "database")
+            @PathVariable String engine,
+            @Parameter(description = "Lease id returned when the credential was issued")
+            @RequestParam String leaseId,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (!secretsEngineService.revoke(engine, leaseId, policies)) {
+            response.put("success", false);
+            response.put("message", "Lease not found");
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+
+        response.put("success", true);
+        response.put("message", "Credential revoked");
+        return ResponseEntity.ok(response);
+    }
+
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        throw new SecurityException("Missing or invalid Authorization header");
+    }
+}
@@ -1,20 +1,33 @@
 package com.example.vault.controller;
 
+import com.example.vault.metrics.VaultMetrics;
 import com.example.vault.service.ReplicationService;
+import com.example.vault.service.RetentionService;
+import com.example.vault.service.StoreArchiveService;
+import com.example.vault.service.TieringService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -23,9 +36,20 @@ import java.util.Map;
 @Tag(name = "System", description = "System health, status and information endpoints")
 public class SystemController {
     
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+    
     @Autowired
     private ReplicationService replicationService;
     
+    @Autowired
+    private StoreArchiveService storeArchiveService;
+    
+    @Autowired
+    private RetentionService retentionService;
+    
+    @Autowired
+    private TieringService tieringService;
+    
     @Operation(
             summary = "System health check",
             description = "Returns the current health status of the vault system"
@@ -127,4 +151,170 @@ public class SystemController {
         response.put("java_version", System.getProperty("java.version"));
         return ResponseEntity.ok(response);
     }
+    
+    @Operation(
+            summary = "Export the secret store",
+            description = "Streams every policy, identity and secret version as a gzip-compressed NDJSON archive. " +
+                    "Secret values stay encrypted; the archive can only be imported by a vault with the same encryption key."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Archive stream (gzip of one JSON object per line)",
+                    content = @Content(
+                            mediaType = "application/gzip",
+                            examples = @ExampleObject(
+                                    value = """
+                                    {"type":"header","format":"vault-archive","format_version":1,"key_fingerprint":"3f9a1c0b7e52d4a8","exported_at":"2024-01-15T10:30:00"}
+                                    {"type":"policy","name":"developer","description":"Developer access","rules":["read:secret/dev/*"],...}
+                                    {"type":"identity","name":"developer1","password_hash":"$2a$10$...","identity_type":"USER","enabled":true,"policies":["developer"],...}
+                                    {"type":"secret","path":"app/config","key":"password","version":1,"encrypted_value":"q83v...","deleted":false,...}
+                                    {"type":"end","policies":1,"identities":1,"secrets":1}
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "The secret store backend keeps secrets outside the secrets table"),
+            @ApiResponse(responseCode = "403", description = "Access denied - admin privileges required")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('admin')")
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportArchive() {
+        storeArchiveService.requireSecretsTable();
+        String fileName = "vault-export-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".ndjson.gz";
+        StreamingResponseBody body = storeArchiveService::exportArchive;
+        return ResponseEntity.ok()
+                .contentType(GZIP)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+    
+    @Operation(
+            summary = "Import a secret store archive",
+            description = "Loads an archive produced by /v1/sys/export, sent as the raw request body. Policies and " +
+                    "identities that already exist by name, and secrets that already exist at their path and key, are " +
+                    "left unchanged and counted as skipped."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Archive imported",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = Map.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "imported": {
+                                        "policies": 3,
+                                        "identities": 12,
+                                        "secrets": 48210,
+                                        "skipped": 2
+                                      },
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "Not a vault archive, truncated, written with a different encryption key, " +
+                    "or the secret store backend keeps secrets outside the secrets table"),
+            @ApiResponse(responseCode = "403", description = "Access denied - admin privileges required")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping(value = "/import", consumes = {"application/gzip", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<Map<String, Object>> importArchive(HttpServletRequest request) throws IOException {
+        StoreArchiveService.ArchiveCounts counts = storeArchiveService.importArchive(request.getInputStream());
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("imported", counts.toMap());
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(
+            summary = "Run retention compaction now",
+            description = "Purges secret versions outside the configured retention in one pass, in the same batched " +
+                    "transactions as the background compactor, and returns how many versions were purged for each reason."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Compaction pass finished",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = Map.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "purged": {
+                                        "MAX_VERSIONS": 1200,
+                                        "DELETED": 35
+                                      },
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "The secret store backend keeps secrets outside the secrets table"),
+            @ApiResponse(responseCode = "403", description = "Access denied - admin privileges required")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping("/retention/compact")
+    public ResponseEntity<Map<String, Object>> compact() {
+        Map<VaultMetrics.PurgeReason, Long> purged = retentionService.compact();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("purged", purged);
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
+    
+    @Operation(
+            summary = "Run version tiering now",
+            description = "Moves cold secret versions from the hot table into the compressed archive in one pass, " +
+                    "in the same batched transactions as the background job. Archived versions stay readable " +
+                    "through the normal version endpoints."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tiering pass finished",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = Map.class),
+                            examples = @ExampleObject(
+                                    value = """
+                                    {
+                                      "success": true,
+                                      "archived": 5320,
+                                      "timestamp": "2024-01-15T10:30:00"
+                                    }
+                                    """
+                            )
+                    )
+            ),
+            @ApiResponse(responseCode = "400", description = "The secret store backend keeps secrets outside the secrets table"),
+            @ApiResponse(responseCode = "403", description = "Access denied - admin privileges required")
+    })
+    @SecurityRequirement(name = "bearerAuth")
+    @PreAuthorize("hasAuthority('admin')")
+    @PostMapping("/tiering/run")
+    public ResponseEntity<Map<String, Object>> runTiering() {
+        long archived = tieringService.tier();
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("archived", archived);
+        response.put("timestamp", LocalDateTime.now());
+        return ResponseEntity.ok(response);
+    }
 }
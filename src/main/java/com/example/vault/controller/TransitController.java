@@ -0,0 +1,254 @@
+package com.example.vault.controller;
+
+import com.example.vault.dto.TransitRequest;
+import com.example.vault.dto.TransitResult;
+import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.TransitService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+@RestController
+@RequestMapping("/v1/transit")
+@Tag(name = "Transit", description = "Encryption as a service with named, versioned keys")
+@SecurityRequirement(name = "bearerAuth")
+public class TransitController {
+
+    @Autowired
+    private TransitService transitService;
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Operation(
+            summary = "Create a transit key",
+            description = "Creates the named key with its first version. Requires create access to transit/keys/<name>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key created, or it already existed"),
+            @ApiResponse(responseCode = "400", description = "Invalid key name"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/keys/{name}")
+    public ResponseEntity<Map<String, Object>> createKey(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        boolean created = transitService.createKey(name, authorize(authHeader));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+        response.put("success", true);
+        response.put("created", created);
+        response.put("message", created ? "Key created" : "Key already exists");
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Read a transit key",
+            description = "Lists the key's versions and when they were created; never returns key material"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key found"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @GetMapping("/keys/{name}")
+    public ResponseEntity<Map<String, Object>> readKey(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        Optional<TransitService.KeyInfo> keyOpt = transitService.readKey(name, authorize(authHeader));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (keyOpt.isEmpty()) {
+            return keyNotFound(response);
+        }
+
+        response.put("success", true);
+        response.put("name", keyOpt.get().name());
+        response.put("latest_version", keyOpt.get().latestVersion());
+        response.put("versions", keyOpt.get().versions());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Rotate a transit key",
+            description = "Adds a key version used for all encryption from now on. Older versions still decrypt. "
+                    + "Requires update access to transit/keys/<name>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Key rotated"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/keys/{name}/rotate")
+    public ResponseEntity<Map<String, Object>> rotateKey(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        Optional<Integer> versionOpt = transitService.rotateKey(name, authorize(authHeader));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (versionOpt.isEmpty()) {
+            return keyNotFound(response);
+        }
+
+        response.put("success", true);
+        response.put("latest_version", versionOpt.get());
+        return ResponseEntity.ok(response);
+    }
+
+    @Operation(
+            summary = "Encrypt data",
+            description = "Encrypts base64-encoded plaintext, or each item of batch_input, with the key's newest version. "
+                    + "Requires update access to transit/encrypt/<name>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Data encrypted; in batch mode each result may carry its own error"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/encrypt/{name}")
+    public ResponseEntity<Map<String, Object>> encrypt(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestBody TransitRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        List<String> policies = authorize(authHeader);
+        return respond(request, TransitRequest.Item::getPlaintext, request.getPlaintext(),
+                inputs -> transitService.encrypt(name, inputs, policies));
+    }
+
+    @Operation(
+            summary = "Decrypt data",
+            description = "Decrypts a ciphertext, or each item of batch_input, into base64-encoded plaintext. "
+                    + "Requires update access to transit/decrypt/<name>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Data decrypted; in batch mode each result may carry its own error"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/decrypt/{name}")
+    public ResponseEntity<Map<String, Object>> decrypt(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestBody TransitRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        List<String> policies = authorize(authHeader);
+        return respond(request, TransitRequest.Item::getCiphertext, request.getCiphertext(),
+                inputs -> transitService.decrypt(name, inputs, policies));
+    }
+
+    @Operation(
+            summary = "Rewrap data",
+            description = "Re-encrypts a ciphertext, or each item of batch_input, with the key's newest version "
+                    + "without returning the plaintext. Requires update access to transit/rewrap/<name>."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Data rewrapped; in batch mode each result may carry its own error"),
+            @ApiResponse(responseCode = "400", description = "Invalid input"),
+            @ApiResponse(responseCode = "404", description = "Key not found"),
+            @ApiResponse(responseCode = "403", description = "Insufficient permissions")
+    })
+    @PostMapping("/rewrap/{name}")
+    public ResponseEntity<Map<String, Object>> rewrap(
+            @Parameter(description = "Key name", example = "payments")
+            @PathVariable String name,
+            @RequestBody TransitRequest request,
+            @RequestHeader(value = "Authorization", required = false) String authHeader) {
+
+        List<String> policies = authorize(authHeader);
+        return respond(request, TransitRequest.Item::getCiphertext, request.getCiphertext(),
+                inputs -> transitService.rewrap(name, inputs, policies));
+    }
+
+    /**
+     * Run the operation on the single input or on the batch. A failed single item is a 400; a
+     * failed batch item is reported in its own result.
+     */
+    private ResponseEntity<Map<String, Object>> respond(TransitRequest request,
+                                                        Function<TransitRequest.Item, String> batchField,
+                                                        String single,
+                                                        Function<List<String>, Optional<List<TransitResult>>> operation) {
+        boolean batch = request.getBatchInput() != null;
+        List<String> inputs;
+        if (batch) {
+            inputs = request.getBatchInput().stream().map(item -> item == null ? null : batchField.apply(item)).toList();
+        } else if (single != null) {
+            inputs = List.of(single);
+        } else {
+            throw new IllegalArgumentException("Either a single input or batch_input is required");
+        }
+
+        Optional<List<TransitResult>> resultsOpt = operation.apply(inputs);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", LocalDateTime.now());
+
+        if (resultsOpt.isEmpty()) {
+            return keyNotFound(response);
+        }
+
+        response.put("success", true);
+        if (batch) {
+            response.put("batch_results", resultsOpt.get().stream().map(TransitResult::toMap).toList());
+            return ResponseEntity.ok(response);
+        }
+        TransitResult result = resultsOpt.get().get(0);
+        if (result.failed()) {
+            throw new IllegalArgumentException(result.error());
+        }
+        response.putAll(result.toMap());
+        return ResponseEntity.ok(response);
+    }
+
+    private static ResponseEntity<Map<String, Object>> keyNotFound(Map<String, Object> response) {
+        response.put("success", false);
+        response.put("message", "Key not found");
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+    }
+
+    private List<String> authorize(String authHeader) {
+        String token = extractToken(authHeader);
+        List<String> policies = authenticationService.getPoliciesFromToken(token);
+
+        if (!authenticationService.validateToken(token)) {
+            throw new SecurityException("Invalid or expired token");
+        }
+        return policies;
+    }
+
+    private String extractToken(String authHeader) {
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        throw new SecurityException("Missing or invalid Authorization header");
+    }
+}
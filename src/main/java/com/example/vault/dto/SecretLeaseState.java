@@ -0,0 +1,10 @@
+package com.example.vault.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A secret's lease as handed to callers and loaded when the expiry wheel is rebuilt
+ */
+public record SecretLeaseState(String leaseId, String path, String key, Long ttlSeconds,
+                               LocalDateTime createdAt, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,11 @@
+package com.example.vault.dto;
+
+/**
+ * Identifier-only projection of a secret, used by listings so values are never loaded
+ */
+public record SecretPathKey(String path, String key) {
+    
+    public String fullPath() {
+        return path + "/" + key;
+    }
+}
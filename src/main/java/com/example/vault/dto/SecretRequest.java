@@ -14,6 +14,9 @@ public class SecretRequest {
     @Schema(description = "Optional metadata associated with the secret", example = "{\"environment\": \"production\", \"owner\": \"team-alpha\"}")
     private Map<String, Object> metadata;
     
+    @Schema(description = "Optional time-to-live in seconds, after which the secret is deleted", example = "3600")
+    private Long ttl;
+    
     public SecretRequest() {}
     
     public SecretRequest(String value, Map<String, Object> metadata) {
@@ -26,4 +29,7 @@ public class SecretRequest {
     
     public Map<String, Object> getMetadata() { return metadata; }
     public void setMetadata(Map<String, Object> metadata) { this.metadata = metadata; }
+    
+    public Long getTtl() { return ttl; }
+    public void setTtl(Long ttl) { this.ttl = ttl; }
 }
@@ -0,0 +1,11 @@
+package com.example.vault.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns retention and tiering decisions need for one stored version, without value or
+ * metadata. {@code archived} tells whether the row lives in the secret archive.
+ */
+public record SecretVersionState(Long id, String path, String key, Integer version, Boolean deleted,
+                                 LocalDateTime createdAt, LocalDateTime deletedAt, boolean archived) {
+}
@@ -0,0 +1,12 @@
+package com.example.vault.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata of one secret version with the creator and updater names already resolved.
+ * Selected without the encrypted value, for version history.
+ */
+public record SecretVersionSummary(Integer version, String metadata, LocalDateTime createdAt,
+                                   LocalDateTime updatedAt, String createdBy, String updatedBy,
+                                   Boolean deleted, LocalDateTime deletedAt) {
+}
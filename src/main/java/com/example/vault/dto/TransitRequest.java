@@ -0,0 +1,50 @@
+package com.example.vault.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Request to encrypt, decrypt or rewrap one item or a batch of items with a transit key")
+public class TransitRequest {
+
+    @Schema(description = "Base64-encoded data to encrypt", example = "aGVsbG8gd29ybGQ=")
+    private String plaintext;
+
+    @Schema(description = "Ciphertext to decrypt or rewrap", example = "vault:v1:8SDd3WHDOjf7mq69CyCqYjBXAiQQAVZRkFM13ok481zoCmHnSeDX9vyf7w==")
+    private String ciphertext;
+
+    @Schema(description = "Items to process in one call, instead of plaintext or ciphertext")
+    @JsonProperty("batch_input")
+    private List<Item> batchInput;
+
+    public TransitRequest() {}
+
+    public String getPlaintext() { return plaintext; }
+    public void setPlaintext(String plaintext) { this.plaintext = plaintext; }
+
+    public String getCiphertext() { return ciphertext; }
+    public void setCiphertext(String ciphertext) { this.ciphertext = ciphertext; }
+
+    public List<Item> getBatchInput() { return batchInput; }
+    public void setBatchInput(List<Item> batchInput) { this.batchInput = batchInput; }
+
+    public static class Item {
+
+        private String plaintext;
+        private String ciphertext;
+
+        public Item() {}
+
+        public Item(String plaintext, String ciphertext) {
+            this.plaintext = plaintext;
+            this.ciphertext = ciphertext;
+        }
+
+        public String getPlaintext() { return plaintext; }
+        public void setPlaintext(String plaintext) { this.plaintext = plaintext; }
+
+        public String getCiphertext() { return ciphertext; }
+        public void setCiphertext(String ciphertext) { this.ciphertext = ciphertext; }
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.vault.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of one transit item: the output under {@code field} (ciphertext or plaintext) and the
+ * key version used, or an error that failed only this item
+ */
+public record TransitResult(String field, String value, Integer keyVersion, String error) {
+
+    public static TransitResult ciphertext(String ciphertext, int keyVersion) {
+        return new TransitResult("ciphertext", ciphertext, keyVersion, null);
+    }
+
+    public static TransitResult plaintext(String plaintext, int keyVersion) {
+        return new TransitResult("plaintext", plaintext, keyVersion, null);
+    }
+
+    public static TransitResult failed(String error) {
+        return new TransitResult(null, null, null, error);
+    }
+
+    public boolean failed() {
+        return error != null;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (failed()) {
+            map.put("error", error);
+        } else {
+            map.put(field, value);
+            map.put("key_version", keyVersion);
+        }
+        return map;
+    }
+}
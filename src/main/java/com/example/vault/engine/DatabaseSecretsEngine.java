@@ -0,0 +1,390 @@
+package com.example.vault.engine;
+
+import com.example.vault.config.DatabaseEngineProperties;
+import com.example.vault.entity.DynamicCredentialLease;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.DynamicCredentialLeaseRepository;
+import com.example.vault.util.TimingWheel;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.SecureRandom;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Issues short-lived database users, in the manner of HashiCorp Vault's database engine.
+ *
+ * Each role in {@code vault.engines.database.roles} names the statements that create and drop a
+ * user on the target database. A background thread keeps {@code pool-size} users per role
+ * created ahead of demand, so issuing a credential takes one from the pool and records its
+ * lease, with no DDL on the request path; only when the pool is empty is a user created
+ * inline. Issued credentials are dropped when their TTL runs out, tracked in a
+ * {@link TimingWheel} like secret leases.
+ *
+ * Every user is recorded in {@code dynamic_credential_leases} before it is created, with the
+ * instance that created it. Pooled users' passwords are never stored, so on shutdown and on
+ * the instance's next start they are dropped rather than handed out. Instances sharing the
+ * database leave each other's pooled users alone.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.engines.database.enabled", havingValue = "true")
+public class DatabaseSecretsEngine implements SecretsEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseSecretsEngine.class);
+
+    public static final String NAME = "database";
+    private static final int PASSWORD_BYTES = 18;
+    private static final int MAX_ROLE_NAME_LENGTH = 16;
+
+    /**
+     * Delay before a credential that failed to revoke is tried again
+     */
+    private static final long RETRY_DELAY_MILLIS = 30_000;
+
+    @Autowired
+    private DatabaseEngineProperties properties;
+
+    @Autowired
+    private DynamicCredentialLeaseRepository leaseRepository;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, BlockingQueue<PooledCredential>> pools = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> refilling = new ConcurrentHashMap<>();
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel = new TimingWheel<>(1000, 4, System.currentTimeMillis());
+
+    private HikariDataSource dataSource;
+    private ExecutorService refiller;
+    private String owner;
+
+    @PostConstruct
+    public void start() {
+        properties.getRoles().forEach((role, config) -> {
+            if (config.getCreationStatements().isEmpty() || config.getRevocationStatements().isEmpty()) {
+                throw new IllegalArgumentException("Database engine role " + role + " needs creation and revocation statements");
+            }
+            if (config.getTtl() < 1 || config.getPoolSize() < 0) {
+                throw new IllegalArgumentException("Database engine role " + role + " needs a positive TTL and a pool size of 0 or more");
+            }
+        });
+
+        owner = properties.getInstanceId() != null && !properties.getInstanceId().isBlank()
+                ? properties.getInstanceId() : hostName();
+
+        dataSource = new HikariDataSource();
+        dataSource.setPoolName("database-engine");
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(2);
+        dataSource.setMinimumIdle(0);
+
+        refiller = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-engine-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        // Users this instance pooled in an earlier run can't be handed out, as their passwords are gone
+        List<DynamicCredentialLease> stale = leaseRepository.findPooled(NAME, owner);
+        stale.forEach(this::revokeQuietly);
+        List<DynamicCredentialLease> issued = leaseRepository.findByEngineAndExpiresAtIsNotNull(NAME);
+        issued.forEach(lease -> index(lease.getLeaseId(), toEpochMillis(lease.getExpiresAt())));
+        logger.info("Database engine instance {} dropped {} stale pooled users and is tracking {} issued credentials",
+                owner, stale.size(), issued.size());
+
+        for (String role : properties.getRoles().keySet()) {
+            pools.put(role, new LinkedBlockingQueue<>());
+            refilling.put(role, new AtomicBoolean());
+            refill(role);
+        }
+    }
+
+    /**
+     * Drop the users still in the pools. Issued credentials stay until their leases end.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        refiller.shutdownNow();
+        refiller.awaitTermination(10, TimeUnit.SECONDS);
+        for (BlockingQueue<PooledCredential> pool : pools.values()) {
+            PooledCredential credential;
+            while ((credential = pool.poll()) != null) {
+                try {
+                    dropUser(credential.leaseId(), credential.role(), credential.username());
+                } catch (RuntimeException e) {
+                    logger.warn("Failed to drop pooled database user {}; it is dropped on the next start",
+                            credential.username(), e);
+                }
+            }
+        }
+        dataSource.close();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Set<String> getRoles() {
+        return properties.getRoles().keySet();
+    }
+
+    @Override
+    public DynamicCredential issue(String role) {
+        DatabaseEngineProperties.Role config = properties.getRoles().get(role);
+        if (config == null) {
+            throw new IllegalArgumentException("Unknown database engine role: " + role);
+        }
+
+        PooledCredential credential = pools.get(role).poll();
+        if (credential == null) {
+            vaultMetrics.recordCredentialPoolMiss(NAME, role);
+            credential = create(role);
+        }
+        refill(role);
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusSeconds(config.getTtl());
+        try {
+            if (leaseRepository.markIssued(credential.leaseId(), expiresAt) == 0) {
+                throw new IllegalStateException("Lease " + credential.leaseId() + " of database user "
+                        + credential.username() + " is no longer recorded");
+            }
+        } catch (RuntimeException e) {
+            // Without a lease nothing would ever drop the user
+            discard(credential);
+            throw e;
+        }
+        index(credential.leaseId(), toEpochMillis(expiresAt));
+
+        logger.info("Issued database user {} for role {}", credential.username(), role);
+        return new DynamicCredential(credential.leaseId(), NAME, role, credential.username(), credential.password(),
+                config.getTtl(), expiresAt);
+    }
+
+    @Override
+    public Optional<String> findRole(String leaseId) {
+        return leaseRepository.findByLeaseId(leaseId)
+                .filter(lease -> NAME.equals(lease.getEngine()) && lease.getExpiresAt() != null)
+                .map(DynamicCredentialLease::getRole);
+    }
+
+    @Override
+    public boolean revoke(String leaseId) {
+        Optional<DynamicCredentialLease> leaseOpt = leaseRepository.findByLeaseId(leaseId)
+                .filter(lease -> NAME.equals(lease.getEngine()) && lease.getExpiresAt() != null);
+        if (leaseOpt.isEmpty()) {
+            return false;
+        }
+        DynamicCredentialLease lease = leaseOpt.get();
+        dropUser(lease.getLeaseId(), lease.getRole(), lease.getUsername());
+        deadlines.remove(leaseId);
+        logger.info("Revoked database user {} for role {}", lease.getUsername(), lease.getRole());
+        return true;
+    }
+
+    /**
+     * Drop users whose lease has run out and top up the pools
+     */
+    @Scheduled(fixedDelayString = "${vault.engines.database.sweep-interval:1000}")
+    public void sweep() {
+        int revoked = expireUntil(System.currentTimeMillis());
+        if (revoked > 0) {
+            logger.info("Revoked {} expired database credentials", revoked);
+        }
+        properties.getRoles().keySet().forEach(this::refill);
+    }
+
+    int expireUntil(long nowMillis) {
+        List<String> due = new ArrayList<>();
+        expiryWheel.advance(nowMillis, leaseId -> {
+            Long deadline = deadlines.get(leaseId);
+            if (deadline != null && deadline <= nowMillis && deadlines.remove(leaseId, deadline)) {
+                due.add(leaseId);
+            }
+        });
+
+        int revoked = 0;
+        for (String leaseId : due) {
+            try {
+                Optional<DynamicCredentialLease> lease = leaseRepository.findByLeaseId(leaseId);
+                if (lease.isPresent() && lease.get().getExpiresAt() != null) {
+                    dropUser(leaseId, lease.get().getRole(), lease.get().getUsername());
+                    revoked++;
+                }
+            } catch (RuntimeException e) {
+                logger.error("Failed to revoke database credential {}, retrying in {} ms", leaseId, RETRY_DELAY_MILLIS, e);
+                index(leaseId, nowMillis + RETRY_DELAY_MILLIS);
+            }
+        }
+        return revoked;
+    }
+
+    int available(String role) {
+        return pools.get(role).size();
+    }
+
+    /**
+     * Create users in the background until the role's pool is full. At most one refill per role
+     * is queued at a time.
+     */
+    private void refill(String role) {
+        AtomicBoolean running = refilling.get(role);
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refiller.execute(() -> {
+                try {
+                    BlockingQueue<PooledCredential> pool = pools.get(role);
+                    int poolSize = properties.getRoles().get(role).getPoolSize();
+                    while (pool.size() < poolSize && !Thread.currentThread().isInterrupted()) {
+                        pool.add(create(role));
+                    }
+                } catch (RuntimeException e) {
+                    logger.error("Failed to refill the database credential pool for role {}", role, e);
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false);
+        }
+    }
+
+    private PooledCredential create(String role) {
+        String leaseId = UUID.randomUUID().toString();
+        String username = username(role);
+        String password = password();
+
+        // Recorded first, so a user made just before a crash is still found and dropped
+        leaseRepository.save(new DynamicCredentialLease(leaseId, NAME, role, username, owner, LocalDateTime.now()));
+        try {
+            execute(properties.getRoles().get(role).getCreationStatements(), username, password);
+        } catch (RuntimeException e) {
+            revokeQuietly(leaseRepository.findByLeaseId(leaseId).orElseThrow());
+            throw e;
+        }
+        return new PooledCredential(leaseId, role, username, password);
+    }
+
+    private void dropUser(String leaseId, String role, String username) {
+        DatabaseEngineProperties.Role config = properties.getRoles().get(role);
+        if (config != null) {
+            execute(config.getRevocationStatements(), username, "");
+        } else {
+            logger.warn("Database engine role {} is no longer configured; forgetting user {} without dropping it",
+                    role, username);
+        }
+        leaseRepository.deleteByLeaseId(leaseId);
+    }
+
+    private void discard(PooledCredential credential) {
+        try {
+            dropUser(credential.leaseId(), credential.role(), credential.username());
+        } catch (RuntimeException e) {
+            logger.error("Failed to drop database user {} after failing to issue it; it is dropped on the next start",
+                    credential.username(), e);
+        }
+    }
+
+    private void revokeQuietly(DynamicCredentialLease lease) {
+        try {
+            dropUser(lease.getLeaseId(), lease.getRole(), lease.getUsername());
+        } catch (RuntimeException e) {
+            // The user may never have been created; forget it either way
+            leaseRepository.deleteByLeaseId(lease.getLeaseId());
+            logger.debug("Dropping database user {} failed", lease.getUsername(), e);
+        }
+    }
+
+    private void execute(List<String> statements, String username, String password) {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            for (int i = 0; i < statements.size(); i++) {
+                String sql = statements.get(i).replace("{{name}}", username).replace("{{password}}", password);
+                try {
+                    statement.execute(sql);
+                } catch (SQLException e) {
+                    // Drivers echo the statement, password included, so the cause is not kept
+                    throw new IllegalStateException("Database engine statement " + (i + 1) + " for user " + username
+                            + " failed with SQL state " + e.getSQLState() + " and error code " + e.getErrorCode());
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot connect to the database engine target", e);
+        }
+    }
+
+    /**
+     * Unique, upper-case name that needs no quoting on common databases and fits their limits
+     */
+    private String username(String role) {
+        String prefix = role.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "_");
+        if (prefix.length() > MAX_ROLE_NAME_LENGTH) {
+            prefix = prefix.substring(0, MAX_ROLE_NAME_LENGTH);
+        }
+        byte[] suffix = new byte[5];
+        secureRandom.nextBytes(suffix);
+        return "V_" + prefix + "_" + HexFormat.of().withUpperCase().formatHex(suffix);
+    }
+
+    private String password() {
+        byte[] bytes = new byte[PASSWORD_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private void index(String leaseId, long expiresAtMillis) {
+        deadlines.put(leaseId, expiresAtMillis);
+        expiryWheel.schedule(leaseId, expiresAtMillis);
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            throw new IllegalStateException("Cannot resolve the host name; set vault.engines.database.instance-id", e);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record PooledCredential(String leaseId, String role, String username, String password) {}
+}
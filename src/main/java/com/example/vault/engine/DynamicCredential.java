@@ -0,0 +1,10 @@
+package com.example.vault.engine;
+
+import java.time.LocalDateTime;
+
+/**
+ * A credential issued by a {@link SecretsEngine}. The password is only ever returned here.
+ */
+public record DynamicCredential(String leaseId, String engine, String role, String username, String password,
+                                long ttlSeconds, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,38 @@
+package com.example.vault.engine;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Source of dynamic secrets: credentials made on demand for a role, handed to one caller, and
+ * revoked on the target system when their lease ends.
+ *
+ * Engines are Spring beans, found by {@code SecretsEngineService} and addressed by
+ * {@link #getName()}. Access checks happen there; an engine only manages credentials.
+ */
+public interface SecretsEngine {
+
+    /**
+     * Name the engine is addressed by, e.g. {@code database}
+     */
+    String getName();
+
+    Set<String> getRoles();
+
+    /**
+     * Hand out a new credential for the role, leased for the role's TTL
+     */
+    DynamicCredential issue(String role);
+
+    /**
+     * Role of an issued credential that has not been revoked yet
+     */
+    Optional<String> findRole(String leaseId);
+
+    /**
+     * Revoke an issued credential before its lease ends
+     *
+     * @return false if no such credential is outstanding
+     */
+    boolean revoke(String leaseId);
+}
@@ -0,0 +1,83 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user created on a target system by a secrets engine. Pooled credentials have not been
+ * handed out yet and have no expiry; their passwords are never stored, so a restart of the
+ * instance that owns them revokes them. Issued credentials are revoked when they expire.
+ */
+@Entity
+@Table(name = "dynamic_credential_leases", indexes = {
+    @Index(name = "idx_dynamic_credential_engine", columnList = "engine,expires_at")
+})
+public class DynamicCredentialLease {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "lease_id", nullable = false, unique = true, length = 64)
+    private String leaseId;
+    
+    @Column(nullable = false, length = 50)
+    private String engine;
+    
+    @Column(nullable = false, length = 100)
+    private String role;
+    
+    @Column(nullable = false, length = 100)
+    private String username;
+    
+    /**
+     * Instance that created the user and holds its password while it is pooled
+     */
+    @Column(length = 100)
+    private String owner;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+    
+    // Constructors
+    public DynamicCredentialLease() {}
+    
+    public DynamicCredentialLease(String leaseId, String engine, String role, String username, String owner,
+                                  LocalDateTime createdAt) {
+        this.leaseId = leaseId;
+        this.engine = engine;
+        this.role = role;
+        this.username = username;
+        this.owner = owner;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getLeaseId() { return leaseId; }
+    public void setLeaseId(String leaseId) { this.leaseId = leaseId; }
+    
+    public String getEngine() { return engine; }
+    public void setEngine(String engine) { this.engine = engine; }
+    
+    public String getRole() { return role; }
+    public void setRole(String role) { this.role = role; }
+    
+    public String getUsername() { return username; }
+    public void setUsername(String username) { this.username = username; }
+    
+    public String getOwner() { return owner; }
+    public void setOwner(String owner) { this.owner = owner; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -1,5 +1,6 @@
 package com.example.vault.entity;
 
+import com.example.vault.util.SecretValueFormat;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -13,12 +14,16 @@ import java.time.LocalDateTime;
 @Table(name = "secrets", indexes = {
     @Index(name = "idx_secret_path", columnList = "path"),
     @Index(name = "idx_secret_path_key", columnList = "path,secret_key"),
-    @Index(name = "idx_secret_version", columnList = "path,secret_key,version"),
     @Index(name = "idx_secret_latest", columnList = "path,secret_key,deleted,version")
+}, uniqueConstraints = {
+    // Also serves lookups by version; a concurrent writer that picked the same version fails here
+    @UniqueConstraint(name = "uk_secret_version", columnNames = {"path", "secret_key", "version"})
 })
 @EntityListeners(AuditingEntityListener.class)
 public class Secret {
     
+    public static final int MAX_VALUE_LENGTH = 16 * 1024 * 1024;
+    
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -34,9 +39,16 @@ public class Secret {
     @Column(name = "secret_key", nullable = false)
     private String key;
     
+    // Format byte, IV, ciphertext and tag; see SecretValueFormat. A version's value never
+    // changes, so neither value column is written by updates
+    @Column(name = "encrypted_data", length = MAX_VALUE_LENGTH, updatable = false)
+    private byte[] encryptedData;
+    
+    // Base64 text written before encrypted_data existed, until SecretValueMigrationService
+    // moves it across
     @Lob
-    @Column(name = "encrypted_value", nullable = false)
-    private String encryptedValue;
+    @Column(name = "encrypted_value", updatable = false)
+    private String legacyEncryptedValue;
     
     @Column(nullable = false)
     private Boolean deleted = false;
@@ -67,10 +79,10 @@ public class Secret {
     // Constructors
     public Secret() {}
     
-    public Secret(String path, String key, String encryptedValue, Identity createdBy) {
+    public Secret(String path, String key, byte[] encryptedData, Identity createdBy) {
         this.path = path;
         this.key = key;
-        this.encryptedValue = encryptedValue;
+        this.encryptedData = encryptedData;
         this.createdBy = createdBy;
     }
     
@@ -87,8 +99,19 @@ public class Secret {
     public String getKey() { return key; }
     public void setKey(String key) { this.key = key; }
     
-    public String getEncryptedValue() { return encryptedValue; }
-    public void setEncryptedValue(String encryptedValue) { this.encryptedValue = encryptedValue; }
+    /**
+     * The value in the binary format, converted from the legacy column if the row predates it
+     */
+    public byte[] getEncryptedData() {
+        if (encryptedData == null && legacyEncryptedValue != null) {
+            return SecretValueFormat.fromBase64(legacyEncryptedValue);
+        }
+        return encryptedData;
+    }
+    public void setEncryptedData(byte[] encryptedData) { this.encryptedData = encryptedData; }
+    
+    public String getLegacyEncryptedValue() { return legacyEncryptedValue; }
+    public void setLegacyEncryptedValue(String legacyEncryptedValue) { this.legacyEncryptedValue = legacyEncryptedValue; }
     
     public Boolean getDeleted() { return deleted; }
     public void setDeleted(Boolean deleted) { this.deleted = deleted; }
@@ -0,0 +1,91 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A cold secret version moved out of the {@code secrets} table by the tiering job.
+ *
+ * Only the columns that lookups and retention filter on are stored as columns, under a single
+ * unique index; the value, metadata and audit names live in a compressed binary payload that
+ * is decoded when the version is read.
+ */
+@Entity
+@Table(name = "secret_archive", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_secret_archive_version", columnNames = {"path", "secret_key", "version"})
+})
+public class SecretArchiveEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 500)
+    private String path;
+    
+    @Column(name = "secret_key", nullable = false)
+    private String key;
+    
+    @Column(nullable = false)
+    private Integer version;
+    
+    @Column(nullable = false)
+    private Boolean deleted = false;
+    
+    @Column
+    private LocalDateTime deletedAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+    
+    @Lob
+    @Column(nullable = false)
+    private byte[] payload;
+    
+    // Constructors
+    public SecretArchiveEntry() {}
+    
+    public SecretArchiveEntry(String path, String key, Integer version, Boolean deleted, LocalDateTime deletedAt,
+                              LocalDateTime createdAt, byte[] payload) {
+        this.path = path;
+        this.key = key;
+        this.version = version;
+        this.deleted = deleted;
+        this.deletedAt = deletedAt;
+        this.createdAt = createdAt;
+        this.payload = payload;
+        this.archivedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+    
+    public Boolean getDeleted() { return deleted; }
+    public void setDeleted(Boolean deleted) { this.deleted = deleted; }
+    
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getArchivedAt() { return archivedAt; }
+    public void setArchivedAt(LocalDateTime archivedAt) { this.archivedAt = archivedAt; }
+    
+    public byte[] getPayload() { return payload; }
+    public void setPayload(byte[] payload) { this.payload = payload; }
+}
@@ -0,0 +1,98 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One version of a binary secret such as a keystore or certificate bundle. The content is
+ * kept in {@link SecretBlobSegment} rows, encrypted segment by segment with a data key of its
+ * own that is stored here, encrypted with the vault key.
+ */
+@Entity
+@Table(name = "secret_blobs", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_secret_blob_version", columnNames = {"path", "secret_key", "version"})
+})
+public class SecretBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "blob_id", nullable = false, unique = true, length = 36)
+    private String blobId;
+
+    @Column(nullable = false)
+    private String path;
+
+    @Column(name = "secret_key", nullable = false)
+    private String key;
+
+    @Column(nullable = false)
+    private Integer version;
+
+    /**
+     * Plaintext size in bytes
+     */
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false)
+    private Integer segmentSize;
+
+    @Column(nullable = false)
+    private Integer segmentCount;
+
+    @Column(name = "wrapped_key", nullable = false, length = 512)
+    private String wrappedKey;
+
+    @Column(name = "nonce_prefix", nullable = false, length = 7)
+    private byte[] noncePrefix;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by_identity_id")
+    private Identity createdBy;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public SecretBlob() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getBlobId() { return blobId; }
+    public void setBlobId(String blobId) { this.blobId = blobId; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public Long getSize() { return size; }
+    public void setSize(Long size) { this.size = size; }
+
+    public Integer getSegmentSize() { return segmentSize; }
+    public void setSegmentSize(Integer segmentSize) { this.segmentSize = segmentSize; }
+
+    public Integer getSegmentCount() { return segmentCount; }
+    public void setSegmentCount(Integer segmentCount) { this.segmentCount = segmentCount; }
+
+    public String getWrappedKey() { return wrappedKey; }
+    public void setWrappedKey(String wrappedKey) { this.wrappedKey = wrappedKey; }
+
+    public byte[] getNoncePrefix() { return noncePrefix; }
+    public void setNoncePrefix(byte[] noncePrefix) { this.noncePrefix = noncePrefix; }
+
+    public Identity getCreatedBy() { return createdBy; }
+    public void setCreatedBy(Identity createdBy) { this.createdBy = createdBy; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,49 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One encrypted segment of a {@link SecretBlob}. Mapped for the schema only: segments are
+ * written and read one at a time with plain JDBC, so a blob is never held whole in memory or
+ * in the persistence context.
+ */
+@Entity
+@Table(name = "secret_blob_segments", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_secret_blob_segment", columnNames = {"blob_id", "segment"})
+})
+public class SecretBlobSegment {
+
+    /**
+     * Largest segment the column holds: the maximum segment size plus the GCM tag
+     */
+    public static final int MAX_DATA_LENGTH = 8 * 1024 * 1024 + 16;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "blob_id", nullable = false, length = 36)
+    private String blobId;
+
+    @Column(nullable = false)
+    private Integer segment;
+
+    @Column(nullable = false, length = MAX_DATA_LENGTH)
+    private byte[] data;
+
+    // Constructors
+    public SecretBlobSegment() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getBlobId() { return blobId; }
+    public void setBlobId(String blobId) { this.blobId = blobId; }
+
+    public Integer getSegment() { return segment; }
+    public void setSegment(Integer segment) { this.segment = segment; }
+
+    public byte[] getData() { return data; }
+    public void setData(byte[] data) { this.data = data; }
+}
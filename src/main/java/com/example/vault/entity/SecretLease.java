@@ -0,0 +1,75 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Time-to-live on a secret. When the lease expires every version of the key is soft-deleted.
+ * A key holds at most one lease; writing it with a new TTL replaces the lease.
+ */
+@Entity
+@Table(name = "secret_leases", indexes = {
+    @Index(name = "idx_secret_lease_expires", columnList = "expires_at")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_secret_lease_key", columnNames = {"path", "secret_key"})
+})
+public class SecretLease {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "lease_id", nullable = false, unique = true, length = 64)
+    private String leaseId;
+    
+    @Column(nullable = false)
+    private String path;
+    
+    @Column(name = "secret_key", nullable = false)
+    private String key;
+    
+    @Column(nullable = false)
+    private Long ttlSeconds;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public SecretLease() {}
+    
+    public SecretLease(String leaseId, String path, String key, Long ttlSeconds, LocalDateTime createdAt,
+                       LocalDateTime expiresAt) {
+        this.leaseId = leaseId;
+        this.path = path;
+        this.key = key;
+        this.ttlSeconds = ttlSeconds;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getLeaseId() { return leaseId; }
+    public void setLeaseId(String leaseId) { this.leaseId = leaseId; }
+    
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    
+    public String getKey() { return key; }
+    public void setKey(String key) { this.key = key; }
+    
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,94 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Opaque service token lease. Only the SHA-256 hash of the token is persisted.
+ */
+@Entity
+@Table(name = "service_tokens", indexes = {
+    @Index(name = "idx_service_token_identity", columnList = "identityName"),
+    @Index(name = "idx_service_token_expires", columnList = "expiresAt")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class ServiceToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+    
+    @Column(nullable = false, length = 100)
+    private String identityName;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Identity.IdentityType identityType;
+    
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "service_token_policies", joinColumns = @JoinColumn(name = "service_token_id"))
+    @Column(name = "policy")
+    private List<String> policies = new ArrayList<>();
+    
+    @Column(nullable = false)
+    private Long ttlSeconds;
+    
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @CreatedDate
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Column
+    private LocalDateTime lastRenewedAt;
+    
+    // Constructors
+    public ServiceToken() {}
+    
+    public ServiceToken(String tokenHash, String identityName, Identity.IdentityType identityType,
+                        List<String> policies, Long ttlSeconds, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
+        this.identityName = identityName;
+        this.identityType = identityType;
+        this.policies = new ArrayList<>(policies);
+        this.ttlSeconds = ttlSeconds;
+        this.expiresAt = expiresAt;
+    }
+    
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public String getTokenHash() { return tokenHash; }
+    public void setTokenHash(String tokenHash) { this.tokenHash = tokenHash; }
+    
+    public String getIdentityName() { return identityName; }
+    public void setIdentityName(String identityName) { this.identityName = identityName; }
+    
+    public Identity.IdentityType getIdentityType() { return identityType; }
+    public void setIdentityType(Identity.IdentityType identityType) { this.identityType = identityType; }
+    
+    public List<String> getPolicies() { return policies; }
+    public void setPolicies(List<String> policies) { this.policies = policies; }
+    
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getLastRenewedAt() { return lastRenewedAt; }
+    public void setLastRenewedAt(LocalDateTime lastRenewedAt) { this.lastRenewedAt = lastRenewedAt; }
+}
@@ -0,0 +1,58 @@
+package com.example.vault.entity;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One version of a named transit encryption key. The key material is stored encrypted with the
+ * vault's own key and never leaves the vault; rotating a key adds a version.
+ */
+@Entity
+@Table(name = "transit_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_transit_key_version", columnNames = {"name", "version"})
+})
+public class TransitKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 128)
+    private String name;
+
+    @Column(nullable = false)
+    private Integer version;
+
+    @Column(name = "key_material", nullable = false, length = 512)
+    private String keyMaterial;
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public TransitKey() {}
+
+    public TransitKey(String name, Integer version, String keyMaterial, LocalDateTime createdAt) {
+        this.name = name;
+        this.version = version;
+        this.keyMaterial = keyMaterial;
+        this.createdAt = createdAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Integer getVersion() { return version; }
+    public void setVersion(Integer version) { this.version = version; }
+
+    public String getKeyMaterial() { return keyMaterial; }
+    public void setKeyMaterial(String keyMaterial) { this.keyMaterial = keyMaterial; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,23 @@
+package com.example.vault.event;
+
+/**
+ * Published when a secret write is committed locally or applied from replication.
+ * Carries identifiers only, never the secret value.
+ */
+public record SecretChangedEvent(String path, String key, Integer version, Operation operation, String source) {
+    
+    public static final String SOURCE_LOCAL = "local";
+    public static final String SOURCE_REPLICATION = "replication";
+    
+    public SecretChangedEvent(String path, String key, Integer version, Operation operation) {
+        this(path, key, version, operation, SOURCE_LOCAL);
+    }
+    
+    public String fullPath() {
+        return path + "/" + key;
+    }
+    
+    public enum Operation {
+        CREATE, UPDATE, DELETE, DELETE_VERSION, RESTORE_VERSION
+    }
+}
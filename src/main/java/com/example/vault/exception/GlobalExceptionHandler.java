@@ -30,6 +30,20 @@ public class GlobalExceptionHandler {
         return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Request", e.getMessage());
     }
     
+    @ExceptionHandler(UnsupportedStoreOperationException.class)
+    public ResponseEntity<Map<String, Object>> handleUnsupportedStoreOperationException(UnsupportedStoreOperationException e) {
+        logger.warn("Unsupported store operation: {}", e.getMessage());
+        return createErrorResponse(HttpStatus.BAD_REQUEST, "Invalid Request", e.getMessage());
+    }
+    
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<Map<String, Object>> handleVersionConflictException(VersionConflictException e) {
+        logger.info("Version conflict: {}", e.getMessage());
+        ResponseEntity<Map<String, Object>> response = createErrorResponse(HttpStatus.CONFLICT, "Version Conflict", e.getMessage());
+        response.getBody().put("currentVersion", e.getCurrentVersion());
+        return response;
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException e) {
         Map<String, String> errors = new HashMap<>();
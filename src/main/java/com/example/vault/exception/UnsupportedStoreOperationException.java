@@ -0,0 +1,12 @@
+package com.example.vault.exception;
+
+/**
+ * An operation that works on the {@code secrets} table directly was asked of a secret store
+ * backend that keeps its secrets elsewhere
+ */
+public class UnsupportedStoreOperationException extends IllegalStateException {
+    
+    public UnsupportedStoreOperationException(String operation) {
+        super("Cannot run " + operation + ": the configured vault.store.backend keeps secrets outside the secrets table");
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.vault.exception;
+
+/**
+ * A check-and-set write named a version that is no longer the newest version of the secret
+ */
+public class VersionConflictException extends RuntimeException {
+    
+    private final int expectedVersion;
+    private final int currentVersion;
+    
+    public VersionConflictException(String path, String key, int expectedVersion, int currentVersion) {
+        super("Secret at " + path + "/" + key + " is at version " + currentVersion
+                + ", not the expected version " + expectedVersion);
+        this.expectedVersion = expectedVersion;
+        this.currentVersion = currentVersion;
+    }
+    
+    public int getExpectedVersion() {
+        return expectedVersion;
+    }
+    
+    public int getCurrentVersion() {
+        return currentVersion;
+    }
+}
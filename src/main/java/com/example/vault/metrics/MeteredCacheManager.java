@@ -0,0 +1,139 @@
+package com.example.vault.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Counts hits and misses on another cache manager's caches as {@code cache.gets}, the meter
+ * Spring Boot uses for cache providers that report their own statistics. The simple
+ * in-memory provider does not, so lookups are counted here.
+ */
+public class MeteredCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final MeterRegistry registry;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public MeteredCacheManager(CacheManager delegate, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.registry = registry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target != null ? caches.computeIfAbsent(name, k -> new MeteredCache(target, registry)) : null;
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+
+    private static final class MeteredCache implements Cache {
+        private final Cache target;
+        private final Counter hits;
+        private final Counter misses;
+
+        private MeteredCache(Cache target, MeterRegistry registry) {
+            this.target = target;
+            this.hits = counter(registry, target.getName(), "hit");
+            this.misses = counter(registry, target.getName(), "miss");
+        }
+
+        private static Counter counter(MeterRegistry registry, String cacheName, String result) {
+            return Counter.builder("cache.gets")
+                    .description("Cache lookups by result")
+                    .tag("cache", cacheName)
+                    .tag("result", result)
+                    .register(registry);
+        }
+
+        private <T> T count(T value) {
+            (value != null ? hits : misses).increment();
+            return value;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return count(target.get(key));
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return count(target.get(key, type));
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public CompletableFuture<?> retrieve(Object key) {
+            return target.retrieve(key);
+        }
+
+        @Override
+        public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+            return target.retrieve(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return target.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            return target.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+        }
+
+        @Override
+        public boolean invalidate() {
+            return target.invalidate();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.vault.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Times a secret service method as the given operation. The first argument must be the secret path.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MeteredSecretOperation {
+
+    VaultMetrics.SecretOperation value();
+}
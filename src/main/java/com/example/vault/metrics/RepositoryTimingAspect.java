@@ -0,0 +1,28 @@
+package com.example.vault.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Attributes repository and secret store calls to the db phase of the request breakdown, so
+ * stores that query through {@code JdbcTemplate} or their own files are counted as well. Only
+ * registered while request timing is enabled, so neither carries extra advice otherwise.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(name = "vault.request-timing.enabled", havingValue = "true")
+public class RepositoryTimingAspect {
+
+    @Around("execution(* com.example.vault.repository..*(..)) || execution(* com.example.vault.store..*(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestTimings.Phase previous = RequestTimings.begin(RequestTimings.Phase.DB);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTimings.end(previous);
+        }
+    }
+}
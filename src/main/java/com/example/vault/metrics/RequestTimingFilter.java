@@ -0,0 +1,136 @@
+package com.example.vault.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records a phase breakdown for each API request. Requests slower than
+ * {@code vault.request-timing.slow-threshold} are logged as one JSON object, and the breakdown
+ * can be returned to the client in a {@code Server-Timing} header.
+ *
+ * The header has to go out before the body, so it covers everything up to the start of
+ * serialization; the slow-request log is written afterwards and includes serialization.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.request-timing.enabled", havingValue = "true")
+// Ahead of the security filter chain so token verification is included
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class RequestTimingFilter extends OncePerRequestFilter {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RequestTimingFilter.class);
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Value("${vault.request-timing.server-timing-header:false}")
+    private boolean serverTimingHeader;
+    
+    @Value("${vault.request-timing.slow-threshold:500}")
+    private long slowThresholdMillis = 500;
+    
+    public RequestTimingFilter() {
+        RequestTimings.setEnabled(true);
+    }
+    
+    @Override
+    public void destroy() {
+        RequestTimings.setEnabled(false);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/v1/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.start();
+        TimingResponse timingResponse = new TimingResponse(response, timings);
+        try {
+            chain.doFilter(request, timingResponse);
+            if (!response.isCommitted()) {
+                timingResponse.beforeBody();
+            }
+        } finally {
+            timings.stop();
+            // Streaming and long-poll responses finish on another thread; their first leg is not interesting
+            if (!request.isAsyncStarted() && timings.elapsedNanos() >= slowThresholdMillis * 1_000_000) {
+                logSlowRequest(request, response.getStatus(), timings);
+            }
+        }
+    }
+    
+    private void logSlowRequest(HttpServletRequest request, int status, RequestTimings timings) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("event", "slow_request");
+        entry.put("method", request.getMethod());
+        entry.put("path", request.getRequestURI());
+        entry.put("status", status);
+        entry.putAll(timings.toMap());
+        try {
+            logger.warn("{}", objectMapper.writeValueAsString(entry));
+        } catch (IOException e) {
+            logger.warn("Failed to serialize slow request entry", e);
+        }
+    }
+    
+    /**
+     * Marks the start of serialization, and adds the header, when the body is first requested
+     */
+    private final class TimingResponse extends HttpServletResponseWrapper {
+        private final RequestTimings timings;
+        private boolean bodyStarted;
+        
+        private TimingResponse(HttpServletResponse response, RequestTimings timings) {
+            super(response);
+            this.timings = timings;
+        }
+        
+        void beforeBody() {
+            if (bodyStarted) {
+                return;
+            }
+            bodyStarted = true;
+            if (serverTimingHeader) {
+                setHeader("Server-Timing", timings.toServerTiming());
+            }
+            RequestTimings.begin(RequestTimings.Phase.SERIALIZE);
+        }
+        
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            beforeBody();
+            return super.getOutputStream();
+        }
+        
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            beforeBody();
+            return super.getWriter();
+        }
+        
+        @Override
+        public void flushBuffer() throws IOException {
+            beforeBody();
+            super.flushBuffer();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.vault.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Per-request breakdown of where time went, bound to the request thread.
+ *
+ * Phases are exclusive: entering a phase pauses the one already running, so a DB query made
+ * during identity lookup counts as db, not twice. Call sites bracket their work with
+ * {@link #begin(Phase)} and {@link #end(Phase)}; while recording is disabled both return after
+ * a single volatile read.
+ */
+public final class RequestTimings {
+
+    public enum Phase {
+        JWT, IDENTITY, POLICY, DB, DECRYPT, ENCRYPT, SERIALIZE;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int PHASE_COUNT = Phase.values().length;
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static volatile boolean enabled;
+
+    private final long startNanos = System.nanoTime();
+    private final long[] nanos = new long[PHASE_COUNT];
+    private final int[] counts = new int[PHASE_COUNT];
+    private Phase active;
+    private long activeSince;
+
+    /**
+     * Enter a phase. Returns the phase that was running, to be handed to {@link #end(Phase)}.
+     */
+    public static Phase begin(Phase phase) {
+        if (!enabled) {
+            return null;
+        }
+        RequestTimings timings = CURRENT.get();
+        if (timings == null) {
+            return null;
+        }
+        Phase previous = timings.active;
+        timings.switchTo(phase);
+        timings.counts[phase.ordinal()]++;
+        return previous;
+    }
+
+    /**
+     * Leave the current phase and resume the one returned by the matching {@link #begin(Phase)}
+     */
+    public static void end(Phase previous) {
+        if (!enabled) {
+            return;
+        }
+        RequestTimings timings = CURRENT.get();
+        if (timings != null) {
+            timings.switchTo(previous);
+        }
+    }
+
+    static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    /**
+     * Start recording for the current thread; the caller must {@link #stop()} it
+     */
+    static RequestTimings start() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    void stop() {
+        switchTo(null);
+        CURRENT.remove();
+    }
+
+    private void switchTo(Phase phase) {
+        long now = System.nanoTime();
+        if (active != null) {
+            nanos[active.ordinal()] += now - activeSince;
+        }
+        active = phase;
+        activeSince = now;
+    }
+
+    public long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long phaseNanos(Phase phase) {
+        long total = nanos[phase.ordinal()];
+        return phase == active ? total + System.nanoTime() - activeSince : total;
+    }
+
+    public int phaseCount(Phase phase) {
+        return counts[phase.ordinal()];
+    }
+
+    /**
+     * Server-Timing header value: one entry per phase that ran, plus the total so far
+     */
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder(128);
+        for (Phase phase : Phase.values()) {
+            if (counts[phase.ordinal()] > 0) {
+                header.append(phase.tag).append(";dur=").append(millis(phaseNanos(phase))).append(", ");
+            }
+        }
+        return header.append("total;dur=").append(millis(elapsedNanos())).toString();
+    }
+
+    /**
+     * Breakdown for the slow-request log, in milliseconds
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        long attributed = 0;
+        for (Phase phase : Phase.values()) {
+            if (counts[phase.ordinal()] > 0) {
+                long phaseNanos = phaseNanos(phase);
+                attributed += phaseNanos;
+                phases.put(phase.tag, Map.of("ms", millis(phaseNanos), "count", counts[phase.ordinal()]));
+            }
+        }
+        long elapsed = elapsedNanos();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("total_ms", millis(elapsed));
+        map.put("phases", phases);
+        map.put("other_ms", millis(Math.max(elapsed - attributed, 0)));
+        return map;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+}
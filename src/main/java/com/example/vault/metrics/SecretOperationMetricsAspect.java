@@ -0,0 +1,55 @@
+package com.example.vault.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Records {@link MeteredSecretOperation} methods. Ordered ahead of the cache and transaction
+ * advice (which default to lowest precedence), so the timing covers cache hits and commits as
+ * callers see them.
+ */
+@Aspect
+@Component
+@Order(0)
+public class SecretOperationMetricsAspect {
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    @Around("@annotation(metered)")
+    public Object record(ProceedingJoinPoint joinPoint, MeteredSecretOperation metered) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        String path = args.length > 0 && args[0] instanceof String value ? value : null;
+        long start = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            vaultMetrics.recordSecretOperation(metered.value(), path, outcomeOf(result), start);
+            return result;
+        } catch (SecurityException e) {
+            vaultMetrics.recordSecretOperation(metered.value(), path, VaultMetrics.Outcome.DENIED, start);
+            throw e;
+        } catch (IllegalArgumentException e) {
+            vaultMetrics.recordSecretOperation(metered.value(), path, VaultMetrics.Outcome.INVALID, start);
+            throw e;
+        } catch (Throwable e) {
+            vaultMetrics.recordSecretOperation(metered.value(), path, VaultMetrics.Outcome.ERROR, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Service methods signal a missing secret with an empty Optional or false
+     */
+    private static VaultMetrics.Outcome outcomeOf(Object result) {
+        if (result instanceof Optional<?> optional && optional.isEmpty() || Boolean.FALSE.equals(result)) {
+            return VaultMetrics.Outcome.NOT_FOUND;
+        }
+        return VaultMetrics.Outcome.SUCCESS;
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.vault.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Vault-specific meters.
+ *
+ * Every tag value comes from a fixed set (operation, outcome, path depth bucket), never from
+ * raw paths or identities, so the number of series stays bounded. Meters are resolved once and
+ * kept in arrays indexed by those tags, so recording on the request path does not allocate.
+ */
+@Component
+public class VaultMetrics {
+
+    /**
+     * Paths deeper than this are reported in the last bucket
+     */
+    static final int MAX_PATH_DEPTH = 4;
+
+    private static final Duration MIN_EXPECTED = Duration.ofNanos(10_000);
+    private static final Duration MAX_EXPECTED = Duration.ofSeconds(30);
+
+    public enum SecretOperation {
+        CREATE, UPDATE, READ, READ_ETAG, READ_BULK, DELETE, LIST, LIST_PATHS, WATCH,
+        LIST_VERSIONS, VERSION_COUNT, VERSION_INFO, VERSION_RANGE, DELETE_VERSION, RESTORE_VERSION;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+
+        boolean createsVersion() {
+            return this == CREATE || this == UPDATE;
+        }
+    }
+
+    public enum Outcome {
+        SUCCESS, NOT_FOUND, DENIED, INVALID, EXPIRED, ERROR;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum PurgeReason {
+        MAX_VERSIONS, MAX_AGE, DELETED;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    public enum TransitOperation {
+        ENCRYPT, DECRYPT, REWRAP;
+
+        final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final int OPERATION_COUNT = SecretOperation.values().length;
+    private static final int OUTCOME_COUNT = Outcome.values().length;
+
+    private final MeterRegistry registry;
+
+    private final AtomicReferenceArray<Timer> secretTimers = new AtomicReferenceArray<>(
+            OPERATION_COUNT * OUTCOME_COUNT * MAX_PATH_DEPTH);
+    private final Counter[] accessDenials = new Counter[OPERATION_COUNT];
+    private final Counter versionsCreated;
+
+    private final Timer policyAllowed;
+    private final Timer policyDenied;
+
+    private final Timer encryptSuccess;
+    private final Timer encryptError;
+    private final Timer decryptSuccess;
+    private final Timer decryptError;
+    private final Counter decryptFailures;
+
+    private final Timer[] jwtParse = new Timer[OUTCOME_COUNT];
+
+    private final Counter[] retentionPurges = new Counter[PurgeReason.values().length];
+    private final Counter tieringMoves;
+
+    private final DistributionSummary writeBatchSize;
+    private final Counter writeBatchSplits;
+
+    private final Counter leasesExpired;
+
+    private final Timer[] transitRequests = new Timer[TransitOperation.values().length];
+    private final Counter[] transitItems = new Counter[TransitOperation.values().length];
+    private final Counter[] transitBytes = new Counter[TransitOperation.values().length];
+
+    private final AtomicLong replicationLagMillis = new AtomicLong();
+    private final AtomicLong replicationOutboxDepth = new AtomicLong();
+
+    public VaultMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        for (SecretOperation operation : SecretOperation.values()) {
+            accessDenials[operation.ordinal()] = Counter.builder("vault.access.denied")
+                    .description("Secret operations rejected by policy")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+        }
+        versionsCreated = Counter.builder("vault.secret.versions.created")
+                .description("Secret versions written by create and update")
+                .register(registry);
+
+        policyAllowed = timer("vault.policy.evaluation", "Policy evaluation for an access check", "decision", "allowed");
+        policyDenied = timer("vault.policy.evaluation", "Policy evaluation for an access check", "decision", "denied");
+
+        encryptSuccess = timer("vault.encryption", "AES-GCM operation on a secret value",
+                "operation", "encrypt", "outcome", Outcome.SUCCESS.tag);
+        encryptError = timer("vault.encryption", "AES-GCM operation on a secret value",
+                "operation", "encrypt", "outcome", Outcome.ERROR.tag);
+        decryptSuccess = timer("vault.encryption", "AES-GCM operation on a secret value",
+                "operation", "decrypt", "outcome", Outcome.SUCCESS.tag);
+        decryptError = timer("vault.encryption", "AES-GCM operation on a secret value",
+                "operation", "decrypt", "outcome", Outcome.ERROR.tag);
+        decryptFailures = Counter.builder("vault.encryption.decrypt.failures")
+                .description("Values that failed to decrypt or authenticate")
+                .register(registry);
+
+        for (Outcome outcome : new Outcome[]{Outcome.SUCCESS, Outcome.EXPIRED, Outcome.INVALID}) {
+            jwtParse[outcome.ordinal()] = timer("vault.jwt.parse", "JWT signature check and claim parsing",
+                    "outcome", outcome.tag);
+        }
+
+        for (PurgeReason reason : PurgeReason.values()) {
+            retentionPurges[reason.ordinal()] = Counter.builder("vault.retention.purged")
+                    .description("Secret versions removed by the retention compactor")
+                    .tag("reason", reason.tag)
+                    .register(registry);
+        }
+        tieringMoves = Counter.builder("vault.tiering.archived")
+                .description("Secret versions moved from the hot table to the archive")
+                .register(registry);
+
+        writeBatchSize = DistributionSummary.builder("vault.write.batch.size")
+                .description("Secret writes committed together in one transaction")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(1024.0)
+                .register(registry);
+        writeBatchSplits = Counter.builder("vault.write.batch.splits")
+                .description("Write batches rolled back and retried one write per transaction")
+                .register(registry);
+
+        leasesExpired = Counter.builder("vault.lease.expired")
+                .description("Secrets soft-deleted by the lease reaper when their TTL ran out")
+                .register(registry);
+
+        for (TransitOperation operation : TransitOperation.values()) {
+            transitRequests[operation.ordinal()] = Timer.builder("vault.transit.requests")
+                    .description("Transit requests, single or batch")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+            transitItems[operation.ordinal()] = Counter.builder("vault.transit.items")
+                    .description("Items processed by transit requests")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+            transitBytes[operation.ordinal()] = Counter.builder("vault.transit.bytes")
+                    .description("Plaintext bytes encrypted or decrypted by transit requests")
+                    .baseUnit("bytes")
+                    .tag("operation", operation.tag)
+                    .register(registry);
+        }
+
+        TimeGauge.builder("vault.replication.lag", replicationLagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Age of the oldest unapplied change from another instance at the last sync")
+                .register(registry);
+        Gauge.builder("vault.replication.outbox.depth", replicationOutboxDepth, AtomicLong::get)
+                .description("Changes written by this instance that other instances have not applied")
+                .register(registry);
+    }
+
+    public void recordSecretOperation(SecretOperation operation, String path, Outcome outcome, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        int depth = pathDepth(path);
+        int slot = (operation.ordinal() * OUTCOME_COUNT + outcome.ordinal()) * MAX_PATH_DEPTH + depth - 1;
+        Timer timer = secretTimers.get(slot);
+        if (timer == null) {
+            // Registration is idempotent, so a racing thread simply gets the same timer
+            timer = timer("vault.secret.operation", "Secret service operation including cache, database and crypto",
+                    "operation", operation.tag, "outcome", outcome.tag,
+                    "path_depth", depth == MAX_PATH_DEPTH ? MAX_PATH_DEPTH + "+" : String.valueOf(depth));
+            secretTimers.set(slot, timer);
+        }
+        timer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        if (outcome == Outcome.DENIED) {
+            accessDenials[operation.ordinal()].increment();
+        } else if (outcome == Outcome.SUCCESS && operation.createsVersion()) {
+            versionsCreated.increment();
+        }
+    }
+
+    public void recordPolicyEvaluation(boolean allowed, long startNanos) {
+        (allowed ? policyAllowed : policyDenied).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEncrypt(boolean success, long startNanos) {
+        (success ? encryptSuccess : encryptError).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordDecrypt(boolean success, long startNanos) {
+        (success ? decryptSuccess : decryptError).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        if (!success) {
+            decryptFailures.increment();
+        }
+    }
+
+    /**
+     * Outcome is SUCCESS, EXPIRED or INVALID
+     */
+    public void recordJwtParse(Outcome outcome, long startNanos) {
+        jwtParse[outcome.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetentionPurge(PurgeReason reason, long versions) {
+        retentionPurges[reason.ordinal()].increment(versions);
+    }
+
+    public void recordTieringMove(long versions) {
+        tieringMoves.increment(versions);
+    }
+
+    public void recordWriteBatch(int writes) {
+        writeBatchSize.record(writes);
+    }
+
+    public void recordWriteBatchSplit() {
+        writeBatchSplits.increment();
+    }
+
+    public void recordLeaseExpiry(long secrets) {
+        leasesExpired.increment(secrets);
+    }
+
+    public void recordTransit(TransitOperation operation, int items, long bytes, long startNanos) {
+        transitRequests[operation.ordinal()].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        transitItems[operation.ordinal()].increment(items);
+        transitBytes[operation.ordinal()].increment(bytes);
+    }
+
+    /**
+     * A dynamic credential was issued with its engine's pool empty, so it was created on the request path
+     */
+    public void recordCredentialPoolMiss(String engine, String role) {
+        registry.counter("vault.engine.pool.misses", "engine", engine, "role", role).increment();
+    }
+
+    public void updateReplicationState(long lagMillis, long outboxDepth) {
+        replicationLagMillis.set(lagMillis);
+        replicationOutboxDepth.set(outboxDepth);
+    }
+
+    /**
+     * Number of segments in the path, 1 to MAX_PATH_DEPTH, counted without allocating
+     */
+    static int pathDepth(String path) {
+        if (path == null || path.isEmpty()) {
+            return 1;
+        }
+        int depth = 1;
+        for (int i = 0; i < path.length() && depth < MAX_PATH_DEPTH; i++) {
+            if (path.charAt(i) == '/') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_EXPECTED)
+                .maximumExpectedValue(MAX_EXPECTED)
+                .register(registry);
+    }
+}
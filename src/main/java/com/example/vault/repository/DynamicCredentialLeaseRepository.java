@@ -0,0 +1,42 @@
+package com.example.vault.repository;
+
+import com.example.vault.entity.DynamicCredentialLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DynamicCredentialLeaseRepository extends JpaRepository<DynamicCredentialLease, Long> {
+    
+    Optional<DynamicCredentialLease> findByLeaseId(String leaseId);
+    
+    /**
+     * Pooled credentials of one instance, plus those recorded before owners were, which no
+     * instance can hand out
+     */
+    @Query("SELECT l FROM DynamicCredentialLease l WHERE l.engine = :engine AND l.expiresAt IS NULL " +
+           "AND (l.owner = :owner OR l.owner IS NULL)")
+    List<DynamicCredentialLease> findPooled(@Param("engine") String engine, @Param("owner") String owner);
+    
+    List<DynamicCredentialLease> findByEngineAndExpiresAtIsNotNull(String engine);
+    
+    /**
+     * Start the lease of a pooled credential as it is handed out
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE DynamicCredentialLease l SET l.expiresAt = :expiresAt WHERE l.leaseId = :leaseId")
+    int markIssued(@Param("leaseId") String leaseId, @Param("expiresAt") LocalDateTime expiresAt);
+    
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM DynamicCredentialLease l WHERE l.leaseId = :leaseId")
+    int deleteByLeaseId(@Param("leaseId") String leaseId);
+}
@@ -21,5 +21,7 @@ public interface ReplicationLogRepository extends JpaRepository<ReplicationLog,
     @Query("SELECT r FROM ReplicationLog r WHERE r.timestamp > :since ORDER BY r.timestamp ASC")
     List<ReplicationLog> findLogsSince(@Param("since") LocalDateTime since);
     
+    long countByProcessedFalseAndSourceInstance(String sourceInstance);
+    
     void deleteByTimestampBefore(LocalDateTime cutoff);
 }
@@ -0,0 +1,53 @@
+package com.example.vault.repository;
+
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.entity.SecretArchiveEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SecretArchiveRepository extends JpaRepository<SecretArchiveEntry, Long> {
+    
+    Optional<SecretArchiveEntry> findByPathAndKeyAndVersion(String path, String key, Integer version);
+    
+    boolean existsByPathAndKeyAndVersionAndDeletedFalse(String path, String key, Integer version);
+    
+    Optional<SecretArchiveEntry> findFirstByPathAndKeyAndDeletedFalseOrderByVersionDesc(String path, String key);
+    
+    @Query("SELECT e FROM SecretArchiveEntry e WHERE e.path = :path AND e.key = :key AND e.deleted = false " +
+           "AND e.version BETWEEN :startVersion AND :endVersion ORDER BY e.version DESC")
+    List<SecretArchiveEntry> findVersionRange(@Param("path") String path, @Param("key") String key,
+                                              @Param("startVersion") Integer startVersion,
+                                              @Param("endVersion") Integer endVersion);
+    
+    @Query("SELECT e FROM SecretArchiveEntry e WHERE e.path = :path AND e.key = :key AND e.deleted = false ORDER BY e.version DESC")
+    List<SecretArchiveEntry> findLiveVersions(@Param("path") String path, @Param("key") String key);
+    
+    @Query("SELECT COUNT(e) FROM SecretArchiveEntry e WHERE e.path = :path AND e.key = :key AND e.deleted = false")
+    long countLiveVersions(@Param("path") String path, @Param("key") String key);
+    
+    @Query("SELECT MIN(e.version) FROM SecretArchiveEntry e WHERE e.path = :path AND e.key = :key AND e.deleted = false")
+    Integer findMinLiveVersion(@Param("path") String path, @Param("key") String key);
+    
+    @Modifying
+    @Query("UPDATE SecretArchiveEntry e SET e.deleted = true, e.deletedAt = :deletedAt " +
+           "WHERE e.path = :path AND e.key = :key AND e.deleted = false")
+    int markAllDeleted(@Param("path") String path, @Param("key") String key, @Param("deletedAt") LocalDateTime deletedAt);
+    
+    /**
+     * Version states of the keys after the first pair up to and including the second, newest version first per key
+     */
+    @Query("SELECT new com.example.vault.dto.SecretVersionState(e.id, e.path, e.key, e.version, e.deleted, e.createdAt, e.deletedAt, true) " +
+           "FROM SecretArchiveEntry e WHERE (e.path > :afterPath OR (e.path = :afterPath AND e.key > :afterKey)) " +
+           "AND (e.path < :lastPath OR (e.path = :lastPath AND e.key <= :lastKey)) " +
+           "ORDER BY e.path, e.key, e.version DESC")
+    List<SecretVersionState> findVersionStatesInRange(@Param("afterPath") String afterPath, @Param("afterKey") String afterKey,
+                                                      @Param("lastPath") String lastPath, @Param("lastKey") String lastKey);
+}
@@ -0,0 +1,25 @@
+package com.example.vault.repository;
+
+import com.example.vault.entity.SecretBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SecretBlobRepository extends JpaRepository<SecretBlob, Long> {
+
+    Optional<SecretBlob> findFirstByPathAndKeyOrderByVersionDesc(String path, String key);
+
+    Optional<SecretBlob> findByPathAndKeyAndVersion(String path, String key, Integer version);
+
+    List<SecretBlob> findByPathAndKey(String path, String key);
+
+    boolean existsByPathAndKey(String path, String key);
+
+    @Query("SELECT MAX(b.version) FROM SecretBlob b WHERE b.path = :path AND b.key = :key")
+    Integer findMaxVersion(@Param("path") String path, @Param("key") String key);
+}
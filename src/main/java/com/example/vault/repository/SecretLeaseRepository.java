@@ -0,0 +1,43 @@
+package com.example.vault.repository;
+
+import com.example.vault.dto.SecretLeaseState;
+import com.example.vault.entity.SecretLease;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface SecretLeaseRepository extends JpaRepository<SecretLease, Long> {
+    
+    Optional<SecretLease> findByLeaseId(String leaseId);
+    
+    Optional<SecretLease> findByPathAndKey(String path, String key);
+    
+    List<SecretLease> findByLeaseIdIn(Collection<String> leaseIds);
+    
+    /**
+     * Forward-only cursor over every lease for rebuilding the expiry wheel; must be consumed and
+     * closed inside a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.example.vault.dto.SecretLeaseState(l.leaseId, l.path, l.key, l.ttlSeconds, l.createdAt, l.expiresAt) " +
+           "FROM SecretLease l")
+    Stream<SecretLeaseState> streamAll();
+    
+    @Modifying
+    @Query("DELETE FROM SecretLease l WHERE l.path = :path AND l.key = :key")
+    int deleteByPathAndKey(@Param("path") String path, @Param("key") String key);
+}
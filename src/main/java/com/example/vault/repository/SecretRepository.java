@@ -1,46 +1,93 @@
 package com.example.vault.repository;
 
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.dto.SecretVersionSummary;
 import com.example.vault.entity.Secret;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SecretRepository extends JpaRepository<Secret, Long> {
     
+    /**
+     * Latest live (path, key) pairs at a path, or anywhere below it when recursive.
+     * {@code subtree} is the escaped LIKE pattern for {@code path + "/%"}.
+     */
+    String LATEST_KEYS_UNDER = "SELECT new com.example.vault.dto.SecretPathKey(s.path, s.key) FROM Secret s " +
+            "WHERE (s.path = :path OR (:recursive = true AND s.path LIKE :subtree ESCAPE '\\')) AND s.deleted = false " +
+            "AND s.version = (SELECT MAX(s2.version) FROM Secret s2 WHERE s2.path = s.path AND s2.key = s.key)";
+    
+    @Query(LATEST_KEYS_UNDER + " ORDER BY s.path, s.key")
+    List<SecretPathKey> findKeysUnder(@Param("path") String path, @Param("recursive") boolean recursive,
+                                      @Param("subtree") String subtree);
+    
+    /**
+     * One keyset page ordered by (path, key), starting after the given pair; ("", "") starts at the beginning
+     */
+    @Query(LATEST_KEYS_UNDER + " AND (s.path > :afterPath OR (s.path = :afterPath AND s.key > :afterKey)) ORDER BY s.path, s.key")
+    List<SecretPathKey> findKeysUnderAfter(@Param("path") String path, @Param("recursive") boolean recursive,
+                                           @Param("subtree") String subtree, @Param("afterPath") String afterPath,
+                                           @Param("afterKey") String afterKey, Limit limit);
+    
+    /**
+     * Forward-only cursor over the same rows; must be consumed and closed inside a transaction
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(LATEST_KEYS_UNDER + " ORDER BY s.path, s.key")
+    Stream<SecretPathKey> streamKeysUnder(@Param("path") String path, @Param("recursive") boolean recursive,
+                                          @Param("subtree") String subtree);
+    
     @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false ORDER BY s.version DESC LIMIT 1")
     Optional<Secret> findByPathAndKeyAndDeletedFalse(@Param("path") String path, @Param("key") String key);
     
+    @Query("SELECT s.version FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false ORDER BY s.version DESC LIMIT 1")
+    Optional<Integer> findLatestVersionByPathAndKey(@Param("path") String path, @Param("key") String key);
+    
+    boolean existsByPathAndKeyAndVersionAndDeletedFalse(String path, String key, Integer version);
+    
     @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.version = :version AND s.deleted = false")
     Optional<Secret> findByPathAndKeyAndVersion(@Param("path") String path, @Param("key") String key, @Param("version") Integer version);
     
     @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.version = :version")
     Optional<Secret> findByPathAndKeyAndVersionIncludingDeleted(@Param("path") String path, @Param("key") String key, @Param("version") Integer version);
     
-    @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.deleted = false AND s.version = (SELECT MAX(s2.version) FROM Secret s2 WHERE s2.path = s.path AND s2.key = s.key) ORDER BY s.key")
-    List<Secret> findByPathAndDeletedFalse(@Param("path") String path);
-    
     @Query("SELECT DISTINCT s.path FROM Secret s WHERE s.path LIKE :pathPrefix% AND s.deleted = false")
     List<String> findPathsByPrefix(@Param("pathPrefix") String pathPrefix);
     
-    @Query("SELECT s FROM Secret s WHERE s.path LIKE :pathPrefix% AND s.deleted = false AND s.version = (SELECT MAX(s2.version) FROM Secret s2 WHERE s2.path = s.path AND s2.key = s.key) ORDER BY s.path, s.key")
-    List<Secret> findByPathPrefixAndDeletedFalse(@Param("pathPrefix") String pathPrefix);
-    
     @Query("SELECT MAX(s.version) FROM Secret s WHERE s.path = :path AND s.key = :key")
     Integer findMaxVersionByPathAndKey(@Param("path") String path, @Param("key") String key);
     
+    /**
+     * Full rows with their identities, for moving versions into the archive
+     */
+    @Query("SELECT s FROM Secret s LEFT JOIN FETCH s.createdBy LEFT JOIN FETCH s.updatedBy WHERE s.id IN :ids")
+    List<Secret> findAllWithIdentitiesByIdIn(@Param("ids") List<Long> ids);
+    
     @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key")
     List<Secret> findAllByPathAndKey(@Param("path") String path, @Param("key") String key);
     
-    @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false ORDER BY s.version DESC")
-    List<Secret> findAllVersionsByPathAndKey(@Param("path") String path, @Param("key") String key);
-    
-    @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false ORDER BY s.version ASC")
-    List<Secret> findAllVersionsByPathAndKeyAsc(@Param("path") String path, @Param("key") String key);
+    /**
+     * Version history, newest first, in one query: no encrypted values and no per-row identity lookups
+     */
+    @Query("SELECT new com.example.vault.dto.SecretVersionSummary(s.version, s.metadata, s.createdAt, s.updatedAt, " +
+           "cb.name, ub.name, s.deleted, s.deletedAt) " +
+           "FROM Secret s LEFT JOIN s.createdBy cb LEFT JOIN s.updatedBy ub " +
+           "WHERE s.path = :path AND s.key = :key AND s.deleted = false ORDER BY s.version DESC")
+    List<SecretVersionSummary> findVersionSummariesByPathAndKey(@Param("path") String path, @Param("key") String key);
     
     @Query("SELECT COUNT(s) FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false")
     Long countVersionsByPathAndKey(@Param("path") String path, @Param("key") String key);
@@ -48,15 +95,33 @@ public interface SecretRepository extends JpaRepository<Secret, Long> {
     @Query("SELECT MIN(s.version) FROM Secret s WHERE s.path = :path AND s.key = :key AND s.deleted = false")
     Integer findMinVersionByPathAndKey(@Param("path") String path, @Param("key") String key);
     
-    @Query("SELECT DISTINCT s.path, s.key, MAX(s.version) as maxVersion, COUNT(s.version) as versionCount " +
-           "FROM Secret s WHERE s.path = :path AND s.deleted = false " +
-           "GROUP BY s.path, s.key ORDER BY s.key")
-    List<Object[]> findSecretSummariesByPath(@Param("path") String path);
-    
-    @Query("SELECT s FROM Secret s WHERE s.path = :path AND s.key = :key AND s.version BETWEEN :startVersion AND :endVersion AND s.deleted = false ORDER BY s.version DESC")
+    /**
+     * Versions with their values; identities are fetched in the same query since every row reports them
+     */
+    @Query("SELECT s FROM Secret s LEFT JOIN FETCH s.createdBy LEFT JOIN FETCH s.updatedBy " +
+           "WHERE s.path = :path AND s.key = :key AND s.version BETWEEN :startVersion AND :endVersion AND s.deleted = false ORDER BY s.version DESC")
     List<Secret> findVersionRangeByPathAndKey(@Param("path") String path, @Param("key") String key, 
                                             @Param("startVersion") Integer startVersion, 
                                             @Param("endVersion") Integer endVersion);
     
     boolean existsByPathAndKeyAndDeletedFalse(String path, String key);
+    
+    /**
+     * Every stored (path, key), live or deleted, in keyset order after the given pair
+     */
+    @Query("SELECT new com.example.vault.dto.SecretPathKey(s.path, s.key) FROM Secret s " +
+           "WHERE s.path > :afterPath OR (s.path = :afterPath AND s.key > :afterKey) " +
+           "GROUP BY s.path, s.key ORDER BY s.path, s.key")
+    List<SecretPathKey> findAllKeysAfter(@Param("afterPath") String afterPath, @Param("afterKey") String afterKey,
+                                         Limit limit);
+    
+    /**
+     * Version states of the keys after the first pair up to and including the second, newest version first per key
+     */
+    @Query("SELECT new com.example.vault.dto.SecretVersionState(s.id, s.path, s.key, s.version, s.deleted, s.createdAt, s.deletedAt, false) " +
+           "FROM Secret s WHERE (s.path > :afterPath OR (s.path = :afterPath AND s.key > :afterKey)) " +
+           "AND (s.path < :lastPath OR (s.path = :lastPath AND s.key <= :lastKey)) " +
+           "ORDER BY s.path, s.key, s.version DESC")
+    List<SecretVersionState> findVersionStatesInRange(@Param("afterPath") String afterPath, @Param("afterKey") String afterKey,
+                                                      @Param("lastPath") String lastPath, @Param("lastKey") String lastKey);
 }
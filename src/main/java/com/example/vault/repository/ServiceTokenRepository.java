@@ -0,0 +1,31 @@
+package com.example.vault.repository;
+
+import com.example.vault.entity.ServiceToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ServiceTokenRepository extends JpaRepository<ServiceToken, Long> {
+    
+    Optional<ServiceToken> findByTokenHash(String tokenHash);
+    
+    List<ServiceToken> findByIdentityName(String identityName);
+    
+    @Query("SELECT t FROM ServiceToken t WHERE t.expiresAt > :now")
+    List<ServiceToken> findActive(@Param("now") LocalDateTime now);
+    
+    // Derived deletes load each row first so the policy element collection is removed with it
+    @Transactional
+    long deleteByTokenHashIn(Collection<String> tokenHashes);
+    
+    @Transactional
+    long deleteByExpiresAtBefore(LocalDateTime cutoff);
+}
@@ -0,0 +1,20 @@
+package com.example.vault.repository;
+
+import com.example.vault.entity.TransitKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TransitKeyRepository extends JpaRepository<TransitKey, Long> {
+
+    List<TransitKey> findByNameOrderByVersionAsc(String name);
+
+    boolean existsByName(String name);
+
+    @Query("SELECT MAX(k.version) FROM TransitKey k WHERE k.name = :name")
+    Integer findMaxVersion(@Param("name") String name);
+}
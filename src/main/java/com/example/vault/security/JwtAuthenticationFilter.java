@@ -1,6 +1,7 @@
 package com.example.vault.security;
 
 import com.example.vault.service.AuthenticationService;
+import com.example.vault.service.ServiceTokenService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -43,10 +44,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // JWT Token is in the form "Bearer token"
         if (requestTokenHeader != null && requestTokenHeader.startsWith("Bearer ")) {
             jwtToken = requestTokenHeader.substring(7);
-            try {
-                username = jwtTokenUtil.getUsernameFromToken(jwtToken);
-            } catch (Exception e) {
-                logger.warn("Unable to get JWT Token: {}", e.getMessage());
+            if (ServiceTokenService.isOpaqueToken(jwtToken)) {
+                // Opaque service tokens resolve from the in-memory token store
+                username = authenticationService.getUsernameFromToken(jwtToken).orElse(null);
+            } else {
+                try {
+                    username = jwtTokenUtil.getUsernameFromToken(jwtToken);
+                } catch (Exception e) {
+                    logger.warn("Unable to get JWT Token: {}", e.getMessage());
+                }
             }
         }
         
@@ -1,9 +1,12 @@
 package com.example.vault.security;
 
+import com.example.vault.metrics.RequestTimings;
+import com.example.vault.metrics.VaultMetrics;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -26,6 +29,9 @@ public class JwtTokenUtil {
     @Value("${vault.jwt.expiration:86400}") // 24 hours
     private Long expiration;
     
+    @Autowired
+    private VaultMetrics vaultMetrics;
+    
     private SecretKey getSigningKey() {
         return Keys.hmacShaKeyFor(secret.getBytes());
     }
@@ -69,13 +75,19 @@ public class JwtTokenUtil {
     }
     
     private Claims getAllClaimsFromToken(String token) {
+        long start = System.nanoTime();
+        VaultMetrics.Outcome outcome = VaultMetrics.Outcome.INVALID;
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.JWT);
         try {
-            return Jwts.parser()
+            Claims claims = Jwts.parser()
                     .verifyWith(getSigningKey())
                     .build()
                     .parseSignedClaims(token)
                     .getPayload();
+            outcome = VaultMetrics.Outcome.SUCCESS;
+            return claims;
         } catch (ExpiredJwtException e) {
+            outcome = VaultMetrics.Outcome.EXPIRED;
             logger.warn("JWT token is expired: {}", e.getMessage());
             throw e;
         } catch (UnsupportedJwtException e) {
@@ -90,6 +102,9 @@ public class JwtTokenUtil {
         } catch (IllegalArgumentException e) {
             logger.error("JWT token compact of handler are invalid: {}", e.getMessage());
             throw e;
+        } finally {
+            vaultMetrics.recordJwtParse(outcome, start);
+            RequestTimings.end(previousPhase);
         }
     }
     
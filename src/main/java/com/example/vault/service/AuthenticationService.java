@@ -2,6 +2,7 @@ package com.example.vault.service;
 
 import com.example.vault.entity.Identity;
 import com.example.vault.entity.Policy;
+import com.example.vault.metrics.RequestTimings;
 import com.example.vault.repository.IdentityRepository;
 import com.example.vault.security.JwtTokenUtil;
 import org.slf4j.Logger;
@@ -29,6 +30,9 @@ public class AuthenticationService {
     @Autowired
     private JwtTokenUtil jwtTokenUtil;
     
+    @Autowired
+    private ServiceTokenService serviceTokenService;
+    
     @Transactional
     public Optional<String> authenticate(String username, String password) {
         logger.info("Attempting authentication for user: {}", username);
@@ -56,11 +60,18 @@ public class AuthenticationService {
         identity.setLastLoginAt(LocalDateTime.now());
         identityRepository.save(identity);
         
-        // Generate JWT token
         List<String> policies = identity.getPolicies().stream()
                 .map(Policy::getName)
                 .toList();
         
+        // Service identities get an opaque token from the token store when enabled
+        if (identity.getType() == Identity.IdentityType.SERVICE && serviceTokenService.isEnabled()) {
+            String token = serviceTokenService.issueToken(identity, policies);
+            logger.info("Authentication successful for service: {}", username);
+            return Optional.of(token);
+        }
+        
+        // Generate JWT token
         String token = jwtTokenUtil.generateToken(
             username, 
             identity.getType().name(), 
@@ -72,33 +83,77 @@ public class AuthenticationService {
     }
     
     public boolean validateToken(String token) {
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.IDENTITY);
         try {
-            String username = jwtTokenUtil.getUsernameFromToken(token);
-            return jwtTokenUtil.validateToken(token, username);
-        } catch (Exception e) {
-            logger.warn("Token validation failed: {}", e.getMessage());
-            return false;
+            if (ServiceTokenService.isOpaqueToken(token)) {
+                return serviceTokenService.lookup(token).isPresent();
+            }
+            try {
+                String username = jwtTokenUtil.getUsernameFromToken(token);
+                return jwtTokenUtil.validateToken(token, username);
+            } catch (Exception e) {
+                logger.warn("Token validation failed: {}", e.getMessage());
+                return false;
+            }
+        } finally {
+            RequestTimings.end(previousPhase);
         }
     }
     
     public Optional<Identity> getIdentityFromToken(String token) {
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.IDENTITY);
         try {
-            String username = jwtTokenUtil.getUsernameFromToken(token);
-            if (jwtTokenUtil.validateToken(token, username)) {
-                return identityRepository.findByNameWithPolicies(username);
+            if (ServiceTokenService.isOpaqueToken(token)) {
+                return serviceTokenService.lookup(token)
+                        .flatMap(lease -> identityRepository.findByNameWithPolicies(lease.identityName()));
+            }
+            try {
+                String username = jwtTokenUtil.getUsernameFromToken(token);
+                if (jwtTokenUtil.validateToken(token, username)) {
+                    return identityRepository.findByNameWithPolicies(username);
+                }
+            } catch (Exception e) {
+                logger.warn("Failed to extract identity from token: {}", e.getMessage());
             }
-        } catch (Exception e) {
-            logger.warn("Failed to extract identity from token: {}", e.getMessage());
+            return Optional.empty();
+        } finally {
+            RequestTimings.end(previousPhase);
         }
-        return Optional.empty();
     }
     
     public List<String> getPoliciesFromToken(String token) {
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.IDENTITY);
         try {
-            return jwtTokenUtil.getPoliciesFromToken(token);
-        } catch (Exception e) {
-            logger.warn("Failed to extract policies from token: {}", e.getMessage());
-            return List.of();
+            if (ServiceTokenService.isOpaqueToken(token)) {
+                return serviceTokenService.lookup(token)
+                        .map(ServiceTokenService.TokenLease::policies)
+                        .orElse(List.of());
+            }
+            try {
+                return jwtTokenUtil.getPoliciesFromToken(token);
+            } catch (Exception e) {
+                logger.warn("Failed to extract policies from token: {}", e.getMessage());
+                return List.of();
+            }
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+    }
+    
+    public Optional<String> getUsernameFromToken(String token) {
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.IDENTITY);
+        try {
+            if (ServiceTokenService.isOpaqueToken(token)) {
+                return serviceTokenService.lookup(token).map(ServiceTokenService.TokenLease::identityName);
+            }
+            try {
+                return Optional.ofNullable(jwtTokenUtil.getUsernameFromToken(token));
+            } catch (Exception e) {
+                logger.warn("Failed to extract username from token: {}", e.getMessage());
+                return Optional.empty();
+            }
+        } finally {
+            RequestTimings.end(previousPhase);
         }
     }
 }
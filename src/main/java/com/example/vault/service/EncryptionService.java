@@ -1,18 +1,39 @@
 package com.example.vault.service;
 
+import com.example.vault.metrics.RequestTimings;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.util.SecretValueFormat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import javax.crypto.AEADBadTagException;
 import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 @Service
 public class EncryptionService {
@@ -23,10 +44,48 @@ public class EncryptionService {
     private static final String TRANSFORMATION = "AES/GCM/NoPadding";
     private static final int GCM_IV_LENGTH = 12;
     private static final int GCM_TAG_LENGTH = 16;
+    private static final int VALUE_HEADER_LENGTH = 1 + GCM_IV_LENGTH;
     
     @Value("${vault.encryption.key:myDefaultEncryptionKey32Chars!!}")
     private String encryptionKey;
     
+    @Autowired
+    private VaultMetrics vaultMetrics;
+    
+    @Value("${vault.encryption.bulk-chunk-size:32}")
+    private int bulkChunkSize = 32;
+    
+    @Value("${vault.encryption.bulk-parallelism:0}")
+    private int bulkParallelism = 0;
+    
+    private ForkJoinPool decryptWorkers;
+    
+    // Shared DRBG instance: seeding a new NativePRNG per call reads /dev/urandom under a monitor,
+    // which pins virtual threads to their carrier
+    private final SecureRandom secureRandom = createSecureRandom();
+    
+    // Looking up a Cipher is costly and an instance is not thread-safe, so each thread reuses one
+    private static final ThreadLocal<Cipher> CIPHERS = ThreadLocal.withInitial(EncryptionService::newCipher);
+    
+    @PostConstruct
+    public void start() {
+        if (bulkChunkSize < 1) {
+            throw new IllegalArgumentException("vault.encryption.bulk-chunk-size must be positive");
+        }
+        int threads = bulkParallelism > 0 ? bulkParallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        decryptWorkers = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("decrypt-worker-" + threadIds.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        decryptWorkers.shutdown();
+    }
+    
     private SecretKey getSecretKey() {
         // In production, this should be loaded from a secure key management system
         byte[] keyBytes = encryptionKey.getBytes(StandardCharsets.UTF_8);
@@ -44,13 +103,15 @@ public class EncryptionService {
     }
     
     public String encrypt(String plaintext) {
+        long start = System.nanoTime();
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.ENCRYPT);
         try {
             SecretKey secretKey = getSecretKey();
             Cipher cipher = Cipher.getInstance(TRANSFORMATION);
             
             // Generate random IV
             byte[] iv = new byte[GCM_IV_LENGTH];
-            new SecureRandom().nextBytes(iv);
+            secureRandom.nextBytes(iv);
             GCMParameterSpec gcmSpec = new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv);
             
             cipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmSpec);
@@ -61,15 +122,22 @@ public class EncryptionService {
             System.arraycopy(iv, 0, encryptedData, 0, GCM_IV_LENGTH);
             System.arraycopy(ciphertext, 0, encryptedData, GCM_IV_LENGTH, ciphertext.length);
             
-            return Base64.getEncoder().encodeToString(encryptedData);
+            String encoded = Base64.getEncoder().encodeToString(encryptedData);
+            vaultMetrics.recordEncrypt(true, start);
+            return encoded;
             
         } catch (Exception e) {
+            vaultMetrics.recordEncrypt(false, start);
             logger.error("Encryption failed", e);
             throw new RuntimeException("Encryption failed", e);
+        } finally {
+            RequestTimings.end(previousPhase);
         }
     }
     
     public String decrypt(String encryptedData) {
+        long start = System.nanoTime();
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.DECRYPT);
         try {
             byte[] decodedData = Base64.getDecoder().decode(encryptedData);
             
@@ -86,11 +154,237 @@ public class EncryptionService {
             cipher.init(Cipher.DECRYPT_MODE, secretKey, gcmSpec);
             byte[] plaintext = cipher.doFinal(ciphertext);
             
-            return new String(plaintext, StandardCharsets.UTF_8);
+            String decrypted = new String(plaintext, StandardCharsets.UTF_8);
+            vaultMetrics.recordDecrypt(true, start);
+            return decrypted;
             
         } catch (Exception e) {
+            vaultMetrics.recordDecrypt(false, start);
             logger.error("Decryption failed", e);
             throw new RuntimeException("Decryption failed", e);
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+    }
+    
+    /**
+     * Encrypt a secret value into its stored binary form: the {@link SecretValueFormat} byte,
+     * then the IV, ciphertext and tag. Stored as raw bytes, it is a quarter smaller than the
+     * Base64 text of {@link #encrypt(String)} and needs no encoding on the way in or out.
+     */
+    public byte[] encryptValue(String plaintext) {
+        long start = System.nanoTime();
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.ENCRYPT);
+        try {
+            byte[] data = plaintext.getBytes(StandardCharsets.UTF_8);
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            secureRandom.nextBytes(iv);
+            
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            byte[] value = new byte[VALUE_HEADER_LENGTH + cipher.getOutputSize(data.length)];
+            value[0] = SecretValueFormat.V1;
+            System.arraycopy(iv, 0, value, 1, GCM_IV_LENGTH);
+            cipher.doFinal(data, 0, data.length, value, VALUE_HEADER_LENGTH);
+            
+            vaultMetrics.recordEncrypt(true, start);
+            return value;
+            
+        } catch (Exception e) {
+            vaultMetrics.recordEncrypt(false, start);
+            logger.error("Encryption failed", e);
+            throw new RuntimeException("Encryption failed", e);
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+    }
+    
+    /**
+     * Reverse {@link #encryptValue(String)}. Legacy Base64 values are converted by
+     * {@link SecretValueFormat#fromBase64(String)} when they are loaded, so they decrypt here too.
+     */
+    public String decryptValue(byte[] value) {
+        long start = System.nanoTime();
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.DECRYPT);
+        try {
+            SecretValueFormat.requireV1(value);
+            if (value.length < VALUE_HEADER_LENGTH + GCM_TAG_LENGTH) {
+                throw new IllegalArgumentException("Ciphertext is too short");
+            }
+            
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), new GCMParameterSpec(GCM_TAG_LENGTH * 8, value, 1, GCM_IV_LENGTH));
+            byte[] plaintext = cipher.doFinal(value, VALUE_HEADER_LENGTH, value.length - VALUE_HEADER_LENGTH);
+            
+            String decrypted = new String(plaintext, StandardCharsets.UTF_8);
+            vaultMetrics.recordDecrypt(true, start);
+            return decrypted;
+            
+        } catch (Exception e) {
+            vaultMetrics.recordDecrypt(false, start);
+            logger.error("Decryption failed", e);
+            throw new RuntimeException("Decryption failed", e);
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+    }
+    
+    /**
+     * {@link #decryptValue(byte[])} for many values, returned in the same order. Lists longer than
+     * {@code bulk-chunk-size} are cut into chunks that run on a dedicated fork-join pool, one
+     * thread per core by default, each thread reusing its own cipher; shorter ones run on the
+     * caller's thread. A value that cannot be decrypted fails the whole call, as it would a single
+     * read.
+     */
+    public List<String> decryptValues(List<byte[]> values) {
+        return decryptAll(values, this::decryptValue);
+    }
+    
+    /**
+     * {@link #decryptValues(List)} for lists of unrelated secrets: a value that cannot be
+     * decrypted comes back as null, and the others are still returned.
+     */
+    public List<String> tryDecryptValues(List<byte[]> values) {
+        return decryptAll(values, value -> {
+            try {
+                return decryptValue(value);
+            } catch (RuntimeException e) {
+                return null;
+            }
+        });
+    }
+    
+    private List<String> decryptAll(List<byte[]> values, Function<byte[], String> decrypt) {
+        if (values.size() <= bulkChunkSize) {
+            return values.stream().map(decrypt).toList();
+        }
+        
+        // Workers have no request timings of their own, so the caller's wait is the decrypt phase
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.DECRYPT);
+        String[] results = new String[values.size()];
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < values.size(); from += bulkChunkSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(from + bulkChunkSize, values.size());
+            chunks.add(() -> {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    results[i] = decrypt.apply(values.get(i));
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> chunk : decryptWorkers.invokeAll(chunks)) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException failure) {
+                throw failure;
+            }
+            throw new RuntimeException("Decryption failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while decrypting a batch", e);
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+        return Arrays.asList(results);
+    }
+    
+    /**
+     * AES-GCM encrypt raw bytes with the given key. Returns the IV followed by the ciphertext and
+     * tag. Unlike {@link #encrypt(String)} this records no metrics, as it is called per item of
+     * batches that callers account for themselves.
+     */
+    public byte[] encrypt(SecretKey key, byte[] plaintext) {
+        byte[] iv = new byte[GCM_IV_LENGTH];
+        secureRandom.nextBytes(iv);
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, iv));
+            byte[] encryptedData = new byte[GCM_IV_LENGTH + cipher.getOutputSize(plaintext.length)];
+            System.arraycopy(iv, 0, encryptedData, 0, GCM_IV_LENGTH);
+            cipher.doFinal(plaintext, 0, plaintext.length, encryptedData, GCM_IV_LENGTH);
+            return encryptedData;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Encryption failed", e);
+        }
+    }
+    
+    /**
+     * Reverse {@link #encrypt(SecretKey, byte[])}
+     *
+     * @throws IllegalArgumentException if the data is malformed or was not encrypted with the key
+     */
+    public byte[] decrypt(SecretKey key, byte[] encryptedData) {
+        if (encryptedData.length < GCM_IV_LENGTH + GCM_TAG_LENGTH) {
+            throw new IllegalArgumentException("Ciphertext is too short");
+        }
+        try {
+            Cipher cipher = CIPHERS.get();
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(GCM_TAG_LENGTH * 8, encryptedData, 0, GCM_IV_LENGTH));
+            return cipher.doFinal(encryptedData, GCM_IV_LENGTH, encryptedData.length - GCM_IV_LENGTH);
+        } catch (AEADBadTagException e) {
+            throw new IllegalArgumentException("Ciphertext could not be decrypted with this key");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Decryption failed", e);
+        }
+    }
+    
+    /**
+     * New random AES-256 key
+     */
+    public SecretKey newDataKey() {
+        byte[] keyBytes = new byte[32];
+        secureRandom.nextBytes(keyBytes);
+        return new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+    
+    /**
+     * Encrypt a data key with the vault key for storage next to the data it protects
+     */
+    public String wrapKey(SecretKey dataKey) {
+        return encrypt(Base64.getEncoder().encodeToString(dataKey.getEncoded()));
+    }
+    
+    public SecretKey unwrapKey(String wrappedKey) {
+        return dataKey(Base64.getDecoder().decode(decrypt(wrappedKey)));
+    }
+    
+    /**
+     * AES key from raw bytes, e.g. from {@link #newDataKey()}
+     */
+    public static SecretKey dataKey(byte[] keyBytes) {
+        return new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+    
+    /**
+     * Short, non-reversible identifier of the active key, used to tell whether ciphertext
+     * written elsewhere can be decrypted here
+     */
+    public String keyFingerprint() {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update("vault-key-fingerprint".getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(getSecretKey().getEncoded()), 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static Cipher newCipher() {
+        try {
+            return Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TRANSFORMATION + " not available", e);
+        }
+    }
+    
+    private static SecureRandom createSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
         }
     }
     
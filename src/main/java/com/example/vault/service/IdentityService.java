@@ -33,6 +33,9 @@ public class IdentityService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private ServiceTokenService serviceTokenService;
+    
     @Transactional
     public UserResponse createUser(CreateUserRequest request) {
         logger.info("Creating new user: {}", request.getUsername());
@@ -125,6 +128,14 @@ public class IdentityService {
         Identity updatedIdentity = identityRepository.save(identity);
         logger.info("Updated user: {}", username);
         
+        // Opaque tokens carry a policy snapshot, so push assignment changes to them
+        if (updateRequest.getPolicies() != null) {
+            serviceTokenService.refreshPolicies(username, updateRequest.getPolicies());
+        }
+        if (Boolean.FALSE.equals(updatedIdentity.getEnabled())) {
+            serviceTokenService.revokeTokensForIdentity(username);
+        }
+        
         return Optional.of(convertToUserResponse(updatedIdentity));
     }
     
@@ -143,6 +154,7 @@ public class IdentityService {
         }
         
         identityRepository.delete(identity);
+        serviceTokenService.revokeTokensForIdentity(username);
         logger.info("Deleted user: {}", username);
         return true;
     }
@@ -164,6 +176,9 @@ public class IdentityService {
         
         identity.setEnabled(enabled);
         identityRepository.save(identity);
+        if (!enabled) {
+            serviceTokenService.revokeTokensForIdentity(username);
+        }
         
         logger.info("{} user: {}", enabled ? "Enabled" : "Disabled", username);
         return true;
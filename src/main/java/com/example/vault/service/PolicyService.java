@@ -1,6 +1,8 @@
 package com.example.vault.service;
 
 import com.example.vault.entity.Policy;
+import com.example.vault.metrics.RequestTimings;
+import com.example.vault.metrics.VaultMetrics;
 import com.example.vault.repository.PolicyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,6 +23,9 @@ public class PolicyService {
     @Autowired
     private PolicyRepository policyRepository;
     
+    @Autowired
+    private VaultMetrics vaultMetrics;
+    
     @Transactional
     public Policy createPolicy(String name, String description, Set<String> rules) {
         if (policyRepository.existsByName(name)) {
@@ -81,6 +86,18 @@ public class PolicyService {
      * Check if the given policies allow access to the specified path and operation
      */
     public boolean hasAccess(List<String> policyNames, String path, String operation) {
+        long start = System.nanoTime();
+        RequestTimings.Phase previousPhase = RequestTimings.begin(RequestTimings.Phase.POLICY);
+        try {
+            boolean allowed = evaluateAccess(policyNames, path, operation);
+            vaultMetrics.recordPolicyEvaluation(allowed, start);
+            return allowed;
+        } finally {
+            RequestTimings.end(previousPhase);
+        }
+    }
+    
+    private boolean evaluateAccess(List<String> policyNames, String path, String operation) {
         if (policyNames == null || policyNames.isEmpty()) {
             return false;
         }
@@ -1,20 +1,26 @@
 package com.example.vault.service;
 
 import com.example.vault.entity.ReplicationLog;
+import com.example.vault.event.SecretChangedEvent;
+import com.example.vault.metrics.VaultMetrics;
 import com.example.vault.repository.ReplicationLogRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.net.InetAddress;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ReplicationService {
@@ -24,6 +30,12 @@ public class ReplicationService {
     @Autowired
     private ReplicationLogRepository replicationLogRepository;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private VaultMetrics vaultMetrics;
+    
     @Value("${vault.replication.enabled:true}")
     private boolean replicationEnabled;
     
@@ -86,6 +98,11 @@ public class ReplicationService {
             List<ReplicationLog> unprocessedLogs = replicationLogRepository
                 .findUnprocessedLogsFromOtherInstances(instanceId);
             
+            long lagMillis = unprocessedLogs.isEmpty() ? 0
+                : Duration.between(unprocessedLogs.get(0).getTimestamp(), LocalDateTime.now()).toMillis();
+            vaultMetrics.updateReplicationState(Math.max(lagMillis, 0),
+                replicationLogRepository.countByProcessedFalseAndSourceInstance(instanceId));
+            
             if (unprocessedLogs.isEmpty()) {
                 return;
             }
@@ -135,6 +152,25 @@ public class ReplicationService {
         // Implementation would handle secret replication
         // This might involve updating local secrets based on remote changes
         logger.debug("Processing secret replication for entity {}", log.getEntityId());
+        
+        // Feed the local change index so watchers see remote writes too
+        try {
+            Map<String, Object> data = objectMapper.readValue(log.getEntityData(), new TypeReference<Map<String, Object>>() {});
+            Object path = data.get("path");
+            Object key = data.get("key");
+            if (path != null && key != null) {
+                Integer version = data.get("version") instanceof Number number ? number.intValue() : null;
+                SecretChangedEvent.Operation operation = switch (log.getOperationType()) {
+                    case CREATE -> SecretChangedEvent.Operation.CREATE;
+                    case UPDATE -> SecretChangedEvent.Operation.UPDATE;
+                    case DELETE -> SecretChangedEvent.Operation.DELETE;
+                };
+                eventPublisher.publishEvent(new SecretChangedEvent(path.toString(), key.toString(), version,
+                        operation, SecretChangedEvent.SOURCE_REPLICATION));
+            }
+        } catch (Exception e) {
+            logger.warn("Could not read secret identifiers from replication log {}", log.getId());
+        }
     }
     
     private void processIdentityReplication(ReplicationLog log) {
@@ -0,0 +1,220 @@
+package com.example.vault.service;
+
+import com.example.vault.config.RetentionProperties;
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.exception.UnsupportedStoreOperationException;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.metrics.VaultMetrics.PurgeReason;
+import com.example.vault.repository.SecretRepository;
+import com.example.vault.store.SecretStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background compactor that purges secret versions outside the configured retention, from both
+ * the hot table and the archive.
+ *
+ * Keys are walked in (path, key) order, a batch at a time, each batch in its own short
+ * transaction followed by a pause, so the compactor never holds long locks or saturates the
+ * database. The highest version of a key is kept while any version is live, so version numbers
+ * are never reused; a deleted key disappears only once every one of its versions is past the
+ * deleted retention.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    @Autowired
+    private RetentionProperties properties;
+
+    @Autowired
+    private SecretRepository secretRepository;
+
+    @Autowired
+    private SecretArchiveService archiveService;
+
+    @Autowired
+    private SecretStore secretStore;
+
+    @Autowired
+    private SecretVersionScanner scanner;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        if (properties.isEnabled() && !secretStore.usesSecretsTable()) {
+            logger.warn("Retention is enabled but does not run: the secret store keeps secrets outside the secrets table");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vault.retention.interval:3600000}",
+            initialDelayString = "${vault.retention.initial-delay:300000}")
+    public void scheduledCompaction() {
+        if (properties.isEnabled() && secretStore.usesSecretsTable()) {
+            compact();
+        }
+    }
+
+    /**
+     * Run one full pass over the store. Returns the number of versions purged per reason, or an
+     * empty map if a pass is already in progress.
+     */
+    public Map<PurgeReason, Long> compact() {
+        if (!secretStore.usesSecretsTable()) {
+            throw new UnsupportedStoreOperationException("retention compaction");
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Retention compaction already running");
+            return Map.of();
+        }
+        try {
+            return compactAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<PurgeReason, Long> compactAll() {
+        long start = System.nanoTime();
+        Map<PurgeReason, Long> totals = new EnumMap<>(PurgeReason.class);
+        LocalDateTime now = LocalDateTime.now();
+
+        long keys = scanner.scan(properties.getBatchSize(), properties.getBatchPause(), true, batch -> {
+            PurgePlan plan = new PurgePlan();
+            for (List<SecretVersionState> versions : batch) {
+                selectPurgeable(versions, ruleFor(versions.get(0).path()), now, plan);
+            }
+            if (!plan.ids.isEmpty()) {
+                secretRepository.deleteAllByIdInBatch(plan.ids);
+            }
+            archiveService.deleteAllById(plan.archivedIds);
+            return plan;
+        }, plan -> plan.counts.forEach((reason, count) -> {
+            totals.merge(reason, count, Long::sum);
+            vaultMetrics.recordRetentionPurge(reason, count);
+        }));
+
+        long purged = totals.values().stream().mapToLong(Long::longValue).sum();
+        if (purged > 0) {
+            evictSecretCache();
+        }
+        logger.info("Retention compaction examined {} keys and purged {} versions {} in {} ms",
+                keys, purged, totals, (System.nanoTime() - start) / 1_000_000);
+        return totals;
+    }
+
+    /**
+     * Effective limits for a path: the global values overridden by the longest matching prefix rule
+     */
+    Rule ruleFor(String path) {
+        RetentionProperties.PathRule match = null;
+        for (RetentionProperties.PathRule rule : properties.getPaths()) {
+            if (rule.getPrefix() != null && SecretChangeIndex.isUnder(path, rule.getPrefix())
+                    && (match == null || rule.getPrefix().length() > match.getPrefix().length())) {
+                match = rule;
+            }
+        }
+        Rule global = new Rule(properties.getMaxVersions(), properties.getMaxAgeDays(),
+                properties.getDeletedRetentionDays());
+        if (match == null) {
+            return global;
+        }
+        return new Rule(
+                match.getMaxVersions() != null ? match.getMaxVersions() : global.maxVersions(),
+                match.getMaxAgeDays() != null ? match.getMaxAgeDays() : global.maxAgeDays(),
+                match.getDeletedRetentionDays() != null ? match.getDeletedRetentionDays() : global.deletedRetentionDays());
+    }
+
+    /**
+     * Add the versions of one key that fall outside the rule to the plan.
+     * {@code versions} holds every stored version of the key, newest first.
+     */
+    static void selectPurgeable(List<SecretVersionState> versions, Rule rule, LocalDateTime now, PurgePlan plan) {
+        LocalDateTime deletedCutoff = rule.deletedRetentionDays() > 0 ? now.minusDays(rule.deletedRetentionDays()) : null;
+        LocalDateTime ageCutoff = rule.maxAgeDays() > 0 ? now.minusDays(rule.maxAgeDays()) : null;
+
+        boolean keyDeleted = versions.stream().allMatch(SecretVersionState::deleted);
+        if (keyDeleted) {
+            // The whole key goes at once, so a later re-create never collides with leftover versions
+            if (deletedCutoff != null && versions.stream().allMatch(v -> deletedBefore(v, deletedCutoff))) {
+                versions.forEach(v -> plan.add(v, PurgeReason.DELETED));
+            }
+            return;
+        }
+
+        int live = 0;
+        for (int i = 0; i < versions.size(); i++) {
+            SecretVersionState version = versions.get(i);
+            if (version.deleted()) {
+                // The highest version stays to keep the version sequence
+                if (i > 0 && deletedCutoff != null && deletedBefore(version, deletedCutoff)) {
+                    plan.add(version, PurgeReason.DELETED);
+                }
+                continue;
+            }
+            live++;
+            if (live == 1) {
+                continue; // the current value is always kept
+            }
+            if (rule.maxVersions() > 0 && live > rule.maxVersions()) {
+                plan.add(version, PurgeReason.MAX_VERSIONS);
+            } else if (ageCutoff != null && version.createdAt().isBefore(ageCutoff)) {
+                plan.add(version, PurgeReason.MAX_AGE);
+            }
+        }
+    }
+
+    private static boolean deletedBefore(SecretVersionState version, LocalDateTime cutoff) {
+        // Rows deleted before deletion times were recorded count from their creation
+        LocalDateTime deletedAt = version.deletedAt() != null ? version.deletedAt() : version.createdAt();
+        return deletedAt.isBefore(cutoff);
+    }
+
+    private void evictSecretCache() {
+        Cache secrets = cacheManager.getCache("secrets");
+        if (secrets != null) {
+            secrets.clear();
+        }
+    }
+
+    /**
+     * Limits in effect for one path; 0 disables a limit
+     */
+    record Rule(int maxVersions, int maxAgeDays, int deletedRetentionDays) {}
+
+    /**
+     * Versions selected for purging, split by the table they live in, with how many were
+     * selected for each reason
+     */
+    static final class PurgePlan {
+        final List<Long> ids = new ArrayList<>();
+        final List<Long> archivedIds = new ArrayList<>();
+        final Map<PurgeReason, Long> counts = new EnumMap<>(PurgeReason.class);
+
+        void add(SecretVersionState version, PurgeReason reason) {
+            (version.archived() ? archivedIds : ids).add(version.id());
+            counts.merge(reason, 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.vault.service;
+
+import com.example.vault.util.SecretValueFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Binary payload of an archived secret version.
+ *
+ * Layout: a format byte, a compression byte, then the body (raw deflate when that is smaller):
+ * the length-prefixed binary value, followed by metadata, updated-at, created-by and updated-by,
+ * each behind a presence byte. Format 1 payloads, written while values were Base64 text, put a
+ * value encoding byte before the value; they are still read, and their values converted.
+ */
+final class SecretArchiveCodec {
+
+    static final byte FORMAT_VERSION = 2;
+
+    private static final byte FORMAT_TEXT_VALUES = 1;
+
+    private static final byte UNCOMPRESSED = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final byte VALUE_BASE64 = 1;
+
+    private SecretArchiveCodec() {}
+
+    /**
+     * Fields of a version that are kept only in the payload
+     */
+    record Payload(byte[] encryptedData, String metadata, LocalDateTime updatedAt,
+                   String createdBy, String updatedBy) {}
+
+    static byte[] encode(Payload payload) {
+        try {
+            ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(body);
+            out.writeInt(payload.encryptedData().length);
+            out.write(payload.encryptedData());
+            writeOptionalString(out, payload.metadata());
+            out.writeBoolean(payload.updatedAt() != null);
+            if (payload.updatedAt() != null) {
+                out.writeLong(payload.updatedAt().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(payload.updatedAt().getNano());
+            }
+            writeOptionalString(out, payload.createdBy());
+            writeOptionalString(out, payload.updatedBy());
+            out.flush();
+
+            byte[] raw = body.toByteArray();
+            byte[] deflated = deflate(raw);
+            boolean compress = deflated.length < raw.length;
+            byte[] chosen = compress ? deflated : raw;
+
+            byte[] encoded = new byte[chosen.length + 2];
+            encoded[0] = FORMAT_VERSION;
+            encoded[1] = compress ? DEFLATED : UNCOMPRESSED;
+            System.arraycopy(chosen, 0, encoded, 2, chosen.length);
+            return encoded;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Payload decode(byte[] encoded) {
+        if (encoded.length < 2 || (encoded[0] != FORMAT_VERSION && encoded[0] != FORMAT_TEXT_VALUES)) {
+            throw new IllegalStateException("Unsupported secret archive payload format");
+        }
+        try (DataInputStream in = new DataInputStream(encoded[1] == DEFLATED
+                ? new ByteArrayInputStream(inflate(encoded))
+                : new ByteArrayInputStream(encoded, 2, encoded.length - 2))) {
+            byte[] value = encoded[0] == FORMAT_TEXT_VALUES ? readTextValue(in) : readBytes(in);
+            String metadata = readOptionalString(in);
+            LocalDateTime updatedAt = in.readBoolean()
+                    ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC) : null;
+            String createdBy = readOptionalString(in);
+            String updatedBy = readOptionalString(in);
+            return new Payload(value, metadata, updatedAt, createdBy, updatedBy);
+        } catch (IOException | DataFormatException e) {
+            throw new IllegalStateException("Corrupt secret archive payload", e);
+        }
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] raw = new byte[in.readInt()];
+        in.readFully(raw);
+        return raw;
+    }
+
+    /**
+     * Value of a format 1 payload: Base64 ciphertext was kept as its decoded bytes, which are the
+     * legacy layout; anything else was kept as UTF-8 and is returned as it is
+     */
+    private static byte[] readTextValue(DataInputStream in) throws IOException {
+        byte encoding = in.readByte();
+        byte[] raw = readBytes(in);
+        return encoding == VALUE_BASE64 ? SecretValueFormat.fromLegacyBytes(raw) : raw;
+    }
+
+    private static void writeOptionalString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(raw.length);
+            out.write(raw);
+        }
+    }
+
+    private static String readOptionalString(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return new String(readBytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream(raw.length);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated, deflater)) {
+            out.write(raw);
+        } finally {
+            deflater.end();
+        }
+        return deflated.toByteArray();
+    }
+
+    private static byte[] inflate(byte[] encoded) throws DataFormatException {
+        Inflater inflater = new Inflater(true);
+        try {
+            inflater.setInput(encoded, 2, encoded.length - 2);
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(encoded.length * 2);
+            byte[] buffer = new byte[512];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated payload");
+                }
+                raw.write(buffer, 0, n);
+            }
+            return raw.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Secret;
+import com.example.vault.entity.SecretArchiveEntry;
+import com.example.vault.repository.SecretArchiveRepository;
+import com.example.vault.store.SecretStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cold tier of the secret store: versions moved out of the {@code secrets} table by the tiering
+ * job, each kept as a compact binary payload in {@code secret_archive}.
+ *
+ * Every read queries the table. Another instance may archive at any time, so whether the archive
+ * is empty is not cached here.
+ */
+@Service
+public class SecretArchiveService {
+
+    @Autowired
+    private SecretArchiveRepository archiveRepository;
+
+    /**
+     * Copy the given versions into the archive; the caller removes them from the hot table in the
+     * same transaction. Created-by and updated-by identities must already be loaded.
+     */
+    @Transactional
+    public int archive(List<Secret> secrets) {
+        List<SecretArchiveEntry> entries = new ArrayList<>(secrets.size());
+        for (Secret secret : secrets) {
+            byte[] payload = SecretArchiveCodec.encode(new SecretArchiveCodec.Payload(
+                    secret.getEncryptedData(), secret.getMetadata(), secret.getUpdatedAt(),
+                    secret.getCreatedBy() != null ? secret.getCreatedBy().getName() : null,
+                    secret.getUpdatedBy() != null ? secret.getUpdatedBy().getName() : null));
+            entries.add(new SecretArchiveEntry(secret.getPath(), secret.getKey(), secret.getVersion(),
+                    secret.getDeleted(), secret.getDeletedAt(), secret.getCreatedAt(), payload));
+        }
+        archiveRepository.saveAll(entries);
+        return entries.size();
+    }
+
+    public Optional<ArchivedVersion> findVersion(String path, String key, Integer version) {
+        return archiveRepository.findByPathAndKeyAndVersion(path, key, version)
+                .filter(entry -> !entry.getDeleted())
+                .map(SecretArchiveService::decode);
+    }
+
+    public Optional<ArchivedVersion> findLatestVersion(String path, String key) {
+        return archiveRepository.findFirstByPathAndKeyAndDeletedFalseOrderByVersionDesc(path, key)
+                .map(SecretArchiveService::decode);
+    }
+
+    public boolean existsVersion(String path, String key, Integer version) {
+        return archiveRepository.existsByPathAndKeyAndVersionAndDeletedFalse(path, key, version);
+    }
+
+    /**
+     * Non-deleted archived versions, newest first
+     */
+    public List<ArchivedVersion> findVersions(String path, String key) {
+        return archiveRepository.findLiveVersions(path, key).stream().map(SecretArchiveService::decode).toList();
+    }
+
+    public List<ArchivedVersion> findVersionRange(String path, String key, Integer startVersion, Integer endVersion) {
+        return archiveRepository.findVersionRange(path, key,
+                        SecretStore.lowerBound(startVersion), SecretStore.upperBound(endVersion)).stream()
+                .map(SecretArchiveService::decode)
+                .toList();
+    }
+
+    public long countVersions(String path, String key) {
+        return archiveRepository.countLiveVersions(path, key);
+    }
+
+    public Integer findMinVersion(String path, String key) {
+        return archiveRepository.findMinLiveVersion(path, key);
+    }
+
+    @Transactional
+    public int markAllDeleted(String path, String key, LocalDateTime deletedAt) {
+        return archiveRepository.markAllDeleted(path, key, deletedAt);
+    }
+
+    /**
+     * Delete or restore one archived version. Returns false if it is not archived or is already
+     * in the requested state.
+     */
+    @Transactional
+    public boolean setDeleted(String path, String key, Integer version, boolean deleted) {
+        Optional<SecretArchiveEntry> entryOpt = archiveRepository.findByPathAndKeyAndVersion(path, key, version);
+        if (entryOpt.isEmpty() || entryOpt.get().getDeleted() == deleted) {
+            return false;
+        }
+        SecretArchiveEntry entry = entryOpt.get();
+        entry.setDeleted(deleted);
+        entry.setDeletedAt(deleted ? LocalDateTime.now() : null);
+        archiveRepository.save(entry);
+        return true;
+    }
+
+    /**
+     * Version states of the archived keys after the first pair up to and including the second
+     */
+    public List<SecretVersionState> findVersionStatesInRange(String afterPath, String afterKey,
+                                                             String lastPath, String lastKey) {
+        return archiveRepository.findVersionStatesInRange(afterPath, afterKey, lastPath, lastKey);
+    }
+
+    @Transactional
+    public void deleteAllById(List<Long> ids) {
+        if (!ids.isEmpty()) {
+            archiveRepository.deleteAllByIdInBatch(ids);
+        }
+    }
+
+    private static ArchivedVersion decode(SecretArchiveEntry entry) {
+        SecretArchiveCodec.Payload payload = SecretArchiveCodec.decode(entry.getPayload());
+        return new ArchivedVersion(entry.getVersion(), payload.encryptedData(), payload.metadata(),
+                entry.getCreatedAt(), payload.updatedAt(), payload.createdBy(), payload.updatedBy(),
+                entry.getDeleted(), entry.getDeletedAt());
+    }
+
+    /**
+     * An archived version with its payload decoded; the value is still encrypted
+     */
+    public record ArchivedVersion(Integer version, byte[] encryptedData, String metadata,
+                                  LocalDateTime createdAt, LocalDateTime updatedAt,
+                                  String createdBy, String updatedBy,
+                                  Boolean deleted, LocalDateTime deletedAt) {
+
+        public SecretVersionSummary toSummary() {
+            return new SecretVersionSummary(version, metadata, createdAt, updatedAt, createdBy, updatedBy, deleted, deletedAt);
+        }
+    }
+}
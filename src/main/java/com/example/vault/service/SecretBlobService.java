@@ -0,0 +1,251 @@
+package com.example.vault.service;
+
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.SecretBlob;
+import com.example.vault.entity.SecretBlobSegment;
+import com.example.vault.exception.VersionConflictException;
+import com.example.vault.repository.SecretBlobRepository;
+import com.example.vault.util.StreamingAead;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.crypto.SecretKey;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.security.SecureRandom;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Binary secrets too large to handle as a String, such as keystores and certificate bundles.
+ *
+ * Content is encrypted as it streams in, in segments of {@code vault.blob.segment-size} bytes
+ * sealed with {@link StreamingAead} under a fresh data key per version, and each segment is
+ * committed as its own row before the blob row that makes the version visible. Reads fetch,
+ * decrypt and write out one segment at a time. Memory use is therefore about one segment
+ * whatever the size of the blob. Each upload adds a version.
+ */
+@Service
+public class SecretBlobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretBlobService.class);
+
+    private static final String INSERT_SEGMENT =
+            "INSERT INTO secret_blob_segments (blob_id, segment, data) VALUES (?, ?, ?)";
+    private static final String SELECT_SEGMENT =
+            "SELECT data FROM secret_blob_segments WHERE blob_id = ? AND segment = ?";
+    private static final String DELETE_SEGMENTS =
+            "DELETE FROM secret_blob_segments WHERE blob_id = ?";
+
+    /**
+     * Uploads racing for the same key each take the next free version; one that loses the race
+     * renumbers and tries again rather than discarding what it streamed
+     */
+    private static final int PUBLISH_ATTEMPTS = 5;
+
+    @Autowired
+    private SecretBlobRepository blobRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private PolicyService policyService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vault.blob.segment-size:65536}")
+    private int segmentSize = 65536;
+
+    @Value("${vault.blob.max-size:104857600}")
+    private long maxSize = 104857600;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        if (segmentSize < 1024 || segmentSize > SecretBlobSegment.MAX_DATA_LENGTH - StreamingAead.TAG_LENGTH) {
+            throw new IllegalArgumentException("vault.blob.segment-size must be between 1 KiB and 8 MiB");
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Store the stream as the key's next version. The stream is read and encrypted outside any
+     * transaction, so a slow upload does not hold a connection. Each segment is committed on its
+     * own and the blob row is published last, so nothing is visible until the whole stream has
+     * been stored. Segments of a failed upload are removed.
+     */
+    public SecretBlob write(String path, String key, InputStream content, Identity createdBy,
+                            List<String> policies) throws IOException {
+        SecretService.validatePath(path);
+        String operation = blobRepository.existsByPathAndKey(path, key) ? "update" : "create";
+        if (!policyService.hasAccess(policies, path + "/" + key, operation)) {
+            throw new SecurityException("Access denied: insufficient permissions to " + operation
+                    + " blob at " + path + "/" + key);
+        }
+
+        SecretKey dataKey = encryptionService.newDataKey();
+        byte[] noncePrefix = new byte[StreamingAead.NONCE_PREFIX_LENGTH];
+        secureRandom.nextBytes(noncePrefix);
+        StreamingAead aead = new StreamingAead(dataKey, noncePrefix);
+        String blobId = UUID.randomUUID().toString();
+
+        SecretBlob blob = new SecretBlob();
+        blob.setBlobId(blobId);
+        blob.setPath(path);
+        blob.setKey(key);
+        blob.setSegmentSize(segmentSize);
+        blob.setWrappedKey(encryptionService.wrapKey(dataKey));
+        blob.setNoncePrefix(noncePrefix);
+        blob.setCreatedBy(createdBy);
+
+        boolean published = false;
+        try {
+            // A full segment is only known to be the last once the next read finds nothing
+            PushbackInputStream in = new PushbackInputStream(content, 1);
+            byte[] buffer = new byte[segmentSize];
+            long size = 0;
+            int segment = 0;
+            boolean last;
+            do {
+                int length = in.readNBytes(buffer, 0, segmentSize);
+                size += length;
+                if (size > maxSize) {
+                    throw new IllegalArgumentException("Blob exceeds the maximum size of " + maxSize + " bytes");
+                }
+                int next = length < segmentSize ? -1 : in.read();
+                last = next == -1;
+                if (!last) {
+                    in.unread(next);
+                }
+                byte[] sealed = aead.seal(segment, last, buffer, length);
+                int number = segment;
+                transactionTemplate.executeWithoutResult(status ->
+                        jdbcTemplate.update(INSERT_SEGMENT, blobId, number, sealed));
+                segment++;
+            } while (!last);
+            blob.setSize(size);
+            blob.setSegmentCount(segment);
+
+            publish(blob);
+            published = true;
+        } finally {
+            if (!published) {
+                discardSegments(blobId);
+            }
+        }
+
+        logger.info("Stored blob {}/{} version {} ({} bytes) by user: {}", path, key, blob.getVersion(),
+                blob.getSize(), createdBy.getName());
+        return blob;
+    }
+
+    /**
+     * Number the blob and save its row. Numbered last, so a slow upload does not hold the
+     * version number while it streams.
+     */
+    private void publish(SecretBlob blob) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    Integer maxVersion = blobRepository.findMaxVersion(blob.getPath(), blob.getKey());
+                    blob.setId(null);
+                    blob.setVersion(maxVersion == null ? 1 : maxVersion + 1);
+                    blob.setCreatedAt(LocalDateTime.now());
+                    blobRepository.saveAndFlush(blob);
+                });
+                return;
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == PUBLISH_ATTEMPTS) {
+                    throw new VersionConflictException(blob.getPath(), blob.getKey(), blob.getVersion() - 1, blob.getVersion());
+                }
+                logger.debug("Blob {}/{} version {} was taken by another upload, renumbering", blob.getPath(),
+                        blob.getKey(), blob.getVersion());
+            }
+        }
+    }
+
+    private void discardSegments(String blobId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(DELETE_SEGMENTS, blobId));
+        } catch (RuntimeException e) {
+            // Unreferenced segments are never read, so a leftover is only wasted space
+            logger.warn("Could not remove segments of failed blob upload {}: {}", blobId, e.getMessage());
+        }
+    }
+
+    /**
+     * The given version, or the newest one when {@code version} is null
+     */
+    @Transactional(readOnly = true)
+    public Optional<SecretBlob> find(String path, String key, Integer version, List<String> policies) {
+        SecretService.validatePath(path);
+        if (!policyService.hasAccess(policies, path + "/" + key, "read")) {
+            throw new SecurityException("Access denied: insufficient permissions to read blob at " + path + "/" + key);
+        }
+        return version == null
+                ? blobRepository.findFirstByPathAndKeyOrderByVersionDesc(path, key)
+                : blobRepository.findByPathAndKeyAndVersion(path, key, version);
+    }
+
+    /**
+     * Decrypt the blob into {@code out} one segment at a time. Content already written is
+     * authentic, but a failure part way means the output is incomplete and must be discarded.
+     */
+    public void copyTo(SecretBlob blob, OutputStream out) throws IOException {
+        StreamingAead aead = new StreamingAead(encryptionService.unwrapKey(blob.getWrappedKey()), blob.getNoncePrefix());
+        int segmentCount = blob.getSegmentCount();
+        for (int segment = 0; segment < segmentCount; segment++) {
+            List<byte[]> data = jdbcTemplate.query(SELECT_SEGMENT, (rs, row) -> rs.getBytes(1), blob.getBlobId(), segment);
+            if (data.isEmpty()) {
+                throw new IllegalStateException("Blob " + blob.getPath() + "/" + blob.getKey() + " version "
+                        + blob.getVersion() + " is missing segment " + segment);
+            }
+            out.write(aead.open(segment, segment == segmentCount - 1, data.get(0)));
+        }
+    }
+
+    /**
+     * Remove every version of the blob, content included
+     */
+    @Transactional
+    public boolean delete(String path, String key, List<String> policies) {
+        SecretService.validatePath(path);
+        if (!policyService.hasAccess(policies, path + "/" + key, "delete")) {
+            throw new SecurityException("Access denied: insufficient permissions to delete blob at " + path + "/" + key);
+        }
+        List<SecretBlob> versions = blobRepository.findByPathAndKey(path, key);
+        if (versions.isEmpty()) {
+            return false;
+        }
+        for (SecretBlob blob : versions) {
+            jdbcTemplate.update(DELETE_SEGMENTS, blob.getBlobId());
+        }
+        blobRepository.deleteAllInBatch(versions);
+        logger.info("Deleted {} versions of blob {}/{}", versions.size(), path, key);
+        return true;
+    }
+}
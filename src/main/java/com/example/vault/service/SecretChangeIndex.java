@@ -0,0 +1,239 @@
+package com.example.vault.service;
+
+import com.example.vault.event.SecretChangedEvent;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * In-process, monotonically increasing index of committed secret changes.
+ *
+ * Keeps the most recent changes in a ring buffer so clients can ask for everything after an
+ * index they have already seen, and parks watchers by path prefix so a commit only wakes the
+ * watchers whose prefix covers the changed secret. Watchers are callbacks, not threads.
+ */
+@Service
+public class SecretChangeIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretChangeIndex.class);
+
+    @Value("${vault.watch.history-size:10000}")
+    private int historySize = 10000;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, Set<Watch>> watchesByPrefix = new ConcurrentHashMap<>();
+    private final List<Consumer<SecretChange>> listeners = new CopyOnWriteArrayList<>();
+
+    private SecretChange[] history;
+    private long currentIndex;
+
+    @PostConstruct
+    public void init() {
+        if (historySize < 1) {
+            throw new IllegalArgumentException("vault.watch.history-size must be positive");
+        }
+        history = new SecretChange[historySize];
+    }
+
+    /**
+     * Record changes once the writing transaction has committed, so woken watchers never
+     * observe an index ahead of the database.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSecretChanged(SecretChangedEvent event) {
+        record(event);
+    }
+
+    public SecretChange record(SecretChangedEvent event) {
+        SecretChange change;
+        lock.lock();
+        try {
+            currentIndex++;
+            change = new SecretChange(currentIndex, event.path(), event.key(), event.version(),
+                    event.operation(), LocalDateTime.now());
+            history[(int) (currentIndex % history.length)] = change;
+            // Listeners run under the lock so they see changes in index order; they must not block
+            for (Consumer<SecretChange> listener : listeners) {
+                listener.accept(change);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        notifyWatchers(change);
+        logger.debug("Recorded secret change {} {} at index {}", change.operation(), change.fullPath(), change.index());
+        return change;
+    }
+
+    public long currentIndex() {
+        lock.lock();
+        try {
+            return currentIndex;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Changes under the prefix committed after the given index, oldest first.
+     * {@code truncated} is set when some of those changes have already left the history.
+     */
+    public ChangeSet changesSince(long afterIndex, String prefix) {
+        lock.lock();
+        try {
+            if (afterIndex >= currentIndex) {
+                return new ChangeSet(currentIndex, List.of(), false);
+            }
+            long oldest = Math.max(1, currentIndex - history.length + 1);
+            boolean truncated = afterIndex + 1 < oldest;
+            List<SecretChange> changes = new ArrayList<>();
+            for (long i = Math.max(afterIndex + 1, oldest); i <= currentIndex; i++) {
+                SecretChange change = history[(int) (i % history.length)];
+                if (change.matches(prefix)) {
+                    changes.add(change);
+                }
+            }
+            return new ChangeSet(currentIndex, changes, truncated);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Register a one-shot watcher for changes under the prefix after the given index.
+     * The callback runs at most once; if matching changes already exist it runs immediately.
+     */
+    public Watch watch(String prefix, long afterIndex, Consumer<ChangeSet> callback) {
+        Watch watch = new Watch(prefix, afterIndex, callback);
+        watchesByPrefix.compute(prefix, (k, watches) -> {
+            Set<Watch> set = watches != null ? watches : ConcurrentHashMap.newKeySet();
+            set.add(watch);
+            return set;
+        });
+
+        // Catch changes committed before registration completed
+        ChangeSet pending = changesSince(afterIndex, prefix);
+        if (!pending.changes().isEmpty() || pending.truncated()) {
+            fire(watch, pending);
+        }
+        return watch;
+    }
+
+    public void cancel(Watch watch) {
+        if (watch.fired.compareAndSet(false, true)) {
+            remove(watch);
+        }
+    }
+
+    /**
+     * Register a listener for every change. Listeners are called in index order while the
+     * index is locked, so they must only hand the change off, never block.
+     */
+    public void addListener(Consumer<SecretChange> listener) {
+        listeners.add(listener);
+    }
+
+    public int watcherCount() {
+        return watchesByPrefix.values().stream().mapToInt(Set::size).sum();
+    }
+
+    private void notifyWatchers(SecretChange change) {
+        String fullPath = change.fullPath();
+        int separator = -1;
+        do {
+            separator = fullPath.indexOf('/', separator + 1);
+            String prefix = separator < 0 ? fullPath : fullPath.substring(0, separator);
+            Set<Watch> watches = watchesByPrefix.get(prefix);
+            if (watches != null) {
+                for (Watch watch : watches) {
+                    if (change.index() > watch.afterIndex) {
+                        fire(watch, changesSince(watch.afterIndex, watch.prefix));
+                    }
+                }
+            }
+        } while (separator >= 0);
+    }
+
+    private void fire(Watch watch, ChangeSet changes) {
+        if (!watch.fired.compareAndSet(false, true)) {
+            return;
+        }
+        remove(watch);
+        try {
+            watch.callback.accept(changes);
+        } catch (Exception e) {
+            logger.warn("Secret watch callback failed for prefix {}", watch.prefix, e);
+        }
+    }
+
+    private void remove(Watch watch) {
+        watchesByPrefix.computeIfPresent(watch.prefix, (k, watches) -> {
+            watches.remove(watch);
+            return watches.isEmpty() ? null : watches;
+        });
+    }
+
+    /**
+     * A committed change; identifiers only
+     */
+    public record SecretChange(long index, String path, String key, Integer version,
+                               SecretChangedEvent.Operation operation, LocalDateTime timestamp) {
+
+        public String fullPath() {
+            return path + "/" + key;
+        }
+
+        public boolean matches(String prefix) {
+            return isUnder(fullPath(), prefix);
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("index", index);
+            map.put("path", path);
+            map.put("key", key);
+            map.put("version", version);
+            map.put("operation", operation.name());
+            map.put("timestamp", timestamp);
+            return map;
+        }
+    }
+
+    /**
+     * Whether the path equals the prefix or lies below it, without allocating
+     */
+    public static boolean isUnder(String fullPath, String prefix) {
+        return fullPath.startsWith(prefix)
+                && (fullPath.length() == prefix.length() || fullPath.charAt(prefix.length()) == '/');
+    }
+
+    public record ChangeSet(long index, List<SecretChange> changes, boolean truncated) {}
+
+    public static final class Watch {
+        private final String prefix;
+        private final long afterIndex;
+        private final Consumer<ChangeSet> callback;
+        private final AtomicBoolean fired = new AtomicBoolean();
+
+        private Watch(String prefix, long afterIndex, Consumer<ChangeSet> callback) {
+            this.prefix = prefix;
+            this.afterIndex = afterIndex;
+            this.callback = callback;
+        }
+    }
+}
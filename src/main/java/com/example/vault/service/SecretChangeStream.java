@@ -0,0 +1,314 @@
+package com.example.vault.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events fan-out of committed secret changes.
+ *
+ * Each change is serialized once into an SSE frame and the same frame is queued for every
+ * matching subscriber. Subscribers have a bounded ring buffer drained by their own task, so a
+ * slow client only ever backs up its own buffer; when it fills, the oldest frame is dropped or
+ * the subscriber is disconnected. Frame ids are change indexes, so a client that reconnects
+ * with {@code Last-Event-ID} is replayed from the change index history.
+ */
+@Service
+public class SecretChangeStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretChangeStream.class);
+
+    private static final Frame HEARTBEAT = new Frame(0, "", ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8));
+
+    @Autowired
+    private SecretChangeIndex secretChangeIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${vault.events.buffer-size:256}")
+    private int bufferSize = 256;
+
+    @Value("${vault.events.overflow:drop-oldest}")
+    private String defaultOverflow = "drop-oldest";
+
+    @Value("${vault.events.max-duration:1800}")
+    private long maxDurationSeconds = 1800;
+
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final ExecutorService drainThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private Executor drainExecutor = drainThreads;
+
+    @PostConstruct
+    public void init() {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("vault.events.buffer-size must be positive");
+        }
+        secretChangeIndex.addListener(this::publish);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(Subscription::close);
+        drainThreads.shutdownNow();
+    }
+
+    /**
+     * Open an SSE stream for changes under the prefix. Changes after {@code lastEventId} that are
+     * still in the change index history are replayed first.
+     */
+    public ResponseBodyEmitter openStream(String prefix, Long lastEventId, String overflow) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(maxDurationSeconds * 1000);
+        Subscription subscription = subscribe(prefix, lastEventId, overflow, new FrameSink() {
+            @Override
+            public void send(byte[] frame) throws IOException {
+                emitter.send(frame, MediaType.TEXT_EVENT_STREAM);
+            }
+
+            @Override
+            public void close() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
+    Subscription subscribe(String prefix, Long lastEventId, String overflow, FrameSink sink) {
+        OverflowPolicy policy = OverflowPolicy.parse(overflow != null ? overflow : defaultOverflow);
+        // A fresh subscriber also replays from the current index, covering changes committed while it registers
+        long resumeAfter = lastEventId != null ? lastEventId : secretChangeIndex.currentIndex();
+        Subscription subscription = new Subscription(prefix, policy, sink, resumeAfter);
+        subscriptions.add(subscription);
+        subscription.schedule();
+        logger.debug("Opened change stream for prefix {} ({} subscribers)", prefix, subscriptions.size());
+        return subscription;
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    public long droppedFrameCount() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * Keeps idle connections alive and surfaces clients that have gone away
+     */
+    @Scheduled(fixedDelayString = "${vault.events.heartbeat-interval:15000}")
+    public void sendHeartbeats() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offerIfIdle(HEARTBEAT);
+        }
+    }
+
+    private void publish(SecretChangeIndex.SecretChange change) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Frame frame = toFrame(change);
+        for (Subscription subscription : subscriptions) {
+            if (SecretChangeIndex.isUnder(frame.fullPath, subscription.prefix)) {
+                subscription.offer(frame);
+            }
+        }
+    }
+
+    private Frame toFrame(SecretChangeIndex.SecretChange change) {
+        try {
+            String frame = "id: " + change.index() + "\nevent: secret-change\ndata: "
+                    + objectMapper.writeValueAsString(change.toMap()) + "\n\n";
+            return new Frame(change.index(), change.fullPath(), frame.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to serialize secret change " + change.index(), e);
+        }
+    }
+
+    private static Frame resetFrame(long index) {
+        String frame = "id: " + index + "\nevent: reset\ndata: {\"index\":" + index + "}\n\n";
+        return new Frame(index, "", frame.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public enum OverflowPolicy {
+        DROP_OLDEST, DISCONNECT;
+
+        static OverflowPolicy parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown overflow policy: " + value + " (use drop-oldest or disconnect)");
+            }
+        }
+    }
+
+    /**
+     * Destination for serialized SSE frames of one subscriber
+     */
+    interface FrameSink {
+        void send(byte[] frame) throws IOException;
+
+        void close();
+    }
+
+    /**
+     * A serialized SSE frame shared by every subscriber it is queued for
+     */
+    private record Frame(long index, String fullPath, byte[] bytes) {}
+
+    final class Subscription implements Runnable {
+        private final String prefix;
+        private final OverflowPolicy policy;
+        private final FrameSink sink;
+        private final Frame[] buffer = new Frame[bufferSize];
+        private final ReentrantLock lock = new ReentrantLock();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private long head;
+        private long tail;
+        private long lastSentIndex;
+        private boolean replayPending = true;
+
+        private Subscription(String prefix, OverflowPolicy policy, FrameSink sink, long resumeAfter) {
+            this.prefix = prefix;
+            this.policy = policy;
+            this.sink = sink;
+            this.lastSentIndex = resumeAfter;
+        }
+
+        void offer(Frame frame) {
+            boolean overflowed = false;
+            lock.lock();
+            try {
+                if (tail - head == buffer.length) {
+                    if (policy == OverflowPolicy.DISCONNECT) {
+                        overflowed = true;
+                    } else {
+                        buffer[(int) (head % buffer.length)] = null;
+                        head++;
+                        droppedFrames.incrementAndGet();
+                    }
+                }
+                if (!overflowed) {
+                    buffer[(int) (tail % buffer.length)] = frame;
+                    tail++;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (overflowed) {
+                logger.info("Disconnecting slow change stream subscriber on prefix {}", prefix);
+                // Completing may wait on a write in progress, so never do it on the publishing thread
+                drainExecutor.execute(this::close);
+            } else {
+                schedule();
+            }
+        }
+
+        void offerIfIdle(Frame frame) {
+            lock.lock();
+            try {
+                if (tail != head) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            offer(frame);
+        }
+
+        void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                drainExecutor.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (replayPending) {
+                    replayPending = false;
+                    replay();
+                }
+                while (!closed.get()) {
+                    Frame frame;
+                    lock.lock();
+                    try {
+                        if (head == tail) {
+                            scheduled.set(false);
+                            return;
+                        }
+                        int slot = (int) (head % buffer.length);
+                        frame = buffer[slot];
+                        buffer[slot] = null;
+                        head++;
+                    } finally {
+                        lock.unlock();
+                    }
+                    // Frames already sent during replay are skipped; heartbeats have no index
+                    if (frame.index == 0 || frame.index > lastSentIndex) {
+                        sink.send(frame.bytes);
+                        lastSentIndex = Math.max(lastSentIndex, frame.index);
+                    }
+                }
+            } catch (Exception e) {
+                logger.debug("Change stream subscriber on prefix {} went away: {}", prefix, e.getMessage());
+                close();
+            }
+        }
+
+        private void replay() throws IOException {
+            SecretChangeIndex.ChangeSet missed = secretChangeIndex.changesSince(lastSentIndex, prefix);
+            if (missed.truncated() || lastSentIndex > missed.index()) {
+                // Changes left the history, or the index restarted with the server; the client must re-read the prefix
+                sink.send(resetFrame(missed.index()).bytes);
+                lastSentIndex = missed.index();
+                return;
+            }
+            for (SecretChangeIndex.SecretChange change : missed.changes()) {
+                sink.send(toFrame(change).bytes);
+                lastSentIndex = change.index();
+            }
+        }
+
+        void close() {
+            if (closed.compareAndSet(false, true)) {
+                subscriptions.remove(this);
+                try {
+                    sink.close();
+                } catch (Exception e) {
+                    logger.debug("Error closing change stream: {}", e.getMessage());
+                }
+            }
+        }
+
+        boolean isClosed() {
+            return closed.get();
+        }
+    }
+}
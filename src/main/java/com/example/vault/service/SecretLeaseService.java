@@ -0,0 +1,301 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.SecretLeaseState;
+import com.example.vault.entity.SecretLease;
+import com.example.vault.event.SecretChangedEvent;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.SecretLeaseRepository;
+import com.example.vault.store.SecretStore;
+import com.example.vault.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Secret leases: an optional TTL on a key, after which every version of the key is soft-deleted.
+ *
+ * Leases are rows in {@code secret_leases}; their deadlines are tracked in an in-memory
+ * {@link TimingWheel}, rebuilt from the table on startup, so scheduling an expiry is O(1) and the
+ * reaper never scans the table. The reaper expires due leases a batch per transaction. The
+ * in-memory deadlines are only a hint: before deleting anything the reaper re-reads the lease
+ * rows, so a lease that was renewed, replaced or released in the meantime is left alone.
+ */
+@Service
+public class SecretLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretLeaseService.class);
+
+    /**
+     * Delay before a batch that failed to expire is tried again
+     */
+    private static final long RETRY_DELAY_MILLIS = 30_000;
+
+    @Autowired
+    private SecretLeaseRepository leaseRepository;
+
+    @Autowired
+    private SecretStore secretStore;
+
+    @Autowired
+    private SecretArchiveService archiveService;
+
+    @Autowired
+    private PolicyService policyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vault.lease.max-ttl:2592000}")
+    private long maxTtlSeconds = 2592000;
+
+    @Value("${vault.lease.reap-batch-size:500}")
+    private int reapBatchSize = 500;
+
+    private final Map<String, Long> deadlines = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel = new TimingWheel<>(1000, 4, System.currentTimeMillis());
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void loadLeases() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<SecretLeaseState> leases = leaseRepository.streamAll()) {
+                // Leases that ran out while the vault was down fire on the first sweep
+                leases.forEach(lease -> index(lease.leaseId(), toEpochMillis(lease.expiresAt())));
+            }
+        });
+        logger.info("Loaded {} secret leases", deadlines.size());
+    }
+
+    /**
+     * Reject a TTL that is not positive or above {@code vault.lease.max-ttl}
+     */
+    public void checkTtl(Long ttlSeconds) {
+        if (ttlSeconds != null && (ttlSeconds < 1 || ttlSeconds > maxTtlSeconds)) {
+            throw new IllegalArgumentException("TTL must be between 1 and " + maxTtlSeconds + " seconds");
+        }
+    }
+
+    /**
+     * Put a lease on the key, replacing any lease it already has. Joins the caller's
+     * transaction, and the deadline is tracked once it commits.
+     */
+    @Transactional
+    public SecretLeaseState grant(String path, String key, long ttlSeconds) {
+        checkTtl(ttlSeconds);
+        LocalDateTime now = LocalDateTime.now();
+        String leaseId = UUID.randomUUID().toString();
+
+        // Updated in place, as a delete and insert would flush in the wrong order for the unique key
+        SecretLease lease = leaseRepository.findByPathAndKey(path, key).orElseGet(SecretLease::new);
+        lease.setLeaseId(leaseId);
+        lease.setPath(path);
+        lease.setKey(key);
+        lease.setTtlSeconds(ttlSeconds);
+        lease.setCreatedAt(now);
+        lease.setExpiresAt(now.plusSeconds(ttlSeconds));
+        leaseRepository.save(lease);
+        indexAfterCommit(leaseId, toEpochMillis(lease.getExpiresAt()));
+
+        logger.debug("Granted lease {} on {}/{} with TTL {}s", leaseId, path, key, ttlSeconds);
+        return toState(lease);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<SecretLeaseState> findLease(String path, String key) {
+        return leaseRepository.findByPathAndKey(path, key).map(SecretLeaseService::toState);
+    }
+
+    /**
+     * Extend a lease by the given increment, never past the maximum TTL from when it was granted
+     */
+    @Transactional
+    public Optional<SecretLeaseState> renew(String leaseId, Long incrementSeconds, List<String> policies) {
+        Optional<SecretLease> leaseOpt = leaseRepository.findByLeaseId(leaseId);
+        LocalDateTime now = LocalDateTime.now();
+        if (leaseOpt.isEmpty() || !leaseOpt.get().getExpiresAt().isAfter(now)) {
+            return Optional.empty();
+        }
+
+        SecretLease lease = leaseOpt.get();
+        if (!policyService.hasAccess(policies, lease.getPath() + "/" + lease.getKey(), "update")) {
+            throw new SecurityException("Access denied: insufficient permissions to renew lease on "
+                    + lease.getPath() + "/" + lease.getKey());
+        }
+        long increment = incrementSeconds != null && incrementSeconds > 0 ? incrementSeconds : lease.getTtlSeconds();
+        LocalDateTime expiresAt = now.plusSeconds(increment);
+        LocalDateTime maxExpiresAt = lease.getCreatedAt().plusSeconds(maxTtlSeconds);
+        lease.setExpiresAt(expiresAt.isAfter(maxExpiresAt) ? maxExpiresAt : expiresAt);
+        leaseRepository.save(lease);
+        indexAfterCommit(leaseId, toEpochMillis(lease.getExpiresAt()));
+
+        logger.debug("Renewed lease {} until {}", leaseId, lease.getExpiresAt());
+        return Optional.of(toState(lease));
+    }
+
+    /**
+     * Expire a lease now, soft-deleting its secret
+     */
+    @Transactional
+    @CacheEvict(value = "secrets", allEntries = true)
+    public boolean revoke(String leaseId, List<String> policies) {
+        Optional<SecretLease> leaseOpt = leaseRepository.findByLeaseId(leaseId);
+        if (leaseOpt.isEmpty()) {
+            return false;
+        }
+
+        SecretLease lease = leaseOpt.get();
+        if (!policyService.hasAccess(policies, lease.getPath() + "/" + lease.getKey(), "delete")) {
+            throw new SecurityException("Access denied: insufficient permissions to revoke lease on "
+                    + lease.getPath() + "/" + lease.getKey());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        lease.setExpiresAt(now);
+        expire(List.of(lease), now);
+
+        logger.info("Revoked lease {} on {}/{}", leaseId, lease.getPath(), lease.getKey());
+        return true;
+    }
+
+    /**
+     * Drop the key's lease, e.g. because the secret was deleted. Its wheel entry is discarded
+     * when it fires.
+     */
+    @Transactional
+    public void release(String path, String key) {
+        leaseRepository.deleteByPathAndKey(path, key);
+    }
+
+    @Scheduled(fixedDelayString = "${vault.lease.sweep-interval:1000}")
+    public void reapExpiredLeases() {
+        int expired = expireUntil(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.info("Expired {} secret leases", expired);
+        }
+    }
+
+    int expireUntil(long nowMillis) {
+        List<String> due = new ArrayList<>();
+        expiryWheel.advance(nowMillis, leaseId -> {
+            Long deadline = deadlines.get(leaseId);
+            // A renewed lease has a later deadline and its own wheel entry
+            if (deadline != null && deadline <= nowMillis && deadlines.remove(leaseId, deadline)) {
+                due.add(leaseId);
+            }
+        });
+
+        LocalDateTime now = toLocalDateTime(nowMillis);
+        int expired = 0;
+        for (int from = 0; from < due.size(); from += reapBatchSize) {
+            List<String> batch = due.subList(from, Math.min(from + reapBatchSize, due.size()));
+            try {
+                expired += transactionTemplate.execute(status -> expire(leaseRepository.findByLeaseIdIn(batch), now));
+            } catch (RuntimeException e) {
+                logger.error("Failed to expire {} secret leases, retrying in {} ms", batch.size(), RETRY_DELAY_MILLIS, e);
+                batch.forEach(leaseId -> index(leaseId, nowMillis + RETRY_DELAY_MILLIS));
+            }
+        }
+        if (expired > 0) {
+            evictSecretCache();
+            vaultMetrics.recordLeaseExpiry(expired);
+        }
+        return expired;
+    }
+
+    int trackedLeaseCount() {
+        return deadlines.size();
+    }
+
+    /**
+     * Soft-delete the secrets of the leases that are due by {@code now} and drop those leases.
+     * Leases found to have a later expiry are tracked again instead.
+     */
+    private int expire(List<SecretLease> leases, LocalDateTime now) {
+        List<SecretLease> expired = new ArrayList<>(leases.size());
+        for (SecretLease lease : leases) {
+            if (lease.getExpiresAt().isAfter(now)) {
+                indexAfterCommit(lease.getLeaseId(), toEpochMillis(lease.getExpiresAt()));
+                continue;
+            }
+            secretStore.markAllDeleted(lease.getPath(), lease.getKey(), now);
+            archiveService.markAllDeleted(lease.getPath(), lease.getKey(), now);
+            eventPublisher.publishEvent(new SecretChangedEvent(lease.getPath(), lease.getKey(), null,
+                    SecretChangedEvent.Operation.DELETE));
+            expired.add(lease);
+        }
+        leaseRepository.deleteAllInBatch(expired);
+        return expired.size();
+    }
+
+    private void indexAfterCommit(String leaseId, long expiresAtMillis) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            index(leaseId, expiresAtMillis);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                index(leaseId, expiresAtMillis);
+            }
+        });
+    }
+
+    private void index(String leaseId, long expiresAtMillis) {
+        deadlines.put(leaseId, expiresAtMillis);
+        expiryWheel.schedule(leaseId, expiresAtMillis);
+    }
+
+    private void evictSecretCache() {
+        Cache secrets = cacheManager.getCache("secrets");
+        if (secrets != null) {
+            secrets.clear();
+        }
+    }
+
+    private static SecretLeaseState toState(SecretLease lease) {
+        return new SecretLeaseState(lease.getLeaseId(), lease.getPath(), lease.getKey(), lease.getTtlSeconds(),
+                lease.getCreatedAt(), lease.getExpiresAt());
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
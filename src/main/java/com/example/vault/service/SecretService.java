@@ -1,29 +1,52 @@
 package com.example.vault.service;
 
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
 import com.example.vault.entity.Identity;
 import com.example.vault.entity.Secret;
-import com.example.vault.repository.SecretRepository;
+import com.example.vault.event.SecretChangedEvent;
+import com.example.vault.exception.VersionConflictException;
+import com.example.vault.metrics.MeteredSecretOperation;
+import com.example.vault.metrics.VaultMetrics.SecretOperation;
+import com.example.vault.store.SecretStore;
+import com.example.vault.util.StripedLock;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class SecretService {
     
     private static final Logger logger = LoggerFactory.getLogger(SecretService.class);
     
+    /**
+     * Attempts at a write that lost a race for its version number, before giving up
+     */
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+    
     @Autowired
-    private SecretRepository secretRepository;
+    private SecretStore secretStore;
     
     @Autowired
     private EncryptionService encryptionService;
@@ -31,18 +54,55 @@ public class SecretService {
     @Autowired
     private PolicyService policyService;
     
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private SecretArchiveService archiveService;
+    
+    @Autowired
+    private SecretWriteBatcher writeBatcher;
+    
+    @Autowired
+    private SecretLeaseService leaseService;
+    
+    @Value("${vault.list.max-page-size:1000}")
+    private int maxPageSize = 1000;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
-    @Transactional
+    /**
+     * Serializes writes to the same path and key in this instance that run outside the write
+     * batcher, so they pick versions one at a time instead of colliding on the unique constraint.
+     * Batched writes are already serialized by the batcher's worker.
+     */
+    private final StripedLock keyLocks = new StripedLock(1024);
+    
+    /**
+     * Validation and encryption run on the calling thread; the existence check and insert run
+     * in a group-committed write batch.
+     */
     @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.CREATE)
     public Secret createSecret(String path, String key, String value, Map<String, Object> metadata, 
                              Identity createdBy, List<String> policies) {
+        return createSecret(path, key, value, metadata, createdBy, policies, null);
+    }
+    
+    /**
+     * With {@code ttlSeconds} set, the secret gets a lease and is deleted when it runs out
+     */
+    @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.CREATE)
+    public Secret createSecret(String path, String key, String value, Map<String, Object> metadata, 
+                             Identity createdBy, List<String> policies, Long ttlSeconds) {
         
         // Validate path
         validatePath(path);
+        leaseService.checkTtl(ttlSeconds);
         
         // Check if secret already exists
-        if (secretRepository.existsByPathAndKeyAndDeletedFalse(path, key)) {
+        if (secretStore.existsLive(path, key)) {
             throw new IllegalArgumentException("Secret already exists at path: " + path + "/" + key);
         }
         
@@ -52,58 +112,117 @@ public class SecretService {
         }
         
         // Encrypt the value
-        String encryptedValue = encryptionService.encrypt(value);
-        
-        // Create secret
-        Secret secret = new Secret(path, key, encryptedValue, createdBy);
-        secret.setMetadata(serializeMetadata(metadata));
+        byte[] encryptedValue = encryptionService.encryptValue(value);
+        String serializedMetadata = serializeMetadata(metadata);
         
-        Secret savedSecret = secretRepository.save(secret);
+        Secret savedSecret = write(path, key, () -> {
+            // Check again inside the batch, which may hold a concurrent create of the same key
+            if (secretStore.existsLive(path, key)) {
+                throw new IllegalArgumentException("Secret already exists at path: " + path + "/" + key);
+            }
+            
+            // Create secret, numbered after any versions left by an earlier delete
+            Integer maxVersion = secretStore.findMaxVersion(path, key);
+            Secret secret = new Secret(path, key, encryptedValue, createdBy);
+            secret.setVersion(maxVersion == null ? 1 : maxVersion + 1);
+            secret.setMetadata(serializedMetadata);
+            
+            Secret saved = secretStore.save(secret);
+            if (ttlSeconds != null) {
+                leaseService.grant(path, key, ttlSeconds);
+            } else {
+                // A lease left from the key's previous life must not expire the new secret
+                leaseService.release(path, key);
+            }
+            eventPublisher.publishEvent(new SecretChangedEvent(path, key, saved.getVersion(), SecretChangedEvent.Operation.CREATE));
+            return saved;
+        });
         logger.info("Created secret at path: {}/{} by user: {}", path, key, createdBy.getName());
         
         return savedSecret;
     }
     
-    @Transactional
+    /**
+     * The new version number is assigned inside the write batch, so concurrent updates of one
+     * key get consecutive versions in submission order.
+     */
     @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.UPDATE)
     public Optional<Secret> updateSecret(String path, String key, String value, Map<String, Object> metadata,
                                        Identity updatedBy, List<String> policies) {
+        return updateSecret(path, key, value, metadata, updatedBy, policies, null, null);
+    }
+    
+    /**
+     * Check-and-set update: with {@code cas} set, version {@code cas + 1} is written only if
+     * {@code cas} is still the newest version, otherwise a {@link VersionConflictException} is
+     * thrown. The check runs with the new version's insert, and the unique version constraint
+     * rejects a writer elsewhere that got there first, so of several callers passing the same
+     * {@code cas} exactly one succeeds.
+     *
+     * With {@code ttlSeconds} set, the key gets a new lease in place of any it had; without it,
+     * an existing lease is kept.
+     */
+    @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.UPDATE)
+    public Optional<Secret> updateSecret(String path, String key, String value, Map<String, Object> metadata,
+                                       Identity updatedBy, List<String> policies, Integer cas, Long ttlSeconds) {
         
         validatePath(path);
+        leaseService.checkTtl(ttlSeconds);
+        if (cas != null && cas < 1) {
+            throw new IllegalArgumentException("cas must be a positive version number");
+        }
         
         // Check access
         if (!policyService.hasAccess(policies, path + "/" + key, "update")) {
             throw new SecurityException("Access denied: insufficient permissions to update secret at " + path + "/" + key);
         }
         
-        Optional<Secret> secretOpt = secretRepository.findByPathAndKeyAndDeletedFalse(path, key);
-        if (secretOpt.isEmpty()) {
-            return Optional.empty();
-        }
-        
-        Secret existingSecret = secretOpt.get();
-        
-        // Create new version
-        Integer nextVersion = secretRepository.findMaxVersionByPathAndKey(path, key);
-        nextVersion = (nextVersion == null) ? 1 : nextVersion + 1;
+        byte[] encryptedValue = encryptionService.encryptValue(value);
+        String serializedMetadata = metadata != null ? serializeMetadata(metadata) : null;
         
-        Secret newSecret = new Secret(path, key, encryptionService.encrypt(value), existingSecret.getCreatedBy());
-        newSecret.setVersion(nextVersion);
-        newSecret.setUpdatedBy(updatedBy);
-        newSecret.setMetadata(metadata != null ? serializeMetadata(metadata) : existingSecret.getMetadata());
-        
-        Secret savedSecret = secretRepository.save(newSecret);
-        logger.info("Updated secret at path: {}/{} to version {} by user: {}", path, key, nextVersion, updatedBy.getName());
+        Optional<Secret> savedSecret = write(path, key, () -> {
+            Optional<Secret> secretOpt = secretStore.findHead(path, key);
+            if (secretOpt.isEmpty()) {
+                return Optional.empty();
+            }
+            
+            Secret existingSecret = secretOpt.get();
+            
+            // Create new version
+            Integer nextVersion = secretStore.findMaxVersion(path, key);
+            if (cas != null && !cas.equals(nextVersion)) {
+                throw new VersionConflictException(path, key, cas, nextVersion);
+            }
+            nextVersion = (nextVersion == null) ? 1 : nextVersion + 1;
+            
+            Secret newSecret = new Secret(path, key, encryptedValue, existingSecret.getCreatedBy());
+            newSecret.setVersion(nextVersion);
+            newSecret.setUpdatedBy(updatedBy);
+            newSecret.setMetadata(serializedMetadata != null ? serializedMetadata : existingSecret.getMetadata());
+            
+            Secret saved = secretStore.save(newSecret);
+            if (ttlSeconds != null) {
+                leaseService.grant(path, key, ttlSeconds);
+            }
+            eventPublisher.publishEvent(new SecretChangedEvent(path, key, nextVersion, SecretChangedEvent.Operation.UPDATE));
+            return Optional.of(saved);
+        });
+        savedSecret.ifPresent(secret -> logger.info("Updated secret at path: {}/{} to version {} by user: {}",
+                path, key, secret.getVersion(), updatedBy.getName()));
         
-        return Optional.of(savedSecret);
+        return savedSecret;
     }
     
     @Cacheable(value = "secrets", key = "#path + '/' + #key")
+    @MeteredSecretOperation(SecretOperation.READ)
     public Optional<Map<String, Object>> getSecret(String path, String key, List<String> policies) {
         return getSecret(path, key, null, policies);
     }
     
     @Cacheable(value = "secrets", key = "#path + '/' + #key + '/' + #version")
+    @MeteredSecretOperation(SecretOperation.READ)
     public Optional<Map<String, Object>> getSecret(String path, String key, Integer version, List<String> policies) {
         validatePath(path);
         
@@ -114,30 +233,127 @@ public class SecretService {
         
         Optional<Secret> secretOpt;
         if (version != null) {
-            secretOpt = secretRepository.findByPathAndKeyAndVersion(path, key, version);
+            secretOpt = secretStore.findVersion(path, key, version);
         } else {
-            secretOpt = secretRepository.findByPathAndKeyAndDeletedFalse(path, key);
+            secretOpt = secretStore.findHead(path, key);
         }
         
         if (secretOpt.isEmpty()) {
-            return Optional.empty();
+            // Cold versions live in the archive
+            Optional<SecretArchiveService.ArchivedVersion> archived = version != null
+                    ? archiveService.findVersion(path, key, version)
+                    : archiveService.findLatestVersion(path, key);
+            return archived.map(a -> secretValue(encryptionService.decryptValue(a.encryptedData()), a.version(),
+                    a.createdAt(), a.updatedAt(), a.metadata()));
         }
         
         Secret secret = secretOpt.get();
-        String decryptedValue = encryptionService.decrypt(secret.getEncryptedValue());
+        return Optional.of(secretValue(encryptionService.decryptValue(secret.getEncryptedData()), secret.getVersion(),
+                secret.getCreatedAt(), secret.getUpdatedAt(), secret.getMetadata()));
+    }
+    
+    /**
+     * Read the current value of many secrets at once. Values are decrypted together by
+     * {@link EncryptionService#tryDecryptValues(List)}, in parallel for long lists. Secrets the
+     * policies cannot read, that have no live version, or whose value cannot be decrypted are
+     * left out; the rest keep the order they were asked for in.
+     */
+    @MeteredSecretOperation(SecretOperation.READ_BULK)
+    public Map<SecretPathKey, Map<String, Object>> getSecrets(List<SecretPathKey> secrets, List<String> policies) {
+        Map<SecretPathKey, Map<String, Object>> results = new LinkedHashMap<>();
+        List<byte[]> encryptedValues = new ArrayList<>(secrets.size());
+        for (SecretPathKey secret : secrets) {
+            validatePath(secret.path());
+            if (results.containsKey(secret) || !policyService.hasAccess(policies, secret.fullPath(), "read")) {
+                continue;
+            }
+            Optional<Secret> head = secretStore.findHead(secret.path(), secret.key());
+            if (head.isPresent()) {
+                Secret s = head.get();
+                results.put(secret, secretValue(null, s.getVersion(), s.getCreatedAt(), s.getUpdatedAt(), s.getMetadata()));
+                encryptedValues.add(s.getEncryptedData());
+                continue;
+            }
+            // Cold versions live in the archive
+            Optional<SecretArchiveService.ArchivedVersion> archived = archiveService.findLatestVersion(secret.path(), secret.key());
+            if (archived.isPresent()) {
+                SecretArchiveService.ArchivedVersion a = archived.get();
+                results.put(secret, secretValue(null, a.version(), a.createdAt(), a.updatedAt(), a.metadata()));
+                encryptedValues.add(a.encryptedData());
+            }
+        }
         
+        List<String> values = encryptionService.tryDecryptValues(encryptedValues);
+        int i = 0;
+        for (Iterator<Map.Entry<SecretPathKey, Map<String, Object>>> it = results.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<SecretPathKey, Map<String, Object>> result = it.next();
+            String value = values.get(i++);
+            if (value == null) {
+                logger.warn("Skipping secret {} in bulk read: its value could not be decrypted", result.getKey().fullPath());
+                it.remove();
+            } else {
+                result.getValue().put("value", value);
+            }
+        }
+        return results;
+    }
+    
+    private Map<String, Object> secretValue(String decryptedValue, Integer version, LocalDateTime createdAt,
+                                            LocalDateTime updatedAt, String metadata) {
         Map<String, Object> result = new HashMap<>();
         result.put("value", decryptedValue);
-        result.put("version", secret.getVersion());
-        result.put("created_at", secret.getCreatedAt());
-        result.put("updated_at", secret.getUpdatedAt());
-        result.put("metadata", deserializeMetadata(secret.getMetadata()));
+        result.put("version", version);
+        result.put("created_at", createdAt);
+        result.put("updated_at", updatedAt);
+        result.put("metadata", deserializeMetadata(metadata));
+        return result;
+    }
+    
+    /**
+     * Resolve the ETag of the version a read would return, using only the version head.
+     * Lets conditional reads answer 304 without fetching or decrypting the value.
+     */
+    @MeteredSecretOperation(SecretOperation.READ_ETAG)
+    public Optional<String> getSecretETag(String path, String key, Integer version, List<String> policies) {
+        validatePath(path);
         
-        return Optional.of(result);
+        // Check access
+        if (!policyService.hasAccess(policies, path + "/" + key, "read")) {
+            throw new SecurityException("Access denied: insufficient permissions to read secret at " + path + "/" + key);
+        }
+        
+        Optional<Integer> resolvedVersion;
+        if (version != null) {
+            resolvedVersion = secretStore.existsVersion(path, key, version)
+                    || archiveService.existsVersion(path, key, version)
+                    ? Optional.of(version) : Optional.empty();
+        } else {
+            resolvedVersion = secretStore.findHeadVersion(path, key);
+            if (resolvedVersion.isEmpty()) {
+                resolvedVersion = archiveService.findLatestVersion(path, key).map(SecretArchiveService.ArchivedVersion::version);
+            }
+        }
+        
+        return resolvedVersion.map(v -> computeETag(path, key, v, false));
+    }
+    
+    /**
+     * Strong ETag for a secret version, derived from (path, key, version, deleted)
+     */
+    public static String computeETag(String path, String key, Integer version, boolean deleted) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((path + '\0' + key + '\0' + version + '\0' + deleted)
+                    .getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
     
     @Transactional
     @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.DELETE)
     public boolean deleteSecret(String path, String key, List<String> policies) {
         validatePath(path);
         
@@ -147,53 +363,119 @@ public class SecretService {
         }
         
         // Check if any non-deleted version exists
-        Optional<Secret> secretOpt = secretRepository.findByPathAndKeyAndDeletedFalse(path, key);
-        if (secretOpt.isEmpty()) {
+        Optional<Secret> secretOpt = secretStore.findHead(path, key);
+        if (secretOpt.isEmpty() && archiveService.findLatestVersion(path, key).isEmpty()) {
             return false;
         }
         
         // Mark all versions of this secret as deleted
-        List<Secret> allVersions = secretRepository.findAllByPathAndKey(path, key);
         LocalDateTime deletionTime = LocalDateTime.now();
-        
-        for (Secret secret : allVersions) {
-            if (!secret.getDeleted()) {
-                secret.setDeleted(true);
-                secret.setDeletedAt(deletionTime);
-            }
-        }
-        
-        secretRepository.saveAll(allVersions);
+        secretStore.markAllDeleted(path, key, deletionTime);
+        archiveService.markAllDeleted(path, key, deletionTime);
+        leaseService.release(path, key);
+        eventPublisher.publishEvent(new SecretChangedEvent(path, key, null, SecretChangedEvent.Operation.DELETE));
         
         logger.info("Deleted secret at path: {}/{}", path, key);
         return true;
     }
     
+    @MeteredSecretOperation(SecretOperation.LIST)
     public List<String> listSecrets(String path, List<String> policies) {
         return listSecrets(path, false, policies);
     }
     
+    @MeteredSecretOperation(SecretOperation.LIST)
     public List<String> listSecrets(String path, boolean recursive, List<String> policies) {
+        checkListAccess(path, policies);
+        
+        // Identifier projection, ordered by the (path, key) index; values are never loaded
+        return secretStore.findKeysUnder(path, recursive).stream()
+                .map(SecretPathKey::fullPath)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * One page of a listing, ordered by (path, key). {@code after} is the cursor returned with
+     * the previous page; each page is a single index range scan, however deep into the listing.
+     */
+    @MeteredSecretOperation(SecretOperation.LIST)
+    public KeyPage listSecretKeys(String path, boolean recursive, int limit, String after, List<String> policies) {
+        checkListAccess(path, policies);
+        
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int pageSize = Math.min(limit, maxPageSize);
+        SecretPathKey cursor = after != null && !after.isEmpty() ? decodeCursor(after) : new SecretPathKey("", "");
+        
+        // One extra row tells whether another page follows
+        List<SecretPathKey> rows = secretStore.findKeysUnderAfter(path, recursive, cursor.path(), cursor.key(), pageSize + 1);
+        boolean more = rows.size() > pageSize;
+        List<SecretPathKey> page = more ? rows.subList(0, pageSize) : rows;
+        
+        List<String> keys = page.stream().map(SecretPathKey::fullPath).collect(Collectors.toList());
+        String nextCursor = more ? encodeCursor(page.get(page.size() - 1)) : null;
+        return new KeyPage(keys, nextCursor);
+    }
+    
+    /**
+     * Hand every listed secret to the sink as it is read from a database cursor, so memory stays
+     * flat regardless of the size of the subtree. Returns the number of entries written.
+     */
+    @Transactional(readOnly = true)
+    public long streamSecretKeys(String path, boolean recursive, List<String> policies, Consumer<SecretPathKey> sink) {
+        checkListAccess(path, policies);
+        
+        long count = 0;
+        try (Stream<SecretPathKey> rows = secretStore.streamKeysUnder(path, recursive)) {
+            Iterator<SecretPathKey> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    public void checkListAccess(String path, List<String> policies) {
         validatePath(path);
         
-        // Check access for list operation
         if (!policyService.hasAccess(policies, path + "/*", "list")) {
             throw new SecurityException("Access denied: insufficient permissions to list secrets at " + path);
         }
-        
-        List<Secret> secrets;
-        if (recursive) {
-            secrets = secretRepository.findByPathPrefixAndDeletedFalse(path + "%");
-        } else {
-            secrets = secretRepository.findByPathAndDeletedFalse(path);
+    }
+    
+    static String encodeCursor(SecretPathKey last) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((last.path() + '\0' + last.key()).getBytes(StandardCharsets.UTF_8));
+    }
+    
+    static SecretPathKey decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('\0');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new SecretPathKey(decoded.substring(0, separator), decoded.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
         }
+    }
+    
+    /**
+     * Watching a prefix reveals which secrets change under it, so it needs list access
+     */
+    @MeteredSecretOperation(SecretOperation.WATCH)
+    public void checkWatchAccess(String prefix, List<String> policies) {
+        validatePath(prefix);
         
-        return secrets.stream()
-                .map(secret -> secret.getPath() + "/" + secret.getKey())
-                .sorted()
-                .collect(Collectors.toList());
+        if (!policyService.hasAccess(policies, prefix + "/*", "list")) {
+            throw new SecurityException("Access denied: insufficient permissions to watch secrets at " + prefix);
+        }
     }
     
+    @MeteredSecretOperation(SecretOperation.LIST_PATHS)
     public List<String> listPaths(String pathPrefix, List<String> policies) {
         validatePath(pathPrefix);
         
@@ -202,7 +484,7 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to list paths under " + pathPrefix);
         }
         
-        List<String> paths = secretRepository.findPathsByPrefix(pathPrefix + "%");
+        List<String> paths = secretStore.findPathsByPrefix(pathPrefix);
         return paths.stream()
                 .sorted()
                 .collect(Collectors.toList());
@@ -212,6 +494,7 @@ public class SecretService {
      * List all versions of a specific secret
      */
     @Transactional(readOnly = true)
+    @MeteredSecretOperation(SecretOperation.LIST_VERSIONS)
     public List<Map<String, Object>> listSecretVersions(String path, String key, List<String> policies) {
         validatePath(path);
         
@@ -220,31 +503,27 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to read secret versions at " + path + "/" + key);
         }
         
-        List<Secret> versions = secretRepository.findAllVersionsByPathAndKey(path, key);
+        List<SecretVersionSummary> versions = secretStore.findVersionSummaries(path, key);
+        List<SecretArchiveService.ArchivedVersion> archived = archiveService.findVersions(path, key);
+        if (!archived.isEmpty()) {
+            // Archived versions are all older than the hot ones
+            versions = new ArrayList<>(versions);
+            for (SecretArchiveService.ArchivedVersion version : archived) {
+                versions.add(version.toSummary());
+            }
+        }
         
         return versions.stream()
-                .map(secret -> {
+                .map(summary -> {
                     Map<String, Object> versionInfo = new HashMap<>();
-                    versionInfo.put("version", secret.getVersion());
-                    versionInfo.put("created_at", secret.getCreatedAt());
-                    versionInfo.put("updated_at", secret.getUpdatedAt());
-                    
-                    // Safely handle proxy objects
-                    try {
-                        versionInfo.put("created_by", secret.getCreatedBy() != null ? secret.getCreatedBy().getName() : null);
-                    } catch (Exception e) {
-                        versionInfo.put("created_by", "Unknown");
-                    }
-                    
-                    try {
-                        versionInfo.put("updated_by", secret.getUpdatedBy() != null ? secret.getUpdatedBy().getName() : null);
-                    } catch (Exception e) {
-                        versionInfo.put("updated_by", "Unknown");
-                    }
-                    
-                    versionInfo.put("metadata", deserializeMetadata(secret.getMetadata()));
-                    versionInfo.put("deleted", secret.getDeleted());
-                    versionInfo.put("deleted_at", secret.getDeletedAt());
+                    versionInfo.put("version", summary.version());
+                    versionInfo.put("created_at", summary.createdAt());
+                    versionInfo.put("updated_at", summary.updatedAt());
+                    versionInfo.put("created_by", summary.createdBy());
+                    versionInfo.put("updated_by", summary.updatedBy());
+                    versionInfo.put("metadata", deserializeMetadata(summary.metadata()));
+                    versionInfo.put("deleted", summary.deleted());
+                    versionInfo.put("deleted_at", summary.deletedAt());
                     return versionInfo;
                 })
                 .collect(Collectors.toList());
@@ -253,6 +532,7 @@ public class SecretService {
     /**
      * Get version count for a specific secret
      */
+    @MeteredSecretOperation(SecretOperation.VERSION_COUNT)
     public Long getSecretVersionCount(String path, String key, List<String> policies) {
         validatePath(path);
         
@@ -261,12 +541,13 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to read secret at " + path + "/" + key);
         }
         
-        return secretRepository.countVersionsByPathAndKey(path, key);
+        return secretStore.countVersions(path, key) + archiveService.countVersions(path, key);
     }
     
     /**
      * Get version range information for a secret
      */
+    @MeteredSecretOperation(SecretOperation.VERSION_INFO)
     public Map<String, Object> getSecretVersionInfo(String path, String key, List<String> policies) {
         validatePath(path);
         
@@ -275,9 +556,16 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to read secret at " + path + "/" + key);
         }
         
-        Long versionCount = secretRepository.countVersionsByPathAndKey(path, key);
-        Integer minVersion = secretRepository.findMinVersionByPathAndKey(path, key);
-        Integer maxVersion = secretRepository.findMaxVersionByPathAndKey(path, key);
+        long archivedCount = archiveService.countVersions(path, key);
+        Long versionCount = secretStore.countVersions(path, key) + archivedCount;
+        Integer minVersion = secretStore.findMinVersion(path, key);
+        if (archivedCount > 0) {
+            Integer archivedMinVersion = archiveService.findMinVersion(path, key);
+            if (archivedMinVersion != null && (minVersion == null || archivedMinVersion < minVersion)) {
+                minVersion = archivedMinVersion;
+            }
+        }
+        Integer maxVersion = secretStore.findMaxVersion(path, key);
         
         Map<String, Object> versionInfo = new HashMap<>();
         versionInfo.put("total_versions", versionCount);
@@ -291,6 +579,7 @@ public class SecretService {
     /**
      * Get a range of versions for a secret
      */
+    @MeteredSecretOperation(SecretOperation.VERSION_RANGE)
     public List<Map<String, Object>> getSecretVersionRange(String path, String key, Integer startVersion, 
                                                           Integer endVersion, List<String> policies) {
         validatePath(path);
@@ -306,34 +595,36 @@ public class SecretService {
         }
         
         // Use repository method for range query
-        List<Secret> versions = secretRepository.findVersionRangeByPathAndKey(path, key, startVersion, endVersion);
+        List<Secret> versions = secretStore.findVersionRange(path, key, startVersion, endVersion);
+        List<SecretArchiveService.ArchivedVersion> archivedVersions = archiveService.findVersionRange(path, key, startVersion, endVersion);
+        
+        // Decrypt the whole range in one batch so long ranges are spread over the decrypt workers
+        List<byte[]> encryptedValues = new ArrayList<>(versions.size() + archivedVersions.size());
+        versions.forEach(secret -> encryptedValues.add(secret.getEncryptedData()));
+        archivedVersions.forEach(archived -> encryptedValues.add(archived.encryptedData()));
+        List<String> values = encryptionService.decryptValues(encryptedValues);
+        
+        List<Map<String, Object>> results = new ArrayList<>(values.size());
+        for (int i = 0; i < versions.size(); i++) {
+            Secret secret = versions.get(i);
+            Map<String, Object> result = secretValue(values.get(i), secret.getVersion(),
+                    secret.getCreatedAt(), secret.getUpdatedAt(), secret.getMetadata());
+            // Identities are fetch-joined by the range query
+            result.put("created_by", secret.getCreatedBy() != null ? secret.getCreatedBy().getName() : null);
+            result.put("updated_by", secret.getUpdatedBy() != null ? secret.getUpdatedBy().getName() : null);
+            results.add(result);
+        }
         
-        return versions.stream()
-                .map(secret -> {
-                    String decryptedValue = encryptionService.decrypt(secret.getEncryptedValue());
-                    Map<String, Object> result = new HashMap<>();
-                    result.put("value", decryptedValue);
-                    result.put("version", secret.getVersion());
-                    result.put("created_at", secret.getCreatedAt());
-                    result.put("updated_at", secret.getUpdatedAt());
-                    
-                    // Safely handle proxy objects
-                    try {
-                        result.put("created_by", secret.getCreatedBy() != null ? secret.getCreatedBy().getName() : null);
-                    } catch (Exception e) {
-                        result.put("created_by", "Unknown");
-                    }
-                    
-                    try {
-                        result.put("updated_by", secret.getUpdatedBy() != null ? secret.getUpdatedBy().getName() : null);
-                    } catch (Exception e) {
-                        result.put("updated_by", "Unknown");
-                    }
-                    
-                    result.put("metadata", deserializeMetadata(secret.getMetadata()));
-                    return result;
-                })
-                .collect(Collectors.toList());
+        // Archived versions are all older than the hot ones, so they follow in the same order
+        for (int i = 0; i < archivedVersions.size(); i++) {
+            SecretArchiveService.ArchivedVersion archived = archivedVersions.get(i);
+            Map<String, Object> result = secretValue(values.get(versions.size() + i), archived.version(),
+                    archived.createdAt(), archived.updatedAt(), archived.metadata());
+            result.put("created_by", archived.createdBy());
+            result.put("updated_by", archived.updatedBy());
+            results.add(result);
+        }
+        return results;
     }
     
     /**
@@ -341,6 +632,7 @@ public class SecretService {
      */
     @Transactional
     @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.DELETE_VERSION)
     public boolean deleteSecretVersion(String path, String key, Integer version, List<String> policies) {
         validatePath(path);
         
@@ -349,15 +641,21 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to delete secret at " + path + "/" + key);
         }
         
-        Optional<Secret> secretOpt = secretRepository.findByPathAndKeyAndVersion(path, key, version);
+        Optional<Secret> secretOpt = secretStore.findVersion(path, key, version);
         if (secretOpt.isEmpty() || secretOpt.get().getDeleted()) {
-            return false;
+            if (!archiveService.setDeleted(path, key, version, true)) {
+                return false;
+            }
+            eventPublisher.publishEvent(new SecretChangedEvent(path, key, version, SecretChangedEvent.Operation.DELETE_VERSION));
+            logger.info("Deleted archived secret version at path: {}/{} version: {}", path, key, version);
+            return true;
         }
         
         Secret secret = secretOpt.get();
         secret.setDeleted(true);
         secret.setDeletedAt(LocalDateTime.now());
-        secretRepository.save(secret);
+        secretStore.save(secret);
+        eventPublisher.publishEvent(new SecretChangedEvent(path, key, version, SecretChangedEvent.Operation.DELETE_VERSION));
         
         logger.info("Deleted secret version at path: {}/{} version: {}", path, key, version);
         return true;
@@ -368,6 +666,7 @@ public class SecretService {
      */
     @Transactional
     @CacheEvict(value = "secrets", allEntries = true)
+    @MeteredSecretOperation(SecretOperation.RESTORE_VERSION)
     public boolean restoreSecretVersion(String path, String key, Integer version, List<String> policies) {
         validatePath(path);
         
@@ -376,21 +675,50 @@ public class SecretService {
             throw new SecurityException("Access denied: insufficient permissions to restore secret at " + path + "/" + key);
         }
         
-        Optional<Secret> secretOpt = secretRepository.findByPathAndKeyAndVersionIncludingDeleted(path, key, version);
-        if (secretOpt.isEmpty() || !secretOpt.get().getDeleted()) {
+        Optional<Secret> secretOpt = secretStore.findVersionIncludingDeleted(path, key, version);
+        if (secretOpt.isEmpty()) {
+            if (!archiveService.setDeleted(path, key, version, false)) {
+                return false;
+            }
+            eventPublisher.publishEvent(new SecretChangedEvent(path, key, version, SecretChangedEvent.Operation.RESTORE_VERSION));
+            logger.info("Restored archived secret version at path: {}/{} version: {}", path, key, version);
+            return true;
+        }
+        if (!secretOpt.get().getDeleted()) {
             return false;
         }
         
         Secret secret = secretOpt.get();
         secret.setDeleted(false);
         secret.setDeletedAt(null);
-        secretRepository.save(secret);
+        secretStore.save(secret);
+        eventPublisher.publishEvent(new SecretChangedEvent(path, key, version, SecretChangedEvent.Operation.RESTORE_VERSION));
         
         logger.info("Restored secret version at path: {}/{} version: {}", path, key, version);
         return true;
     }
     
-    private void validatePath(String path) {
+    /**
+     * Run a write that picks a new version number, serialized with other writes to the key in
+     * this instance, retrying when it still collides on the unique version constraint with a
+     * writer that isn't, such as another instance. Writes joining an existing transaction can't
+     * be retried, as the failed insert has already spoiled it.
+     */
+    private <T> T write(String path, String key, Supplier<T> work) {
+        Lock lock = keyLocks.get(path + "/" + key);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return writeBatcher.submit(work, lock);
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_WRITE_ATTEMPTS || TransactionSynchronizationManager.isActualTransactionActive()) {
+                    throw e;
+                }
+                logger.debug("Version conflict writing {}/{}, retrying (attempt {})", path, key, attempt);
+            }
+        }
+    }
+    
+    static void validatePath(String path) {
         if (path == null || path.trim().isEmpty()) {
             throw new IllegalArgumentException("Path cannot be null or empty");
         }
@@ -408,7 +736,7 @@ public class SecretService {
         }
     }
     
-    private String serializeMetadata(Map<String, Object> metadata) {
+    String serializeMetadata(Map<String, Object> metadata) {
         if (metadata == null || metadata.isEmpty()) {
             return "{}";
         }
@@ -421,7 +749,7 @@ public class SecretService {
         }
     }
     
-    private Map<String, Object> deserializeMetadata(String metadata) {
+    Map<String, Object> deserializeMetadata(String metadata) {
         if (metadata == null || metadata.trim().isEmpty()) {
             return new HashMap<>();
         }
@@ -433,4 +761,9 @@ public class SecretService {
             return new HashMap<>();
         }
     }
+    
+    /**
+     * A page of full secret paths and the cursor for the next page, null on the last page
+     */
+    public record KeyPage(List<String> keys, String nextCursor) {}
 }
@@ -0,0 +1,175 @@
+package com.example.vault.service;
+
+import com.example.vault.util.SecretValueFormat;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Background job that moves secret values stored as Base64 text in {@code encrypted_value} into
+ * the binary {@code encrypted_data} column.
+ *
+ * Reads accept a value in either column, so the job runs while the vault serves traffic. It walks
+ * the table by id in batches, each converted in one short transaction and followed by a pause.
+ * The conversion only strips the encoding and adds the format byte, so nothing is decrypted. A
+ * row's value never changes after it is written, and the update only matches rows that are
+ * still unconverted, so the job cannot overwrite anything newer. Once a full pass has run it
+ * stops: new rows are always written in the binary format.
+ */
+@Service
+public class SecretValueMigrationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretValueMigrationService.class);
+
+    private static final String LEGACY_ROWS = "SELECT id, encrypted_value FROM secrets " +
+            "WHERE id > ? AND encrypted_data IS NULL AND encrypted_value IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String CONVERT = "UPDATE secrets SET encrypted_data = ?, encrypted_value = NULL " +
+            "WHERE id = ? AND encrypted_data IS NULL";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${vault.value-migration.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${vault.value-migration.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${vault.value-migration.batch-pause:100}")
+    private long batchPause = 100;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile boolean complete;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        allowEmptyLegacyColumn();
+    }
+
+    @Scheduled(fixedDelayString = "${vault.value-migration.interval:60000}",
+            initialDelayString = "${vault.value-migration.initial-delay:30000}")
+    public void scheduledMigration() {
+        if (enabled && !complete) {
+            migrate();
+        }
+    }
+
+    /**
+     * Run one full pass over the table. Returns the number of values converted, or 0 if a pass
+     * is already in progress.
+     */
+    public long migrate() {
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Value migration already running");
+            return 0;
+        }
+        try {
+            return migrateAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private long migrateAll() {
+        long start = System.nanoTime();
+        long lastId = 0;
+        long converted = 0;
+        long unreadable = 0;
+        while (true) {
+            List<Object[]> rows = new ArrayList<>(batchSize);
+            List<Long> ids = jdbcTemplate.query(LEGACY_ROWS, (rs, row) -> {
+                long id = rs.getLong("id");
+                try {
+                    rows.add(new Object[]{SecretValueFormat.fromBase64(rs.getString("encrypted_value")), id});
+                } catch (IllegalArgumentException e) {
+                    logger.warn("Secret row {} has a value that is not Base64; leaving it in the text column", id);
+                }
+                return id;
+            }, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+            unreadable += ids.size() - rows.size();
+            if (!rows.isEmpty()) {
+                int[] updated = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(CONVERT, rows));
+                for (int count : updated) {
+                    converted += Math.max(count, 0);
+                }
+            }
+            if (ids.size() < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                return converted;
+            }
+        }
+
+        complete = true;
+        if (converted > 0 || unreadable > 0) {
+            logger.info("Value migration converted {} secret values to the binary format in {} ms ({} left unreadable)",
+                    converted, (System.nanoTime() - start) / 1_000_000, unreadable);
+        }
+        return converted;
+    }
+
+    private boolean pause() {
+        if (batchPause <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * New rows leave {@code encrypted_value} empty, but schema updates never relax a NOT NULL
+     * constraint, so a table created before the binary column existed still has one
+     */
+    private void allowEmptyLegacyColumn() {
+        Boolean nullable = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            boolean upper = metaData.storesUpperCaseIdentifiers();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null,
+                    upper ? "SECRETS" : "secrets", upper ? "ENCRYPTED_VALUE" : "encrypted_value")) {
+                return columns.next() ? columns.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls : null;
+            }
+        });
+        if (Boolean.FALSE.equals(nullable)) {
+            jdbcTemplate.execute("ALTER TABLE secrets ALTER COLUMN encrypted_value DROP NOT NULL");
+            logger.info("Dropped the NOT NULL constraint on secrets.encrypted_value; new values go to encrypted_data");
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.repository.SecretRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Walks every key of the store in (path, key) order for the background jobs, a batch of keys at
+ * a time. Each batch is read and handled in its own short transaction and followed by a pause,
+ * so a full pass never holds long locks or saturates the database.
+ */
+@Component
+class SecretVersionScanner {
+
+    private static final Comparator<SecretVersionState> KEY_ORDER = Comparator
+            .comparing(SecretVersionState::path)
+            .thenComparing(SecretVersionState::key)
+            .thenComparing(SecretVersionState::version, Comparator.reverseOrder());
+
+    @Autowired
+    private SecretRepository secretRepository;
+
+    @Autowired
+    private SecretArchiveService archiveService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Hand each batch to {@code handler} inside its transaction, as one list per key of its
+     * versions newest first, then pass the handler's result to {@code afterCommit}. Archived
+     * versions are merged in when {@code includeArchived} is set. Returns the number of keys
+     * visited; a scan interrupted during a pause stops early.
+     */
+    <T> long scan(int batchSize, long pauseMillis, boolean includeArchived,
+                  Function<List<List<SecretVersionState>>, T> handler, Consumer<T> afterCommit) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        SecretPathKey cursor = new SecretPathKey("", "");
+        long keys = 0;
+
+        while (true) {
+            List<SecretPathKey> batch = secretRepository.findAllKeysAfter(cursor.path(), cursor.key(), Limit.of(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            SecretPathKey first = cursor;
+            SecretPathKey last = batch.get(batch.size() - 1);
+
+            T result = transaction.execute(status -> {
+                List<SecretVersionState> states = secretRepository.findVersionStatesInRange(
+                        first.path(), first.key(), last.path(), last.key());
+                if (includeArchived) {
+                    states = new ArrayList<>(states);
+                    states.addAll(archiveService.findVersionStatesInRange(
+                            first.path(), first.key(), last.path(), last.key()));
+                    states.sort(KEY_ORDER);
+                }
+                return handler.apply(groupByKey(states));
+            });
+            afterCommit.accept(result);
+            keys += batch.size();
+            cursor = last;
+
+            if (batch.size() < batchSize || !pause(pauseMillis)) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    private static List<List<SecretVersionState>> groupByKey(List<SecretVersionState> states) {
+        List<List<SecretVersionState>> byKey = new ArrayList<>();
+        int from = 0;
+        for (int i = 1; i <= states.size(); i++) {
+            if (i == states.size() || !sameKey(states.get(i), states.get(from))) {
+                byKey.add(states.subList(from, i));
+                from = i;
+            }
+        }
+        return byKey;
+    }
+
+    private static boolean sameKey(SecretVersionState a, SecretVersionState b) {
+        return a.path().equals(b.path()) && a.key().equals(b.key());
+    }
+
+    /**
+     * Returns false if the scan was interrupted and should stop
+     */
+    private static boolean pause(long pauseMillis) {
+        if (pauseMillis > 0) {
+            try {
+                Thread.sleep(pauseMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.vault.service;
+
+import com.example.vault.exception.VersionConflictException;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.store.SecretStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+/**
+ * Group commit for secret writes. Concurrent writes are queued and run back to back by a single
+ * worker thread inside one transaction, so a burst of N writes pays for one commit instead of N.
+ * Each caller blocks until the transaction holding its write has committed, then gets its own
+ * result or exception.
+ *
+ * The worker takes the first queued write and keeps collecting until {@code max-size} writes are
+ * queued or {@code max-delay} ms have passed; writes that arrive while a batch commits form the
+ * next one. Writes run in submission order, so writes to one key apply in the order they were
+ * submitted and later writes see earlier ones. A write rejected for a business reason (an
+ * {@link IllegalArgumentException}, {@link SecurityException} or {@link VersionConflictException}
+ * thrown before it changed anything) fails only its own caller and the batch commits without it.
+ * Any other failure, or a failed commit, rolls the batch back and every write in it runs again in
+ * a transaction of its own, so one failing write never fails its neighbours.
+ *
+ * Writes submitted inside an existing transaction run in it straight away, as do all writes
+ * when batching is disabled. Batching is also off when the secret store does not roll back with
+ * the transaction, since its writes could not be undone before running them again.
+ */
+@Component
+class SecretWriteBatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecretWriteBatcher.class);
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    @Autowired
+    private SecretStore secretStore;
+
+    @Value("${vault.write-batch.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${vault.write-batch.max-size:64}")
+    private int maxSize = 64;
+
+    @Value("${vault.write-batch.max-delay:2}")
+    private long maxDelay = 2;
+
+    private final BlockingQueue<PendingWrite<?>> queue = new LinkedBlockingQueue<>();
+
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("vault.write-batch.max-size must be positive");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        if (enabled && !secretStore.isTransactional()) {
+            logger.info("Write batching disabled: the {} secret store does not roll back with a transaction",
+                    secretStore.getClass().getSimpleName());
+            enabled = false;
+        }
+        if (enabled) {
+            running = true;
+            worker = new Thread(this::run, "secret-write-batcher");
+            worker.setDaemon(true);
+            worker.start();
+        }
+    }
+
+    /**
+     * Let the worker finish what is queued, then run anything submitted during shutdown directly
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        PendingWrite<?> write;
+        while ((write = queue.poll()) != null) {
+            runAlone(write);
+        }
+    }
+
+    /**
+     * Run the write in a transaction, batched with concurrent writes, and return its result once
+     * committed. Exceptions thrown by the write are rethrown to the caller.
+     *
+     * A write run directly holds {@code keyLock} until its transaction ends, so writers to the
+     * same key pick versions one at a time. Batched writes don't take it: the worker already runs
+     * them one at a time, and holding a shared stripe through the collection delay and commit
+     * would stall unrelated keys that hash to it.
+     */
+    <T> T submit(Supplier<T> work, Lock keyLock) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            keyLock.lock();
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } finally {
+                keyLock.unlock();
+            }
+        }
+        PendingWrite<T> write = new PendingWrite<>(work);
+        queue.add(write);
+        try {
+            return write.future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private void run() {
+        List<PendingWrite<?>> batch = new ArrayList<>(maxSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                execute(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } catch (Throwable t) {
+                // Never leave a caller waiting; completing an already completed write is a no-op
+                for (PendingWrite<?> write : batch) {
+                    write.future.completeExceptionally(t);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void collect(List<PendingWrite<?>> batch) throws InterruptedException {
+        queue.drainTo(batch, maxSize - batch.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelay);
+        while (batch.size() < maxSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            PendingWrite<?> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxSize - batch.size());
+        }
+    }
+
+    private void execute(List<PendingWrite<?>> batch) {
+        if (batch.size() == 1) {
+            vaultMetrics.recordWriteBatch(1);
+            runAlone(batch.get(0));
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (PendingWrite<?> write : batch) {
+                    try {
+                        write.run();
+                    } catch (IllegalArgumentException | SecurityException | VersionConflictException e) {
+                        // Rejected before changing anything, so the rest of the batch stands
+                        write.rejected = e;
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.debug("Write batch of {} failed, retrying each write in its own transaction", batch.size(), e);
+            vaultMetrics.recordWriteBatchSplit();
+            for (PendingWrite<?> write : batch) {
+                runAlone(write);
+            }
+            return;
+        }
+        // Recorded before callers are released, so they observe it
+        vaultMetrics.recordWriteBatch(batch.size());
+        for (PendingWrite<?> write : batch) {
+            write.complete();
+        }
+    }
+
+    private void runAlone(PendingWrite<?> write) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write.run());
+            write.complete();
+        } catch (RuntimeException e) {
+            write.future.completeExceptionally(e);
+        }
+    }
+
+    private static final class PendingWrite<T> {
+
+        final Supplier<T> work;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        T result;
+        RuntimeException rejected;
+
+        PendingWrite(Supplier<T> work) {
+            this.work = work;
+        }
+
+        void run() {
+            rejected = null;
+            result = work.get();
+        }
+
+        void complete() {
+            if (rejected != null) {
+                future.completeExceptionally(rejected);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.vault.service;
+
+import com.example.vault.engine.DynamicCredential;
+import com.example.vault.engine.SecretsEngine;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Front door to the configured {@link SecretsEngine}s. Credentials of a role are guarded by the
+ * policy path {@code <engine>/creds/<role>}: issuing needs {@code read}, revoking {@code delete}.
+ */
+@Service
+public class SecretsEngineService {
+
+    @Autowired
+    private PolicyService policyService;
+
+    // None are configured unless an engine is enabled
+    @Autowired(required = false)
+    private List<SecretsEngine> engineBeans = List.of();
+
+    private Map<String, SecretsEngine> engines;
+
+    @PostConstruct
+    public void indexEngines() {
+        engines = engineBeans.stream().collect(Collectors.toMap(SecretsEngine::getName, Function.identity()));
+    }
+
+    /**
+     * Issue a credential, or empty if the engine or role does not exist
+     */
+    public Optional<DynamicCredential> issue(String engineName, String role, List<String> policies) {
+        SecretsEngine engine = engines.get(engineName);
+        if (engine == null || !engine.getRoles().contains(role)) {
+            return Optional.empty();
+        }
+        checkAccess(policies, engineName, role, "read");
+        return Optional.of(engine.issue(role));
+    }
+
+    /**
+     * Revoke an issued credential before its lease ends; false if it is not outstanding
+     */
+    public boolean revoke(String engineName, String leaseId, List<String> policies) {
+        SecretsEngine engine = engines.get(engineName);
+        if (engine == null) {
+            return false;
+        }
+        Optional<String> role = engine.findRole(leaseId);
+        if (role.isEmpty()) {
+            return false;
+        }
+        checkAccess(policies, engineName, role.get(), "delete");
+        return engine.revoke(leaseId);
+    }
+
+    private void checkAccess(List<String> policies, String engineName, String role, String operation) {
+        String path = engineName + "/creds/" + role;
+        if (!policyService.hasAccess(policies, path, operation)) {
+            throw new SecurityException("Access denied: insufficient permissions for " + path);
+        }
+    }
+}
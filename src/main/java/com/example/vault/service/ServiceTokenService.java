@@ -0,0 +1,288 @@
+package com.example.vault.service;
+
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.ServiceToken;
+import com.example.vault.repository.PolicyRepository;
+import com.example.vault.repository.ServiceTokenRepository;
+import com.example.vault.util.TimingWheel;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opaque token store for service identities.
+ *
+ * Tokens are random 128-bit values handed out instead of JWTs when
+ * {@code vault.token.opaque.enabled} is set. Leases live in an in-memory index keyed by the
+ * token hash, so validating a token is a single map lookup with no signature verification,
+ * and policy assignment changes take effect immediately instead of at token expiry.
+ * The {@code service_tokens} table makes leases survive a restart.
+ */
+@Service
+public class ServiceTokenService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenService.class);
+
+    public static final String TOKEN_PREFIX = "s.";
+    private static final int TOKEN_BYTES = 16;
+
+    @Autowired
+    private ServiceTokenRepository serviceTokenRepository;
+
+    @Autowired
+    private PolicyRepository policyRepository;
+
+    @Value("${vault.token.opaque.enabled:false}")
+    private boolean enabled;
+
+    @Value("${vault.token.opaque.ttl:3600}")
+    private long defaultTtlSeconds;
+
+    @Value("${vault.token.opaque.max-ttl:86400}")
+    private long maxTtlSeconds;
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final Map<String, TokenLease> leases = new ConcurrentHashMap<>();
+    private final TimingWheel<String> expiryWheel = new TimingWheel<>(1000, 4, System.currentTimeMillis());
+
+    @PostConstruct
+    public void loadActiveTokens() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        serviceTokenRepository.deleteByExpiresAtBefore(now);
+        for (ServiceToken token : serviceTokenRepository.findActive(now)) {
+            index(new TokenLease(token.getTokenHash(), token.getIdentityName(), token.getIdentityType(),
+                    List.copyOf(token.getPolicies()), token.getTtlSeconds(),
+                    toEpochMillis(token.getCreatedAt()), toEpochMillis(token.getExpiresAt())));
+        }
+        logger.info("Loaded {} active service tokens", leases.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static boolean isOpaqueToken(String token) {
+        return token != null && token.startsWith(TOKEN_PREFIX);
+    }
+
+    /**
+     * Issue a new opaque token for the identity with the default TTL
+     */
+    @Transactional
+    public String issueToken(Identity identity, List<String> policies) {
+        byte[] tokenBytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(tokenBytes);
+        String token = TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(tokenBytes);
+        String tokenHash = hash(token);
+
+        long now = System.currentTimeMillis();
+        long ttlSeconds = Math.min(defaultTtlSeconds, maxTtlSeconds);
+        TokenLease lease = new TokenLease(tokenHash, identity.getName(), identity.getType(),
+                List.copyOf(policies), ttlSeconds, now, now + ttlSeconds * 1000);
+
+        ServiceToken entity = new ServiceToken(tokenHash, identity.getName(), identity.getType(),
+                policies, ttlSeconds, toLocalDateTime(lease.expiresAtMillis()));
+        entity.setCreatedAt(toLocalDateTime(now));
+        serviceTokenRepository.save(entity);
+        index(lease);
+
+        logger.info("Issued service token for identity: {} with TTL {}s", identity.getName(), ttlSeconds);
+        return token;
+    }
+
+    /**
+     * Resolve a token to its lease without touching the database
+     */
+    public Optional<TokenLease> lookup(String token) {
+        if (!isOpaqueToken(token)) {
+            return Optional.empty();
+        }
+        TokenLease lease = leases.get(hash(token));
+        if (lease == null || lease.expiresAtMillis() <= System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(lease);
+    }
+
+    /**
+     * Extend a token's lease by the given increment, never past the maximum TTL from issue time
+     */
+    @Transactional
+    public Optional<TokenLease> renewToken(String token, Long incrementSeconds) {
+        Optional<TokenLease> leaseOpt = lookup(token);
+        if (leaseOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        TokenLease lease = leaseOpt.get();
+        long now = System.currentTimeMillis();
+        long increment = incrementSeconds != null && incrementSeconds > 0 ? incrementSeconds : lease.ttlSeconds();
+        long expiresAt = Math.min(now + increment * 1000, lease.issuedAtMillis() + maxTtlSeconds * 1000);
+        TokenLease renewed = lease.withExpiry(expiresAt);
+
+        serviceTokenRepository.findByTokenHash(lease.tokenHash()).ifPresent(entity -> {
+            entity.setExpiresAt(toLocalDateTime(expiresAt));
+            entity.setLastRenewedAt(toLocalDateTime(now));
+            serviceTokenRepository.save(entity);
+        });
+        index(renewed);
+
+        logger.debug("Renewed service token for identity: {}", lease.identityName());
+        return Optional.of(renewed);
+    }
+
+    @Transactional
+    public boolean revokeToken(String token) {
+        if (!isOpaqueToken(token)) {
+            return false;
+        }
+        String tokenHash = hash(token);
+        TokenLease lease = leases.remove(tokenHash);
+        serviceTokenRepository.deleteByTokenHashIn(List.of(tokenHash));
+        if (lease != null) {
+            logger.info("Revoked service token for identity: {}", lease.identityName());
+        }
+        return lease != null;
+    }
+
+    /**
+     * Revoke every token issued to an identity, e.g. when it is disabled or deleted
+     */
+    @Transactional
+    public int revokeTokensForIdentity(String identityName) {
+        Set<String> tokenHashes = new HashSet<>();
+        leases.values().removeIf(lease -> {
+            if (lease.identityName().equals(identityName)) {
+                tokenHashes.add(lease.tokenHash());
+                return true;
+            }
+            return false;
+        });
+        serviceTokenRepository.findByIdentityName(identityName)
+                .forEach(token -> tokenHashes.add(token.getTokenHash()));
+        if (!tokenHashes.isEmpty()) {
+            serviceTokenRepository.deleteByTokenHashIn(tokenHashes);
+            logger.info("Revoked service tokens for identity: {}", identityName);
+        }
+        return tokenHashes.size();
+    }
+
+    /**
+     * Push a policy assignment change to every live token of the identity. Only names of
+     * existing policies are stored, so a token never carries a policy that was not granted.
+     */
+    @Transactional
+    public void refreshPolicies(String identityName, List<String> policies) {
+        List<String> snapshot = policies.stream()
+                .distinct()
+                .filter(policyRepository::existsByName)
+                .toList();
+        if (snapshot.size() < policies.stream().distinct().count()) {
+            logger.warn("Ignoring unknown policies for the service tokens of identity: {}", identityName);
+        }
+        leases.replaceAll((tokenHash, lease) ->
+                lease.identityName().equals(identityName) ? lease.withPolicies(snapshot) : lease);
+        for (ServiceToken token : serviceTokenRepository.findByIdentityName(identityName)) {
+            token.setPolicies(new ArrayList<>(snapshot));
+            serviceTokenRepository.save(token);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vault.token.opaque.sweep-interval:1000}")
+    @Transactional
+    public void sweepExpiredTokens() {
+        if (!enabled) {
+            return;
+        }
+        int expired = expireUntil(System.currentTimeMillis());
+        if (expired > 0) {
+            logger.debug("Expired {} service tokens", expired);
+        }
+    }
+
+    int expireUntil(long nowMillis) {
+        List<String> expiredHashes = new ArrayList<>();
+        expiryWheel.advance(nowMillis, tokenHash -> {
+            TokenLease lease = leases.get(tokenHash);
+            // A renewed lease has a later deadline and its own wheel entry
+            if (lease != null && lease.expiresAtMillis() <= nowMillis && leases.remove(tokenHash, lease)) {
+                expiredHashes.add(tokenHash);
+            }
+        });
+        if (!expiredHashes.isEmpty()) {
+            serviceTokenRepository.deleteByTokenHashIn(expiredHashes);
+        }
+        return expiredHashes.size();
+    }
+
+    int activeTokenCount() {
+        return leases.size();
+    }
+
+    private void index(TokenLease lease) {
+        leases.put(lease.tokenHash(), lease);
+        expiryWheel.schedule(lease.tokenHash(), lease.expiresAtMillis());
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * In-memory view of a token lease
+     */
+    public record TokenLease(String tokenHash, String identityName, Identity.IdentityType identityType,
+                             List<String> policies, long ttlSeconds, long issuedAtMillis, long expiresAtMillis) {
+
+        TokenLease withExpiry(long newExpiresAtMillis) {
+            return new TokenLease(tokenHash, identityName, identityType, policies, ttlSeconds, issuedAtMillis, newExpiresAtMillis);
+        }
+
+        TokenLease withPolicies(List<String> newPolicies) {
+            return new TokenLease(tokenHash, identityName, identityType, newPolicies, ttlSeconds, issuedAtMillis, expiresAtMillis);
+        }
+
+        public LocalDateTime expiresAt() {
+            return toLocalDateTime(expiresAtMillis);
+        }
+    }
+}
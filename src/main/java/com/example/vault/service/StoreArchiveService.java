@@ -0,0 +1,570 @@
+package com.example.vault.service;
+
+import com.example.vault.exception.UnsupportedStoreOperationException;
+import com.example.vault.store.SecretStore;
+import com.example.vault.util.SecretValueFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Export and import of the whole store as a gzip-compressed NDJSON archive.
+ *
+ * The archive is a header line, then every policy, identity and secret version, one JSON object
+ * per line, then a trailer with the counts. Secret values are carried as the stored ciphertext,
+ * in the Base64 text of the legacy value format so archives stay readable by older versions,
+ * and nothing is decrypted; the header records the key fingerprint and an archive is only
+ * accepted by a vault using the same key. Export reads through forward-only JDBC cursors and
+ * import writes batched inserts committed batch by batch, so memory does not grow with the
+ * size of the store.
+ */
+@Service
+public class StoreArchiveService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StoreArchiveService.class);
+
+    static final String FORMAT = "vault-archive";
+    static final int FORMAT_VERSION = 1;
+
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    private static final String POLICY_ROWS =
+            "SELECT p.id, p.name, p.description, p.created_at, p.updated_at, r.rule " +
+            "FROM policies p LEFT JOIN policy_rules r ON r.policy_id = p.id ORDER BY p.id";
+
+    private static final String IDENTITY_ROWS =
+            "SELECT i.id, i.name, i.password_hash, i.type, i.enabled, i.created_at, i.updated_at, i.last_login_at, " +
+            "p.name AS policy_name FROM identities i " +
+            "LEFT JOIN identity_policies ip ON ip.identity_id = i.id LEFT JOIN policies p ON p.id = ip.policy_id " +
+            "ORDER BY i.id";
+
+    // Archived versions carry their value, metadata and audit names in the payload column
+    private static final String SECRET_ROWS =
+            "SELECT s.path, s.secret_key, s.version, s.encrypted_data, s.encrypted_value, s.deleted, s.deleted_at, s.metadata, " +
+            "cb.name AS created_by, ub.name AS updated_by, s.created_at, s.updated_at, NULL AS payload FROM secrets s " +
+            "LEFT JOIN identities cb ON cb.id = s.created_by_identity_id " +
+            "LEFT JOIN identities ub ON ub.id = s.updated_by_identity_id " +
+            "UNION ALL " +
+            "SELECT a.path, a.secret_key, a.version, NULL, NULL, a.deleted, a.deleted_at, NULL, " +
+            "NULL, NULL, a.created_at, NULL, a.payload FROM secret_archive a " +
+            "ORDER BY path, secret_key, version";
+
+    private static final String INSERT_SECRET =
+            "INSERT INTO secrets (path, secret_key, version, encrypted_data, deleted, deleted_at, metadata, " +
+            "created_by_identity_id, updated_by_identity_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private SecretStore secretStore;
+
+    @Value("${vault.archive.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Value("${vault.archive.batch-size:1000}")
+    private int batchSize = 1000;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("vault.archive.batch-size must be positive");
+        }
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // Drivers such as PostgreSQL only stream with a fetch size inside a transaction
+        jdbcTemplate.setFetchSize(fetchSize);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Fails unless secrets live in the {@code secrets} table that export and import read and
+     * write. Callers that stream the export call this first, before any response is committed.
+     */
+    public void requireSecretsTable() {
+        if (!secretStore.usesSecretsTable()) {
+            throw new UnsupportedStoreOperationException("export or import");
+        }
+    }
+
+    /**
+     * Write the whole store to the stream. Runs in one read-only transaction so the archive is
+     * a consistent snapshot on databases with MVCC reads.
+     */
+    @Transactional(readOnly = true)
+    public ArchiveCounts exportArchive(OutputStream out) throws IOException {
+        requireSecretsTable();
+        long start = System.nanoTime();
+        ArchiveCounts counts = new ArchiveCounts();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, STREAM_BUFFER_SIZE);
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(gzip)) {
+            // The gzip trailer is written after the generator closes; the caller owns the stream
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            json.setRootValueSeparator(null);
+
+            json.writeStartObject();
+            json.writeStringField("type", "header");
+            json.writeStringField("format", FORMAT);
+            json.writeNumberField("format_version", FORMAT_VERSION);
+            json.writeStringField("key_fingerprint", encryptionService.keyFingerprint());
+            json.writeStringField("exported_at", LocalDateTime.now().toString());
+            endLine(json);
+
+            exportPolicies(json, counts);
+            exportIdentities(json, counts);
+            exportSecrets(json, counts);
+
+            json.writeStartObject();
+            json.writeStringField("type", "end");
+            json.writeNumberField("policies", counts.policies);
+            json.writeNumberField("identities", counts.identities);
+            json.writeNumberField("secrets", counts.secrets);
+            endLine(json);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        gzip.finish();
+
+        logger.info("Exported {} policies, {} identities and {} secret versions in {} ms",
+                counts.policies, counts.identities, counts.secrets, (System.nanoTime() - start) / 1_000_000);
+        return counts;
+    }
+
+    private void exportPolicies(JsonGenerator json, ArchiveCounts counts) {
+        // One row per rule; rows of a policy are adjacent, so each is written when the next begins
+        GroupedRows policy = new GroupedRows();
+        jdbcTemplate.query(POLICY_ROWS, (ResultSet rs) -> {
+            long id = rs.getLong("id");
+            if (policy.startsNew(id)) {
+                writePolicy(json, policy, counts);
+                Map<String, String> fields = new HashMap<>();
+                fields.put("name", rs.getString("name"));
+                fields.put("description", rs.getString("description"));
+                fields.put("created_at", timestamp(rs, "created_at"));
+                fields.put("updated_at", timestamp(rs, "updated_at"));
+                policy.begin(id, fields);
+            }
+            policy.add(rs.getString("rule"));
+        });
+        writePolicy(json, policy, counts);
+    }
+
+    private void writePolicy(JsonGenerator json, GroupedRows policy, ArchiveCounts counts) {
+        if (policy.isEmpty()) {
+            return;
+        }
+        writeLine(json, () -> {
+            json.writeStringField("type", "policy");
+            json.writeStringField("name", policy.field("name"));
+            json.writeStringField("description", policy.field("description"));
+            writeStringArray(json, "rules", policy.values);
+            json.writeStringField("created_at", policy.field("created_at"));
+            json.writeStringField("updated_at", policy.field("updated_at"));
+        });
+        counts.policies++;
+    }
+
+    private void exportIdentities(JsonGenerator json, ArchiveCounts counts) {
+        GroupedRows identity = new GroupedRows();
+        jdbcTemplate.query(IDENTITY_ROWS, (ResultSet rs) -> {
+            long id = rs.getLong("id");
+            if (identity.startsNew(id)) {
+                writeIdentity(json, identity, counts);
+                Map<String, String> fields = new HashMap<>();
+                fields.put("name", rs.getString("name"));
+                fields.put("password_hash", rs.getString("password_hash"));
+                fields.put("identity_type", rs.getString("type"));
+                fields.put("enabled", String.valueOf(rs.getBoolean("enabled")));
+                fields.put("created_at", timestamp(rs, "created_at"));
+                fields.put("updated_at", timestamp(rs, "updated_at"));
+                fields.put("last_login_at", timestamp(rs, "last_login_at"));
+                identity.begin(id, fields);
+            }
+            identity.add(rs.getString("policy_name"));
+        });
+        writeIdentity(json, identity, counts);
+    }
+
+    private void writeIdentity(JsonGenerator json, GroupedRows identity, ArchiveCounts counts) {
+        if (identity.isEmpty()) {
+            return;
+        }
+        writeLine(json, () -> {
+            json.writeStringField("type", "identity");
+            json.writeStringField("name", identity.field("name"));
+            json.writeStringField("password_hash", identity.field("password_hash"));
+            json.writeStringField("identity_type", identity.field("identity_type"));
+            json.writeBooleanField("enabled", Boolean.parseBoolean(identity.field("enabled")));
+            writeStringArray(json, "policies", identity.values);
+            json.writeStringField("created_at", identity.field("created_at"));
+            json.writeStringField("updated_at", identity.field("updated_at"));
+            json.writeStringField("last_login_at", identity.field("last_login_at"));
+        });
+        counts.identities++;
+    }
+
+    private void exportSecrets(JsonGenerator json, ArchiveCounts counts) {
+        jdbcTemplate.query(SECRET_ROWS, (ResultSet rs) -> {
+            byte[] payload = rs.getBytes("payload");
+            SecretArchiveCodec.Payload archived = payload != null ? SecretArchiveCodec.decode(payload) : null;
+            writeLine(json, () -> {
+                json.writeStringField("type", "secret");
+                json.writeStringField("path", rs.getString("path"));
+                json.writeStringField("key", rs.getString("secret_key"));
+                json.writeNumberField("version", rs.getInt("version"));
+                json.writeStringField("encrypted_value", archived != null
+                        ? SecretValueFormat.toBase64(archived.encryptedData()) : encryptedValue(rs));
+                json.writeBooleanField("deleted", rs.getBoolean("deleted"));
+                json.writeStringField("deleted_at", timestamp(rs, "deleted_at"));
+                json.writeStringField("metadata", archived != null ? archived.metadata() : rs.getString("metadata"));
+                json.writeStringField("created_by", archived != null ? archived.createdBy() : rs.getString("created_by"));
+                json.writeStringField("updated_by", archived != null ? archived.updatedBy() : rs.getString("updated_by"));
+                json.writeStringField("created_at", timestamp(rs, "created_at"));
+                json.writeStringField("updated_at", archived != null
+                        ? Objects.toString(archived.updatedAt(), null) : timestamp(rs, "updated_at"));
+            });
+            counts.secrets++;
+        });
+    }
+
+    /**
+     * Load an archive written by {@link #exportArchive(OutputStream)}. Policies and identities
+     * that already exist by name are kept as they are, as are secrets that already have any
+     * version at their path and key; everything else is inserted with its original versions,
+     * timestamps and ciphertext.
+     */
+    public ArchiveCounts importArchive(InputStream in) throws IOException {
+        requireSecretsTable();
+        long start = System.nanoTime();
+        ArchiveCounts counts = new ArchiveCounts();
+        GZIPInputStream gzip;
+        try {
+            gzip = new GZIPInputStream(in, STREAM_BUFFER_SIZE);
+        } catch (ZipException e) {
+            throw new IllegalArgumentException("Archive is not gzip-compressed");
+        }
+        try (MappingIterator<JsonNode> lines = objectMapper.readerFor(JsonNode.class).readValues(gzip)) {
+            if (!lines.hasNext()) {
+                throw new IllegalArgumentException("Archive is empty");
+            }
+            checkHeader(lines.next());
+
+            Map<String, Long> policyIds = loadIds("SELECT id, name FROM policies");
+            Map<String, Long> identityIds = loadIds("SELECT id, name FROM identities");
+            boolean secretsWereEmpty = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM secrets", Long.class) == 0;
+
+            SecretBatch batch = new SecretBatch();
+            boolean complete = false;
+            while (lines.hasNext()) {
+                JsonNode line = lines.next();
+                String type = line.path("type").asText();
+                switch (type) {
+                    case "policy" -> importPolicy(line, policyIds, counts);
+                    case "identity" -> importIdentity(line, identityIds, policyIds, counts);
+                    case "secret" -> batch.add(line, identityIds, secretsWereEmpty, counts);
+                    case "end" -> complete = true;
+                    default -> throw new IllegalArgumentException("Unknown archive entry type: " + type);
+                }
+            }
+            batch.flush();
+            if (!complete) {
+                throw new IllegalArgumentException("Archive is truncated; " + counts.secrets
+                        + " secret versions were imported before it ended");
+            }
+        } catch (JsonProcessingException | RuntimeJsonMappingException e) {
+            throw new IllegalArgumentException("Malformed archive entry after " + counts.secrets
+                    + " imported secret versions: " + e.getMessage());
+        } finally {
+            evictSecretCache();
+        }
+
+        logger.info("Imported {} policies, {} identities and {} secret versions ({} skipped) in {} ms",
+                counts.policies, counts.identities, counts.secrets, counts.skipped,
+                (System.nanoTime() - start) / 1_000_000);
+        return counts;
+    }
+
+    private void checkHeader(JsonNode header) {
+        if (!"header".equals(header.path("type").asText()) || !FORMAT.equals(header.path("format").asText())) {
+            throw new IllegalArgumentException("Not a vault archive");
+        }
+        if (header.path("format_version").asInt() != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported archive format version: " + header.path("format_version"));
+        }
+        if (!encryptionService.keyFingerprint().equals(header.path("key_fingerprint").asText())) {
+            throw new IllegalArgumentException("Archive was written with a different encryption key");
+        }
+    }
+
+    private void importPolicy(JsonNode line, Map<String, Long> policyIds, ArchiveCounts counts) {
+        String name = line.path("name").asText();
+        if (policyIds.containsKey(name)) {
+            counts.skipped++;
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            long id = insertReturningId(
+                    "INSERT INTO policies (name, description, created_at, updated_at) VALUES (?, ?, ?, ?)",
+                    name, textOrNull(line, "description"), timestamp(line, "created_at"), timestamp(line, "updated_at"));
+            List<Object[]> rules = new ArrayList<>();
+            line.path("rules").forEach(rule -> rules.add(new Object[]{id, rule.asText()}));
+            jdbcTemplate.batchUpdate("INSERT INTO policy_rules (policy_id, rule) VALUES (?, ?)", rules);
+            policyIds.put(name, id);
+        });
+        counts.policies++;
+    }
+
+    private void importIdentity(JsonNode line, Map<String, Long> identityIds, Map<String, Long> policyIds,
+                                ArchiveCounts counts) {
+        String name = line.path("name").asText();
+        if (identityIds.containsKey(name)) {
+            counts.skipped++;
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            long id = insertReturningId(
+                    "INSERT INTO identities (name, password_hash, type, enabled, created_at, updated_at, last_login_at) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?)",
+                    name, line.path("password_hash").asText(), line.path("identity_type").asText(),
+                    line.path("enabled").asBoolean(), timestamp(line, "created_at"), timestamp(line, "updated_at"),
+                    timestamp(line, "last_login_at"));
+            List<Object[]> memberships = new ArrayList<>();
+            line.path("policies").forEach(policy -> {
+                Long policyId = policyIds.get(policy.asText());
+                if (policyId != null) {
+                    memberships.add(new Object[]{id, policyId});
+                }
+            });
+            jdbcTemplate.batchUpdate("INSERT INTO identity_policies (identity_id, policy_id) VALUES (?, ?)", memberships);
+            identityIds.put(name, id);
+        });
+        counts.identities++;
+    }
+
+    private long insertReturningId(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            return statement;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private Map<String, Long> loadIds(String sql) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(sql, (ResultSet rs) -> {
+            ids.put(rs.getString("name"), rs.getLong("id"));
+        });
+        return ids;
+    }
+
+    private void evictSecretCache() {
+        Cache secrets = cacheManager.getCache("secrets");
+        if (secrets != null) {
+            secrets.clear();
+        }
+    }
+
+    /**
+     * Secret rows waiting for the next batched insert. The archive is ordered by path and key,
+     * so whether a key already exists is checked once, at its first version.
+     */
+    private final class SecretBatch {
+        private final List<Object[]> rows = new ArrayList<>(batchSize);
+        private String currentPath;
+        private String currentKey;
+        private boolean skipCurrent;
+
+        void add(JsonNode line, Map<String, Long> identityIds, boolean secretsWereEmpty, ArchiveCounts counts) {
+            String path = line.path("path").asText();
+            String key = line.path("key").asText();
+            if (!path.equals(currentPath) || !key.equals(currentKey)) {
+                currentPath = path;
+                currentKey = key;
+                skipCurrent = !secretsWereEmpty && jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM secrets WHERE path = ? AND secret_key = ?", Long.class, path, key) > 0;
+            }
+            if (skipCurrent) {
+                counts.skipped++;
+                return;
+            }
+
+            rows.add(new Object[]{
+                    path, key, line.path("version").asInt(), SecretValueFormat.fromBase64(line.path("encrypted_value").asText()),
+                    line.path("deleted").asBoolean(), timestamp(line, "deleted_at"), textOrNull(line, "metadata"),
+                    identityIds.get(line.path("created_by").asText()), identityIds.get(line.path("updated_by").asText()),
+                    timestamp(line, "created_at"), timestamp(line, "updated_at")});
+            counts.secrets++;
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SECRET, rows));
+            rows.clear();
+        }
+    }
+
+    /**
+     * Consecutive result rows that belong to one parent row, such as a policy and its rules
+     */
+    private static final class GroupedRows {
+        private long id = -1;
+        private Map<String, String> fields;
+        private final List<String> values = new ArrayList<>();
+
+        boolean startsNew(long rowId) {
+            return fields == null || rowId != id;
+        }
+
+        void begin(long rowId, Map<String, String> rowFields) {
+            id = rowId;
+            fields = rowFields;
+            values.clear();
+        }
+
+        void add(String value) {
+            if (value != null) {
+                values.add(value);
+            }
+        }
+
+        String field(String name) {
+            return fields.get(name);
+        }
+
+        boolean isEmpty() {
+            return fields == null;
+        }
+    }
+
+    /**
+     * Entries written or read by an export or import
+     */
+    public static final class ArchiveCounts {
+        private long policies;
+        private long identities;
+        private long secrets;
+        private long skipped;
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("policies", policies);
+            map.put("identities", identities);
+            map.put("secrets", secrets);
+            map.put("skipped", skipped);
+            return map;
+        }
+    }
+
+    private interface LineWriter {
+        void write() throws IOException, SQLException;
+    }
+
+    private static void writeLine(JsonGenerator json, LineWriter fields) {
+        try {
+            json.writeStartObject();
+            fields.write();
+            endLine(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read row for export", e);
+        }
+    }
+
+    private static void endLine(JsonGenerator json) throws IOException {
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private static void writeStringArray(JsonGenerator json, String name, List<String> values) throws IOException {
+        json.writeArrayFieldStart(name);
+        for (String value : values) {
+            json.writeString(value);
+        }
+        json.writeEndArray();
+    }
+
+    /**
+     * Legacy Base64 text of a hot row's value, whichever column it is stored in
+     */
+    private static String encryptedValue(ResultSet rs) throws SQLException {
+        byte[] data = rs.getBytes("encrypted_data");
+        return data != null ? SecretValueFormat.toBase64(data) : rs.getString("encrypted_value");
+    }
+
+    private static String timestamp(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime().toString() : null;
+    }
+
+    private static Timestamp timestamp(JsonNode line, String field) {
+        String value = textOrNull(line, field);
+        return value != null ? Timestamp.valueOf(LocalDateTime.parse(value)) : null;
+    }
+
+    private static String textOrNull(JsonNode line, String field) {
+        JsonNode value = line.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.vault.service;
+
+import com.example.vault.config.TieringProperties;
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.entity.Secret;
+import com.example.vault.exception.UnsupportedStoreOperationException;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.SecretRepository;
+import com.example.vault.store.SecretStore;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background job that moves cold secret versions from the hot {@code secrets} table into the
+ * compressed archive, keeping the hot table and its indexes sized by the number of keys rather
+ * than the length of their history.
+ *
+ * Each batch copies its versions into the archive and deletes them from the hot table in one
+ * transaction, so a version is always readable from exactly one tier. Reads fall back to the
+ * archive transparently, so moving a version changes nothing a client can see and no cached
+ * reads need to be evicted.
+ */
+@Service
+public class TieringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieringService.class);
+
+    @Autowired
+    private TieringProperties properties;
+
+    @Autowired
+    private SecretRepository secretRepository;
+
+    @Autowired
+    private SecretArchiveService archiveService;
+
+    @Autowired
+    private SecretStore secretStore;
+
+    @Autowired
+    private SecretVersionScanner scanner;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @PostConstruct
+    void init() {
+        if (properties.isEnabled() && !secretStore.usesSecretsTable()) {
+            logger.warn("Tiering is enabled but does not run: the secret store keeps secrets outside the secrets table");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vault.tiering.interval:3600000}",
+            initialDelayString = "${vault.tiering.initial-delay:600000}")
+    public void scheduledTiering() {
+        if (properties.isEnabled() && secretStore.usesSecretsTable()) {
+            tier();
+        }
+    }
+
+    /**
+     * Run one full pass over the store. Returns the number of versions archived, or 0 if a pass
+     * is already in progress.
+     */
+    public long tier() {
+        if (!secretStore.usesSecretsTable()) {
+            throw new UnsupportedStoreOperationException("tiering");
+        }
+        if (!running.compareAndSet(false, true)) {
+            logger.debug("Tiering already running");
+            return 0;
+        }
+        try {
+            return tierAll();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private long tierAll() {
+        long start = System.nanoTime();
+        LocalDateTime ageCutoff = properties.getMinAgeDays() > 0
+                ? LocalDateTime.now().minusDays(properties.getMinAgeDays()) : null;
+        AtomicLong moved = new AtomicLong();
+
+        long keys = scanner.scan(properties.getBatchSize(), properties.getBatchPause(), false, batch -> {
+            List<Long> ids = new ArrayList<>();
+            for (List<SecretVersionState> versions : batch) {
+                selectCold(versions, properties.getKeepVersions(), ageCutoff, ids);
+            }
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            List<Secret> secrets = secretRepository.findAllWithIdentitiesByIdIn(ids);
+            int archived = archiveService.archive(secrets);
+            secretRepository.deleteAllByIdInBatch(ids);
+            return archived;
+        }, archived -> {
+            moved.addAndGet(archived);
+            vaultMetrics.recordTieringMove(archived);
+        });
+
+        logger.info("Tiering examined {} keys and archived {} versions in {} ms",
+                keys, moved.get(), (System.nanoTime() - start) / 1_000_000);
+        return moved.get();
+    }
+
+    /**
+     * Add the ids of the hot versions of one key that belong in the archive.
+     * {@code versions} holds the key's hot versions, newest first.
+     */
+    static void selectCold(List<SecretVersionState> versions, int keepVersions, LocalDateTime ageCutoff,
+                           List<Long> ids) {
+        boolean currentSeen = false;
+        for (int i = 0; i < versions.size(); i++) {
+            SecretVersionState version = versions.get(i);
+            boolean current = !currentSeen && !version.deleted();
+            currentSeen |= current;
+            // The highest version keeps the version sequence and the current value serves latest reads
+            if (i == 0 || current) {
+                continue;
+            }
+            if ((keepVersions > 0 && i >= keepVersions)
+                    || (ageCutoff != null && version.createdAt().isBefore(ageCutoff))) {
+                ids.add(version.id());
+            }
+        }
+    }
+}
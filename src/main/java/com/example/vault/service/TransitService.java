@@ -0,0 +1,404 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.TransitResult;
+import com.example.vault.entity.TransitKey;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.metrics.VaultMetrics.TransitOperation;
+import com.example.vault.repository.TransitKeyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.crypto.SecretKey;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Encryption as a service: callers encrypt and decrypt data with named keys held by the vault,
+ * and the data itself is never stored.
+ *
+ * Keys are versioned. Encryption uses the newest version and tags the ciphertext with it
+ * ({@code vault:v<version>:<base64>}), so ciphertext stays decryptable after a rotation and can
+ * be moved to the newest version with rewrap. Key material is stored encrypted with the vault's
+ * own key and cached decrypted in memory, refreshed every {@code key-refresh-interval} ms so
+ * rotations made by other instances are picked up.
+ *
+ * A batch larger than {@code chunk-size} is cut into chunks that run on a dedicated fork-join
+ * pool, one thread per core by default, each thread reusing its own cipher. Smaller batches run
+ * on the caller's thread. Results keep the order of the input, and a bad item fails alone.
+ */
+@Service
+public class TransitService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransitService.class);
+
+    private static final String CIPHERTEXT_PREFIX = "vault:v";
+    private static final Pattern KEY_NAME = Pattern.compile("[A-Za-z0-9_.-]{1,128}");
+
+    @Autowired
+    private TransitKeyRepository keyRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private PolicyService policyService;
+
+    @Autowired
+    private VaultMetrics vaultMetrics;
+
+    @Value("${vault.transit.max-batch-size:10000}")
+    private int maxBatchSize = 10000;
+
+    @Value("${vault.transit.chunk-size:64}")
+    private int chunkSize = 64;
+
+    @Value("${vault.transit.parallelism:0}")
+    private int parallelism = 0;
+
+    @Value("${vault.transit.key-refresh-interval:60000}")
+    private long keyRefreshInterval = 60000;
+
+    private final Map<String, KeyRing> keyRings = new ConcurrentHashMap<>();
+
+    private ForkJoinPool workers;
+
+    public record KeyInfo(String name, int latestVersion, Map<Integer, LocalDateTime> versions) {
+    }
+
+    @PostConstruct
+    public void start() {
+        if (maxBatchSize < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("vault.transit.max-batch-size and vault.transit.chunk-size must be positive");
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIds = new AtomicInteger();
+        workers = new ForkJoinPool(threads, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("transit-worker-" + threadIds.incrementAndGet());
+            return thread;
+        }, null, false);
+    }
+
+    @PreDestroy
+    public void stop() {
+        workers.shutdown();
+    }
+
+    /**
+     * Create a key with its first version; false if the key already exists
+     */
+    @Transactional
+    public boolean createKey(String name, List<String> policies) {
+        if (!KEY_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Key name must be 1 to 128 letters, digits, '.', '_' or '-'");
+        }
+        checkAccess(policies, "keys", name, "create");
+        if (keyRepository.existsByName(name)) {
+            return false;
+        }
+        keyRepository.save(newVersion(name, 1));
+        logger.info("Created transit key {}", name);
+        return true;
+    }
+
+    /**
+     * Add a key version, used for all encryption from now on. Returns the new version.
+     */
+    @Transactional
+    public Optional<Integer> rotateKey(String name, List<String> policies) {
+        checkAccess(policies, "keys", name, "update");
+        Integer latest = keyRepository.findMaxVersion(name);
+        if (latest == null) {
+            return Optional.empty();
+        }
+        keyRepository.save(newVersion(name, latest + 1));
+        evictAfterCommit(name);
+        logger.info("Rotated transit key {} to version {}", name, latest + 1);
+        return Optional.of(latest + 1);
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<KeyInfo> readKey(String name, List<String> policies) {
+        checkAccess(policies, "keys", name, "read");
+        List<TransitKey> versions = keyRepository.findByNameOrderByVersionAsc(name);
+        if (versions.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<Integer, LocalDateTime> created = new LinkedHashMap<>();
+        versions.forEach(version -> created.put(version.getVersion(), version.getCreatedAt()));
+        return Optional.of(new KeyInfo(name, versions.get(versions.size() - 1).getVersion(), created));
+    }
+
+    /**
+     * Encrypt base64-encoded plaintexts with the key's newest version; empty if the key does not exist
+     */
+    public Optional<List<TransitResult>> encrypt(String name, List<String> plaintexts, List<String> policies) {
+        checkAccess(policies, "encrypt", name, "update");
+        checkBatch(plaintexts);
+        long start = System.nanoTime();
+        Optional<KeyRing> ring = keyRing(name);
+        if (ring.isEmpty()) {
+            return Optional.empty();
+        }
+
+        int version = ring.get().latestVersion();
+        SecretKey key = ring.get().keys().get(version);
+        LongAdder bytes = new LongAdder();
+        List<TransitResult> results = process(plaintexts, plaintext -> {
+            byte[] data = decodePlaintext(plaintext);
+            bytes.add(data.length);
+            return TransitResult.ciphertext(format(version, encryptionService.encrypt(key, data)), version);
+        });
+        vaultMetrics.recordTransit(TransitOperation.ENCRYPT, results.size(), bytes.sum(), start);
+        return Optional.of(results);
+    }
+
+    /**
+     * Decrypt ciphertexts made by {@link #encrypt} into base64-encoded plaintexts; empty if the
+     * key does not exist
+     */
+    public Optional<List<TransitResult>> decrypt(String name, List<String> ciphertexts, List<String> policies) {
+        checkAccess(policies, "decrypt", name, "update");
+        checkBatch(ciphertexts);
+        long start = System.nanoTime();
+        Optional<KeyRing> ring = keyRing(name);
+        if (ring.isEmpty()) {
+            return Optional.empty();
+        }
+
+        BatchKeys keys = new BatchKeys(name, ring.get());
+        LongAdder bytes = new LongAdder();
+        List<TransitResult> results = process(ciphertexts, ciphertext -> {
+            Ciphertext parsed = parse(ciphertext);
+            byte[] plaintext = encryptionService.decrypt(keys.get(parsed.version()), parsed.data());
+            bytes.add(plaintext.length);
+            return TransitResult.plaintext(Base64.getEncoder().encodeToString(plaintext), parsed.version());
+        });
+        vaultMetrics.recordTransit(TransitOperation.DECRYPT, results.size(), bytes.sum(), start);
+        return Optional.of(results);
+    }
+
+    /**
+     * Re-encrypt ciphertexts with the key's newest version without revealing the plaintext;
+     * empty if the key does not exist
+     */
+    public Optional<List<TransitResult>> rewrap(String name, List<String> ciphertexts, List<String> policies) {
+        checkAccess(policies, "rewrap", name, "update");
+        checkBatch(ciphertexts);
+        long start = System.nanoTime();
+        Optional<KeyRing> ring = keyRing(name);
+        if (ring.isEmpty()) {
+            return Optional.empty();
+        }
+
+        BatchKeys keys = new BatchKeys(name, ring.get());
+        int version = ring.get().latestVersion();
+        SecretKey latestKey = ring.get().keys().get(version);
+        LongAdder bytes = new LongAdder();
+        List<TransitResult> results = process(ciphertexts, ciphertext -> {
+            Ciphertext parsed = parse(ciphertext);
+            byte[] plaintext = encryptionService.decrypt(keys.get(parsed.version()), parsed.data());
+            bytes.add(plaintext.length);
+            return TransitResult.ciphertext(format(version, encryptionService.encrypt(latestKey, plaintext)), version);
+        });
+        vaultMetrics.recordTransit(TransitOperation.REWRAP, results.size(), bytes.sum(), start);
+        return Optional.of(results);
+    }
+
+    /**
+     * Apply the operation to every input, in parallel chunks for large batches. An
+     * IllegalArgumentException fails only the item that threw it.
+     */
+    private List<TransitResult> process(List<String> inputs, Function<String, TransitResult> operation) {
+        Function<String, TransitResult> item = input -> {
+            try {
+                return operation.apply(input);
+            } catch (IllegalArgumentException e) {
+                return TransitResult.failed(e.getMessage());
+            }
+        };
+        if (inputs.size() <= chunkSize) {
+            return inputs.stream().map(item).toList();
+        }
+
+        TransitResult[] results = new TransitResult[inputs.size()];
+        List<Callable<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < inputs.size(); from += chunkSize) {
+            int chunkStart = from;
+            int chunkEnd = Math.min(from + chunkSize, inputs.size());
+            chunks.add(() -> {
+                for (int i = chunkStart; i < chunkEnd; i++) {
+                    results[i] = item.apply(inputs.get(i));
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> chunk : workers.invokeAll(chunks)) {
+                chunk.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Transit batch failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while processing a transit batch", e);
+        }
+        return Arrays.asList(results);
+    }
+
+    private Optional<KeyRing> keyRing(String name) {
+        KeyRing ring = keyRings.get(name);
+        if (ring != null && System.currentTimeMillis() - ring.loadedAt() < keyRefreshInterval) {
+            return Optional.of(ring);
+        }
+        List<TransitKey> versions = keyRepository.findByNameOrderByVersionAsc(name);
+        if (versions.isEmpty()) {
+            keyRings.remove(name);
+            return Optional.empty();
+        }
+        Map<Integer, SecretKey> keys = new HashMap<>();
+        for (TransitKey version : versions) {
+            keys.put(version.getVersion(), encryptionService.unwrapKey(version.getKeyMaterial()));
+        }
+        ring = new KeyRing(Map.copyOf(keys), versions.get(versions.size() - 1).getVersion(), System.currentTimeMillis());
+        keyRings.put(name, ring);
+        return Optional.of(ring);
+    }
+
+    private TransitKey newVersion(String name, int version) {
+        return new TransitKey(name, version, encryptionService.wrapKey(encryptionService.newDataKey()), LocalDateTime.now());
+    }
+
+    private void evictAfterCommit(String name) {
+        keyRings.remove(name);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // A batch that reloaded the key before the commit must not keep the old versions cached
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    keyRings.remove(name);
+                }
+            });
+        }
+    }
+
+    private void checkAccess(List<String> policies, String endpoint, String name, String operation) {
+        String path = "transit/" + endpoint + "/" + name;
+        if (!policyService.hasAccess(policies, path, operation)) {
+            throw new SecurityException("Access denied: insufficient permissions for " + path);
+        }
+    }
+
+    private void checkBatch(List<String> inputs) {
+        if (inputs == null || inputs.isEmpty()) {
+            throw new IllegalArgumentException("No input given");
+        }
+        if (inputs.size() > maxBatchSize) {
+            throw new IllegalArgumentException("Batch of " + inputs.size() + " items exceeds the maximum of " + maxBatchSize);
+        }
+    }
+
+    private static byte[] decodePlaintext(String plaintext) {
+        if (plaintext == null) {
+            throw new IllegalArgumentException("Missing plaintext");
+        }
+        try {
+            return Base64.getDecoder().decode(plaintext);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Plaintext must be base64-encoded");
+        }
+    }
+
+    private static String format(int version, byte[] data) {
+        return CIPHERTEXT_PREFIX + version + ":" + Base64.getEncoder().encodeToString(data);
+    }
+
+    private static Ciphertext parse(String ciphertext) {
+        int separator = ciphertext != null && ciphertext.startsWith(CIPHERTEXT_PREFIX)
+                ? ciphertext.indexOf(':', CIPHERTEXT_PREFIX.length()) : -1;
+        if (separator < 0) {
+            throw new IllegalArgumentException("Ciphertext must look like vault:v<version>:<base64>");
+        }
+        try {
+            int version = Integer.parseInt(ciphertext, CIPHERTEXT_PREFIX.length(), separator, 10);
+            return new Ciphertext(version, Base64.getDecoder().decode(ciphertext.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Ciphertext must look like vault:v<version>:<base64>");
+        }
+    }
+
+    private record KeyRing(Map<Integer, SecretKey> keys, int latestVersion, long loadedAt) {
+    }
+
+    private record Ciphertext(int version, byte[] data) {
+    }
+
+    /**
+     * Key versions seen by one batch. A version newer than the cached ones was rotated in by
+     * another instance, so the key is reloaded, at most once per batch.
+     */
+    private final class BatchKeys {
+
+        private final String name;
+        // Not synchronized: the reload reads the repository, which would pin a virtual thread
+        private final ReentrantLock reloadLock = new ReentrantLock();
+        private volatile KeyRing ring;
+        private boolean reloaded;
+
+        BatchKeys(String name, KeyRing ring) {
+            this.name = name;
+            this.ring = ring;
+        }
+
+        SecretKey get(int version) {
+            SecretKey key = ring.keys().get(version);
+            if (key == null && version > ring.latestVersion()) {
+                key = reload().keys().get(version);
+            }
+            if (key == null) {
+                throw new IllegalArgumentException("Unknown key version " + version);
+            }
+            return key;
+        }
+
+        private KeyRing reload() {
+            reloadLock.lock();
+            try {
+                if (!reloaded) {
+                    reloaded = true;
+                    keyRings.remove(name);
+                    ring = keyRing(name).orElse(ring);
+                }
+                return ring;
+            } finally {
+                reloadLock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.Secret;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Plain JDBC backend over the same {@code secrets} table as the JPA backend, so either can be
+ * switched on against an existing database.
+ *
+ * Each operation is one hand-written statement: rows are mapped straight from the result set
+ * with no persistence context, dirty checking or flush, and deleting a key is a single UPDATE
+ * instead of loading and saving every version. Head and version reads return identities with
+ * only their id set; version ranges also load their names.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.store.backend", havingValue = "jdbc")
+public class JdbcSecretStore implements SecretStore {
+
+    private static final String COLUMNS = "s.id, s.path, s.secret_key, s.version, s.encrypted_data, s.encrypted_value, s.deleted, " +
+            "s.deleted_at, s.metadata, s.created_by_identity_id, s.updated_by_identity_id, s.created_at, s.updated_at";
+
+    private static final String HEAD = "SELECT " + COLUMNS + " FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.deleted = FALSE ORDER BY s.version DESC LIMIT 1";
+
+    private static final String HEAD_VERSION = "SELECT s.version FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.deleted = FALSE ORDER BY s.version DESC LIMIT 1";
+
+    private static final String VERSION = "SELECT " + COLUMNS + " FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.version = ?";
+
+    private static final String EXISTS_VERSION = "SELECT COUNT(*) FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.version = ? AND s.deleted = FALSE";
+
+    private static final String MAX_VERSION = "SELECT MAX(s.version) FROM secrets s WHERE s.path = ? AND s.secret_key = ?";
+
+    private static final String INSERT = "INSERT INTO secrets (path, secret_key, version, encrypted_data, deleted, " +
+            "deleted_at, metadata, created_by_identity_id, updated_by_identity_id, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_DELETED = "UPDATE secrets SET deleted = ?, deleted_at = ?, updated_at = ? WHERE id = ?";
+
+    private static final String DELETE_ALL = "UPDATE secrets SET deleted = TRUE, deleted_at = ? " +
+            "WHERE path = ? AND secret_key = ? AND deleted = FALSE";
+
+    /**
+     * Keys whose highest version is live; the recursive form adds the escaped subtree pattern
+     */
+    private static final String KEYS_AT = "SELECT s.path, s.secret_key FROM secrets s WHERE s.path = ? " +
+            "AND s.deleted = FALSE AND s.version = " +
+            "(SELECT MAX(s2.version) FROM secrets s2 WHERE s2.path = s.path AND s2.secret_key = s.secret_key)";
+
+    private static final String KEYS_UNDER = "SELECT s.path, s.secret_key FROM secrets s " +
+            "WHERE (s.path = ? OR s.path LIKE ? ESCAPE '\\') AND s.deleted = FALSE AND s.version = " +
+            "(SELECT MAX(s2.version) FROM secrets s2 WHERE s2.path = s.path AND s2.secret_key = s.secret_key)";
+
+    private static final String KEYSET = " AND (s.path > ? OR (s.path = ? AND s.secret_key > ?))";
+
+    private static final String KEY_ORDER = " ORDER BY s.path, s.secret_key";
+
+    private static final String PATHS = "SELECT DISTINCT s.path FROM secrets s WHERE s.path LIKE ? AND s.deleted = FALSE";
+
+    private static final String SUMMARIES = "SELECT s.version, s.metadata, s.created_at, s.updated_at, " +
+            "cb.name AS created_by, ub.name AS updated_by, s.deleted, s.deleted_at FROM secrets s " +
+            "LEFT JOIN identities cb ON cb.id = s.created_by_identity_id " +
+            "LEFT JOIN identities ub ON ub.id = s.updated_by_identity_id " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.deleted = FALSE ORDER BY s.version DESC";
+
+    private static final String COUNT = "SELECT COUNT(*) FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.deleted = FALSE";
+
+    private static final String MIN_VERSION = "SELECT MIN(s.version) FROM secrets s " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.deleted = FALSE";
+
+    private static final String RANGE = "SELECT " + COLUMNS + ", cb.name AS created_by_name, ub.name AS updated_by_name " +
+            "FROM secrets s LEFT JOIN identities cb ON cb.id = s.created_by_identity_id " +
+            "LEFT JOIN identities ub ON ub.id = s.updated_by_identity_id " +
+            "WHERE s.path = ? AND s.secret_key = ? AND s.version BETWEEN ? AND ? AND s.deleted = FALSE " +
+            "ORDER BY s.version DESC";
+
+    private static final RowMapper<Secret> SECRET = (rs, row) -> secret(rs, false);
+
+    private static final RowMapper<Secret> SECRET_WITH_NAMES = (rs, row) -> secret(rs, true);
+
+    private static final RowMapper<SecretPathKey> PATH_KEY =
+            (rs, row) -> new SecretPathKey(rs.getString("path"), rs.getString("secret_key"));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${vault.store.jdbc.fetch-size:500}")
+    private int fetchSize = 500;
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcTemplate streamingTemplate;
+
+    @PostConstruct
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        streamingTemplate = new JdbcTemplate(dataSource);
+        // Drivers such as PostgreSQL only stream with a fetch size inside a transaction
+        streamingTemplate.setFetchSize(fetchSize);
+    }
+
+    @Override
+    public boolean existsLive(String path, String key) {
+        return findHeadVersion(path, key).isPresent();
+    }
+
+    @Override
+    public Optional<Secret> findHead(String path, String key) {
+        return first(jdbcTemplate.query(HEAD, SECRET, path, key));
+    }
+
+    @Override
+    public Optional<Integer> findHeadVersion(String path, String key) {
+        return first(jdbcTemplate.queryForList(HEAD_VERSION, Integer.class, path, key));
+    }
+
+    @Override
+    public Optional<Secret> findVersion(String path, String key, Integer version) {
+        return findVersionIncludingDeleted(path, key, version).filter(secret -> !secret.getDeleted());
+    }
+
+    @Override
+    public Optional<Secret> findVersionIncludingDeleted(String path, String key, Integer version) {
+        return first(jdbcTemplate.query(VERSION, SECRET, path, key, version));
+    }
+
+    @Override
+    public boolean existsVersion(String path, String key, Integer version) {
+        return jdbcTemplate.queryForObject(EXISTS_VERSION, Long.class, path, key, version) > 0;
+    }
+
+    @Override
+    public Integer findMaxVersion(String path, String key) {
+        return jdbcTemplate.queryForObject(MAX_VERSION, Integer.class, path, key);
+    }
+
+    /**
+     * Inserts when the secret has no id; otherwise only its deleted state is written
+     */
+    @Override
+    public Secret save(Secret secret) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        secret.setUpdatedAt(now);
+        if (secret.getId() != null) {
+            jdbcTemplate.update(UPDATE_DELETED, secret.getDeleted(), timestamp(secret.getDeletedAt()),
+                    timestamp(now), secret.getId());
+            return secret;
+        }
+
+        if (secret.getCreatedAt() == null) {
+            secret.setCreatedAt(now);
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INSERT, new String[]{"id"});
+            statement.setString(1, secret.getPath());
+            statement.setString(2, secret.getKey());
+            statement.setInt(3, secret.getVersion());
+            statement.setBytes(4, secret.getEncryptedData());
+            statement.setBoolean(5, secret.getDeleted());
+            statement.setTimestamp(6, timestamp(secret.getDeletedAt()));
+            statement.setString(7, secret.getMetadata());
+            statement.setObject(8, secret.getCreatedBy() != null ? secret.getCreatedBy().getId() : null);
+            statement.setObject(9, secret.getUpdatedBy() != null ? secret.getUpdatedBy().getId() : null);
+            statement.setTimestamp(10, timestamp(secret.getCreatedAt()));
+            statement.setTimestamp(11, timestamp(now));
+            return statement;
+        }, keyHolder);
+        secret.setId(keyHolder.getKey().longValue());
+        return secret;
+    }
+
+    @Override
+    public int markAllDeleted(String path, String key, LocalDateTime deletedAt) {
+        return jdbcTemplate.update(DELETE_ALL, timestamp(deletedAt), path, key);
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnder(String path, boolean recursive) {
+        return recursive
+                ? jdbcTemplate.query(KEYS_UNDER + KEY_ORDER, PATH_KEY, path, SecretStore.subtreePattern(path))
+                : jdbcTemplate.query(KEYS_AT + KEY_ORDER, PATH_KEY, path);
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnderAfter(String path, boolean recursive, String afterPath, String afterKey,
+                                                  int limit) {
+        String page = KEYSET + KEY_ORDER + " LIMIT ?";
+        return recursive
+                ? jdbcTemplate.query(KEYS_UNDER + page, PATH_KEY,
+                        path, SecretStore.subtreePattern(path), afterPath, afterPath, afterKey, limit)
+                : jdbcTemplate.query(KEYS_AT + page, PATH_KEY, path, afterPath, afterPath, afterKey, limit);
+    }
+
+    @Override
+    public Stream<SecretPathKey> streamKeysUnder(String path, boolean recursive) {
+        return recursive
+                ? streamingTemplate.queryForStream(KEYS_UNDER + KEY_ORDER, PATH_KEY, path, SecretStore.subtreePattern(path))
+                : streamingTemplate.queryForStream(KEYS_AT + KEY_ORDER, PATH_KEY, path);
+    }
+
+    @Override
+    public List<String> findPathsByPrefix(String pathPrefix) {
+        return jdbcTemplate.queryForList(PATHS, String.class, pathPrefix + "%");
+    }
+
+    @Override
+    public List<SecretVersionSummary> findVersionSummaries(String path, String key) {
+        return jdbcTemplate.query(SUMMARIES, (rs, row) -> new SecretVersionSummary(
+                rs.getInt("version"), rs.getString("metadata"),
+                localDateTime(rs, "created_at"), localDateTime(rs, "updated_at"),
+                rs.getString("created_by"), rs.getString("updated_by"),
+                rs.getBoolean("deleted"), localDateTime(rs, "deleted_at")), path, key);
+    }
+
+    @Override
+    public long countVersions(String path, String key) {
+        return jdbcTemplate.queryForObject(COUNT, Long.class, path, key);
+    }
+
+    @Override
+    public Integer findMinVersion(String path, String key) {
+        return jdbcTemplate.queryForObject(MIN_VERSION, Integer.class, path, key);
+    }
+
+    @Override
+    public List<Secret> findVersionRange(String path, String key, Integer startVersion, Integer endVersion) {
+        return jdbcTemplate.query(RANGE, SECRET_WITH_NAMES, path, key,
+                SecretStore.lowerBound(startVersion), SecretStore.upperBound(endVersion));
+    }
+
+    private static Secret secret(ResultSet rs, boolean withNames) throws SQLException {
+        Secret secret = new Secret();
+        secret.setId(rs.getLong("id"));
+        secret.setPath(rs.getString("path"));
+        secret.setKey(rs.getString("secret_key"));
+        secret.setVersion(rs.getInt("version"));
+        secret.setEncryptedData(rs.getBytes("encrypted_data"));
+        secret.setLegacyEncryptedValue(rs.getString("encrypted_value"));
+        secret.setDeleted(rs.getBoolean("deleted"));
+        secret.setDeletedAt(localDateTime(rs, "deleted_at"));
+        secret.setMetadata(rs.getString("metadata"));
+        secret.setCreatedBy(identity(rs.getObject("created_by_identity_id", Long.class),
+                withNames ? rs.getString("created_by_name") : null));
+        secret.setUpdatedBy(identity(rs.getObject("updated_by_identity_id", Long.class),
+                withNames ? rs.getString("updated_by_name") : null));
+        secret.setCreatedAt(localDateTime(rs, "created_at"));
+        secret.setUpdatedAt(localDateTime(rs, "updated_at"));
+        return secret;
+    }
+
+    private static Identity identity(Long id, String name) {
+        if (id == null) {
+            return null;
+        }
+        Identity identity = new Identity();
+        identity.setId(id);
+        identity.setName(name);
+        return identity;
+    }
+
+    private static LocalDateTime localDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value != null ? value.toLocalDateTime() : null;
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value != null ? Timestamp.valueOf(value) : null;
+    }
+
+    private static <T> Optional<T> first(List<T> rows) {
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+}
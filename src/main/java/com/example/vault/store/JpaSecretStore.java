@@ -0,0 +1,125 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Secret;
+import com.example.vault.repository.SecretRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Default backend: Spring Data JPA over the {@code secrets} table, with Hibernate managing the
+ * rows as entities.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.store.backend", havingValue = "jpa", matchIfMissing = true)
+public class JpaSecretStore implements SecretStore {
+
+    @Autowired
+    private SecretRepository secretRepository;
+
+    @Override
+    public boolean existsLive(String path, String key) {
+        return secretRepository.existsByPathAndKeyAndDeletedFalse(path, key);
+    }
+
+    @Override
+    public Optional<Secret> findHead(String path, String key) {
+        return secretRepository.findByPathAndKeyAndDeletedFalse(path, key);
+    }
+
+    @Override
+    public Optional<Integer> findHeadVersion(String path, String key) {
+        return secretRepository.findLatestVersionByPathAndKey(path, key);
+    }
+
+    @Override
+    public Optional<Secret> findVersion(String path, String key, Integer version) {
+        return secretRepository.findByPathAndKeyAndVersion(path, key, version);
+    }
+
+    @Override
+    public Optional<Secret> findVersionIncludingDeleted(String path, String key, Integer version) {
+        return secretRepository.findByPathAndKeyAndVersionIncludingDeleted(path, key, version);
+    }
+
+    @Override
+    public boolean existsVersion(String path, String key, Integer version) {
+        return secretRepository.existsByPathAndKeyAndVersionAndDeletedFalse(path, key, version);
+    }
+
+    @Override
+    public Integer findMaxVersion(String path, String key) {
+        return secretRepository.findMaxVersionByPathAndKey(path, key);
+    }
+
+    @Override
+    public Secret save(Secret secret) {
+        return secretRepository.save(secret);
+    }
+
+    @Override
+    public int markAllDeleted(String path, String key, LocalDateTime deletedAt) {
+        List<Secret> allVersions = secretRepository.findAllByPathAndKey(path, key);
+        int deleted = 0;
+        for (Secret secret : allVersions) {
+            if (!secret.getDeleted()) {
+                secret.setDeleted(true);
+                secret.setDeletedAt(deletedAt);
+                deleted++;
+            }
+        }
+        secretRepository.saveAll(allVersions);
+        return deleted;
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnder(String path, boolean recursive) {
+        return secretRepository.findKeysUnder(path, recursive, SecretStore.subtreePattern(path));
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnderAfter(String path, boolean recursive, String afterPath, String afterKey,
+                                                  int limit) {
+        return secretRepository.findKeysUnderAfter(path, recursive, SecretStore.subtreePattern(path),
+                afterPath, afterKey, Limit.of(limit));
+    }
+
+    @Override
+    public Stream<SecretPathKey> streamKeysUnder(String path, boolean recursive) {
+        return secretRepository.streamKeysUnder(path, recursive, SecretStore.subtreePattern(path));
+    }
+
+    @Override
+    public List<String> findPathsByPrefix(String pathPrefix) {
+        return secretRepository.findPathsByPrefix(pathPrefix + "%");
+    }
+
+    @Override
+    public List<SecretVersionSummary> findVersionSummaries(String path, String key) {
+        return secretRepository.findVersionSummariesByPathAndKey(path, key);
+    }
+
+    @Override
+    public long countVersions(String path, String key) {
+        return secretRepository.countVersionsByPathAndKey(path, key);
+    }
+
+    @Override
+    public Integer findMinVersion(String path, String key) {
+        return secretRepository.findMinVersionByPathAndKey(path, key);
+    }
+
+    @Override
+    public List<Secret> findVersionRange(String path, String key, Integer startVersion, Integer endVersion) {
+        return secretRepository.findVersionRangeByPathAndKey(path, key,
+                SecretStore.lowerBound(startVersion), SecretStore.upperBound(endVersion));
+    }
+}
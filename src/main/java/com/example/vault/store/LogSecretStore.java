@@ -0,0 +1,306 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.Secret;
+import com.example.vault.repository.IdentityRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Embedded backend for single-node deployments: secret versions live in an append-only
+ * {@link SegmentLog} under {@code vault.store.log.dir} rather than in the database.
+ *
+ * Lookups, listings and version counts are answered from the in-memory index, and reading a
+ * value is one positional or memory-mapped read with no SQL involved. Identities stay in the
+ * database, so version history and ranges resolve creator names from it.
+ *
+ * Writes are durable when {@link #save} returns and are not part of the caller's transaction:
+ * they stay written even if the transaction around them rolls back.
+ */
+@Component
+@ConditionalOnProperty(name = "vault.store.backend", havingValue = "log")
+public class LogSecretStore implements SecretStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSecretStore.class);
+
+    @Autowired
+    private IdentityRepository identityRepository;
+
+    @Value("${vault.store.log.dir:${user.home}/.vault/data/log}")
+    private String dir;
+
+    @Value("${vault.store.log.segment-size:67108864}")
+    private long segmentSize = 64L * 1024 * 1024;
+
+    @Value("${vault.store.log.fsync:true}")
+    private boolean fsync = true;
+
+    @Value("${vault.store.log.compaction-threshold:0.5}")
+    private double compactionThreshold = 0.5;
+
+    private SegmentLog log;
+
+    @PostConstruct
+    public void open() throws IOException {
+        log = new SegmentLog(Path.of(dir), segmentSize, fsync);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Rewrite sealed segments that are mostly superseded snapshots
+     */
+    @Scheduled(fixedDelayString = "${vault.store.log.compaction-interval:600000}",
+            initialDelayString = "${vault.store.log.compaction-interval:600000}")
+    public void compact() {
+        try {
+            log.compact(compactionThreshold);
+        } catch (RuntimeException e) {
+            logger.error("Secret log compaction failed", e);
+        }
+    }
+
+    @Override
+    public boolean existsLive(String path, String key) {
+        return findHeadVersion(path, key).isPresent();
+    }
+
+    @Override
+    public Optional<Secret> findHead(String path, String key) {
+        return findHeadVersion(path, key).flatMap(version -> log.read(new SecretPathKey(path, key), version));
+    }
+
+    @Override
+    public Optional<Integer> findHeadVersion(String path, String key) {
+        return live(path, key).descendingKeySet().stream().findFirst();
+    }
+
+    @Override
+    public Optional<Secret> findVersion(String path, String key, Integer version) {
+        return existsVersion(path, key, version) ? log.read(new SecretPathKey(path, key), version) : Optional.empty();
+    }
+
+    @Override
+    public Optional<Secret> findVersionIncludingDeleted(String path, String key, Integer version) {
+        return log.read(new SecretPathKey(path, key), version);
+    }
+
+    @Override
+    public boolean existsVersion(String path, String key, Integer version) {
+        SegmentLog.Entry entry = log.versions(new SecretPathKey(path, key)).get(version);
+        return entry != null && !entry.deleted();
+    }
+
+    @Override
+    public Integer findMaxVersion(String path, String key) {
+        NavigableMap<Integer, SegmentLog.Entry> versions = log.versions(new SecretPathKey(path, key));
+        return versions.isEmpty() ? null : versions.lastKey();
+    }
+
+    @Override
+    public boolean isTransactional() {
+        return false;
+    }
+
+    @Override
+    public boolean usesSecretsTable() {
+        return false;
+    }
+
+    /**
+     * Appends a new version when the secret has no id; otherwise appends a snapshot of the stored
+     * version with only its deleted state changed
+     */
+    @Override
+    public Secret save(Secret secret) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        secret.setUpdatedAt(now);
+        if (secret.getId() == null) {
+            if (secret.getCreatedAt() == null) {
+                secret.setCreatedAt(now);
+            }
+            return log.insert(secret);
+        }
+
+        int updated = log.update(new SecretPathKey(secret.getPath(), secret.getKey()),
+                entry -> entry.id() == secret.getId(), stored -> {
+                    stored.setDeleted(secret.getDeleted());
+                    stored.setDeletedAt(secret.getDeletedAt());
+                    stored.setUpdatedAt(now);
+                });
+        if (updated == 0) {
+            throw new IllegalArgumentException("Secret version not found: " + secret.getVersionIdentifier());
+        }
+        return secret;
+    }
+
+    @Override
+    public int markAllDeleted(String path, String key, LocalDateTime deletedAt) {
+        return log.update(new SecretPathKey(path, key), entry -> !entry.deleted(), secret -> {
+            secret.setDeleted(true);
+            secret.setDeletedAt(deletedAt);
+        });
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnder(String path, boolean recursive) {
+        return keysUnder(path, recursive, null).toList();
+    }
+
+    @Override
+    public List<SecretPathKey> findKeysUnderAfter(String path, boolean recursive, String afterPath, String afterKey,
+                                                  int limit) {
+        return keysUnder(path, recursive, new SecretPathKey(afterPath, afterKey)).limit(limit).toList();
+    }
+
+    @Override
+    public Stream<SecretPathKey> streamKeysUnder(String path, boolean recursive) {
+        return keysUnder(path, recursive, null);
+    }
+
+    @Override
+    public List<String> findPathsByPrefix(String pathPrefix) {
+        return log.keys().tailMap(new SecretPathKey(pathPrefix, ""), true).entrySet().stream()
+                .takeWhile(entry -> entry.getKey().path().startsWith(pathPrefix))
+                .filter(entry -> entry.getValue().values().stream().anyMatch(version -> !version.deleted()))
+                .map(entry -> entry.getKey().path())
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public List<SecretVersionSummary> findVersionSummaries(String path, String key) {
+        List<Secret> versions = read(path, key, live(path, key).descendingKeySet());
+        Map<Long, String> names = names(versions);
+        return versions.stream()
+                .map(secret -> new SecretVersionSummary(secret.getVersion(), secret.getMetadata(),
+                        secret.getCreatedAt(), secret.getUpdatedAt(),
+                        name(secret.getCreatedBy(), names), name(secret.getUpdatedBy(), names),
+                        secret.getDeleted(), secret.getDeletedAt()))
+                .toList();
+    }
+
+    @Override
+    public long countVersions(String path, String key) {
+        return live(path, key).size();
+    }
+
+    @Override
+    public Integer findMinVersion(String path, String key) {
+        NavigableMap<Integer, SegmentLog.Entry> live = live(path, key);
+        return live.isEmpty() ? null : live.firstKey();
+    }
+
+    @Override
+    public List<Secret> findVersionRange(String path, String key, Integer startVersion, Integer endVersion) {
+        List<Secret> versions = read(path, key,
+                live(path, key).subMap(SecretStore.lowerBound(startVersion), true,
+                        SecretStore.upperBound(endVersion), true).descendingKeySet());
+        Map<Long, String> names = names(versions);
+        for (Secret secret : versions) {
+            setName(secret.getCreatedBy(), names);
+            setName(secret.getUpdatedBy(), names);
+        }
+        return versions;
+    }
+
+    private NavigableMap<Integer, SegmentLog.Entry> live(String path, String key) {
+        NavigableMap<Integer, SegmentLog.Entry> versions = log.versions(new SecretPathKey(path, key));
+        if (versions.values().stream().noneMatch(SegmentLog.Entry::deleted)) {
+            return versions;
+        }
+        return versions.entrySet().stream()
+                .filter(entry -> !entry.getValue().deleted())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, TreeMap::new));
+    }
+
+    private List<Secret> read(String path, String key, Set<Integer> versions) {
+        SecretPathKey id = new SecretPathKey(path, key);
+        List<Secret> secrets = new ArrayList<>(versions.size());
+        for (Integer version : versions) {
+            log.read(id, version).filter(secret -> !secret.getDeleted()).ifPresent(secrets::add);
+        }
+        return secrets;
+    }
+
+    /**
+     * Keys whose highest version is live at the path, then below it, skipping up to and
+     * including {@code after}
+     */
+    private Stream<SecretPathKey> keysUnder(String path, boolean recursive, SecretPathKey after) {
+        // "\0" and "0" are the first strings after path and after path + "/" in key order
+        Stream<SecretPathKey> keys = range(new SecretPathKey(path, ""), new SecretPathKey(path + "\0", ""), after);
+        if (recursive) {
+            keys = Stream.concat(keys, range(new SecretPathKey(path + "/", ""), new SecretPathKey(path + "0", ""), after));
+        }
+        return keys;
+    }
+
+    private Stream<SecretPathKey> range(SecretPathKey from, SecretPathKey to, SecretPathKey after) {
+        boolean fromInclusive = true;
+        if (after != null && SegmentLog.KEY_ORDER.compare(after, from) >= 0) {
+            from = after;
+            fromInclusive = false;
+        }
+        if (SegmentLog.KEY_ORDER.compare(from, to) >= 0) {
+            return Stream.empty();
+        }
+        return log.keys().subMap(from, fromInclusive, to, false).entrySet().stream()
+                .filter(entry -> !entry.getValue().isEmpty() && !entry.getValue().lastEntry().getValue().deleted())
+                .map(Map.Entry::getKey);
+    }
+
+    private Map<Long, String> names(List<Secret> secrets) {
+        Set<Long> ids = new HashSet<>();
+        for (Secret secret : secrets) {
+            if (secret.getCreatedBy() != null) {
+                ids.add(secret.getCreatedBy().getId());
+            }
+            if (secret.getUpdatedBy() != null) {
+                ids.add(secret.getUpdatedBy().getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return identityRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Identity::getId, Identity::getName));
+    }
+
+    private static String name(Identity identity, Map<Long, String> names) {
+        return identity != null ? names.get(identity.getId()) : null;
+    }
+
+    private static void setName(Identity identity, Map<Long, String> names) {
+        if (identity != null) {
+            identity.setName(names.get(identity.getId()));
+        }
+    }
+}
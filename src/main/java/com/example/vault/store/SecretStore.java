@@ -0,0 +1,133 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Secret;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage backend for secret versions, holding exactly the operations {@code SecretService} needs.
+ *
+ * Every version of a key is a row identified by (path, key, version). The head of a key is its
+ * highest non-deleted version. Deletes are soft: rows keep their value and only gain a deletion
+ * time. Unless a method says otherwise, deleted versions are invisible to reads.
+ *
+ * The backend is chosen with {@code vault.store.backend}. Implementations join the caller's
+ * transaction unless {@link #isTransactional()} says otherwise, and every one must pass
+ * {@code SecretStoreConformanceTest}.
+ */
+public interface SecretStore {
+
+    /**
+     * Whether writes join the caller's transaction and are undone when it rolls back
+     */
+    default boolean isTransactional() {
+        return true;
+    }
+
+    /**
+     * Whether secrets live in the {@code secrets} table, which export, import, retention and
+     * tiering query directly
+     */
+    default boolean usesSecretsTable() {
+        return true;
+    }
+
+    /**
+     * Whether the key has any non-deleted version
+     */
+    boolean existsLive(String path, String key);
+
+    Optional<Secret> findHead(String path, String key);
+
+    /**
+     * Version number of the head, without reading the value
+     */
+    Optional<Integer> findHeadVersion(String path, String key);
+
+    Optional<Secret> findVersion(String path, String key, Integer version);
+
+    Optional<Secret> findVersionIncludingDeleted(String path, String key, Integer version);
+
+    boolean existsVersion(String path, String key, Integer version);
+
+    /**
+     * Highest version number of the key, deleted or not, or null if it has none
+     */
+    Integer findMaxVersion(String path, String key);
+
+    /**
+     * Insert a new version, or persist the deleted state of a version read from this store.
+     * Returns the stored version with its id and timestamps set.
+     */
+    Secret save(Secret secret);
+
+    /**
+     * Soft-delete every live version of the key. Returns the number of versions deleted.
+     */
+    int markAllDeleted(String path, String key, LocalDateTime deletedAt);
+
+    /**
+     * Keys whose latest version is live at the path, or anywhere below it when recursive,
+     * ordered by (path, key)
+     */
+    List<SecretPathKey> findKeysUnder(String path, boolean recursive);
+
+    /**
+     * At most {@code limit} of the same keys, starting after the given pair; ("", "") starts at the beginning
+     */
+    List<SecretPathKey> findKeysUnderAfter(String path, boolean recursive, String afterPath, String afterKey, int limit);
+
+    /**
+     * The same keys as a forward-only stream; must be consumed and closed inside a transaction
+     */
+    Stream<SecretPathKey> streamKeysUnder(String path, boolean recursive);
+
+    /**
+     * Distinct paths with a live version that start with the prefix
+     */
+    List<String> findPathsByPrefix(String pathPrefix);
+
+    /**
+     * History of the live versions without their values, newest first
+     */
+    List<SecretVersionSummary> findVersionSummaries(String path, String key);
+
+    long countVersions(String path, String key);
+
+    /**
+     * Lowest live version number, or null if the key has none
+     */
+    Integer findMinVersion(String path, String key);
+
+    /**
+     * Live versions between the bounds inclusive, newest first, with creator and updater names loaded.
+     * A null bound leaves that end of the range open.
+     */
+    List<Secret> findVersionRange(String path, String key, Integer startVersion, Integer endVersion);
+
+    /**
+     * Lowest version matched by a range starting at {@code startVersion}, which may be null
+     */
+    static int lowerBound(Integer startVersion) {
+        return startVersion != null ? startVersion : Integer.MIN_VALUE;
+    }
+
+    /**
+     * Highest version matched by a range ending at {@code endVersion}, which may be null
+     */
+    static int upperBound(Integer endVersion) {
+        return endVersion != null ? endVersion : Integer.MAX_VALUE;
+    }
+
+    /**
+     * LIKE pattern for everything below the path, with wildcards in the path itself escaped
+     */
+    static String subtreePattern(String path) {
+        return path.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "/%";
+    }
+}
@@ -0,0 +1,641 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.Secret;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of secret versions split into numbered segment files, with an in-memory index
+ * pointing at the latest record of every version. Backs {@link LogSecretStore}.
+ *
+ * Each record is a full snapshot of one version, framed as [body length][CRC32][body]. Changing
+ * a version's deleted state appends a new snapshot and leaves the old one as garbage. Writes go
+ * to the end of the active segment; once it reaches the segment size it is sealed and
+ * memory-mapped, and a new segment is started. Opening the log replays every segment in order,
+ * so the last snapshot of a version wins. A record that runs past the end of the newest segment,
+ * left by a crash mid-append, is truncated away. Any other damage fails startup, including a bad
+ * checksum on a complete record, so valid records after it are never discarded.
+ * Records from before values were stored as binary are still read, and compaction rewrites
+ * them in the current format.
+ *
+ * Appends and index updates happen under one lock, so the index always agrees with the order of
+ * the log. Fsync is group committed: a writer waiting for durability either forces the file
+ * itself or waits for a force already in flight, which covers every record appended before it.
+ */
+final class SegmentLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentLog.class);
+
+    private static final String SUFFIX = ".seg";
+    private static final int HEADER = 8;
+    private static final byte FORMAT = 2;
+    // Records from before values were binary, holding the value as Base64 text
+    private static final byte FORMAT_TEXT_VALUE = 1;
+    private static final long NONE = Long.MIN_VALUE;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    static final Comparator<SecretPathKey> KEY_ORDER =
+            Comparator.comparing(SecretPathKey::path).thenComparing(SecretPathKey::key);
+
+    /**
+     * Location of the latest record of one version, with the fields reads filter on
+     */
+    record Entry(long id, int version, boolean deleted, int segment, long offset, int length) {
+    }
+
+    private final Path dir;
+    private final long segmentSize;
+    private final boolean fsync;
+
+    private final ConcurrentSkipListMap<SecretPathKey, NavigableMap<Integer, Entry>> index =
+            new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    // A lock rather than a monitor, so writers waiting for an fsync don't pin virtual threads
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+
+    // Guarded by writeLock
+    private Segment active;
+    private long appended;
+    private long nextId = 1;
+
+    // Guarded by syncLock
+    private long durable;
+    private boolean syncing;
+
+    SegmentLog(Path dir, long segmentSize, boolean fsync) throws IOException {
+        if (segmentSize <= HEADER || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Segment size must be between " + (HEADER + 1) + " and "
+                    + Integer.MAX_VALUE + " bytes");
+        }
+        this.dir = dir;
+        this.segmentSize = segmentSize;
+        this.fsync = fsync;
+
+        Files.createDirectories(dir);
+        List<Integer> ids;
+        try (Stream<Path> files = Files.list(dir)) {
+            ids = files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.endsWith(SUFFIX))
+                    .map(name -> Integer.parseInt(name.substring(0, name.length() - SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+
+        long start = System.nanoTime();
+        long records = 0;
+        for (int i = 0; i < ids.size(); i++) {
+            Segment segment = open(ids.get(i));
+            boolean last = i == ids.size() - 1;
+            records += replay(segment, last);
+            if (last) {
+                active = segment;
+            } else {
+                segment.seal();
+            }
+        }
+        if (active == null) {
+            active = open(1);
+        }
+        logger.info("Opened secret log {}: {} records in {} segments, {} keys, replayed in {} ms",
+                dir, records, segments.size(), index.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Every key with its versions, in (path, key) order. The version maps are immutable snapshots.
+     */
+    NavigableMap<SecretPathKey, NavigableMap<Integer, Entry>> keys() {
+        return Collections.unmodifiableNavigableMap(index);
+    }
+
+    NavigableMap<Integer, Entry> versions(SecretPathKey id) {
+        return index.getOrDefault(id, Collections.emptyNavigableMap());
+    }
+
+    /**
+     * The latest snapshot of a version, deleted or not
+     */
+    Optional<Secret> read(SecretPathKey id, int version) {
+        while (true) {
+            Entry entry = versions(id).get(version);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            Secret secret = read(entry);
+            if (secret != null) {
+                return Optional.of(secret);
+            }
+            // The segment was compacted away after the lookup; the index now points at the copy
+        }
+    }
+
+    /**
+     * Append a new version and assign its id. Returns once the record is durable.
+     */
+    Secret insert(Secret secret) {
+        SecretPathKey id = new SecretPathKey(secret.getPath(), secret.getKey());
+        long ticket;
+        writeLock.lock();
+        try {
+            if (versions(id).containsKey(secret.getVersion())) {
+                throw new DuplicateKeyException("Version " + secret.getVersion() + " of "
+                        + secret.getSecretIdentifier() + " already exists");
+            }
+            secret.setId(nextId++);
+            ticket = append(id, secret, frame(encode(secret)));
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(ticket);
+        return secret;
+    }
+
+    /**
+     * Append a changed snapshot of every version of the key the filter accepts. Returns the number
+     * of versions changed, once they are durable.
+     */
+    int update(SecretPathKey id, Predicate<Entry> filter, Consumer<Secret> change) {
+        int updated = 0;
+        long ticket = 0;
+        writeLock.lock();
+        try {
+            for (Entry entry : versions(id).values()) {
+                if (filter.test(entry)) {
+                    Secret secret = read(entry);
+                    change.accept(secret);
+                    ticket = append(id, secret, frame(encode(secret)));
+                    updated++;
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        awaitDurable(ticket);
+        return updated;
+    }
+
+    /**
+     * Copy the live records of sealed segments that are at least {@code garbageThreshold} garbage
+     * into the active segment, then delete those segments. Returns the number of segments removed.
+     */
+    int compact(double garbageThreshold) {
+        List<Segment> candidates = segments.values().stream()
+                .filter(segment -> segment.mapping != null && segment.size > 0)
+                .filter(segment -> 1.0 - (double) segment.liveBytes.get() / segment.size >= garbageThreshold)
+                .sorted(Comparator.comparingInt(segment -> segment.id))
+                .toList();
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            long moved = 0;
+            for (Segment segment : candidates) {
+                moved += relocate(segment);
+            }
+            // The copies must be on disk before the only other copy is deleted
+            FileChannel channel;
+            writeLock.lock();
+            try {
+                channel = active.channel;
+            } finally {
+                writeLock.unlock();
+            }
+            channel.force(false);
+
+            for (Segment segment : candidates) {
+                segments.remove(segment.id);
+                segment.channel.close();
+                Files.delete(segment.file);
+            }
+            logger.info("Compacted {} segments of secret log {}, {} live records moved",
+                    candidates.size(), dir, moved);
+            return candidates.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact secret log " + dir, e);
+        }
+    }
+
+    int segmentCount() {
+        return segments.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writeLock.lock();
+        try {
+            active.channel.force(false);
+            for (Segment segment : segments.values()) {
+                segment.channel.close();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private long replay(Segment segment, boolean last) throws IOException {
+        long size = segment.channel.size();
+        long offset = 0;
+        long records = 0;
+        while (offset < size) {
+            byte[] body = readFrame(segment, offset, size);
+            if (body == null) {
+                if (!last) {
+                    throw new IllegalStateException("Truncated record in " + segment.file + " at offset " + offset);
+                }
+                logger.warn("Truncating torn record at offset {} of {}", offset, segment.file);
+                segment.channel.truncate(offset);
+                break;
+            }
+            Secret secret = decode(body);
+            index(new SecretPathKey(secret.getPath(), secret.getKey()), entry(secret, segment.id, offset, HEADER + body.length));
+            nextId = Math.max(nextId, secret.getId() + 1);
+            offset += HEADER + body.length;
+            records++;
+        }
+        segment.size = offset;
+        return records;
+    }
+
+    /**
+     * Body of the record at the offset, or null if its header or body runs past the end, as only
+     * an interrupted append leaves it
+     *
+     * @throws IllegalStateException if the record is complete but damaged
+     */
+    private static byte[] readFrame(Segment segment, long offset, long size) throws IOException {
+        if (offset + HEADER > size) {
+            return null;
+        }
+        ByteBuffer header = ByteBuffer.wrap(segment.read(offset, HEADER));
+        int length = header.getInt();
+        int checksum = header.getInt();
+        if (length <= 0) {
+            throw new IllegalStateException("Corrupt record length in " + segment.file + " at offset " + offset);
+        }
+        if (offset + HEADER + length > size) {
+            return null;
+        }
+        byte[] body = segment.read(offset + HEADER, length);
+        if (checksum(body) != checksum) {
+            throw new IllegalStateException("Checksum mismatch in " + segment.file + " at offset " + offset);
+        }
+        return body;
+    }
+
+    /**
+     * Decode the record an entry points at, or null if its segment has been compacted away
+     */
+    private Secret read(Entry entry) {
+        Segment segment = segments.get(entry.segment());
+        if (segment == null) {
+            return null;
+        }
+        try {
+            ByteBuffer frame = ByteBuffer.wrap(segment.read(entry.offset(), entry.length()));
+            frame.getInt();
+            int checksum = frame.getInt();
+            byte[] body = new byte[entry.length() - HEADER];
+            frame.get(body);
+            if (checksum(body) != checksum) {
+                throw new IllegalStateException("Checksum mismatch in " + segment.file + " at offset " + entry.offset());
+            }
+            return decode(body);
+        } catch (ClosedChannelException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read " + segment.file, e);
+        }
+    }
+
+    /**
+     * Write a frame at the end of the active segment and point the index at it. Returns the
+     * append position to wait on for durability.
+     */
+    private long append(SecretPathKey id, Secret secret, byte[] frame) {
+        if (frame.length > segmentSize) {
+            throw new IllegalArgumentException("Secret version of " + frame.length
+                    + " bytes is larger than the log segment size");
+        }
+        try {
+            if (active.size + frame.length > segmentSize) {
+                roll();
+            }
+            long offset = active.size;
+            ByteBuffer buffer = ByteBuffer.wrap(frame);
+            while (buffer.hasRemaining()) {
+                active.channel.write(buffer, offset + buffer.position());
+            }
+            active.size = offset + frame.length;
+            appended += frame.length;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to secret log " + dir, e);
+        }
+        index(id, entry(secret, active.id, active.size - frame.length, frame.length));
+        return appended;
+    }
+
+    private void roll() throws IOException {
+        active.channel.force(false);
+        active.seal();
+        active = open(active.id + 1);
+    }
+
+    /**
+     * Copy every record of the segment the index still points at; runs outside the write lock
+     * except for the copy itself, so writers are only held up one record at a time
+     */
+    private long relocate(Segment segment) throws IOException {
+        long moved = 0;
+        long offset = 0;
+        while (offset < segment.size) {
+            byte[] body = readFrame(segment, offset, segment.size);
+            if (body == null) {
+                throw new IllegalStateException("Corrupt record in " + segment.file + " at offset " + offset);
+            }
+            Secret secret = decode(body);
+            SecretPathKey id = new SecretPathKey(secret.getPath(), secret.getKey());
+            writeLock.lock();
+            try {
+                Entry current = versions(id).get(secret.getVersion());
+                if (current != null && current.segment() == segment.id && current.offset() == offset) {
+                    // Compaction is also where older records are brought up to the current format
+                    append(id, secret, body[0] == FORMAT ? segment.read(offset, HEADER + body.length) : frame(encode(secret)));
+                    moved++;
+                }
+            } finally {
+                writeLock.unlock();
+            }
+            offset += HEADER + body.length;
+        }
+        return moved;
+    }
+
+    private void index(SecretPathKey id, Entry entry) {
+        TreeMap<Integer, Entry> versions = new TreeMap<>(versions(id));
+        Entry previous = versions.put(entry.version(), entry);
+        if (previous != null) {
+            Segment segment = segments.get(previous.segment());
+            if (segment != null) {
+                segment.liveBytes.addAndGet(-previous.length());
+            }
+        }
+        segments.get(entry.segment()).liveBytes.addAndGet(entry.length());
+        index.put(id, Collections.unmodifiableNavigableMap(versions));
+    }
+
+    /**
+     * Block until everything up to the append position is on disk, forcing the file unless
+     * another writer's force already covers it
+     */
+    private void awaitDurable(long ticket) {
+        if (!fsync || ticket == 0) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            while (durable < ticket && syncing) {
+                try {
+                    synced.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new UncheckedIOException(new InterruptedIOException("Interrupted waiting for fsync"));
+                }
+            }
+            if (durable >= ticket) {
+                return;
+            }
+            syncing = true;
+        } finally {
+            syncLock.unlock();
+        }
+
+        long target = 0;
+        try {
+            FileChannel channel;
+            writeLock.lock();
+            try {
+                target = appended;
+                channel = active.channel;
+            } finally {
+                writeLock.unlock();
+            }
+            try {
+                channel.force(false);
+            } catch (ClosedChannelException e) {
+                // Compacted away, and sealed segments are forced when they roll
+            }
+        } catch (IOException e) {
+            target = 0;
+            throw new UncheckedIOException("Failed to sync secret log " + dir, e);
+        } finally {
+            syncLock.lock();
+            try {
+                durable = Math.max(durable, target);
+                syncing = false;
+                synced.signalAll();
+            } finally {
+                syncLock.unlock();
+            }
+        }
+    }
+
+    private Segment open(int id) throws IOException {
+        Path file = dir.resolve(String.format("%08d%s", id, SUFFIX));
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        Segment segment = new Segment(id, file, channel);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static Entry entry(Secret secret, int segment, long offset, int length) {
+        return new Entry(secret.getId(), secret.getVersion(), secret.getDeleted(), segment, offset, length);
+    }
+
+    private static byte[] frame(byte[] body) {
+        return ByteBuffer.allocate(HEADER + body.length)
+                .putInt(body.length)
+                .putInt(checksum(body))
+                .put(body)
+                .array();
+    }
+
+    private static int checksum(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        return (int) crc.getValue();
+    }
+
+    private static byte[] encode(Secret secret) {
+        byte[] encryptedData = secret.getEncryptedData();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + encryptedData.length);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT);
+            out.writeLong(secret.getId());
+            writeString(out, secret.getPath());
+            writeString(out, secret.getKey());
+            out.writeInt(secret.getVersion());
+            out.writeBoolean(secret.getDeleted());
+            out.writeLong(micros(secret.getDeletedAt()));
+            writeString(out, secret.getMetadata());
+            out.writeLong(secret.getCreatedBy() != null ? secret.getCreatedBy().getId() : NONE);
+            out.writeLong(secret.getUpdatedBy() != null ? secret.getUpdatedBy().getId() : NONE);
+            out.writeLong(micros(secret.getCreatedAt()));
+            out.writeLong(micros(secret.getUpdatedAt()));
+            out.writeInt(encryptedData.length);
+            out.write(encryptedData);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Identities come back with only their id set
+     */
+    private static Secret decode(byte[] body) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(body))) {
+            byte format = in.readByte();
+            if (format != FORMAT && format != FORMAT_TEXT_VALUE) {
+                throw new IllegalStateException("Unsupported secret log record format " + format);
+            }
+            Secret secret = new Secret();
+            secret.setId(in.readLong());
+            secret.setPath(readString(in));
+            secret.setKey(readString(in));
+            secret.setVersion(in.readInt());
+            secret.setDeleted(in.readBoolean());
+            secret.setDeletedAt(dateTime(in.readLong()));
+            secret.setMetadata(readString(in));
+            secret.setCreatedBy(identity(in.readLong()));
+            secret.setUpdatedBy(identity(in.readLong()));
+            secret.setCreatedAt(dateTime(in.readLong()));
+            secret.setUpdatedAt(dateTime(in.readLong()));
+            if (format == FORMAT_TEXT_VALUE) {
+                secret.setLegacyEncryptedValue(readString(in));
+            } else {
+                secret.setEncryptedData(in.readNBytes(in.readInt()));
+            }
+            return secret;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static Identity identity(long id) {
+        if (id == NONE) {
+            return null;
+        }
+        Identity identity = new Identity();
+        identity.setId(id);
+        return identity;
+    }
+
+    private static long micros(LocalDateTime value) {
+        return value != null ? ChronoUnit.MICROS.between(EPOCH, value) : NONE;
+    }
+
+    private static LocalDateTime dateTime(long micros) {
+        return micros != NONE ? EPOCH.plus(micros, ChronoUnit.MICROS) : null;
+    }
+
+    /**
+     * One segment file. The active segment is read with positional reads; sealed segments are
+     * memory-mapped, and the mapping outlives the channel so readers never see a compacted segment
+     * disappear under them.
+     */
+    private static final class Segment {
+
+        final int id;
+        final Path file;
+        final FileChannel channel;
+        final AtomicLong liveBytes = new AtomicLong();
+        volatile long size;
+        volatile MappedByteBuffer mapping;
+
+        Segment(int id, Path file, FileChannel channel) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+        }
+
+        void seal() throws IOException {
+            mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            MappedByteBuffer mapped = mapping;
+            if (mapped != null) {
+                mapped.get((int) offset, bytes);
+                return bytes;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of " + file + " at offset " + (offset + buffer.position()));
+                }
+            }
+            return bytes;
+        }
+    }
+}
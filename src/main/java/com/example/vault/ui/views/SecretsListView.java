@@ -1,5 +1,6 @@
 package com.example.vault.ui.views;
 
+import com.example.vault.dto.SecretPathKey;
 import com.example.vault.service.SecretService;
 import com.example.vault.ui.dto.SecretUI;
 import com.example.vault.ui.layout.MainLayout;
@@ -178,34 +179,27 @@ public class SecretsListView extends VerticalLayout {
             String[] knownPaths = {"app/config/database", "app/api-keys", "dev/config", "shared/config", "shared/certificates", "foo/bla", "app/config/blaaa"};
             allPaths.addAll(Arrays.asList(knownPaths));
             
-            // Now get secrets from all discovered paths
+            // Now collect the secrets at all discovered paths
+            List<SecretPathKey> secretKeys = new ArrayList<>();
             for (String path : allPaths) {
                 try {
-                    List<String> secretKeys = secretService.listSecrets(path, adminPolicies);
-                    for (String fullPath : secretKeys) {
+                    for (String fullPath : secretService.listSecrets(path, adminPolicies)) {
                         String[] parts = fullPath.split("/");
                         if (parts.length >= 2) {
                             String secretPath = String.join("/", Arrays.copyOf(parts, parts.length - 1));
-                            String secretKey = parts[parts.length - 1];
-                            
-                            try {
-                                Optional<Map<String, Object>> secretData = secretService.getSecret(secretPath, secretKey, adminPolicies);
-                                if (secretData.isPresent()) {
-                                    SecretUI secretUI = mapToSecretUI(secretPath, secretKey, secretData.get());
-                                    secretsList.add(secretUI);
-                                }
-                            } catch (Exception e) {
-                                // Skip individual secrets that can't be accessed
-                                System.err.println("Failed to load secret " + fullPath + ": " + e.getMessage());
-                            }
+                            secretKeys.add(new SecretPathKey(secretPath, parts[parts.length - 1]));
                         }
                     }
                 } catch (Exception e) {
                     // Skip paths we don't have access to
                     System.err.println("Failed to list secrets at path " + path + ": " + e.getMessage());
-                    continue;
                 }
             }
+            
+            // and read them in one call, which decrypts the values in parallel and leaves out any
+            // it cannot decrypt
+            secretService.getSecrets(secretKeys, adminPolicies).forEach((secret, secretData) ->
+                    secretsList.add(mapToSecretUI(secret.path(), secret.key(), secretData)));
 
             String searchTerm = searchField.getValue() != null ? searchField.getValue().toLowerCase() : "";
             secrets = secretsList.stream()
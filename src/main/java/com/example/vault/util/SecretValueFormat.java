@@ -0,0 +1,57 @@
+package com.example.vault.util;
+
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Stored layout of an encrypted secret value: a format byte, then the AES-GCM IV, ciphertext
+ * and tag as raw bytes.
+ *
+ * Values written before the binary column existed hold the same IV, ciphertext and tag as
+ * Base64 text with no format byte. Converting between the two needs no key, so old values are
+ * migrated and archives stay portable without decrypting anything.
+ */
+public final class SecretValueFormat {
+
+    /**
+     * AES-256-GCM under the vault key, 12-byte IV, 16-byte tag
+     */
+    public static final byte V1 = 1;
+
+    private SecretValueFormat() {}
+
+    /**
+     * Binary value from the Base64 text of the legacy format
+     *
+     * @throws IllegalArgumentException if the text is not Base64
+     */
+    public static byte[] fromBase64(String legacyValue) {
+        byte[] decoded = Base64.getDecoder().decode(legacyValue);
+        return fromLegacyBytes(decoded);
+    }
+
+    /**
+     * Binary value from the decoded bytes of the legacy format
+     */
+    public static byte[] fromLegacyBytes(byte[] legacyValue) {
+        byte[] value = new byte[legacyValue.length + 1];
+        value[0] = V1;
+        System.arraycopy(legacyValue, 0, value, 1, legacyValue.length);
+        return value;
+    }
+
+    /**
+     * The legacy Base64 text of a binary value, as written to export archives
+     */
+    public static String toBase64(byte[] value) {
+        requireV1(value);
+        return Base64.getEncoder().encodeToString(Arrays.copyOfRange(value, 1, value.length));
+    }
+
+    public static void requireV1(byte[] value) {
+        if (value.length == 0 || value[0] != V1) {
+            throw new IllegalArgumentException("Unsupported secret value format "
+                    + (value.length == 0 ? "(empty)" : Byte.toString(value[0])));
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.vault.util;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.security.GeneralSecurityException;
+
+/**
+ * Authenticated encryption of a byte stream in segments, after the STREAM construction
+ * (Hoang, Reyhanitabar, Rogaway and Vizár, 2015) that Tink's streaming AEAD also uses.
+ *
+ * Each segment is sealed with AES-GCM under a nonce built from a per-stream prefix, the
+ * segment number and a flag marking the last segment. Reordered, dropped or appended segments
+ * and a stream cut at a segment boundary all fail authentication, yet either side holds only
+ * one segment at a time. A key and prefix pair must never be used for two streams.
+ *
+ * Not thread-safe; use one instance per stream.
+ */
+public final class StreamingAead {
+
+    public static final int NONCE_PREFIX_LENGTH = 7;
+    public static final int TAG_LENGTH = 16;
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int NONCE_LENGTH = 12;
+
+    private final SecretKey key;
+    private final byte[] noncePrefix;
+    private final Cipher cipher;
+
+    public StreamingAead(SecretKey key, byte[] noncePrefix) {
+        if (noncePrefix.length != NONCE_PREFIX_LENGTH) {
+            throw new IllegalArgumentException("Nonce prefix must be " + NONCE_PREFIX_LENGTH + " bytes");
+        }
+        this.key = key;
+        this.noncePrefix = noncePrefix.clone();
+        try {
+            this.cipher = Cipher.getInstance(TRANSFORMATION);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(TRANSFORMATION + " not available", e);
+        }
+    }
+
+    /**
+     * Encrypt the first {@code length} bytes of {@code plaintext} as segment {@code segment}
+     */
+    public byte[] seal(int segment, boolean last, byte[] plaintext, int length) {
+        try {
+            cipher.init(Cipher.ENCRYPT_MODE, key, nonce(segment, last));
+            return cipher.doFinal(plaintext, 0, length);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Segment encryption failed", e);
+        }
+    }
+
+    /**
+     * Decrypt segment {@code segment}
+     *
+     * @throws IllegalArgumentException if the segment was altered, moved, or is not the last one
+     *         when {@code last} says it is (or the other way round)
+     */
+    public byte[] open(int segment, boolean last, byte[] ciphertext) {
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, key, nonce(segment, last));
+            return cipher.doFinal(ciphertext);
+        } catch (AEADBadTagException e) {
+            throw new IllegalArgumentException("Segment " + segment + " failed authentication");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Segment decryption failed", e);
+        }
+    }
+
+    /**
+     * Prefix (7 bytes), big-endian segment number (4 bytes), last-segment flag (1 byte)
+     */
+    private GCMParameterSpec nonce(int segment, boolean last) {
+        if (segment < 0) {
+            throw new IllegalArgumentException("Segment number must not be negative");
+        }
+        byte[] nonce = new byte[NONCE_LENGTH];
+        System.arraycopy(noncePrefix, 0, nonce, 0, NONCE_PREFIX_LENGTH);
+        nonce[7] = (byte) (segment >>> 24);
+        nonce[8] = (byte) (segment >>> 16);
+        nonce[9] = (byte) (segment >>> 8);
+        nonce[10] = (byte) segment;
+        nonce[11] = (byte) (last ? 1 : 0);
+        return new GCMParameterSpec(TAG_LENGTH * 8, nonce);
+    }
+}
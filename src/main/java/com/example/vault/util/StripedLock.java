@@ -0,0 +1,43 @@
+package com.example.vault.util;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed set of locks shared out by key hash.
+ *
+ * Holders of keys on different stripes never contend, and memory stays bounded by the stripe
+ * count however many keys pass through. Two keys may share a stripe, so a holder must never
+ * wait for another key's lock while holding one.
+ */
+public class StripedLock {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripes number of locks, rounded up to a power of two
+     */
+    public StripedLock(int stripes) {
+        if (stripes < 1 || stripes > 1 << 30) {
+            throw new IllegalArgumentException("Stripe count must be between 1 and " + (1 << 30));
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public Lock get(Object key) {
+        int hash = key.hashCode();
+        // Spread the high bits down so keys differing only there still land on different stripes
+        hash ^= hash >>> 16;
+        return stripes[hash & mask];
+    }
+
+    public int size() {
+        return stripes.length;
+    }
+}
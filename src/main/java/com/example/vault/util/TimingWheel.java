@@ -0,0 +1,183 @@
+package com.example.vault.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for tracking large numbers of deadlines.
+ *
+ * Scheduling and cancelling are O(1). Entries start on the coarsest level that can hold
+ * their deadline and cascade down one level at a time as the wheel turns, so each entry
+ * is touched at most once per level before it fires.
+ */
+public class TimingWheel<T> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levelCount;
+    private final ArrayDeque<Timeout<T>>[][] levels;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long currentTick;
+    private int size;
+
+    public TimingWheel(long tickMillis, int levelCount, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (levelCount < 1 || levelCount * SLOT_BITS > 60) {
+            throw new IllegalArgumentException("Level count must be between 1 and " + (60 / SLOT_BITS));
+        }
+        this.tickMillis = tickMillis;
+        this.levelCount = levelCount;
+        this.currentTick = startMillis / tickMillis;
+
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Timeout<T>>[][] buckets = new ArrayDeque[levelCount][SLOTS];
+        for (int level = 0; level < levelCount; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                buckets[level][slot] = new ArrayDeque<>();
+            }
+        }
+        this.levels = buckets;
+    }
+
+    /**
+     * Schedule an item to fire once the wheel has advanced past the given deadline.
+     * Deadlines already in the past fire on the next tick.
+     */
+    public Timeout<T> schedule(T item, long deadlineMillis) {
+        // Round up, so the entry never fires on the tick before its deadline has passed
+        long deadlineTick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), 0);
+        Timeout<T> timeout = new Timeout<>(item, deadlineMillis, deadlineTick);
+        lock.lock();
+        try {
+            place(timeout);
+            size++;
+        } finally {
+            lock.unlock();
+        }
+        return timeout;
+    }
+
+    /**
+     * Advance the wheel up to the given time, handing every expired item to the consumer.
+     * Cancelled entries are discarded without being reported.
+     *
+     * @return the number of items handed to the consumer
+     */
+    public int advance(long nowMillis, Consumer<T> expired) {
+        List<T> fired = new ArrayList<>();
+        lock.lock();
+        try {
+            long targetTick = nowMillis / tickMillis;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                ArrayDeque<Timeout<T>> bucket = levels[0][(int) (currentTick & SLOT_MASK)];
+                int pending = bucket.size();
+                for (int i = 0; i < pending; i++) {
+                    Timeout<T> timeout = bucket.poll();
+                    if (timeout.cancelled) {
+                        size--;
+                    } else if (timeout.deadlineTick > currentTick) {
+                        // Deadline lies beyond the top level's span; go round again
+                        place(timeout);
+                    } else {
+                        size--;
+                        fired.add(timeout.item);
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Callbacks run outside the lock so they may schedule new entries
+        fired.forEach(expired);
+        return fired.size();
+    }
+
+    /**
+     * Number of scheduled entries, including cancelled entries not yet discarded.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    private void cascade() {
+        // Cascade from the coarsest level down so entries can fall through several levels in one tick
+        for (int level = levelCount - 1; level >= 1; level--) {
+            long levelMask = (1L << (SLOT_BITS * level)) - 1;
+            if ((currentTick & levelMask) != 0) {
+                continue;
+            }
+            ArrayDeque<Timeout<T>> bucket = levels[level][(int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK)];
+            int pending = bucket.size();
+            for (int i = 0; i < pending; i++) {
+                Timeout<T> timeout = bucket.poll();
+                if (timeout.cancelled) {
+                    size--;
+                } else {
+                    place(timeout);
+                }
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long deadlineTick = Math.max(timeout.deadlineTick, currentTick + 1);
+        long delta = deadlineTick - currentTick;
+        for (int level = 0; level < levelCount; level++) {
+            if (delta < (1L << (SLOT_BITS * (level + 1))) || level == levelCount - 1) {
+                // A slot that wraps onto the current position is cascaded on the next revolution,
+                // which is still no later than the deadline
+                levels[level][(int) ((deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK)].add(timeout);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Handle for a scheduled entry.
+     */
+    public static final class Timeout<T> {
+        private final T item;
+        private final long deadlineMillis;
+        private final long deadlineTick;
+        private volatile boolean cancelled;
+
+        private Timeout(T item, long deadlineMillis, long deadlineTick) {
+            this.item = item;
+            this.deadlineMillis = deadlineMillis;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public T getItem() { return item; }
+
+        public long getDeadlineMillis() { return deadlineMillis; }
+
+        public boolean isCancelled() { return cancelled; }
+
+        /**
+         * Cancel the entry. It is discarded lazily when the wheel next reaches its slot.
+         */
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
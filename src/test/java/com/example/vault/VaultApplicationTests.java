@@ -420,6 +420,55 @@ class VaultApplicationTests {
                 .andExpect(jsonPath("$.data.version").value(1));
     }
     
+    @Test
+    void secretConditionalRead_UnchangedSecret_ReturnsNotModified() throws Exception {
+        String path = "etag-test";
+        String key = "api-key";
+        
+        mockMvc.perform(post("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SecretRequest("value-v1", null))))
+                .andExpect(status().isCreated());
+        
+        MvcResult firstRead = mockMvc.perform(get("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        String eTag = firstRead.getResponse().getHeader("ETag");
+        
+        // Unchanged secret answers 304 on both GET and HEAD
+        mockMvc.perform(get("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        
+        mockMvc.perform(head("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified());
+        
+        // A new version invalidates the ETag
+        mockMvc.perform(put("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new SecretRequest("value-v2", null))))
+                .andExpect(status().isOk());
+        
+        mockMvc.perform(get("/v1/secret/" + path)
+                .param("key", key)
+                .header("Authorization", "Bearer " + authToken)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.value").value("value-v2"));
+    }
+    
     @Test
     void secretVersioning_InvalidVersionRange_ReturnsBadRequest() throws Exception {
         String path = "range-test";
@@ -0,0 +1,196 @@
+package com.example.vault.engine;
+
+import com.example.vault.config.DatabaseEngineProperties;
+import com.example.vault.entity.DynamicCredentialLease;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.DynamicCredentialLeaseRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DatabaseSecretsEngineTest {
+
+    private final String url = "jdbc:h2:mem:engine-" + UUID.randomUUID();
+    private final Map<String, DynamicCredentialLease> leases = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DatabaseSecretsEngine engine = new DatabaseSecretsEngine();
+
+    private DynamicCredentialLeaseRepository leaseRepository;
+
+    @BeforeEach
+    void setUp() {
+        leaseRepository = leaseRepository();
+        configure(engine, "node-a");
+        engine.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    void issue_FromPool_ReturnsWorkingCredentialUntilRevoked() throws Exception {
+        // Arrange
+        awaitPool(2);
+
+        // Act
+        DynamicCredential credential = engine.issue("readonly");
+
+        // Assert
+        try (Connection connection = DriverManager.getConnection(url, credential.username(), credential.password())) {
+            assertTrue(connection.isValid(1));
+        }
+        assertNotNull(leases.get(credential.leaseId()).getExpiresAt());
+        assertEquals(0, registry.find("vault.engine.pool.misses").counters().size());
+        assertEquals(Optional.of("readonly"), engine.findRole(credential.leaseId()));
+
+        assertTrue(engine.revoke(credential.leaseId()));
+        assertThrows(SQLException.class, () -> DriverManager.getConnection(url, credential.username(), credential.password()));
+        assertFalse(leases.containsKey(credential.leaseId()));
+    }
+
+    @Test
+    void expireUntil_LeaseRunsOut_DropsUser() throws Exception {
+        // Arrange
+        awaitPool(2);
+        DynamicCredential credential = engine.issue("readonly");
+        long expiresAt = credential.expiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        // Act
+        int revoked = engine.expireUntil(expiresAt + 1000);
+
+        // Assert
+        assertEquals(1, revoked);
+        assertThrows(SQLException.class, () -> DriverManager.getConnection(url, credential.username(), credential.password()));
+    }
+
+    @Test
+    void start_OtherInstance_KeepsPooledUsersOfThisOne() throws Exception {
+        // Arrange
+        awaitPool(2);
+        Set<String> pooled = Set.copyOf(leases.keySet());
+        DatabaseSecretsEngine other = new DatabaseSecretsEngine();
+        configure(other, "node-b");
+
+        // Act
+        other.start();
+
+        // Assert
+        try {
+            assertTrue(leases.keySet().containsAll(pooled));
+            DynamicCredential credential = engine.issue("readonly");
+            try (Connection connection = DriverManager.getConnection(url, credential.username(), credential.password())) {
+                assertTrue(connection.isValid(1));
+            }
+        } finally {
+            other.stop();
+        }
+    }
+
+    @Test
+    void issue_LeaseCannotBeRecorded_DropsUserAndFails() throws Exception {
+        // Arrange
+        awaitPool(2);
+        doThrow(new IllegalStateException("lease table unavailable"))
+                .when(leaseRepository).markIssued(anyString(), any(LocalDateTime.class));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> engine.issue("readonly"));
+        awaitPool(2);
+        Set<String> recorded = leases.values().stream().map(DynamicCredentialLease::getUsername).collect(Collectors.toSet());
+        assertEquals(recorded, databaseUsers());
+    }
+
+    private void configure(DatabaseSecretsEngine target, String instanceId) {
+        DatabaseEngineProperties.Role role = new DatabaseEngineProperties.Role();
+        role.setCreationStatements(List.of("CREATE USER \"{{name}}\" PASSWORD '{{password}}'"));
+        role.setRevocationStatements(List.of("DROP USER \"{{name}}\""));
+        role.setTtl(60);
+        role.setPoolSize(2);
+        DatabaseEngineProperties properties = new DatabaseEngineProperties();
+        // Only an admin may set DB_CLOSE_DELAY, so issued users connect without it
+        properties.setUrl(url + ";DB_CLOSE_DELAY=-1");
+        properties.setUsername("sa");
+        properties.setPassword("");
+        properties.setInstanceId(instanceId);
+        properties.setRoles(Map.of("readonly", role));
+
+        ReflectionTestUtils.setField(target, "properties", properties);
+        ReflectionTestUtils.setField(target, "leaseRepository", leaseRepository);
+        ReflectionTestUtils.setField(target, "vaultMetrics", new VaultMetrics(registry));
+    }
+
+    /**
+     * Users the engine created on the target database
+     */
+    private Set<String> databaseUsers() throws SQLException {
+        Set<String> users = new HashSet<>();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             ResultSet rs = connection.createStatement().executeQuery("SELECT USER_NAME FROM INFORMATION_SCHEMA.USERS")) {
+            while (rs.next()) {
+                if (rs.getString(1).startsWith("V_")) {
+                    users.add(rs.getString(1));
+                }
+            }
+        }
+        return users;
+    }
+
+    private void awaitPool(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.available("readonly") < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, engine.available("readonly"));
+    }
+
+    /**
+     * Repository backed by {@link #leases}
+     */
+    private DynamicCredentialLeaseRepository leaseRepository() {
+        DynamicCredentialLeaseRepository repository = mock(DynamicCredentialLeaseRepository.class);
+        when(repository.save(any(DynamicCredentialLease.class))).thenAnswer(invocation -> {
+            DynamicCredentialLease lease = invocation.getArgument(0);
+            leases.put(lease.getLeaseId(), lease);
+            return lease;
+        });
+        when(repository.findByLeaseId(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(leases.get((String) invocation.getArgument(0))));
+        when(repository.findPooled(anyString(), anyString())).thenAnswer(invocation -> leases.values().stream()
+                .filter(lease -> lease.getExpiresAt() == null)
+                .filter(lease -> lease.getOwner() == null || lease.getOwner().equals(invocation.getArgument(1)))
+                .toList());
+        when(repository.markIssued(anyString(), any(LocalDateTime.class))).thenAnswer(invocation -> {
+            leases.get((String) invocation.getArgument(0)).setExpiresAt(invocation.getArgument(1));
+            return 1;
+        });
+        when(repository.deleteByLeaseId(anyString()))
+                .thenAnswer(invocation -> leases.remove((String) invocation.getArgument(0)) != null ? 1 : 0);
+        return repository;
+    }
+}
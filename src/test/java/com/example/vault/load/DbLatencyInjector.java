@@ -0,0 +1,54 @@
+package com.example.vault.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Wraps the application DataSource so every statement execution is delayed by a fixed
+ * amount, simulating a slow database while connections are held.
+ */
+public class DbLatencyInjector implements BeanPostProcessor {
+
+    private final long latencyNanos;
+
+    public DbLatencyInjector(long latencyMillis) {
+        this.latencyNanos = latencyMillis * 1_000_000;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && latencyNanos > 0) {
+            return wrap(dataSource, DataSource.class);
+        }
+        return bean;
+    }
+
+    private Object wrap(Object target, Class<?> type) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && method.getName().startsWith("execute")) {
+                LockSupport.parkNanos(latencyNanos);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection connection) {
+                return wrap(connection, Connection.class);
+            }
+            if (result instanceof Statement statement) {
+                return wrap(statement, method.getReturnType());
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.vault.load;
+
+import com.example.vault.VaultApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Drives an embedded instance with an open-loop workload and reports per-endpoint latency
+ * percentiles. The workload is either a weighted operation mix or a replayed JSON Lines trace.
+ *
+ * Disabled by default. Run with:
+ * <pre>
+ * mvn test -Dtest=LoadGeneratorRun -Dvault.load.run=true \
+ *     -Dvault.load.rate=500 -Dvault.load.seconds=30 -Dvault.load.mix=read=70,list=10,versions=10,write=8,login=2
+ * mvn test -Dtest=LoadGeneratorRun -Dvault.load.run=true \
+ *     -Dvault.load.rate=50 -Dvault.load.mix=transit=1 -Dvault.load.transit-batch=1000
+ * mvn test -Dtest=LoadGeneratorRun -Dvault.load.run=true \
+ *     -Dvault.load.trace=src/test/resources/load/sample-trace.jsonl -Dvault.load.trace-speed=1.0
+ * </pre>
+ * Full distributions are written to {@code target/load/*.hgrm}.
+ */
+@EnabledIfSystemProperty(named = "vault.load.run", matches = "true")
+class LoadGeneratorRun {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("vault.load.rate", "200"));
+    private static final int SECONDS = Integer.getInteger("vault.load.seconds", 20);
+    private static final String MIX = System.getProperty("vault.load.mix", "read=70,list=10,versions=10,write=8,login=2");
+    private static final String TRACE = System.getProperty("vault.load.trace");
+    private static final double TRACE_SPEED = Double.parseDouble(System.getProperty("vault.load.trace-speed", "1.0"));
+    private static final int SECRETS = Integer.getInteger("vault.load.secrets", 100);
+    private static final int DB_LATENCY_MS = Integer.getInteger("vault.load.db-latency-ms", 0);
+    private static final String LOGIN_BODY = "{\"username\":\"admin\",\"password\":\"admin123\"}";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void runWorkload() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VaultApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new DbLatencyInjector(DB_LATENCY_MS)))
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:load-run;DB_CLOSE_DELAY=-1",
+                        "logging.level.com.example.vault=WARN")
+                .run()) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            String token = login(baseUrl);
+
+            Iterator<LoadRequest> schedule;
+            if (TRACE != null) {
+                TraceWorkload trace = TraceWorkload.load(Path.of(TRACE), TRACE_SPEED, LOGIN_BODY);
+                seed(baseUrl, token, trace.referencedSecrets());
+                schedule = trace.requests().iterator();
+                System.out.printf("%nReplaying %d requests from %s at %.1fx%n", trace.requests().size(), TRACE, TRACE_SPEED);
+            } else {
+                Set<List<String>> secrets = new LinkedHashSet<>();
+                for (int i = 0; i < SECRETS; i++) {
+                    secrets.add(List.of(WorkloadMix.SECRET_PREFIX + i, WorkloadMix.SECRET_KEY));
+                }
+                seed(baseUrl, token, secrets);
+                createTransitKey(baseUrl, token);
+                schedule = new WorkloadMix(WorkloadMix.parseMix(MIX), RATE, Duration.ofSeconds(SECONDS).toNanos(),
+                        SECRETS, LOGIN_BODY, 42);
+                System.out.printf("%nOpen-loop mix %s at %.0f req/s for %d s%n", MIX, RATE, SECONDS);
+            }
+
+            long start = System.nanoTime();
+            Map<String, OpenLoopLoadGenerator.EndpointStats> stats = new OpenLoopLoadGenerator(baseUrl, token).run(schedule);
+            double elapsedSeconds = (System.nanoTime() - start) / 1e9;
+
+            OpenLoopLoadGenerator.report(stats, elapsedSeconds, System.out);
+            if (stats.containsKey("transit")) {
+                // Throughput the transit requests achieved, not what the server could sustain
+                OpenLoopLoadGenerator.EndpointStats transit = stats.get("transit");
+                double transitBytes = (double) (transit.histogram().getTotalCount() - transit.errors())
+                        * WorkloadMix.TRANSIT_BATCH_SIZE
+                        * WorkloadMix.TRANSIT_ITEM_SIZE;
+                System.out.printf("%ntransit encrypted %.1f MB/s in batches of %d x %d B%n",
+                        transitBytes / elapsedSeconds / (1024 * 1024), WorkloadMix.TRANSIT_BATCH_SIZE,
+                        WorkloadMix.TRANSIT_ITEM_SIZE);
+            }
+            OpenLoopLoadGenerator.writeDistributions(stats, Path.of("target", "load"));
+
+            assertFalse(stats.isEmpty());
+        }
+    }
+
+    private String login(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Map<?, ?> body = objectMapper.readValue(response.body(), Map.class);
+        return (String) body.get("token");
+    }
+
+    private void createTransitKey(String baseUrl, String token) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/transit/keys/" + WorkloadMix.TRANSIT_KEY))
+                .header("Authorization", "Bearer " + token)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+        httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    private void seed(String baseUrl, String token, Set<List<String>> secrets) throws Exception {
+        for (List<String> secret : secrets) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/secret/" + secret.get(0) + "?key=" + secret.get(1)))
+                    .header("Authorization", "Bearer " + token)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(WorkloadMix.valueBody(0)))
+                    .build();
+            httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.vault.load;
+
+/**
+ * One request of a workload, sent at {@code offsetNanos} after the run starts whether or not
+ * earlier requests have completed.
+ *
+ * @param endpoint label the latency is reported under
+ * @param body JSON body, or null
+ */
+public record LoadRequest(long offsetNanos, String endpoint, String method, String uri, String body) {
+
+    /**
+     * Report label for a request without one: the method and route, with the secret path elided
+     * so that every secret read lands in the same histogram.
+     */
+    public static String endpointFor(String method, String uri) {
+        String path = uri.contains("?") ? uri.substring(0, uri.indexOf('?')) : uri;
+        String route = path.replaceFirst(
+                "^/v1/secret/(list|paths|versions|version-info|version-range|version|restore-version|watch|events)/.*",
+                "/v1/secret/$1/{path}");
+        if (route.equals(path)) {
+            route = path.replaceFirst("^/v1/secret/.+", "/v1/secret/{path}");
+        }
+        return method + " " + route;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.vault.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load generator.
+ *
+ * Every request is sent at its scheduled offset on its own virtual thread, regardless of how many
+ * earlier requests are still outstanding, and its latency is measured from the scheduled time rather
+ * than the actual send time. A stalled server therefore shows up as queueing delay in the
+ * percentiles instead of silently lowering the offered load (coordinated omission).
+ */
+public class OpenLoopLoadGenerator {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = Duration.ofMinutes(5).toNanos() / 1000;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final String token;
+    private final Map<String, EndpointStats> stats = new ConcurrentHashMap<>();
+
+    public OpenLoopLoadGenerator(String baseUrl, String token) {
+        this.baseUrl = baseUrl;
+        this.token = token;
+    }
+
+    public Map<String, EndpointStats> run(Iterator<LoadRequest> schedule) {
+        long start = System.nanoTime();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (schedule.hasNext()) {
+                LoadRequest request = schedule.next();
+                long intendedStart = start + request.offsetNanos();
+                long wait;
+                while ((wait = intendedStart - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                senders.submit(() -> send(request, intendedStart));
+            }
+        }
+        return new TreeMap<>(stats);
+    }
+
+    private void send(LoadRequest request, long intendedStart) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.uri()))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token);
+        if (request.body() != null) {
+            builder.header("Content-Type", "application/json")
+                    .method(request.method(), HttpRequest.BodyPublishers.ofString(request.body()));
+        } else {
+            builder.method(request.method(), HttpRequest.BodyPublishers.noBody());
+        }
+
+        int status;
+        try {
+            status = httpClient.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (Exception e) {
+            status = -1;
+        }
+        long latencyMicros = (System.nanoTime() - intendedStart) / 1000;
+        stats.computeIfAbsent(request.endpoint(), endpoint -> new EndpointStats()).record(latencyMicros, status);
+    }
+
+    /**
+     * Print a per-endpoint percentile table in milliseconds
+     */
+    public static void report(Map<String, EndpointStats> stats, double seconds, PrintStream out) {
+        out.printf("%n%-36s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram h = endpointStats.histogram;
+            out.printf("%-36s %8d %8d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, h.getTotalCount(), endpointStats.errors.get(), h.getTotalCount() / seconds,
+                    h.getValueAtPercentile(50) / 1000.0, h.getValueAtPercentile(90) / 1000.0,
+                    h.getValueAtPercentile(99) / 1000.0, h.getValueAtPercentile(99.9) / 1000.0,
+                    h.getMaxValue() / 1000.0);
+        });
+    }
+
+    /**
+     * Write each endpoint's full percentile distribution in HdrHistogram's .hgrm format, which
+     * can be plotted or diffed between runs
+     */
+    public static void writeDistributions(Map<String, EndpointStats> stats, Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Map.Entry<String, EndpointStats> entry : stats.entrySet()) {
+            String fileName = entry.getKey().replaceAll("[^A-Za-z0-9.-]+", "_") + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(fileName)))) {
+                // Recorded in microseconds; report in milliseconds
+                entry.getValue().histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    public static final class EndpointStats {
+        private final Histogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+
+        private void record(long latencyMicros, int status) {
+            histogram.recordValue(Math.min(Math.max(latencyMicros, 0), HIGHEST_TRACKABLE_MICROS));
+            if (status < 200 || status >= 400) {
+                errors.incrementAndGet();
+            }
+        }
+
+        public Histogram histogram() {
+            return histogram;
+        }
+
+        public long errors() {
+            return errors.get();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.vault.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Workload replayed from a JSON Lines trace, one request per line:
+ * <pre>
+ * {"offset_ms": 120, "method": "GET", "uri": "/v1/secret/myapp?key=db-password"}
+ * {"offset_ms": 135, "method": "PUT", "uri": "/v1/secret/myapp?key=db-password", "endpoint": "rotate"}
+ * </pre>
+ * {@code endpoint} and {@code body} are optional. Writes without a body get a generated value and
+ * logins get the harness credentials, since recorded traces never contain either.
+ */
+public class TraceWorkload {
+
+    private static final Pattern SECRET_URI = Pattern.compile("^/v1/secret/([^?]+)\\?key=([^&]+)");
+    private static final Set<String> ROUTE_PREFIXES = Set.of(
+            "list", "paths", "versions", "version-info", "version-range", "version", "restore-version", "watch", "events");
+
+    private final List<LoadRequest> requests;
+
+    private TraceWorkload(List<LoadRequest> requests) {
+        this.requests = requests;
+    }
+
+    /**
+     * @param speed replay speed factor; 2.0 replays the trace in half its recorded time
+     */
+    public static TraceWorkload load(Path trace, double speed, String loginBody) throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<LoadRequest> requests = new ArrayList<>();
+        long sequence = 0;
+        for (String line : Files.readAllLines(trace)) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            JsonNode node = objectMapper.readTree(line);
+            String method = node.path("method").asText("GET").toUpperCase();
+            String uri = node.path("uri").asText();
+            long offsetNanos = (long) (node.path("offset_ms").asDouble() * 1_000_000 / speed);
+            String endpoint = node.hasNonNull("endpoint") ? node.get("endpoint").asText() : LoadRequest.endpointFor(method, uri);
+
+            String body = node.hasNonNull("body") ? objectMapper.writeValueAsString(node.get("body")) : null;
+            if (body == null && uri.startsWith("/v1/auth/login")) {
+                body = loginBody;
+            } else if (body == null && (method.equals("POST") || method.equals("PUT")) && uri.startsWith("/v1/secret/")) {
+                body = WorkloadMix.valueBody(sequence);
+            }
+            requests.add(new LoadRequest(offsetNanos, endpoint, method, uri, body));
+            sequence++;
+        }
+        requests.sort(Comparator.comparingLong(LoadRequest::offsetNanos));
+        // Recorded traces start whenever recording started; replay from the first request
+        long first = requests.isEmpty() ? 0 : requests.get(0).offsetNanos();
+        return new TraceWorkload(requests.stream()
+                .map(r -> new LoadRequest(r.offsetNanos() - first, r.endpoint(), r.method(), r.uri(), r.body()))
+                .toList());
+    }
+
+    public List<LoadRequest> requests() {
+        return requests;
+    }
+
+    /**
+     * Secrets the trace reads or updates, as {path, key} pairs, so they can be created before replay
+     */
+    public Set<List<String>> referencedSecrets() {
+        Set<List<String>> referenced = new LinkedHashSet<>();
+        Set<List<String>> created = new LinkedHashSet<>();
+        for (LoadRequest request : requests) {
+            Matcher matcher = SECRET_URI.matcher(request.uri());
+            if (!matcher.find()) {
+                continue;
+            }
+            String path = matcher.group(1);
+            int slash = path.indexOf('/');
+            boolean routed = slash > 0 && ROUTE_PREFIXES.contains(path.substring(0, slash));
+            if (routed) {
+                path = path.substring(slash + 1);
+            }
+            List<String> secret = List.of(path, matcher.group(2));
+            if (request.method().equals("POST") && !routed) {
+                created.add(secret);
+            } else {
+                referenced.add(secret);
+            }
+        }
+        // Secrets the trace creates itself must not exist beforehand
+        referenced.removeAll(created);
+        return referenced;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.vault.load;
+
+import com.example.vault.VaultApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput and p99 comparison of platform-thread and virtual-thread request handling
+ * while every SQL statement is delayed to simulate a slow database.
+ *
+ * Disabled by default. Run with:
+ * <pre>
+ * mvn test -Dtest=VirtualThreadLoadComparison -Dvault.load=true \
+ *     -Dvault.load.concurrency=400 -Dvault.load.db-latency-ms=20 -Dvault.load.seconds=20
+ * </pre>
+ */
+@EnabledIfSystemProperty(named = "vault.load", matches = "true")
+class VirtualThreadLoadComparison {
+
+    private static final int CONCURRENCY = Integer.getInteger("vault.load.concurrency", 400);
+    private static final int DB_LATENCY_MS = Integer.getInteger("vault.load.db-latency-ms", 20);
+    private static final int SECONDS = Integer.getInteger("vault.load.seconds", 20);
+    private static final int POOL_SIZE = Integer.getInteger("vault.load.pool-size", 50);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @Test
+    void compareThreadModels() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.printf("%nDB latency %d ms, %d concurrent clients, pool size %d, %d s per mode%n",
+                DB_LATENCY_MS, CONCURRENCY, POOL_SIZE, SECONDS);
+        System.out.printf("%-10s %12s %10s %10s %10s%n", "mode", "req/s", "p50 ms", "p99 ms", "errors");
+        platform.print("platform");
+        virtual.print("virtual");
+
+        assertTrue(platform.completed > 0 && virtual.completed > 0);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VaultApplication.class)
+                .initializers(ctx -> ctx.getBeanFactory().addBeanPostProcessor(new DbLatencyInjector(DB_LATENCY_MS)))
+                .profiles("test")
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "spring.datasource.hikari.maximum-pool-size=" + POOL_SIZE,
+                        "logging.level.com.example.vault=WARN")
+                .run()) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            String baseUrl = "http://localhost:" + port;
+            String token = login(baseUrl);
+            // Single-segment path: {path:.+} mappings do not span slashes
+            createSecret(baseUrl, token, "loadtest", "password");
+            URI target = URI.create(baseUrl + "/v1/secret/versions/loadtest?key=password");
+
+            long[] latencies = new long[1 << 22];
+            AtomicLong index = new AtomicLong();
+            AtomicLong errors = new AtomicLong();
+            long deadline = System.nanoTime() + Duration.ofSeconds(SECONDS).toNanos();
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    clients.submit(() -> {
+                        HttpRequest request = HttpRequest.newBuilder(target)
+                                .header("Authorization", "Bearer " + token)
+                                .timeout(Duration.ofSeconds(30))
+                                .GET()
+                                .build();
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() != 200
+                                        || !response.headers().firstValue("Content-Type").orElse("").startsWith("application/json")) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (Exception e) {
+                                errors.incrementAndGet();
+                            }
+                            long slot = index.getAndIncrement();
+                            if (slot < latencies.length) {
+                                latencies[(int) slot] = System.nanoTime() - start;
+                            }
+                        }
+                        return null;
+                    });
+                }
+            }
+
+            int completed = (int) Math.min(index.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, completed);
+            Arrays.sort(sorted);
+            return new Result(completed, errors.get(), completed / (double) SECONDS,
+                    percentile(sorted, 0.50), percentile(sorted, 0.99));
+        }
+    }
+
+    private String login(String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"username\":\"admin\",\"password\":\"admin123\"}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        Map<?, ?> body = objectMapper.readValue(response.body(), Map.class);
+        return (String) body.get("token");
+    }
+
+    private void createSecret(String baseUrl, String token, String path, String key) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/v1/secret/" + path + "?key=" + key))
+                .header("Authorization", "Bearer " + token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"value\":\"load-test-value\"}"))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Could not create load test secret: " + response.statusCode());
+        }
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int position = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+        return sorted[Math.max(position, 0)] / 1_000_000.0;
+    }
+
+    private record Result(int completed, long errors, double throughput, double p50Millis, double p99Millis) {
+        void print(String mode) {
+            System.out.printf("%-10s %12.1f %10.1f %10.1f %10d%n", mode, throughput, p50Millis, p99Millis, errors);
+        }
+    }
+}
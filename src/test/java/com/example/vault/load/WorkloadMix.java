@@ -0,0 +1,133 @@
+package com.example.vault.load;
+
+import java.util.Base64;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * Synthetic workload drawing operations from a weighted mix with Poisson arrivals at a fixed
+ * average rate. Reads and version operations target secrets {@code load-0 .. load-(n-1)}.
+ */
+public class WorkloadMix implements Iterator<LoadRequest> {
+
+    public static final String SECRET_PREFIX = "load-";
+    public static final String SECRET_KEY = "value";
+    public static final String TRANSIT_KEY = "load";
+
+    /**
+     * Items per transit encrypt call, each of {@link #TRANSIT_ITEM_SIZE} bytes
+     */
+    public static final int TRANSIT_BATCH_SIZE = Integer.getInteger("vault.load.transit-batch", 100);
+    public static final int TRANSIT_ITEM_SIZE = 1024;
+
+    public enum Operation {
+        LOGIN, READ, LIST, WRITE, CREATE, VERSIONS, TRANSIT
+    }
+
+    private final Map<Operation, Integer> weights;
+    private final int totalWeight;
+    private final double meanIntervalNanos;
+    private final long durationNanos;
+    private final int secretCount;
+    private final String loginBody;
+    private final Random random;
+    private final String transitBody;
+
+    private long sequence;
+    private double nextOffsetNanos;
+
+    public WorkloadMix(Map<Operation, Integer> weights, double ratePerSecond, long durationNanos,
+                       int secretCount, String loginBody, long seed) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("Rate must be positive");
+        }
+        this.weights = new EnumMap<>(weights);
+        this.totalWeight = weights.values().stream().mapToInt(Integer::intValue).sum();
+        if (totalWeight <= 0) {
+            throw new IllegalArgumentException("Workload mix needs at least one positive weight");
+        }
+        this.meanIntervalNanos = 1_000_000_000.0 / ratePerSecond;
+        this.durationNanos = durationNanos;
+        this.secretCount = secretCount;
+        this.loginBody = loginBody;
+        this.random = new Random(seed);
+        this.transitBody = weights.getOrDefault(Operation.TRANSIT, 0) > 0 ? transitBody(random) : null;
+    }
+
+    /**
+     * Parse a mix such as {@code read=70,list=10,versions=10,write=8,login=2}
+     */
+    public static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry: " + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextOffsetNanos < durationNanos;
+    }
+
+    @Override
+    public LoadRequest next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        long offset = (long) nextOffsetNanos;
+        // Exponential inter-arrival times give a Poisson process at the requested mean rate
+        nextOffsetNanos += -Math.log(1 - random.nextDouble()) * meanIntervalNanos;
+        long seq = sequence++;
+
+        String secret = SECRET_PREFIX + random.nextInt(secretCount);
+        return switch (pick()) {
+            case LOGIN -> new LoadRequest(offset, "login", "POST", "/v1/auth/login", loginBody);
+            case READ -> new LoadRequest(offset, "read", "GET", "/v1/secret/" + secret + "?key=" + SECRET_KEY, null);
+            case LIST -> new LoadRequest(offset, "list", "GET", "/v1/secret/list/" + secret, null);
+            case WRITE -> new LoadRequest(offset, "write", "PUT", "/v1/secret/" + secret + "?key=" + SECRET_KEY,
+                    valueBody(seq));
+            case CREATE -> new LoadRequest(offset, "create", "POST", "/v1/secret/" + SECRET_PREFIX + "new-" + seq
+                    + "?key=" + SECRET_KEY, valueBody(seq));
+            case VERSIONS -> new LoadRequest(offset, "versions", "GET", "/v1/secret/versions/" + secret
+                    + "?key=" + SECRET_KEY, null);
+            case TRANSIT -> new LoadRequest(offset, "transit", "POST", "/v1/transit/encrypt/" + TRANSIT_KEY, transitBody);
+        };
+    }
+
+    static String valueBody(long sequence) {
+        return "{\"value\":\"load-value-" + sequence + "\"}";
+    }
+
+    /**
+     * Batch encrypt body; the same random items are sent with every request
+     */
+    private static String transitBody(Random random) {
+        StringBuilder body = new StringBuilder("{\"batch_input\":[");
+        byte[] item = new byte[TRANSIT_ITEM_SIZE];
+        for (int i = 0; i < TRANSIT_BATCH_SIZE; i++) {
+            random.nextBytes(item);
+            body.append(i == 0 ? "" : ",").append("{\"plaintext\":\"")
+                    .append(Base64.getEncoder().encodeToString(item)).append("\"}");
+        }
+        return body.append("]}").toString();
+    }
+
+    private Operation pick() {
+        int roll = random.nextInt(totalWeight);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("unreachable");
+    }
+}
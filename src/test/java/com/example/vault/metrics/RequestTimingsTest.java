@@ -0,0 +1,56 @@
+package com.example.vault.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.setEnabled(false);
+    }
+
+    @Test
+    void nestedPhase_IsNotCountedInOuterPhase() {
+        // Arrange
+        RequestTimings.setEnabled(true);
+        RequestTimings timings = RequestTimings.start();
+
+        // Act
+        RequestTimings.Phase outer = RequestTimings.begin(RequestTimings.Phase.IDENTITY);
+        RequestTimings.Phase inner = RequestTimings.begin(RequestTimings.Phase.DB);
+        LockSupport.parkNanos(20_000_000);
+        RequestTimings.end(inner);
+        RequestTimings.end(outer);
+        timings.stop();
+
+        // Assert
+        assertNull(outer);
+        assertEquals(RequestTimings.Phase.IDENTITY, inner);
+        assertTrue(timings.phaseNanos(RequestTimings.Phase.DB) >= 20_000_000);
+        assertTrue(timings.phaseNanos(RequestTimings.Phase.IDENTITY) < 20_000_000);
+        assertEquals(1, timings.phaseCount(RequestTimings.Phase.DB));
+        assertTrue(timings.toServerTiming().matches("identity;dur=[0-9.]+, db;dur=[0-9.]+, total;dur=[0-9.]+"));
+        assertTrue(((Map<?, ?>) timings.toMap().get("phases")).containsKey("db"));
+    }
+
+    @Test
+    void disabled_RecordsNothing() {
+        // Arrange
+        RequestTimings timings = RequestTimings.start();
+
+        // Act
+        RequestTimings.Phase previous = RequestTimings.begin(RequestTimings.Phase.DECRYPT);
+        RequestTimings.end(previous);
+        timings.stop();
+
+        // Assert
+        assertEquals(0, timings.phaseCount(RequestTimings.Phase.DECRYPT));
+        assertTrue(timings.toServerTiming().startsWith("total;dur="));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.vault.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VaultMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private VaultMetrics vaultMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        vaultMetrics = new VaultMetrics(registry);
+    }
+
+    @Test
+    void recordSecretOperation_TagsByDepthBucketNotPath() {
+        // Act
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.READ, "app", VaultMetrics.Outcome.SUCCESS, System.nanoTime());
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.READ, "app/a/b/c", VaultMetrics.Outcome.SUCCESS, System.nanoTime());
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.READ, "app/x/y/z/deeper", VaultMetrics.Outcome.SUCCESS, System.nanoTime());
+
+        // Assert
+        assertEquals(1, registry.get("vault.secret.operation").tag("path_depth", "1").timer().count());
+        assertEquals(2, registry.get("vault.secret.operation").tag("path_depth", "4+").timer().count());
+        assertEquals(2, registry.get("vault.secret.operation").timers().size());
+    }
+
+    @Test
+    void recordSecretOperation_CountsDenialsAndCreatedVersions() {
+        // Act
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.CREATE, "app", VaultMetrics.Outcome.SUCCESS, System.nanoTime());
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.UPDATE, "app", VaultMetrics.Outcome.NOT_FOUND, System.nanoTime());
+        vaultMetrics.recordSecretOperation(VaultMetrics.SecretOperation.READ, "app", VaultMetrics.Outcome.DENIED, System.nanoTime());
+
+        // Assert
+        assertEquals(1, registry.get("vault.secret.versions.created").counter().count());
+        assertEquals(1, registry.get("vault.access.denied").tag("operation", "read").counter().count());
+        assertEquals(0, registry.get("vault.access.denied").tag("operation", "create").counter().count());
+    }
+
+    @Test
+    void meteredCacheManager_CountsHitsAndMisses() {
+        // Arrange
+        MeteredCacheManager cacheManager = new MeteredCacheManager(new ConcurrentMapCacheManager(), registry);
+        Cache cache = cacheManager.getCache("secrets");
+
+        // Act
+        cache.get("app/password");
+        cache.put("app/password", "value");
+        cache.get("app/password");
+        cache.get("app/password");
+
+        // Assert
+        assertSame(cache, cacheManager.getCache("secrets"));
+        assertEquals(2, registry.get("cache.gets").tag("cache", "secrets").tag("result", "hit").counter().count());
+        assertEquals(1, registry.get("cache.gets").tag("cache", "secrets").tag("result", "miss").counter().count());
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.vault.service;
 
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.util.SecretValueFormat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringJUnitConfig
@@ -18,6 +24,7 @@ class EncryptionServiceTest {
         encryptionService = new EncryptionService();
         // Set a test encryption key
         ReflectionTestUtils.setField(encryptionService, "encryptionKey", "testEncryptionKey32CharsLong123!");
+        ReflectionTestUtils.setField(encryptionService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
     }
     
     @Test
@@ -133,6 +140,74 @@ class EncryptionServiceTest {
         });
     }
     
+    @Test
+    void encryptValue_WritesFormatByteAndRoundTrips() {
+        // Arrange
+        String plaintext = "Sensitive database password: mySecretPass123!";
+        
+        // Act
+        byte[] value = encryptionService.encryptValue(plaintext);
+        
+        // Assert
+        assertEquals(SecretValueFormat.V1, value[0]);
+        assertEquals(1 + 12 + plaintext.length() + 16, value.length);
+        assertEquals(plaintext, encryptionService.decryptValue(value));
+    }
+    
+    @Test
+    void decryptValue_LegacyBase64Value_Decrypts() {
+        // Arrange
+        String legacy = encryptionService.encrypt("written before the binary format");
+        
+        // Act & Assert
+        assertEquals("written before the binary format", encryptionService.decryptValue(SecretValueFormat.fromBase64(legacy)));
+    }
+    
+    @Test
+    void decryptValue_UnknownFormatOrTamperedValue_ThrowsException() {
+        // Arrange
+        byte[] value = encryptionService.encryptValue("secret");
+        byte[] unknownFormat = value.clone();
+        unknownFormat[0] = 9;
+        byte[] tampered = value.clone();
+        tampered[tampered.length - 1] ^= 1;
+        
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> encryptionService.decryptValue(unknownFormat));
+        assertThrows(RuntimeException.class, () -> encryptionService.decryptValue(tampered));
+    }
+    
+    @Test
+    void decryptValues_ManyValues_DecryptsInParallelInOrder() {
+        // Arrange
+        ReflectionTestUtils.setField(encryptionService, "bulkChunkSize", 8);
+        ReflectionTestUtils.setField(encryptionService, "bulkParallelism", 4);
+        encryptionService.start();
+        List<byte[]> values = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            values.add(encryptionService.encryptValue("secret-" + i));
+        }
+        
+        try {
+            // Act
+            List<String> decrypted = encryptionService.decryptValues(values);
+            
+            // Assert
+            assertEquals(100, decrypted.size());
+            for (int i = 0; i < 100; i++) {
+                assertEquals("secret-" + i, decrypted.get(i));
+            }
+            values.get(57)[values.get(57).length - 1] ^= 1;
+            assertThrows(RuntimeException.class, () -> encryptionService.decryptValues(values));
+            List<String> partial = encryptionService.tryDecryptValues(values);
+            assertNull(partial.get(57));
+            assertEquals("secret-56", partial.get(56));
+            assertEquals("secret-58", partial.get(58));
+        } finally {
+            encryptionService.stop();
+        }
+    }
+    
     @Test
     void generateKey_CreatesValidKey() {
         // Act
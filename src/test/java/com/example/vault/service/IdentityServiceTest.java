@@ -35,6 +35,9 @@ class IdentityServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private ServiceTokenService serviceTokenService;
+
     @InjectMocks
     private IdentityService identityService;
 
@@ -0,0 +1,114 @@
+package com.example.vault.service;
+
+import com.example.vault.config.RetentionProperties;
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.metrics.VaultMetrics.PurgeReason;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetentionServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void selectPurgeable_KeepsCurrentAndNewestVersionsUpToLimit() {
+        // Arrange
+        List<SecretVersionState> versions = List.of(
+                live(5, 1), live(4, 2), deleted(3, 40, 35), live(2, 50), live(1, 60));
+        RetentionService.PurgePlan plan = new RetentionService.PurgePlan();
+
+        // Act
+        RetentionService.selectPurgeable(versions, new RetentionService.Rule(2, 45, 30), NOW, plan);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 1L), plan.ids);
+        assertEquals(Map.of(PurgeReason.DELETED, 1L, PurgeReason.MAX_VERSIONS, 2L), plan.counts);
+    }
+
+    @Test
+    void selectPurgeable_NeverPurgesCurrentValueOrHighestVersion() {
+        // Arrange: the current value is old, and the highest version was deleted long ago
+        List<SecretVersionState> versions = List.of(deleted(3, 100, 90), live(2, 100), live(1, 100));
+        RetentionService.PurgePlan plan = new RetentionService.PurgePlan();
+
+        // Act
+        RetentionService.selectPurgeable(versions, new RetentionService.Rule(0, 30, 7), NOW, plan);
+
+        // Assert
+        assertEquals(List.of(1L), plan.ids);
+        assertEquals(Map.of(PurgeReason.MAX_AGE, 1L), plan.counts);
+    }
+
+    @Test
+    void selectPurgeable_DeletedKey_PurgedOnlyOnceEveryVersionHasExpired() {
+        // Arrange
+        List<SecretVersionState> recentlyDeleted = List.of(deleted(2, 20, 3), deleted(1, 30, 20));
+        List<SecretVersionState> longDeleted = List.of(deleted(2, 20, 10), deleted(1, 30, 20));
+        RetentionService.PurgePlan recentPlan = new RetentionService.PurgePlan();
+        RetentionService.PurgePlan oldPlan = new RetentionService.PurgePlan();
+        RetentionService.Rule rule = new RetentionService.Rule(0, 0, 7);
+
+        // Act
+        RetentionService.selectPurgeable(recentlyDeleted, rule, NOW, recentPlan);
+        RetentionService.selectPurgeable(longDeleted, rule, NOW, oldPlan);
+
+        // Assert
+        assertTrue(recentPlan.ids.isEmpty());
+        assertEquals(List.of(2L, 1L), oldPlan.ids);
+    }
+
+    @Test
+    void selectPurgeable_ArchivedVersions_PurgedFromArchive() {
+        // Arrange
+        SecretVersionState archived = new SecretVersionState(11L, "app", "key", 1, false, NOW.minusDays(60), null, true);
+        List<SecretVersionState> versions = List.of(live(3, 1), live(2, 2), archived);
+        RetentionService.PurgePlan plan = new RetentionService.PurgePlan();
+
+        // Act
+        RetentionService.selectPurgeable(versions, new RetentionService.Rule(2, 0, 0), NOW, plan);
+
+        // Assert
+        assertTrue(plan.ids.isEmpty());
+        assertEquals(List.of(11L), plan.archivedIds);
+    }
+
+    @Test
+    void ruleFor_LongestPrefixOverridesAndInheritsUnsetLimits() {
+        // Arrange
+        RetentionProperties properties = new RetentionProperties();
+        properties.setMaxVersions(10);
+        properties.setDeletedRetentionDays(30);
+        properties.getPaths().add(pathRule("ci", 5, null));
+        properties.getPaths().add(pathRule("ci/builds", 2, 1));
+        RetentionService retentionService = new RetentionService();
+        ReflectionTestUtils.setField(retentionService, "properties", properties);
+
+        // Act & Assert
+        assertEquals(new RetentionService.Rule(2, 0, 1), retentionService.ruleFor("ci/builds/web"));
+        assertEquals(new RetentionService.Rule(5, 0, 30), retentionService.ruleFor("ci/deploy"));
+        assertEquals(new RetentionService.Rule(10, 0, 30), retentionService.ruleFor("cinema"));
+    }
+
+    private static SecretVersionState live(int version, int ageDays) {
+        return new SecretVersionState((long) version, "app", "key", version, false, NOW.minusDays(ageDays), null, false);
+    }
+
+    private static SecretVersionState deleted(int version, int ageDays, int deletedDaysAgo) {
+        return new SecretVersionState((long) version, "app", "key", version, true,
+                NOW.minusDays(ageDays), NOW.minusDays(deletedDaysAgo), false);
+    }
+
+    private static RetentionProperties.PathRule pathRule(String prefix, Integer maxVersions, Integer deletedRetentionDays) {
+        RetentionProperties.PathRule rule = new RetentionProperties.PathRule();
+        rule.setPrefix(prefix);
+        rule.setMaxVersions(maxVersions);
+        rule.setDeletedRetentionDays(deletedRetentionDays);
+        return rule;
+    }
+}
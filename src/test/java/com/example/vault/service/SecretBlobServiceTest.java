@@ -0,0 +1,176 @@
+package com.example.vault.service;
+
+import com.example.vault.config.JpaConfig;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.SecretBlob;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.IdentityRepository;
+import com.example.vault.repository.SecretBlobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DataJpaTest(properties = "vault.blob.segment-size=1024")
+@Import({JpaConfig.class, SecretBlobService.class, EncryptionService.class})
+class SecretBlobServiceTest {
+
+    private static final List<String> POLICIES = List.of("admin");
+
+    @Autowired
+    private SecretBlobService secretBlobService;
+
+    @Autowired
+    private IdentityRepository identityRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private PolicyService policyService;
+
+    @MockBean
+    private VaultMetrics vaultMetrics;
+
+    @SpyBean
+    private SecretBlobRepository blobRepository;
+
+    private Identity alice;
+
+    @BeforeEach
+    void setUp() {
+        when(policyService.hasAccess(eq(POLICIES), anyString(), anyString())).thenReturn(true);
+        // Tests that run outside the test transaction commit alice for good
+        alice = identityRepository.findByName("alice")
+                .orElseGet(() -> identityRepository.saveAndFlush(new Identity("alice", "hash", Identity.IdentityType.USER)));
+    }
+
+    @Test
+    void write_MultiSegmentBlob_RoundTripsAndVersions() throws Exception {
+        // Arrange
+        byte[] content = randomBytes(5000);
+        byte[] exactSegments = randomBytes(2048);
+
+        // Act
+        SecretBlob first = secretBlobService.write("tls", "keystore", new ByteArrayInputStream(content), alice, POLICIES);
+        SecretBlob second = secretBlobService.write("tls", "keystore", new ByteArrayInputStream(exactSegments), alice, POLICIES);
+        SecretBlob empty = secretBlobService.write("tls", "empty", new ByteArrayInputStream(new byte[0]), alice, POLICIES);
+
+        // Assert
+        assertEquals(5, first.getSegmentCount());
+        assertEquals(2, second.getSegmentCount());
+        assertEquals(2, second.getVersion());
+        assertEquals(1, empty.getSegmentCount());
+        assertArrayEquals(content, read(secretBlobService.find("tls", "keystore", 1, POLICIES).orElseThrow()));
+        assertArrayEquals(exactSegments, read(secretBlobService.find("tls", "keystore", null, POLICIES).orElseThrow()));
+        assertArrayEquals(new byte[0], read(empty));
+    }
+
+    @Test
+    void copyTo_TamperedOrTruncatedBlob_FailsAuthentication() throws Exception {
+        // Arrange
+        SecretBlob tampered = secretBlobService.write("tls", "a", new ByteArrayInputStream(randomBytes(3000)), alice, POLICIES);
+        SecretBlob truncated = secretBlobService.write("tls", "b", new ByteArrayInputStream(randomBytes(3000)), alice, POLICIES);
+        jdbcTemplate.update("UPDATE secret_blob_segments SET data = ? WHERE blob_id = ? AND segment = 1",
+                new byte[1040], tampered.getBlobId());
+        truncated.setSegmentCount(2);
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> read(tampered));
+        assertThrows(IllegalArgumentException.class, () -> read(truncated));
+    }
+
+    @Test
+    void write_WithoutAccess_ThrowsSecurityException() {
+        // Act & Assert
+        assertThrows(SecurityException.class, () -> secretBlobService.write("tls", "keystore",
+                new ByteArrayInputStream(new byte[10]), alice, List.of("readonly")));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void write_SlowOrFailingUpload_ReadsOutsideTransactionAndLeavesNoSegments() throws Exception {
+        // Arrange
+        List<Boolean> readsInTransaction = new ArrayList<>();
+        InputStream failing = new FilterInputStream(new ByteArrayInputStream(randomBytes(5000))) {
+            private int remaining = 2500;
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                readsInTransaction.add(TransactionSynchronizationManager.isActualTransactionActive());
+                if (remaining <= 0) {
+                    throw new IOException("Connection reset");
+                }
+                int n = super.read(b, off, Math.min(len, remaining));
+                remaining -= n;
+                return n;
+            }
+        };
+
+        try {
+            // Act & Assert
+            assertThrows(IOException.class, () -> secretBlobService.write("upload", "bundle", failing, alice, POLICIES));
+            assertFalse(readsInTransaction.isEmpty());
+            assertFalse(readsInTransaction.contains(true));
+            assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM secret_blob_segments s WHERE NOT EXISTS "
+                    + "(SELECT 1 FROM secret_blobs b WHERE b.blob_id = s.blob_id)", Integer.class));
+            assertTrue(secretBlobService.find("upload", "bundle", null, POLICIES).isEmpty());
+        } finally {
+            secretBlobService.delete("upload", "bundle", POLICIES);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void write_VersionTakenByConcurrentUpload_RenumbersInsteadOfFailing() throws Exception {
+        // Arrange: the first numbering misses the version another upload has just published
+        byte[] content = randomBytes(3000);
+        secretBlobService.write("race", "bundle", new ByteArrayInputStream(randomBytes(10)), alice, POLICIES);
+        clearInvocations(blobRepository);
+        doReturn(null, 1).when(blobRepository).findMaxVersion("race", "bundle");
+
+        try {
+            // Act
+            SecretBlob blob = secretBlobService.write("race", "bundle", new ByteArrayInputStream(content), alice, POLICIES);
+
+            // Assert
+            assertEquals(2, blob.getVersion());
+            assertArrayEquals(content, read(secretBlobService.find("race", "bundle", 2, POLICIES).orElseThrow()));
+            verify(blobRepository, times(2)).findMaxVersion("race", "bundle");
+        } finally {
+            secretBlobService.delete("race", "bundle", POLICIES);
+        }
+    }
+
+    private byte[] read(SecretBlob blob) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        secretBlobService.copyTo(blob, out);
+        return out.toByteArray();
+    }
+
+    private static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
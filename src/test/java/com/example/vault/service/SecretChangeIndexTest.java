@@ -0,0 +1,92 @@
+package com.example.vault.service;
+
+import com.example.vault.event.SecretChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecretChangeIndexTest {
+
+    private SecretChangeIndex changeIndex;
+
+    @BeforeEach
+    void setUp() {
+        changeIndex = new SecretChangeIndex();
+        ReflectionTestUtils.setField(changeIndex, "historySize", 4);
+        changeIndex.init();
+    }
+
+    @Test
+    void watch_FiresOnlyForChangesUnderPrefix() {
+        // Arrange
+        List<SecretChangeIndex.ChangeSet> received = new ArrayList<>();
+        changeIndex.watch("app/config", changeIndex.currentIndex(), received::add);
+
+        // Act
+        changeIndex.record(new SecretChangedEvent("app/other", "token", 1, SecretChangedEvent.Operation.CREATE));
+        changeIndex.record(new SecretChangedEvent("app/configuration", "token", 1, SecretChangedEvent.Operation.CREATE));
+        assertTrue(received.isEmpty());
+        changeIndex.record(new SecretChangedEvent("app/config/database", "password", 2, SecretChangedEvent.Operation.UPDATE));
+        changeIndex.record(new SecretChangedEvent("app/config/database", "password", 3, SecretChangedEvent.Operation.UPDATE));
+
+        // Assert
+        assertEquals(1, received.size());
+        assertEquals(3, received.get(0).index());
+        assertEquals(1, received.get(0).changes().size());
+        assertEquals("app/config/database/password", received.get(0).changes().get(0).fullPath());
+        assertEquals(0, changeIndex.watcherCount());
+    }
+
+    @Test
+    void watch_ChangesAlreadyPastIndex_FiresImmediately() {
+        // Arrange
+        changeIndex.record(new SecretChangedEvent("app/config", "a", 1, SecretChangedEvent.Operation.CREATE));
+        changeIndex.record(new SecretChangedEvent("app/config", "b", 1, SecretChangedEvent.Operation.CREATE));
+        List<SecretChangeIndex.ChangeSet> received = new ArrayList<>();
+
+        // Act
+        changeIndex.watch("app", 1, received::add);
+
+        // Assert
+        assertEquals(1, received.size());
+        assertEquals(List.of("app/config/b"),
+                received.get(0).changes().stream().map(SecretChangeIndex.SecretChange::fullPath).toList());
+    }
+
+    @Test
+    void changesSince_IndexOlderThanHistory_IsTruncated() {
+        // Arrange
+        for (int i = 1; i <= 6; i++) {
+            changeIndex.record(new SecretChangedEvent("app", "key", i, SecretChangedEvent.Operation.UPDATE));
+        }
+
+        // Act
+        SecretChangeIndex.ChangeSet changes = changeIndex.changesSince(1, "app");
+
+        // Assert
+        assertTrue(changes.truncated());
+        assertEquals(6, changes.index());
+        assertEquals(4, changes.changes().size());
+        assertFalse(changeIndex.changesSince(2, "app").truncated());
+    }
+
+    @Test
+    void cancel_RemovesWatcher() {
+        // Arrange
+        List<SecretChangeIndex.ChangeSet> received = new ArrayList<>();
+        SecretChangeIndex.Watch watch = changeIndex.watch("app", 0, received::add);
+
+        // Act
+        changeIndex.cancel(watch);
+        changeIndex.record(new SecretChangedEvent("app", "key", 1, SecretChangedEvent.Operation.CREATE));
+
+        // Assert
+        assertTrue(received.isEmpty());
+        assertEquals(0, changeIndex.watcherCount());
+    }
+}
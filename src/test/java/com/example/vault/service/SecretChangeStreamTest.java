@@ -0,0 +1,149 @@
+package com.example.vault.service;
+
+import com.example.vault.event.SecretChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SecretChangeStreamTest {
+
+    private SecretChangeIndex changeIndex;
+    private SecretChangeStream changeStream;
+    private final List<Runnable> pendingDrains = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        changeIndex = new SecretChangeIndex();
+        ReflectionTestUtils.setField(changeIndex, "historySize", 16);
+        changeIndex.init();
+
+        changeStream = new SecretChangeStream();
+        ReflectionTestUtils.setField(changeStream, "secretChangeIndex", changeIndex);
+        ReflectionTestUtils.setField(changeStream, "objectMapper", new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        ReflectionTestUtils.setField(changeStream, "bufferSize", 2);
+        // Drains run only when the test says so, which lets it play a slow client
+        ReflectionTestUtils.setField(changeStream, "drainExecutor", (Executor) pendingDrains::add);
+        changeStream.init();
+    }
+
+    @Test
+    void subscribe_StreamsMatchingChangesAsSharedFrames() {
+        // Arrange
+        CapturingSink first = new CapturingSink();
+        CapturingSink second = new CapturingSink();
+        CapturingSink other = new CapturingSink();
+        changeStream.subscribe("app", null, null, first);
+        changeStream.subscribe("app", null, null, second);
+        changeStream.subscribe("billing", null, null, other);
+        drain();
+
+        // Act
+        record("app/config", "password", 1);
+        drain();
+
+        // Assert
+        assertEquals(1, first.frames.size());
+        assertSame(first.frames.get(0), second.frames.get(0));
+        assertTrue(other.frames.isEmpty());
+        String frame = new String(first.frames.get(0), StandardCharsets.UTF_8);
+        assertTrue(frame.startsWith("id: 1\nevent: secret-change\ndata: {"));
+        assertTrue(frame.contains("\"key\":\"password\""));
+    }
+
+    @Test
+    void slowSubscriber_DropOldest_KeepsNewestFrames() {
+        // Arrange
+        CapturingSink sink = new CapturingSink();
+        changeStream.subscribe("app", null, "drop-oldest", sink);
+        drain();
+
+        // Act
+        record("app", "a", 1);
+        record("app", "b", 1);
+        record("app", "c", 1);
+        drain();
+
+        // Assert
+        assertEquals(List.of("2", "3"), sink.ids());
+        assertEquals(1, changeStream.droppedFrameCount());
+    }
+
+    @Test
+    void slowSubscriber_Disconnect_ClosesStream() {
+        // Arrange
+        CapturingSink sink = new CapturingSink();
+        changeStream.subscribe("app", null, "disconnect", sink);
+        drain();
+
+        // Act
+        record("app", "a", 1);
+        record("app", "b", 1);
+        record("app", "c", 1);
+        drain();
+
+        // Assert
+        assertTrue(sink.closed);
+        assertEquals(0, changeStream.subscriberCount());
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ReplaysMissedChanges() {
+        // Arrange
+        record("app", "a", 1);
+        record("other", "b", 1);
+        record("app", "c", 1);
+        CapturingSink sink = new CapturingSink();
+
+        // Act
+        changeStream.subscribe("app", 1L, null, sink);
+        record("app", "d", 1);
+        drain();
+
+        // Assert
+        assertEquals(List.of("3", "4"), sink.ids());
+    }
+
+    private void record(String path, String key, int version) {
+        changeIndex.record(new SecretChangedEvent(path, key, version, SecretChangedEvent.Operation.UPDATE));
+    }
+
+    private void drain() {
+        while (!pendingDrains.isEmpty()) {
+            pendingDrains.remove(0).run();
+        }
+    }
+
+    private static class CapturingSink implements SecretChangeStream.FrameSink {
+        private final List<byte[]> frames = new ArrayList<>();
+        private boolean closed;
+
+        @Override
+        public void send(byte[] frame) {
+            frames.add(frame);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        List<String> ids() {
+            return frames.stream()
+                    .map(frame -> new String(frame, StandardCharsets.UTF_8))
+                    .map(frame -> frame.substring(4, frame.indexOf('\n')))
+                    .toList();
+        }
+    }
+}
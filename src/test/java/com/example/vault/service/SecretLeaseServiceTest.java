@@ -0,0 +1,116 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.SecretLeaseState;
+import com.example.vault.entity.SecretLease;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.SecretLeaseRepository;
+import com.example.vault.store.SecretStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecretLeaseServiceTest {
+
+    @Mock
+    private SecretLeaseRepository leaseRepository;
+
+    @Mock
+    private SecretStore secretStore;
+
+    @Mock
+    private SecretArchiveService archiveService;
+
+    @Mock
+    private PolicyService policyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private VaultMetrics vaultMetrics;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @InjectMocks
+    private SecretLeaseService leaseService;
+
+    @BeforeEach
+    void setUp() {
+        when(leaseRepository.streamAll()).thenReturn(Stream.empty());
+        leaseService.loadLeases();
+    }
+
+    @Test
+    void expireUntil_PastDeadline_SoftDeletesSecret() {
+        // Arrange
+        when(leaseRepository.findByPathAndKey("app", "db")).thenReturn(Optional.empty());
+        SecretLeaseState granted = leaseService.grant("app", "db", 60);
+        long deadline = toEpochMillis(granted.expiresAt());
+        SecretLease stored = new SecretLease(granted.leaseId(), "app", "db", 60L, granted.createdAt(), granted.expiresAt());
+        when(leaseRepository.findByLeaseIdIn(List.of(granted.leaseId()))).thenReturn(List.of(stored));
+
+        // Act
+        int early = leaseService.expireUntil(deadline - 1);
+        int expired = leaseService.expireUntil(deadline + 1000);
+
+        // Assert
+        assertEquals(0, early);
+        assertEquals(1, expired);
+        verify(secretStore).markAllDeleted(eq("app"), eq("db"), any(LocalDateTime.class));
+        verify(archiveService).markAllDeleted(eq("app"), eq("db"), any(LocalDateTime.class));
+        verify(leaseRepository).deleteAllInBatch(List.of(stored));
+        verify(vaultMetrics).recordLeaseExpiry(1);
+        assertEquals(0, leaseService.trackedLeaseCount());
+    }
+
+    @Test
+    void expireUntil_LeaseExtendedElsewhere_TracksNewDeadline() {
+        // Arrange
+        when(leaseRepository.findByPathAndKey("app", "db")).thenReturn(Optional.empty());
+        SecretLeaseState granted = leaseService.grant("app", "db", 60);
+        long deadline = toEpochMillis(granted.expiresAt());
+        // The row was extended by a transaction this instance did not see
+        SecretLease stored = new SecretLease(granted.leaseId(), "app", "db", 60L, granted.createdAt(),
+                granted.expiresAt().plusMinutes(10));
+        when(leaseRepository.findByLeaseIdIn(List.of(granted.leaseId()))).thenReturn(List.of(stored));
+
+        // Act
+        int expired = leaseService.expireUntil(deadline + 1000);
+
+        // Assert
+        assertEquals(0, expired);
+        verify(secretStore, never()).markAllDeleted(anyString(), anyString(), any());
+        assertEquals(1, leaseService.trackedLeaseCount());
+    }
+
+    @Test
+    void grant_TtlAboveMaximum_ThrowsException() {
+        assertThrows(IllegalArgumentException.class, () -> leaseService.grant("app", "db", 2592001));
+        assertThrows(IllegalArgumentException.class, () -> leaseService.checkTtl(0L));
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -1,20 +1,28 @@
 package com.example.vault.service;
 
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
 import com.example.vault.entity.Identity;
 import com.example.vault.entity.Secret;
-import com.example.vault.repository.SecretRepository;
+import com.example.vault.exception.VersionConflictException;
+import com.example.vault.store.SecretStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -24,13 +32,25 @@ import static org.mockito.Mockito.*;
 class SecretServiceTest {
     
     @Mock
-    private SecretRepository secretRepository;
+    private SecretStore secretStore;
     
     @Mock
     private EncryptionService encryptionService;
     
     @Mock
     private PolicyService policyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Mock
+    private SecretArchiveService archiveService;
+    
+    @Mock
+    private SecretWriteBatcher writeBatcher;
+    
+    @Mock
+    private SecretLeaseService leaseService;
     
     @InjectMocks
     private SecretService secretService;
@@ -43,6 +63,9 @@ class SecretServiceTest {
         testIdentity = new Identity("testuser", "hashedpassword", Identity.IdentityType.USER);
         testIdentity.setId(1L);
         testPolicies = List.of("read-policy", "write-policy");
+        
+        // Run batched writes inline, as the batcher does inside an existing transaction
+        lenient().when(writeBatcher.submit(any(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
     }
     
     @Test
@@ -54,12 +77,12 @@ class SecretServiceTest {
         Map<String, Object> metadata = new HashMap<>();
         metadata.put("environment", "production");
         
-        when(secretRepository.existsByPathAndKeyAndDeletedFalse(path, key)).thenReturn(false);
+        when(secretStore.existsLive(path, key)).thenReturn(false);
         when(policyService.hasAccess(testPolicies, path + "/" + key, "create")).thenReturn(true);
-        when(encryptionService.encrypt(value)).thenReturn("encrypted_value");
+        when(encryptionService.encryptValue(value)).thenReturn(bytes("encrypted_value"));
         
-        Secret savedSecret = new Secret(path, key, "encrypted_value", testIdentity);
-        when(secretRepository.save(any(Secret.class))).thenReturn(savedSecret);
+        Secret savedSecret = new Secret(path, key, bytes("encrypted_value"), testIdentity);
+        when(secretStore.save(any(Secret.class))).thenReturn(savedSecret);
         
         // Act
         Secret result = secretService.createSecret(path, key, value, metadata, testIdentity, testPolicies);
@@ -68,12 +91,13 @@ class SecretServiceTest {
         assertNotNull(result);
         assertEquals(path, result.getPath());
         assertEquals(key, result.getKey());
-        assertEquals("encrypted_value", result.getEncryptedValue());
+        assertArrayEquals(bytes("encrypted_value"), result.getEncryptedData());
         
-        verify(secretRepository).existsByPathAndKeyAndDeletedFalse(path, key);
+        // Checked before encrypting, then again inside the write batch
+        verify(secretStore, times(2)).existsLive(path, key);
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "create");
-        verify(encryptionService).encrypt(value);
-        verify(secretRepository).save(any(Secret.class));
+        verify(encryptionService).encryptValue(value);
+        verify(secretStore).save(any(Secret.class));
     }
     
     @Test
@@ -83,15 +107,15 @@ class SecretServiceTest {
         String key = "database-password";
         String value = "mysecretpassword";
         
-        when(secretRepository.existsByPathAndKeyAndDeletedFalse(path, key)).thenReturn(true);
+        when(secretStore.existsLive(path, key)).thenReturn(true);
         
         // Act & Assert
         assertThrows(IllegalArgumentException.class, () -> 
             secretService.createSecret(path, key, value, null, testIdentity, testPolicies));
         
-        verify(secretRepository).existsByPathAndKeyAndDeletedFalse(path, key);
+        verify(secretStore).existsLive(path, key);
         verifyNoInteractions(encryptionService);
-        verify(secretRepository, never()).save(any());
+        verify(secretStore, never()).save(any());
     }
     
     @Test
@@ -101,7 +125,7 @@ class SecretServiceTest {
         String key = "database-password";
         String value = "mysecretpassword";
         
-        when(secretRepository.existsByPathAndKeyAndDeletedFalse(path, key)).thenReturn(false);
+        when(secretStore.existsLive(path, key)).thenReturn(false);
         when(policyService.hasAccess(testPolicies, path + "/" + key, "create")).thenReturn(false);
         
         // Act & Assert
@@ -110,7 +134,7 @@ class SecretServiceTest {
         
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "create");
         verifyNoInteractions(encryptionService);
-        verify(secretRepository, never()).save(any());
+        verify(secretStore, never()).save(any());
     }
     
     @Test
@@ -121,12 +145,12 @@ class SecretServiceTest {
         String encryptedValue = "encrypted_value";
         String decryptedValue = "mysecretpassword";
         
-        Secret secret = new Secret(path, key, encryptedValue, testIdentity);
+        Secret secret = new Secret(path, key, bytes(encryptedValue), testIdentity);
         secret.setVersion(1);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndDeletedFalse(path, key)).thenReturn(Optional.of(secret));
-        when(encryptionService.decrypt(encryptedValue)).thenReturn(decryptedValue);
+        when(secretStore.findHead(path, key)).thenReturn(Optional.of(secret));
+        when(encryptionService.decryptValue(bytes(encryptedValue))).thenReturn(decryptedValue);
         
         // Act
         Optional<Map<String, Object>> result = secretService.getSecret(path, key, testPolicies);
@@ -138,8 +162,8 @@ class SecretServiceTest {
         assertEquals(1, secretData.get("version"));
         
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "read");
-        verify(secretRepository).findByPathAndKeyAndDeletedFalse(path, key);
-        verify(encryptionService).decrypt(encryptedValue);
+        verify(secretStore).findHead(path, key);
+        verify(encryptionService).decryptValue(bytes(encryptedValue));
     }
     
     @Test
@@ -149,7 +173,7 @@ class SecretServiceTest {
         String key = "nonexistent";
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndDeletedFalse(path, key)).thenReturn(Optional.empty());
+        when(secretStore.findHead(path, key)).thenReturn(Optional.empty());
         
         // Act
         Optional<Map<String, Object>> result = secretService.getSecret(path, key, testPolicies);
@@ -158,10 +182,34 @@ class SecretServiceTest {
         assertTrue(result.isEmpty());
         
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "read");
-        verify(secretRepository).findByPathAndKeyAndDeletedFalse(path, key);
+        verify(secretStore).findHead(path, key);
         verifyNoInteractions(encryptionService);
     }
     
+    @Test
+    void getSecret_ArchivedVersion_ReadFromArchive() {
+        // Arrange
+        String path = "secret/app";
+        String key = "database-password";
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(90);
+        SecretArchiveService.ArchivedVersion archived = new SecretArchiveService.ArchivedVersion(
+                2, bytes("old_encrypted_value"), null, createdAt, createdAt, "testuser", "testuser", false, null);
+        
+        when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
+        when(secretStore.findVersion(path, key, 2)).thenReturn(Optional.empty());
+        when(archiveService.findVersion(path, key, 2)).thenReturn(Optional.of(archived));
+        when(encryptionService.decryptValue(bytes("old_encrypted_value"))).thenReturn("oldpassword");
+        
+        // Act
+        Optional<Map<String, Object>> result = secretService.getSecret(path, key, 2, testPolicies);
+        
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals("oldpassword", result.get().get("value"));
+        assertEquals(2, result.get().get("version"));
+        assertEquals(createdAt, result.get().get("created_at"));
+    }
+    
     @Test
     void getSecret_AccessDenied_ThrowsSecurityException() {
         // Arrange
@@ -175,7 +223,28 @@ class SecretServiceTest {
             secretService.getSecret(path, key, testPolicies));
         
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "read");
-        verifyNoInteractions(secretRepository);
+        verifyNoInteractions(secretStore);
+        verifyNoInteractions(encryptionService);
+    }
+    
+    @Test
+    void getSecretETag_UsesVersionHeadWithoutDecrypting() {
+        // Arrange
+        String path = "secret/app";
+        String key = "database-password";
+        
+        when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
+        when(secretStore.findHeadVersion(path, key)).thenReturn(Optional.of(3));
+        
+        // Act
+        Optional<String> eTag = secretService.getSecretETag(path, key, null, testPolicies);
+        
+        // Assert
+        assertTrue(eTag.isPresent());
+        assertEquals(SecretService.computeETag(path, key, 3, false), eTag.get());
+        assertNotEquals(SecretService.computeETag(path, key, 4, false), eTag.get());
+        
+        verify(secretStore, never()).findHead(any(), any());
         verifyNoInteractions(encryptionService);
     }
     
@@ -185,32 +254,23 @@ class SecretServiceTest {
         String path = "secret/app";
         String key = "database-password";
         
-        Secret secret1 = new Secret(path, key, "encrypted_value_v1", testIdentity);
-        secret1.setVersion(1);
-        Secret secret2 = new Secret(path, key, "encrypted_value_v2", testIdentity);
+        Secret secret2 = new Secret(path, key, bytes("encrypted_value_v2"), testIdentity);
         secret2.setVersion(2);
         
-        List<Secret> allVersions = Arrays.asList(secret1, secret2);
-        
         when(policyService.hasAccess(testPolicies, path + "/" + key, "delete")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndDeletedFalse(path, key)).thenReturn(Optional.of(secret2));
-        when(secretRepository.findAllByPathAndKey(path, key)).thenReturn(allVersions);
-        when(secretRepository.saveAll(any(List.class))).thenReturn(allVersions);
+        when(secretStore.findHead(path, key)).thenReturn(Optional.of(secret2));
+        when(secretStore.markAllDeleted(eq(path), eq(key), any(LocalDateTime.class))).thenReturn(2);
         
         // Act
         boolean result = secretService.deleteSecret(path, key, testPolicies);
         
         // Assert
         assertTrue(result);
-        assertTrue(secret1.getDeleted());
-        assertTrue(secret2.getDeleted());
-        assertNotNull(secret1.getDeletedAt());
-        assertNotNull(secret2.getDeletedAt());
         
         verify(policyService).hasAccess(testPolicies, path + "/" + key, "delete");
-        verify(secretRepository).findByPathAndKeyAndDeletedFalse(path, key);
-        verify(secretRepository).findAllByPathAndKey(path, key);
-        verify(secretRepository).saveAll(allVersions);
+        verify(secretStore).findHead(path, key);
+        verify(secretStore).markAllDeleted(eq(path), eq(key), any(LocalDateTime.class));
+        verify(archiveService).markAllDeleted(eq(path), eq(key), any(LocalDateTime.class));
     }
     
     @Test
@@ -246,17 +306,17 @@ class SecretServiceTest {
         String originalValue = "original-password";
         String updatedValue = "updated-password";
         
-        Secret existingSecret = new Secret(path, key, "encrypted_original", testIdentity);
+        Secret existingSecret = new Secret(path, key, bytes("encrypted_original"), testIdentity);
         existingSecret.setVersion(1);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "update")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndDeletedFalse(path, key)).thenReturn(Optional.of(existingSecret));
-        when(secretRepository.findMaxVersionByPathAndKey(path, key)).thenReturn(1);
-        when(encryptionService.encrypt(updatedValue)).thenReturn("encrypted_updated");
+        when(secretStore.findHead(path, key)).thenReturn(Optional.of(existingSecret));
+        when(secretStore.findMaxVersion(path, key)).thenReturn(1);
+        when(encryptionService.encryptValue(updatedValue)).thenReturn(bytes("encrypted_updated"));
         
-        Secret newSecret = new Secret(path, key, "encrypted_updated", testIdentity);
+        Secret newSecret = new Secret(path, key, bytes("encrypted_updated"), testIdentity);
         newSecret.setVersion(2);
-        when(secretRepository.save(any(Secret.class))).thenReturn(newSecret);
+        when(secretStore.save(any(Secret.class))).thenReturn(newSecret);
         
         // Act
         Optional<Secret> result = secretService.updateSecret(path, key, updatedValue, null, testIdentity, testPolicies);
@@ -265,8 +325,60 @@ class SecretServiceTest {
         assertTrue(result.isPresent());
         assertEquals(2, result.get().getVersion());
         
-        verify(secretRepository).findMaxVersionByPathAndKey(path, key);
-        verify(secretRepository).save(argThat(secret -> secret.getVersion().equals(2)));
+        verify(secretStore).findMaxVersion(path, key);
+        verify(secretStore).save(argThat(secret -> secret.getVersion().equals(2)));
+    }
+    
+    @Test
+    void updateSecret_VersionConflict_RetriesWithNextVersion() {
+        // Arrange
+        String path = "secret/app";
+        String key = "database-password";
+        
+        Secret existingSecret = new Secret(path, key, bytes("encrypted_original"), testIdentity);
+        existingSecret.setVersion(1);
+        
+        when(policyService.hasAccess(testPolicies, path + "/" + key, "update")).thenReturn(true);
+        when(secretStore.findHead(path, key)).thenReturn(Optional.of(existingSecret));
+        // Another writer takes version 2 between the first attempt's read and insert
+        when(secretStore.findMaxVersion(path, key)).thenReturn(1, 2);
+        when(encryptionService.encryptValue("updated-password")).thenReturn(bytes("encrypted_updated"));
+        when(secretStore.save(any(Secret.class)))
+                .thenThrow(new DataIntegrityViolationException("uk_secret_version"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        Optional<Secret> result = secretService.updateSecret(path, key, "updated-password", null, testIdentity, testPolicies);
+        
+        // Assert
+        assertTrue(result.isPresent());
+        assertEquals(3, result.get().getVersion());
+        verify(secretStore, times(2)).save(any(Secret.class));
+    }
+    
+    @Test
+    void updateSecret_CasBehindNewestVersion_ThrowsConflict() {
+        // Arrange
+        String path = "secret/app";
+        String key = "database-password";
+        
+        Secret existingSecret = new Secret(path, key, bytes("encrypted_original"), testIdentity);
+        existingSecret.setVersion(3);
+        
+        when(policyService.hasAccess(testPolicies, path + "/" + key, "update")).thenReturn(true);
+        when(secretStore.findHead(path, key)).thenReturn(Optional.of(existingSecret));
+        when(secretStore.findMaxVersion(path, key)).thenReturn(3);
+        when(encryptionService.encryptValue("updated-password")).thenReturn(bytes("encrypted_updated"));
+        
+        // Act & Assert
+        VersionConflictException conflict = assertThrows(VersionConflictException.class, () ->
+            secretService.updateSecret(path, key, "updated-password", null, testIdentity, testPolicies, 2, null));
+        assertEquals(3, conflict.getCurrentVersion());
+        verify(secretStore, never()).save(any(Secret.class));
+        
+        when(secretStore.save(any(Secret.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        assertEquals(4, secretService.updateSecret(path, key, "updated-password", null, testIdentity, testPolicies, 3, null)
+            .orElseThrow().getVersion());
     }
     
     @Test
@@ -278,12 +390,12 @@ class SecretServiceTest {
         String encryptedValue = "encrypted_value_v2";
         String decryptedValue = "decrypted_value_v2";
         
-        Secret secret = new Secret(path, key, encryptedValue, testIdentity);
+        Secret secret = new Secret(path, key, bytes(encryptedValue), testIdentity);
         secret.setVersion(version);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndVersion(path, key, version)).thenReturn(Optional.of(secret));
-        when(encryptionService.decrypt(encryptedValue)).thenReturn(decryptedValue);
+        when(secretStore.findVersion(path, key, version)).thenReturn(Optional.of(secret));
+        when(encryptionService.decryptValue(bytes(encryptedValue))).thenReturn(decryptedValue);
         
         // Act
         Optional<Map<String, Object>> result = secretService.getSecret(path, key, version, testPolicies);
@@ -294,7 +406,7 @@ class SecretServiceTest {
         assertEquals(decryptedValue, secretData.get("value"));
         assertEquals(version, secretData.get("version"));
         
-        verify(secretRepository).findByPathAndKeyAndVersion(path, key, version);
+        verify(secretStore).findVersion(path, key, version);
     }
     
     @Test
@@ -303,15 +415,13 @@ class SecretServiceTest {
         String path = "secret/app";
         String key = "database-password";
         
-        Secret version1 = new Secret(path, key, "encrypted_v1", testIdentity);
-        version1.setVersion(1);
-        Secret version2 = new Secret(path, key, "encrypted_v2", testIdentity);
-        version2.setVersion(2);
-        
-        List<Secret> versions = Arrays.asList(version2, version1); // Ordered by version DESC
+        LocalDateTime now = LocalDateTime.now();
+        List<SecretVersionSummary> versions = Arrays.asList( // Ordered by version DESC
+                new SecretVersionSummary(2, null, now, now, "testuser", "admin", false, null),
+                new SecretVersionSummary(1, null, now, now, "testuser", null, false, null));
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.findAllVersionsByPathAndKey(path, key)).thenReturn(versions);
+        when(secretStore.findVersionSummaries(path, key)).thenReturn(versions);
         
         // Act
         List<Map<String, Object>> result = secretService.listSecretVersions(path, key, testPolicies);
@@ -320,8 +430,11 @@ class SecretServiceTest {
         assertEquals(2, result.size());
         assertEquals(2, result.get(0).get("version")); // First should be version 2
         assertEquals(1, result.get(1).get("version")); // Second should be version 1
+        assertEquals("admin", result.get(0).get("updated_by"));
+        assertFalse(result.get(0).containsKey("value"));
         
-        verify(secretRepository).findAllVersionsByPathAndKey(path, key);
+        verify(secretStore).findVersionSummaries(path, key);
+        verifyNoInteractions(encryptionService);
     }
     
     @Test
@@ -332,7 +445,7 @@ class SecretServiceTest {
         Long expectedCount = 3L;
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.countVersionsByPathAndKey(path, key)).thenReturn(expectedCount);
+        when(secretStore.countVersions(path, key)).thenReturn(expectedCount);
         
         // Act
         Long result = secretService.getSecretVersionCount(path, key, testPolicies);
@@ -340,7 +453,7 @@ class SecretServiceTest {
         // Assert
         assertEquals(expectedCount, result);
         
-        verify(secretRepository).countVersionsByPathAndKey(path, key);
+        verify(secretStore).countVersions(path, key);
     }
     
     @Test
@@ -350,9 +463,9 @@ class SecretServiceTest {
         String key = "database-password";
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.countVersionsByPathAndKey(path, key)).thenReturn(3L);
-        when(secretRepository.findMinVersionByPathAndKey(path, key)).thenReturn(1);
-        when(secretRepository.findMaxVersionByPathAndKey(path, key)).thenReturn(3);
+        when(secretStore.countVersions(path, key)).thenReturn(3L);
+        when(secretStore.findMinVersion(path, key)).thenReturn(1);
+        when(secretStore.findMaxVersion(path, key)).thenReturn(3);
         
         // Act
         Map<String, Object> result = secretService.getSecretVersionInfo(path, key, testPolicies);
@@ -372,17 +485,16 @@ class SecretServiceTest {
         Integer startVersion = 2;
         Integer endVersion = 3;
         
-        Secret version2 = new Secret(path, key, "encrypted_v2", testIdentity);
+        Secret version2 = new Secret(path, key, bytes("encrypted_v2"), testIdentity);
         version2.setVersion(2);
-        Secret version3 = new Secret(path, key, "encrypted_v3", testIdentity);
+        Secret version3 = new Secret(path, key, bytes("encrypted_v3"), testIdentity);
         version3.setVersion(3);
         
         List<Secret> versions = Arrays.asList(version3, version2);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "read")).thenReturn(true);
-        when(secretRepository.findVersionRangeByPathAndKey(path, key, startVersion, endVersion)).thenReturn(versions);
-        when(encryptionService.decrypt("encrypted_v2")).thenReturn("decrypted_v2");
-        when(encryptionService.decrypt("encrypted_v3")).thenReturn("decrypted_v3");
+        when(secretStore.findVersionRange(path, key, startVersion, endVersion)).thenReturn(versions);
+        when(encryptionService.decryptValues(anyList())).thenAnswer(invocation -> decryptAll(invocation.getArgument(0)));
         
         // Act
         List<Map<String, Object>> result = secretService.getSecretVersionRange(path, key, startVersion, endVersion, testPolicies);
@@ -395,6 +507,72 @@ class SecretServiceTest {
         assertEquals("decrypted_v2", result.get(1).get("value"));
     }
     
+    @Test
+    void getSecrets_SkipsUnreadableAndMissingSecretsAndKeepsOrder() {
+        // Arrange
+        SecretPathKey db = new SecretPathKey("app", "db");
+        SecretPathKey hidden = new SecretPathKey("app", "hidden");
+        SecretPathKey gone = new SecretPathKey("app", "gone");
+        SecretPathKey api = new SecretPathKey("app", "api");
+        Secret dbSecret = new Secret("app", "db", bytes("encrypted_db"), testIdentity);
+        dbSecret.setVersion(4);
+        Secret apiSecret = new Secret("app", "api", bytes("encrypted_api"), testIdentity);
+        apiSecret.setVersion(1);
+        
+        when(policyService.hasAccess(eq(testPolicies), anyString(), eq("read"))).thenReturn(true);
+        when(policyService.hasAccess(testPolicies, "app/hidden", "read")).thenReturn(false);
+        when(secretStore.findHead("app", "db")).thenReturn(Optional.of(dbSecret));
+        when(secretStore.findHead("app", "gone")).thenReturn(Optional.empty());
+        when(secretStore.findHead("app", "api")).thenReturn(Optional.of(apiSecret));
+        when(archiveService.findLatestVersion("app", "gone")).thenReturn(Optional.empty());
+        when(encryptionService.tryDecryptValues(anyList())).thenAnswer(invocation -> decryptAll(invocation.getArgument(0)));
+        
+        // Act
+        Map<SecretPathKey, Map<String, Object>> result = secretService.getSecrets(List.of(db, hidden, gone, api), testPolicies);
+        
+        // Assert
+        assertEquals(List.of(db, api), List.copyOf(result.keySet()));
+        assertEquals("decrypted_db", result.get(db).get("value"));
+        assertEquals(4, result.get(db).get("version"));
+        assertEquals("decrypted_api", result.get(api).get("value"));
+        verify(secretStore, never()).findHead("app", "hidden");
+        verify(encryptionService, never()).decryptValue(any());
+    }
+    
+    @Test
+    void getSecrets_UndecryptableValue_SkipsOnlyThatSecret() {
+        // Arrange
+        SecretPathKey db = new SecretPathKey("app", "db");
+        SecretPathKey corrupt = new SecretPathKey("app", "corrupt");
+        SecretPathKey api = new SecretPathKey("app", "api");
+        Secret dbSecret = new Secret("app", "db", bytes("encrypted_db"), testIdentity);
+        dbSecret.setVersion(1);
+        Secret corruptSecret = new Secret("app", "corrupt", bytes("garbage"), testIdentity);
+        corruptSecret.setVersion(1);
+        Secret apiSecret = new Secret("app", "api", bytes("encrypted_api"), testIdentity);
+        apiSecret.setVersion(1);
+        
+        when(policyService.hasAccess(eq(testPolicies), anyString(), eq("read"))).thenReturn(true);
+        when(secretStore.findHead("app", "db")).thenReturn(Optional.of(dbSecret));
+        when(secretStore.findHead("app", "corrupt")).thenReturn(Optional.of(corruptSecret));
+        when(secretStore.findHead("app", "api")).thenReturn(Optional.of(apiSecret));
+        when(encryptionService.tryDecryptValues(anyList())).thenAnswer(invocation -> {
+            List<byte[]> values = invocation.getArgument(0);
+            return values.stream()
+                    .map(value -> new String(value, StandardCharsets.UTF_8))
+                    .map(value -> value.startsWith("encrypted") ? value.replace("encrypted", "decrypted") : null)
+                    .toList();
+        });
+        
+        // Act
+        Map<SecretPathKey, Map<String, Object>> result = secretService.getSecrets(List.of(db, corrupt, api), testPolicies);
+        
+        // Assert
+        assertEquals(List.of(db, api), List.copyOf(result.keySet()));
+        assertEquals("decrypted_db", result.get(db).get("value"));
+        assertEquals("decrypted_api", result.get(api).get("value"));
+    }
+    
     @Test
     void getSecretVersionRange_InvalidRange_ThrowsException() {
         // Arrange
@@ -415,13 +593,13 @@ class SecretServiceTest {
         String key = "database-password";
         Integer version = 2;
         
-        Secret secret = new Secret(path, key, "encrypted_value", testIdentity);
+        Secret secret = new Secret(path, key, bytes("encrypted_value"), testIdentity);
         secret.setVersion(version);
         secret.setDeleted(false);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "delete")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndVersion(path, key, version)).thenReturn(Optional.of(secret));
-        when(secretRepository.save(any(Secret.class))).thenReturn(secret);
+        when(secretStore.findVersion(path, key, version)).thenReturn(Optional.of(secret));
+        when(secretStore.save(any(Secret.class))).thenReturn(secret);
         
         // Act
         boolean result = secretService.deleteSecretVersion(path, key, version, testPolicies);
@@ -431,7 +609,7 @@ class SecretServiceTest {
         assertTrue(secret.getDeleted());
         assertNotNull(secret.getDeletedAt());
         
-        verify(secretRepository).save(secret);
+        verify(secretStore).save(secret);
     }
     
     @Test
@@ -441,12 +619,12 @@ class SecretServiceTest {
         String key = "database-password";
         Integer version = 2;
         
-        Secret secret = new Secret(path, key, "encrypted_value", testIdentity);
+        Secret secret = new Secret(path, key, bytes("encrypted_value"), testIdentity);
         secret.setVersion(version);
         secret.setDeleted(true); // Already deleted
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "delete")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndVersion(path, key, version)).thenReturn(Optional.of(secret));
+        when(secretStore.findVersion(path, key, version)).thenReturn(Optional.of(secret));
         
         // Act
         boolean result = secretService.deleteSecretVersion(path, key, version, testPolicies);
@@ -454,7 +632,7 @@ class SecretServiceTest {
         // Assert
         assertFalse(result);
         
-        verify(secretRepository, never()).save(any());
+        verify(secretStore, never()).save(any());
     }
     
     @Test
@@ -464,13 +642,13 @@ class SecretServiceTest {
         String key = "database-password";
         Integer version = 2;
         
-        Secret secret = new Secret(path, key, "encrypted_value", testIdentity);
+        Secret secret = new Secret(path, key, bytes("encrypted_value"), testIdentity);
         secret.setVersion(version);
         secret.setDeleted(true);
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "update")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndVersion(path, key, version)).thenReturn(Optional.of(secret));
-        when(secretRepository.save(any(Secret.class))).thenReturn(secret);
+        when(secretStore.findVersion(path, key, version)).thenReturn(Optional.of(secret));
+        when(secretStore.save(any(Secret.class))).thenReturn(secret);
         
         // Act
         boolean result = secretService.restoreSecretVersion(path, key, version, testPolicies);
@@ -480,7 +658,7 @@ class SecretServiceTest {
         assertFalse(secret.getDeleted());
         assertNull(secret.getDeletedAt());
         
-        verify(secretRepository).save(secret);
+        verify(secretStore).save(secret);
     }
     
     @Test
@@ -490,12 +668,12 @@ class SecretServiceTest {
         String key = "database-password";
         Integer version = 2;
         
-        Secret secret = new Secret(path, key, "encrypted_value", testIdentity);
+        Secret secret = new Secret(path, key, bytes("encrypted_value"), testIdentity);
         secret.setVersion(version);
         secret.setDeleted(false); // Not deleted
         
         when(policyService.hasAccess(testPolicies, path + "/" + key, "update")).thenReturn(true);
-        when(secretRepository.findByPathAndKeyAndVersion(path, key, version)).thenReturn(Optional.of(secret));
+        when(secretStore.findVersion(path, key, version)).thenReturn(Optional.of(secret));
         
         // Act
         boolean result = secretService.restoreSecretVersion(path, key, version, testPolicies);
@@ -503,6 +681,42 @@ class SecretServiceTest {
         // Assert
         assertFalse(result);
         
-        verify(secretRepository, never()).save(any());
+        verify(secretStore, never()).save(any());
+    }
+    
+    @Test
+    void listSecretKeys_ReturnsCursorThatResumesAfterLastKey() {
+        // Arrange
+        String path = "secret/app";
+        when(policyService.hasAccess(testPolicies, path + "/*", "list")).thenReturn(true);
+        when(secretStore.findKeysUnderAfter(path, true, "", "", 3))
+                .thenReturn(List.of(new SecretPathKey(path, "a"), new SecretPathKey(path, "b"),
+                        new SecretPathKey(path, "c")));
+        
+        // Act
+        SecretService.KeyPage page = secretService.listSecretKeys(path, true, 2, null, testPolicies);
+        
+        // Assert
+        assertEquals(List.of("secret/app/a", "secret/app/b"), page.keys());
+        assertNotNull(page.nextCursor());
+        assertEquals(new SecretPathKey(path, "b"), SecretService.decodeCursor(page.nextCursor()));
+    }
+    
+    @Test
+    void listSecretKeys_InvalidCursor_ThrowsException() {
+        // Arrange
+        when(policyService.hasAccess(testPolicies, "secret/app/*", "list")).thenReturn(true);
+        
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> secretService.listSecretKeys("secret/app", false, 10, "not-a-cursor", testPolicies));
+    }
+    
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    private static List<String> decryptAll(List<byte[]> values) {
+        return values.stream().map(value -> new String(value, StandardCharsets.UTF_8).replace("encrypted", "decrypted")).toList();
     }
 }
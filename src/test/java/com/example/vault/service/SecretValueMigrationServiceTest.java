@@ -0,0 +1,80 @@
+package com.example.vault.service;
+
+import com.example.vault.config.JpaConfig;
+import com.example.vault.entity.Secret;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.SecretRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"vault.value-migration.batch-size=2", "vault.value-migration.batch-pause=0"})
+@Import({JpaConfig.class, SecretValueMigrationService.class, EncryptionService.class})
+class SecretValueMigrationServiceTest {
+
+    @Autowired
+    private SecretValueMigrationService migrationService;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private SecretRepository secretRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private VaultMetrics vaultMetrics;
+
+    @Test
+    void migrate_ConvertsLegacyRowsAndKeepsThemReadable() {
+        // Arrange
+        for (int version = 1; version <= 5; version++) {
+            insertLegacy(version, encryptionService.encrypt("password-" + version));
+        }
+        insertLegacy(6, "not base64!");
+        Secret before = secretRepository.findAll(Sort.by("version")).get(0);
+        assertNotNull(before.getLegacyEncryptedValue());
+        assertEquals("password-1", encryptionService.decryptValue(before.getEncryptedData()));
+        entityManager.clear();
+
+        // Act
+        long converted = migrationService.migrate();
+
+        // Assert
+        assertEquals(5, converted);
+        assertTrue(migrationService.isComplete());
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT encrypted_data, encrypted_value FROM secrets WHERE version = 3");
+        assertNotNull(row.get("ENCRYPTED_DATA"));
+        assertNull(row.get("ENCRYPTED_VALUE"));
+        for (Secret secret : secretRepository.findAll()) {
+            if (secret.getVersion() <= 5) {
+                assertNull(secret.getLegacyEncryptedValue());
+                assertEquals("password-" + secret.getVersion(), encryptionService.decryptValue(secret.getEncryptedData()));
+            } else {
+                assertEquals("not base64!", secret.getLegacyEncryptedValue());
+            }
+        }
+        assertEquals(0, migrationService.migrate());
+    }
+
+    private void insertLegacy(int version, String encryptedValue) {
+        jdbcTemplate.update("INSERT INTO secrets (path, secret_key, version, encrypted_value, deleted, created_at, updated_at) " +
+                "VALUES ('app', 'db', ?, ?, FALSE, ?, ?)", version, encryptedValue, LocalDateTime.now(), LocalDateTime.now());
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.vault.service;
+
+import com.example.vault.entity.Secret;
+import com.example.vault.exception.VersionConflictException;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.store.LogSecretStore;
+import com.example.vault.store.SecretStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class SecretWriteBatcherTest {
+
+    private final CountingTransactionManager transactionManager = new CountingTransactionManager();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SecretWriteBatcher batcher = new SecretWriteBatcher();
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private final ReentrantLock keyLock = new ReentrantLock();
+
+    @BeforeEach
+    void setUp() {
+        SecretStore secretStore = mock(SecretStore.class);
+        when(secretStore.isTransactional()).thenReturn(true);
+        configure(batcher, secretStore);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        callers.shutdownNow();
+        batcher.stop();
+    }
+
+    @Test
+    void submit_ConcurrentWrites_CommitTogether() throws Exception {
+        // Act
+        List<Future<String>> results = submitAll(List.of(() -> "a", () -> "b", () -> "c", () -> "d"));
+
+        // Assert
+        assertEquals(List.of("a", "b", "c", "d"), List.of(results.get(0).get(), results.get(1).get(),
+                results.get(2).get(), results.get(3).get()));
+        assertEquals(1, transactionManager.commits.get());
+        assertEquals(4.0, registry.get("vault.write.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void submit_BatchedWrite_DoesNotWaitForTheKeyLock() throws Exception {
+        // Arrange: a direct write to another key on the same stripe is holding it
+        keyLock.lock();
+        try {
+            // Act
+            List<Future<String>> results = submitAll(List.of(() -> "a", () -> "b"));
+
+            // Assert
+            assertEquals("a", results.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals("b", results.get(1).get(5, TimeUnit.SECONDS));
+        } finally {
+            keyLock.unlock();
+        }
+    }
+
+    @Test
+    void submit_RejectedWrite_FailsOnlyItsOwnCallerWithoutRollback() throws Exception {
+        // Act
+        List<Future<String>> results = submitAll(List.of(() -> "a", () -> {
+            throw new VersionConflictException("app", "db", 1, 2);
+        }, () -> "c"));
+
+        // Assert
+        assertEquals("a", results.get(0).get());
+        Exception failure = assertThrows(Exception.class, () -> results.get(1).get());
+        assertInstanceOf(VersionConflictException.class, failure.getCause());
+        assertEquals("c", results.get(2).get());
+        assertEquals(1, transactionManager.commits.get());
+        assertEquals(0, transactionManager.rollbacks.get());
+    }
+
+    @Test
+    void submit_FailingWrite_FailsOnlyItsOwnCaller() throws Exception {
+        // Act
+        List<Future<String>> results = submitAll(List.of(() -> "a", () -> {
+            throw new IllegalStateException("bad write");
+        }, () -> "c"));
+
+        // Assert
+        assertEquals("a", results.get(0).get());
+        Exception failure = assertThrows(Exception.class, () -> results.get(1).get());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertEquals("c", results.get(2).get());
+        // The batch rolled back, then each write ran alone
+        assertEquals(2, transactionManager.commits.get());
+        assertEquals(2, transactionManager.rollbacks.get());
+        assertEquals(1.0, registry.get("vault.write.batch.splits").counter().count());
+    }
+
+    @Test
+    void submit_DuplicateCreateOnLogStore_FailsOnlyTheDuplicate(@TempDir Path dir) throws Exception {
+        // Arrange
+        LogSecretStore logStore = new LogSecretStore();
+        ReflectionTestUtils.setField(logStore, "dir", dir.toString());
+        logStore.open();
+        SecretWriteBatcher logBatcher = new SecretWriteBatcher();
+        configure(logBatcher, logStore);
+        logBatcher.start();
+
+        try {
+            // Act
+            List<Future<String>> results = submitAll(logBatcher, List.of(create(logStore, "a"), create(logStore, "a"),
+                    create(logStore, "b")));
+
+            // Assert
+            List<Throwable> failures = new ArrayList<>();
+            for (Future<String> result : results.subList(0, 2)) {
+                try {
+                    assertEquals("a", result.get());
+                } catch (Exception e) {
+                    failures.add(e.getCause());
+                }
+            }
+            assertEquals(1, failures.size());
+            assertInstanceOf(IllegalArgumentException.class, failures.get(0));
+            assertEquals("b", results.get(2).get());
+            assertEquals(1, logStore.findMaxVersion("app", "a"));
+            assertEquals(1, logStore.findMaxVersion("app", "b"));
+            // The log cannot roll back, so each write ran in a transaction of its own
+            assertEquals(2, transactionManager.commits.get());
+            assertEquals(1, transactionManager.rollbacks.get());
+        } finally {
+            logBatcher.stop();
+            logStore.close();
+        }
+    }
+
+    private void configure(SecretWriteBatcher target, SecretStore secretStore) {
+        ReflectionTestUtils.setField(target, "transactionManager", transactionManager);
+        ReflectionTestUtils.setField(target, "vaultMetrics", new VaultMetrics(registry));
+        ReflectionTestUtils.setField(target, "secretStore", secretStore);
+        // Long enough for every caller to join the first batch
+        ReflectionTestUtils.setField(target, "maxDelay", 500L);
+    }
+
+    /**
+     * A create as SecretService submits it
+     */
+    private Supplier<String> create(SecretStore secretStore, String key) {
+        return () -> {
+            if (secretStore.existsLive("app", key)) {
+                throw new IllegalArgumentException("Secret already exists at path: app/" + key);
+            }
+            Secret secret = new Secret("app", key, new byte[]{1, 2, 3}, null);
+            secret.setVersion(1);
+            secretStore.save(secret);
+            return key;
+        };
+    }
+
+    private List<Future<String>> submitAll(List<Supplier<String>> writes) throws InterruptedException {
+        return submitAll(batcher, writes);
+    }
+
+    private List<Future<String>> submitAll(SecretWriteBatcher target, List<Supplier<String>> writes) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(writes.size());
+        List<Future<String>> results = new ArrayList<>();
+        for (Supplier<String> write : writes) {
+            results.add(callers.submit(() -> {
+                ready.countDown();
+                return target.submit(write, keyLock);
+            }));
+        }
+        assertTrue(ready.await(5, TimeUnit.SECONDS));
+        return results;
+    }
+
+    private static class CountingTransactionManager extends AbstractPlatformTransactionManager {
+
+        final AtomicInteger commits = new AtomicInteger();
+        final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            commits.incrementAndGet();
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
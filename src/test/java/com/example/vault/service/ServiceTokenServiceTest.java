@@ -0,0 +1,131 @@
+package com.example.vault.service;
+
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.ServiceToken;
+import com.example.vault.repository.PolicyRepository;
+import com.example.vault.repository.ServiceTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceTokenServiceTest {
+
+    @Mock
+    private ServiceTokenRepository serviceTokenRepository;
+
+    @Mock
+    private PolicyRepository policyRepository;
+
+    @InjectMocks
+    private ServiceTokenService serviceTokenService;
+
+    private Identity serviceIdentity;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(serviceTokenService, "enabled", true);
+        ReflectionTestUtils.setField(serviceTokenService, "defaultTtlSeconds", 60L);
+        ReflectionTestUtils.setField(serviceTokenService, "maxTtlSeconds", 600L);
+
+        serviceIdentity = new Identity("billing-service", "hash", Identity.IdentityType.SERVICE);
+    }
+
+    @Test
+    void issueToken_LookupReturnsLease() {
+        // Act
+        String token = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+
+        // Assert
+        assertTrue(ServiceTokenService.isOpaqueToken(token));
+        Optional<ServiceTokenService.TokenLease> lease = serviceTokenService.lookup(token);
+        assertTrue(lease.isPresent());
+        assertEquals("billing-service", lease.get().identityName());
+        assertEquals(List.of("service-read"), lease.get().policies());
+
+        verify(serviceTokenRepository).save(argThat(saved -> !saved.getTokenHash().contains(token)));
+    }
+
+    @Test
+    void lookup_UnknownToken_ReturnsEmpty() {
+        assertTrue(serviceTokenService.lookup("s.unknown").isEmpty());
+        assertTrue(serviceTokenService.lookup("eyJhbGciOiJIUzI1NiJ9.jwt").isEmpty());
+    }
+
+    @Test
+    void revokeToken_RemovesLease() {
+        // Arrange
+        String token = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+
+        // Act
+        boolean revoked = serviceTokenService.revokeToken(token);
+
+        // Assert
+        assertTrue(revoked);
+        assertTrue(serviceTokenService.lookup(token).isEmpty());
+        verify(serviceTokenRepository).deleteByTokenHashIn(anyCollection());
+    }
+
+    @Test
+    void refreshPolicies_UpdatesLiveTokens() {
+        // Arrange
+        String token = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+        ServiceToken stored = new ServiceToken();
+        when(serviceTokenRepository.findByIdentityName("billing-service")).thenReturn(List.of(stored));
+        when(policyRepository.existsByName("service-write")).thenReturn(true);
+        when(policyRepository.existsByName("no-such-policy")).thenReturn(false);
+
+        // Act
+        serviceTokenService.refreshPolicies("billing-service", List.of("service-write", "no-such-policy"));
+
+        // Assert
+        assertEquals(List.of("service-write"), serviceTokenService.lookup(token).orElseThrow().policies());
+        assertEquals(List.of("service-write"), stored.getPolicies());
+    }
+
+    @Test
+    void expireUntil_RemovesExpiredLeasesOnly() {
+        // Arrange
+        String expiring = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+        String renewed = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+        serviceTokenService.renewToken(renewed, 300L);
+        long afterDefaultTtl = System.currentTimeMillis() + 61_000;
+
+        // Act
+        int expired = serviceTokenService.expireUntil(afterDefaultTtl);
+
+        // Assert
+        assertEquals(1, expired);
+        assertEquals(1, serviceTokenService.activeTokenCount());
+        assertTrue(serviceTokenService.lookup(expiring).isEmpty());
+        assertTrue(serviceTokenService.lookup(renewed).isPresent());
+    }
+
+    @Test
+    void expireUntil_JustBeforeDeadline_ExpiresLeaseOnNextTick() {
+        // Arrange
+        String token = serviceTokenService.issueToken(serviceIdentity, List.of("service-read"));
+        long deadline = serviceTokenService.lookup(token).orElseThrow().expiresAtMillis();
+
+        // Act
+        // The sweep reaches the deadline's tick before the deadline itself, which must not drop the entry
+        int early = serviceTokenService.expireUntil(deadline - 1);
+        int due = serviceTokenService.expireUntil(deadline + 1000);
+
+        // Assert
+        assertEquals(0, early);
+        assertEquals(1, due);
+        assertEquals(0, serviceTokenService.activeTokenCount());
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.vault.service;
+
+import com.example.vault.exception.UnsupportedStoreOperationException;
+import com.example.vault.store.SecretStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StoreArchiveServiceTest {
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private SecretStore secretStore;
+
+    @InjectMocks
+    private StoreArchiveService storeArchiveService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(storeArchiveService, "objectMapper", new ObjectMapper());
+        lenient().when(secretStore.usesSecretsTable()).thenReturn(true);
+    }
+
+    @Test
+    void exportAndImport_StoreOutsideSecretsTable_AreRefused() {
+        // Arrange
+        when(secretStore.usesSecretsTable()).thenReturn(false);
+        InputStream archive = mock(InputStream.class);
+
+        // Act & Assert
+        assertThrows(UnsupportedStoreOperationException.class, () -> storeArchiveService.importArchive(archive));
+        assertThrows(UnsupportedStoreOperationException.class,
+                () -> storeArchiveService.exportArchive(OutputStream.nullOutputStream()));
+        verifyNoInteractions(archive, encryptionService);
+    }
+
+    @Test
+    void importArchive_DifferentEncryptionKey_IsRejectedBeforeWriting() throws IOException {
+        // Arrange
+        when(encryptionService.keyFingerprint()).thenReturn("1111111111111111");
+        byte[] archive = gzip("""
+                {"type":"header","format":"vault-archive","format_version":1,"key_fingerprint":"2222222222222222"}
+                {"type":"secret","path":"app","key":"password","version":1,"encrypted_value":"abc"}
+                {"type":"end","policies":0,"identities":0,"secrets":1}
+                """);
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> storeArchiveService.importArchive(new ByteArrayInputStream(archive)));
+        assertEquals("Archive was written with a different encryption key", error.getMessage());
+    }
+
+    @Test
+    void importArchive_NotAnArchive_IsRejected() throws IOException {
+        // Arrange
+        byte[] archive = gzip("{\"path\":\"app\",\"key\":\"password\"}\n");
+
+        // Act & Assert
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> storeArchiveService.importArchive(new ByteArrayInputStream(archive)));
+        assertEquals("Not a vault archive", error.getMessage());
+        verifyNoInteractions(encryptionService);
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.SecretVersionState;
+import com.example.vault.util.SecretValueFormat;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TieringServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 6, 1, 12, 0);
+
+    @Test
+    void selectCold_MovesVersionsBeyondKeepLimit() {
+        // Arrange
+        List<SecretVersionState> versions = List.of(live(5, 1), live(4, 2), live(3, 3), live(2, 4), live(1, 5));
+        List<Long> ids = new ArrayList<>();
+
+        // Act
+        TieringService.selectCold(versions, 2, null, ids);
+
+        // Assert
+        assertEquals(List.of(3L, 2L, 1L), ids);
+    }
+
+    @Test
+    void selectCold_KeepsHighestAndCurrentVersionHot() {
+        // Arrange: the two newest versions were deleted, so version 3 is the current value
+        List<SecretVersionState> versions = List.of(deleted(5, 1), deleted(4, 2), live(3, 100), live(2, 100), live(1, 100));
+        List<Long> ids = new ArrayList<>();
+
+        // Act
+        TieringService.selectCold(versions, 1, NOW.minusDays(30), ids);
+
+        // Assert
+        assertEquals(List.of(4L, 2L, 1L), ids);
+    }
+
+    @Test
+    void codec_RoundTripsPayload() {
+        // Arrange
+        SecretArchiveCodec.Payload payload = new SecretArchiveCodec.Payload(
+                SecretValueFormat.fromBase64("q83vEjRWeJA="), "{\"env\":\"prod\",\"owner\":\"platform\"}",
+                NOW.withNano(123_456_789), "admin", null);
+
+        // Act
+        SecretArchiveCodec.Payload decoded = SecretArchiveCodec.decode(SecretArchiveCodec.encode(payload));
+
+        // Assert
+        assertArrayEquals(payload.encryptedData(), decoded.encryptedData());
+        assertEquals(payload.metadata(), decoded.metadata());
+        assertEquals(payload.updatedAt(), decoded.updatedAt());
+        assertEquals("admin", decoded.createdBy());
+        assertNull(decoded.updatedBy());
+    }
+
+    @Test
+    void codec_TextValuePayload_DecodesToBinaryFormat() {
+        // Arrange: format 1, uncompressed, Base64-encoded value of four bytes, no other fields
+        byte[] encoded = {1, 0, 1, 0, 0, 0, 4, 10, 20, 30, 40, 0, 0, 0, 0};
+
+        // Act
+        SecretArchiveCodec.Payload decoded = SecretArchiveCodec.decode(encoded);
+
+        // Assert
+        assertArrayEquals(SecretValueFormat.fromLegacyBytes(new byte[]{10, 20, 30, 40}), decoded.encryptedData());
+        assertNull(decoded.metadata());
+    }
+
+    private static SecretVersionState live(int version, int ageDays) {
+        return new SecretVersionState((long) version, "app", "key", version, false, NOW.minusDays(ageDays), null, false);
+    }
+
+    private static SecretVersionState deleted(int version, int ageDays) {
+        return new SecretVersionState((long) version, "app", "key", version, true,
+                NOW.minusDays(ageDays), NOW.minusDays(ageDays), false);
+    }
+}
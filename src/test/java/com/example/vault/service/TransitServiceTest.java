@@ -0,0 +1,115 @@
+package com.example.vault.service;
+
+import com.example.vault.dto.TransitResult;
+import com.example.vault.entity.TransitKey;
+import com.example.vault.metrics.VaultMetrics;
+import com.example.vault.repository.TransitKeyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TransitServiceTest {
+
+    private static final List<String> POLICIES = List.of("admin");
+
+    private final List<TransitKey> storedKeys = new ArrayList<>();
+    private final TransitKeyRepository keyRepository = mock(TransitKeyRepository.class);
+    private final TransitService transitService = new TransitService();
+
+    @BeforeEach
+    void setUp() {
+        EncryptionService encryptionService = new EncryptionService();
+        ReflectionTestUtils.setField(encryptionService, "encryptionKey", "testEncryptionKey32CharsLong123!");
+        ReflectionTestUtils.setField(encryptionService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        PolicyService policyService = mock(PolicyService.class);
+        when(policyService.hasAccess(eq(POLICIES), anyString(), anyString())).thenReturn(true);
+
+        when(keyRepository.save(any(TransitKey.class))).thenAnswer(invocation -> {
+            storedKeys.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(keyRepository.findByNameOrderByVersionAsc("orders")).thenAnswer(invocation -> List.copyOf(storedKeys));
+        when(keyRepository.findMaxVersion("orders")).thenAnswer(invocation -> storedKeys.size());
+
+        ReflectionTestUtils.setField(transitService, "keyRepository", keyRepository);
+        ReflectionTestUtils.setField(transitService, "encryptionService", encryptionService);
+        ReflectionTestUtils.setField(transitService, "policyService", policyService);
+        ReflectionTestUtils.setField(transitService, "vaultMetrics", new VaultMetrics(new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(transitService, "chunkSize", 16);
+        transitService.start();
+        transitService.createKey("orders", POLICIES);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transitService.stop();
+    }
+
+    @Test
+    void encryptDecrypt_LargeBatch_RoundTripsInOrder() {
+        // Arrange
+        List<String> plaintexts = IntStream.range(0, 1000).mapToObj(i -> encode("order-" + i)).toList();
+
+        // Act
+        List<TransitResult> encrypted = transitService.encrypt("orders", plaintexts, POLICIES).orElseThrow();
+        List<TransitResult> decrypted = transitService.decrypt("orders",
+                encrypted.stream().map(TransitResult::value).toList(), POLICIES).orElseThrow();
+
+        // Assert
+        assertTrue(encrypted.get(0).value().startsWith("vault:v1:"));
+        assertEquals(plaintexts, decrypted.stream().map(TransitResult::value).toList());
+    }
+
+    @Test
+    void decrypt_BadItemInBatch_FailsOnlyThatItem() {
+        // Arrange
+        String ciphertext = transitService.encrypt("orders", List.of(encode("ok")), POLICIES).orElseThrow().get(0).value();
+
+        // Act
+        List<TransitResult> results = transitService.decrypt("orders",
+                List.of(ciphertext, "vault:v1:AAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAAA", "not-a-ciphertext"), POLICIES).orElseThrow();
+
+        // Assert
+        assertEquals(encode("ok"), results.get(0).value());
+        assertTrue(results.get(1).failed());
+        assertTrue(results.get(2).failed());
+    }
+
+    @Test
+    void rewrap_AfterRotation_MovesCiphertextToNewVersion() {
+        // Arrange
+        String ciphertext = transitService.encrypt("orders", List.of(encode("card")), POLICIES).orElseThrow().get(0).value();
+
+        // Act
+        assertEquals(2, transitService.rotateKey("orders", POLICIES).orElseThrow());
+        TransitResult rewrapped = transitService.rewrap("orders", List.of(ciphertext), POLICIES).orElseThrow().get(0);
+
+        // Assert
+        assertEquals(2, rewrapped.keyVersion());
+        assertTrue(rewrapped.value().startsWith("vault:v2:"));
+        assertEquals(encode("card"), transitService.decrypt("orders", List.of(ciphertext), POLICIES).orElseThrow().get(0).value());
+        assertEquals(encode("card"), transitService.decrypt("orders", List.of(rewrapped.value()), POLICIES).orElseThrow().get(0).value());
+    }
+
+    @Test
+    void encrypt_UnknownKey_ReturnsEmpty() {
+        // Act & Assert
+        assertTrue(transitService.encrypt("missing", List.of(encode("x")), POLICIES).isEmpty());
+    }
+
+    private static String encode(String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.vault.store;
+
+import com.example.vault.config.JpaConfig;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest(properties = "vault.store.backend=jdbc")
+@Import({JpaConfig.class, JdbcSecretStore.class})
+class JdbcSecretStoreTest extends SecretStoreConformanceTest {
+}
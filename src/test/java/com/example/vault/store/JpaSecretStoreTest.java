@@ -0,0 +1,10 @@
+package com.example.vault.store;
+
+import com.example.vault.config.JpaConfig;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+@DataJpaTest
+@Import({JpaConfig.class, JpaSecretStore.class})
+class JpaSecretStoreTest extends SecretStoreConformanceTest {
+}
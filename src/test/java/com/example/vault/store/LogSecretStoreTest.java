@@ -0,0 +1,31 @@
+package com.example.vault.store;
+
+import com.example.vault.config.JpaConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * The log outlives the test transaction, so every test gets a fresh context and the log is
+ * deleted after it
+ */
+@DataJpaTest(properties = {"vault.store.backend=log",
+        "vault.store.log.dir=${java.io.tmpdir}/vault-log-test"})
+@Import({JpaConfig.class, LogSecretStore.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class LogSecretStoreTest extends SecretStoreConformanceTest {
+
+    @Value("${vault.store.log.dir}")
+    private Path dir;
+
+    @AfterEach
+    void deleteLog() throws IOException {
+        FileSystemUtils.deleteRecursively(dir);
+    }
+}
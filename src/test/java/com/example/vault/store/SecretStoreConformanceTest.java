@@ -0,0 +1,256 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.dto.SecretVersionSummary;
+import com.example.vault.entity.Identity;
+import com.example.vault.entity.Secret;
+import com.example.vault.repository.IdentityRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link SecretStore} backend must share. Each backend runs it through a
+ * subclass that starts the JPA slice with that backend selected. The tests are inherited, so
+ * the rollback-per-test transaction is declared here rather than picked up from the subclass.
+ */
+@Transactional
+abstract class SecretStoreConformanceTest {
+
+    @Autowired
+    private SecretStore store;
+
+    @Autowired
+    private IdentityRepository identityRepository;
+
+    private Identity alice;
+    private Identity bob;
+
+    @BeforeEach
+    void setUp() {
+        alice = identityRepository.saveAndFlush(new Identity("alice", "hash", Identity.IdentityType.USER));
+        bob = identityRepository.saveAndFlush(new Identity("bob", "hash", Identity.IdentityType.USER));
+    }
+
+    @Test
+    void save_AssignsIdAndTimestamps() {
+        // Act
+        Secret saved = put("app", "db", 1, "v1");
+
+        // Assert
+        assertNotNull(saved.getId());
+        assertNotNull(saved.getCreatedAt());
+        assertNotNull(saved.getUpdatedAt());
+        Secret read = store.findVersion("app", "db", 1).orElseThrow();
+        assertEquals(saved.getId(), read.getId());
+        assertEquals("v1", value(read));
+        assertEquals("{\"env\":\"test\"}", read.getMetadata());
+        assertEquals(alice.getId(), read.getCreatedBy().getId());
+    }
+
+    @Test
+    void findHead_ReturnsHighestLiveVersion() {
+        // Arrange
+        put("app", "db", 1, "v1");
+        put("app", "db", 2, "v2");
+        Secret v3 = put("app", "db", 3, "v3");
+        delete(v3);
+
+        // Act & Assert
+        assertEquals(2, store.findHead("app", "db").orElseThrow().getVersion());
+        assertEquals(Optional.of(2), store.findHeadVersion("app", "db"));
+        assertTrue(store.existsLive("app", "db"));
+        assertEquals(3, store.findMaxVersion("app", "db"));
+        assertTrue(store.findHead("app", "missing").isEmpty());
+        assertTrue(store.findHeadVersion("app", "missing").isEmpty());
+        assertNull(store.findMaxVersion("app", "missing"));
+    }
+
+    @Test
+    void findVersion_HidesDeletedVersionsUntilRestored() {
+        // Arrange
+        put("app", "db", 1, "v1");
+        Secret v2 = put("app", "db", 2, "v2");
+        delete(v2);
+
+        // Act & Assert
+        assertTrue(store.findVersion("app", "db", 2).isEmpty());
+        assertFalse(store.existsVersion("app", "db", 2));
+        Secret deleted = store.findVersionIncludingDeleted("app", "db", 2).orElseThrow();
+        assertTrue(deleted.getDeleted());
+        assertNotNull(deleted.getDeletedAt());
+
+        deleted.setDeleted(false);
+        deleted.setDeletedAt(null);
+        store.save(deleted);
+
+        assertTrue(store.existsVersion("app", "db", 2));
+        assertEquals(2, store.findHead("app", "db").orElseThrow().getVersion());
+    }
+
+    @Test
+    void markAllDeleted_DeletesEveryLiveVersion() {
+        // Arrange
+        put("app", "db", 1, "v1");
+        delete(put("app", "db", 2, "v2"));
+        put("app", "db", 3, "v3");
+        put("app", "other", 1, "o1");
+
+        // Act
+        int deleted = store.markAllDeleted("app", "db", LocalDateTime.now());
+
+        // Assert
+        assertEquals(2, deleted);
+        assertFalse(store.existsLive("app", "db"));
+        assertEquals(0, store.countVersions("app", "db"));
+        assertTrue(store.findVersionIncludingDeleted("app", "db", 3).orElseThrow().getDeleted());
+        assertTrue(store.existsLive("app", "other"));
+    }
+
+    @Test
+    void findKeysUnder_ListsKeysWithLiveLatestVersionInKeyOrder() {
+        // Arrange
+        put("app", "b", 1, "x");
+        put("app", "a", 1, "x");
+        put("app/db", "password", 1, "x");
+        put("apple", "core", 1, "x");
+        put("app_x", "escaped", 1, "x");
+        put("app", "gone", 1, "x");
+        delete(put("app", "gone", 2, "x"));
+
+        // Act & Assert
+        assertEquals(List.of(new SecretPathKey("app", "a"), new SecretPathKey("app", "b")),
+                store.findKeysUnder("app", false));
+        assertEquals(List.of(new SecretPathKey("app", "a"), new SecretPathKey("app", "b"),
+                        new SecretPathKey("app/db", "password")),
+                store.findKeysUnder("app", true));
+    }
+
+    @Test
+    void findKeysUnderAfter_PagesFromCursor() {
+        // Arrange
+        put("app", "a", 1, "x");
+        put("app", "b", 1, "x");
+        put("app/db", "password", 1, "x");
+
+        // Act
+        List<SecretPathKey> first = store.findKeysUnderAfter("app", true, "", "", 2);
+        List<SecretPathKey> second = store.findKeysUnderAfter("app", true, "app", "b", 2);
+
+        // Assert
+        assertEquals(List.of(new SecretPathKey("app", "a"), new SecretPathKey("app", "b")), first);
+        assertEquals(List.of(new SecretPathKey("app/db", "password")), second);
+    }
+
+    @Test
+    void streamKeysUnder_MatchesList() {
+        // Arrange
+        put("app", "a", 1, "x");
+        put("app/db", "password", 1, "x");
+
+        // Act
+        List<SecretPathKey> streamed;
+        try (Stream<SecretPathKey> keys = store.streamKeysUnder("app", true)) {
+            streamed = keys.collect(Collectors.toList());
+        }
+
+        // Assert
+        assertEquals(store.findKeysUnder("app", true), streamed);
+    }
+
+    @Test
+    void findPathsByPrefix_ReturnsDistinctLivePaths() {
+        // Arrange
+        put("app", "a", 1, "x");
+        put("app", "b", 1, "x");
+        put("app/db", "password", 1, "x");
+        delete(put("app/old", "key", 1, "x"));
+        put("other", "a", 1, "x");
+
+        // Act
+        List<String> paths = store.findPathsByPrefix("app").stream().sorted().toList();
+
+        // Assert
+        assertEquals(List.of("app", "app/db"), paths);
+    }
+
+    @Test
+    void versionHistory_CountsAndListsLiveVersionsNewestFirst() {
+        // Arrange
+        delete(put("app", "db", 1, "v1"));
+        put("app", "db", 2, "v2");
+        Secret v3 = new Secret("app", "db", bytes("v3"), alice);
+        v3.setVersion(3);
+        v3.setUpdatedBy(bob);
+        store.save(v3);
+
+        // Act
+        List<SecretVersionSummary> summaries = store.findVersionSummaries("app", "db");
+        List<Secret> range = store.findVersionRange("app", "db", 1, 3);
+
+        // Assert
+        assertEquals(2, store.countVersions("app", "db"));
+        assertEquals(2, store.findMinVersion("app", "db"));
+        assertNull(store.findMinVersion("app", "missing"));
+
+        assertEquals(List.of(3, 2), summaries.stream().map(SecretVersionSummary::version).toList());
+        assertEquals("alice", summaries.get(0).createdBy());
+        assertEquals("bob", summaries.get(0).updatedBy());
+        assertFalse(summaries.get(0).deleted());
+
+        assertEquals(List.of(3, 2), range.stream().map(Secret::getVersion).toList());
+        assertEquals("v3", value(range.get(0)));
+        assertEquals("alice", range.get(0).getCreatedBy().getName());
+        assertEquals("bob", range.get(0).getUpdatedBy().getName());
+        assertNull(range.get(1).getUpdatedBy());
+        assertEquals(List.of(2), store.findVersionRange("app", "db", 1, 2).stream().map(Secret::getVersion).toList());
+    }
+
+    @Test
+    void findVersionRange_NullBound_LeavesThatEndOpen() {
+        // Arrange
+        put("app", "db", 1, "v1");
+        put("app", "db", 2, "v2");
+        put("app", "db", 3, "v3");
+
+        // Act & Assert
+        assertEquals(List.of(3, 2, 1), versions(store.findVersionRange("app", "db", null, null)));
+        assertEquals(List.of(3, 2), versions(store.findVersionRange("app", "db", 2, null)));
+        assertEquals(List.of(2, 1), versions(store.findVersionRange("app", "db", null, 2)));
+    }
+
+    private Secret put(String path, String key, int version, String value) {
+        Secret secret = new Secret(path, key, bytes(value), alice);
+        secret.setVersion(version);
+        secret.setMetadata("{\"env\":\"test\"}");
+        return store.save(secret);
+    }
+
+    private void delete(Secret secret) {
+        secret.setDeleted(true);
+        secret.setDeletedAt(LocalDateTime.now());
+        store.save(secret);
+    }
+
+    private static List<Integer> versions(List<Secret> secrets) {
+        return secrets.stream().map(Secret::getVersion).toList();
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String value(Secret secret) {
+        return new String(secret.getEncryptedData(), StandardCharsets.UTF_8);
+    }
+}
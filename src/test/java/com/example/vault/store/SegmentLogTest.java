@@ -0,0 +1,188 @@
+package com.example.vault.store;
+
+import com.example.vault.dto.SecretPathKey;
+import com.example.vault.entity.Secret;
+import com.example.vault.util.SecretValueFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentLogTest {
+
+    private static final SecretPathKey DB = new SecretPathKey("app", "db");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void reopen_ReplaysLatestSnapshotOfEachVersion() throws IOException {
+        // Arrange
+        SegmentLog log = new SegmentLog(dir, 1 << 20, true);
+        log.insert(secret(1, "v1"));
+        Secret v2 = log.insert(secret(2, "v2"));
+        log.update(DB, entry -> entry.version() == 1, secret -> secret.setDeleted(true));
+        log.close();
+
+        // Act
+        SegmentLog reopened = new SegmentLog(dir, 1 << 20, true);
+
+        // Assert
+        assertTrue(reopened.read(DB, 1).orElseThrow().getDeleted());
+        Secret read = reopened.read(DB, 2).orElseThrow();
+        assertEquals("v2", value(read));
+        assertEquals(v2.getId(), read.getId());
+        assertEquals(v2.getCreatedAt(), read.getCreatedAt());
+        assertTrue(reopened.insert(secret(3, "v3")).getId() > v2.getId());
+        reopened.close();
+    }
+
+    @Test
+    void reopen_TruncatesTornRecordAtTail() throws IOException {
+        // Arrange
+        SegmentLog log = new SegmentLog(dir, 1 << 20, true);
+        log.insert(secret(1, "v1"));
+        log.close();
+        Path segment = dir.resolve("00000001.seg");
+        long size = Files.size(segment);
+        Files.write(segment, new byte[]{0, 0, 0, 100, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // Act
+        SegmentLog reopened = new SegmentLog(dir, 1 << 20, true);
+
+        // Assert
+        assertEquals(size, Files.size(segment));
+        assertEquals("v1", value(reopened.read(DB, 1).orElseThrow()));
+        reopened.insert(secret(2, "v2"));
+        reopened.close();
+        SegmentLog again = new SegmentLog(dir, 1 << 20, true);
+        assertEquals("v2", value(again.read(DB, 2).orElseThrow()));
+        again.close();
+    }
+
+    @Test
+    void reopen_ChecksumMismatchBeforeTail_FailsInsteadOfTruncating() throws IOException {
+        // Arrange
+        SegmentLog log = new SegmentLog(dir, 1 << 20, true);
+        log.insert(secret(1, "v1"));
+        log.insert(secret(2, "v2"));
+        log.insert(secret(3, "v3"));
+        log.close();
+        Path segment = dir.resolve("00000001.seg");
+        long size = Files.size(segment);
+        byte[] bytes = Files.readAllBytes(segment);
+        // Flip a byte in the body of the middle record
+        bytes[(int) (size / 2)] ^= 1;
+        Files.write(segment, bytes);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> new SegmentLog(dir, 1 << 20, true));
+        assertEquals(size, Files.size(segment));
+    }
+
+    @Test
+    void compact_MovesLiveRecordsAndDeletesGarbageSegments() throws IOException {
+        // Arrange: small segments so every snapshot rolls into a new one
+        SegmentLog log = new SegmentLog(dir, 200, true);
+        log.insert(secret(1, "v1"));
+        for (int i = 0; i < 4; i++) {
+            boolean deleted = i % 2 == 0;
+            log.update(DB, entry -> true, secret -> secret.setDeleted(deleted));
+        }
+        log.insert(secret(2, "v2"));
+        int before = log.segmentCount();
+
+        // Act
+        int removed = log.compact(0.5);
+
+        // Assert
+        assertTrue(removed > 0);
+        assertEquals(before - removed, log.segmentCount());
+        assertFalse(log.read(DB, 1).orElseThrow().getDeleted());
+        assertEquals("v2", value(log.read(DB, 2).orElseThrow()));
+        log.close();
+
+        SegmentLog reopened = new SegmentLog(dir, 200, true);
+        assertEquals("v1", value(reopened.read(DB, 1).orElseThrow()));
+        assertFalse(reopened.read(DB, 1).orElseThrow().getDeleted());
+        reopened.close();
+    }
+
+    @Test
+    void insert_ExistingVersion_ThrowsDuplicateKey() throws IOException {
+        // Arrange
+        SegmentLog log = new SegmentLog(dir, 1 << 20, true);
+        log.insert(secret(1, "v1"));
+
+        // Act & Assert
+        assertThrows(DuplicateKeyException.class, () -> log.insert(secret(1, "again")));
+        log.close();
+    }
+
+    @Test
+    void reopen_TextValueRecord_ReadsValueInBinaryFormat() throws IOException {
+        // Arrange: a record as written before values were binary, with a Base64 value
+        byte[] legacyValue = {10, 20, 30, 40};
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(body)) {
+            out.writeByte(1);
+            out.writeLong(7);
+            writeString(out, DB.path());
+            writeString(out, DB.key());
+            out.writeInt(1);
+            out.writeBoolean(false);
+            out.writeLong(Long.MIN_VALUE);
+            out.writeInt(-1);
+            out.writeLong(Long.MIN_VALUE);
+            out.writeLong(Long.MIN_VALUE);
+            out.writeLong(0);
+            out.writeLong(0);
+            writeString(out, Base64.getEncoder().encodeToString(legacyValue));
+        }
+        CRC32 crc = new CRC32();
+        crc.update(body.toByteArray());
+        Files.write(dir.resolve("00000001.seg"), ByteBuffer.allocate(8 + body.size())
+                .putInt(body.size()).putInt((int) crc.getValue()).put(body.toByteArray()).array());
+
+        // Act
+        SegmentLog log = new SegmentLog(dir, 1 << 20, true);
+
+        // Assert
+        assertArrayEquals(SecretValueFormat.fromLegacyBytes(legacyValue), log.read(DB, 1).orElseThrow().getEncryptedData());
+        assertTrue(log.insert(secret(2, "v2")).getId() > 7);
+        log.close();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String value(Secret secret) {
+        return new String(secret.getEncryptedData(), StandardCharsets.UTF_8);
+    }
+
+    private static Secret secret(int version, String value) {
+        Secret secret = new Secret(DB.path(), DB.key(), value.getBytes(StandardCharsets.UTF_8), null);
+        secret.setVersion(version);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        secret.setCreatedAt(now);
+        secret.setUpdatedAt(now);
+        return secret;
+    }
+}